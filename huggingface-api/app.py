@@ -2,8 +2,10 @@
 import logging
 import os
 import json
-from confluent_kafka import Consumer
-from pymongo import MongoClient
+import re
+from confluent_kafka import Consumer, Producer
+from pymongo import MongoClient, UpdateOne
+from pymongo.errors import BulkWriteError
 from bson.objectid import ObjectId
 from llama_cpp import Llama
 
@@ -13,6 +15,7 @@ logging.basicConfig(level=logging.DEBUG)
 hf_model_file = os.getenv('HUGGINGFACE_MODEL_FILE')
 kafka_bootstrap_server = os.getenv('KAFKA_BOOTSTRAP_SERVERS')
 kafka_topic_name = os.getenv("KAFKA_TOPIC_NAME")
+kafka_reply_topic_name = os.getenv("KAFKA_REPLY_TOPIC_NAME")
 mongo_database_port = os.getenv('MONGO_DB_PORT')
 mongo_database_name = os.getenv('MONGO_DB_DATABASE')
 mongo_database_user = os.getenv('MONGO_DB_USERNAME')
@@ -36,6 +39,11 @@ kafka_consumer = Consumer({
 
 kafka_consumer.subscribe([kafka_topic_name])
 
+# Configure Kafka Producer, notifies bot about named items
+kafka_producer = Producer({
+    'bootstrap.servers': kafka_bootstrap_server
+})
+
 # Configure MongoDB Connection
 mongo_client = MongoClient("mongodb://" + mongo_database_user + ":" + mongo_database_password +
                            "@" +
@@ -44,66 +52,130 @@ mongo_client = MongoClient("mongodb://" + mongo_database_user + ":" + mongo_data
 db = mongo_client[mongo_database_name]
 collection = db['items']
 
-def update_mongo_item(chat_id, item_id, generated_name):
+# Naming protocol: each Kafka message is an envelope {chatId, items: [{id, prompt}]} of one chat.
+# Whole batch is named by single prompt, items missing from model response are retried one by one.
+# Names are written back with single bulk write, then reply envelope {chatId, items: [{id, name, error}]}
+# is sent in order of request; each item either has a name or an error, independently of others.
+BATCH_SYSTEM_PROMPT = ("Generate short (1-3 words) names for items from fantasy dungeon crawler rpg by given "
+                       "numbered descriptions. Respond with exactly one line per item in form "
+                       "'<number>. <name>', without formatting, quotation marks or additional text")
+SINGLE_SYSTEM_PROMPT = ("Generate short (1-3 words) name for item from fantasy dungeon crawler rpg by given "
+                        "description. Respond with one line of text containing item name, without formatting, "
+                        "quotation marks, dots, or additional text")
+NAME_MAX_TOKENS = 10
+NUMBERED_LINE = re.compile(r'^\s*(\d+)\s*[.):-]\s*(.+?)\s*$')
+
+
+def complete_chat(system_prompt, user_prompt, max_tokens):
+    response = llm.create_chat_completion(
+        messages=[
+            {
+                "role": "system",
+                "content": system_prompt
+            },
+            {
+                "role": "user",
+                "content": user_prompt
+            }
+        ],
+        temperature=0.8,
+        max_tokens=max_tokens
+    )
+    logging.debug(f"Raw response from LLM: {response}")
+    return response['choices'][0]['message']['content']
+
+
+def clean_name(name):
+    name = name.strip().strip('"').strip("'").rstrip('.').strip()
+    return name if name else None
+
+
+def generate_batch_names(items):
+    """Returns names by item position, positions missing from model response are absent"""
+    user_prompt = "\n".join(f"{index + 1}. {item['prompt']}" for index, item in enumerate(items))
+    names = {}
     try:
-        logging.debug(f"Updating MongoDB item with chatId: {chat_id}, id: {item_id}, name: {generated_name}")
-        
-        # Find the document by chatId and id, and update the 'name' field
-        result = collection.update_one(
-            {'chatId': chat_id, '_id': ObjectId(item_id)},  # Query to find the document
-            {'$set': {'name': generated_name}}   # Update operation to set the 'name' field
-        )
+        content = complete_chat(BATCH_SYSTEM_PROMPT, user_prompt, (NAME_MAX_TOKENS + 4) * len(items))
+        for line in content.splitlines():
+            match = NUMBERED_LINE.match(line)
+            if match is None:
+                continue
+            position = int(match.group(1)) - 1
+            name = clean_name(match.group(2))
+            if 0 <= position < len(items) and position not in names and name:
+                names[position] = name
+    except Exception as e:
+        logging.error(f"Error generating batch names: {str(e)}")
+    return names
 
-        logging.debug(result)
-        
-        if result.matched_count > 0:
-            logging.debug("MongoDB item updated successfully")
-        else:
-            logging.warning(f"No MongoDB document updated for chatId: {chat_id}, id: {item_id}")
+
+def generate_single_name(item):
+    return clean_name(complete_chat(SINGLE_SYSTEM_PROMPT, item['prompt'], NAME_MAX_TOKENS))
+
+
+def update_mongo_items(chat_id, results):
+    named = [result for result in results if result['name'] is not None]
+    if not named:
+        return
+    try:
+        result = collection.bulk_write([
+            UpdateOne({'chatId': chat_id, '_id': ObjectId(item['id'])}, {'$set': {'name': item['name']}})
+            for item in named
+        ], ordered=False)
+        logging.debug(f"MongoDB items updated: {result.matched_count} of {len(named)}")
+    except BulkWriteError as e:
+        failed = {named[error['index']]['id']: error['errmsg'] for error in e.details.get('writeErrors', [])}
+        logging.error(f"Error updating MongoDB items: {failed}")
+        for item in results:
+            if item['id'] in failed:
+                item['name'] = None
+                item['error'] = failed[item['id']]
     except Exception as e:
         logging.error(f"Error updating MongoDB: {str(e)}")
+        for item in named:
+            item['name'] = None
+            item['error'] = str(e)
+
+
+def send_naming_reply(chat_id, results):
+    try:
+        reply = json.dumps({'chatId': chat_id, 'items': results})
+        kafka_producer.produce(kafka_reply_topic_name, key=str(chat_id), value=reply)
+        kafka_producer.poll(0)
+        logging.debug(f"Naming reply sent: {reply}")
+    except Exception as e:
+        logging.error(f"Error sending naming reply: {str(e)}")
+
 
 def process_kafka_message(message):
     try:
         # Deserialize the Kafka message to a Python dictionary
-        item_data = json.loads(message)
-        chat_id = item_data['chatId']
-        item_id = item_data['id']
-        prompt = item_data['prompt']
+        batch = json.loads(message)
+        chat_id = batch['chatId']
+        items = batch['items']
     except Exception as e:
         logging.error(f"Error processing Kafka message: {str(e)}")
+        return
 
-    logging.debug(f"Processing item with chatId: {chat_id}, id: {item_id}, prompt: {prompt}")
+    logging.debug(f"Processing batch of {len(items)} items with chatId: {chat_id}")
+    names = generate_batch_names(items)
+    results = []
+    for position, item in enumerate(items):
+        result = {'id': item['id'], 'name': names.get(position), 'error': None}
+        if result['name'] is None:
+            try:
+                result['name'] = generate_single_name(item)
+            except Exception as e:
+                logging.error(f"Error generating name for item {item['id']}: {str(e)}")
+                result['error'] = str(e)
+        if result['name'] is None and result['error'] is None:
+            result['error'] = "no name in model response"
+        logging.debug(f"Generated name for item {item['id']}: {result['name']}")
+        results.append(result)
 
-    # Run text-generation pipeline with the provided prompt
-    response = llm.create_chat_completion(
-        messages = [
-            { 
-                "role": "system", 
-                "content": "Generate short (1-3 words) name for item from fantasy dungeon crawler rpg by given "
-                           "description. Respond with one line of text containing item name, without formatting, "
-                           "quotation marks, dots, or additional text"},
-            {
-                "role": "user",
-                "content": prompt
-            }
-        ],
-        temperature = 0.8,
-        max_tokens = 10
-    )
-    try:
-        logging.debug(f"Raw response from LLM: {response}")
-        generated_name = json.loads(json.dumps(response))['choices'][0]['message']['content']
+    update_mongo_items(chat_id, results)
+    send_naming_reply(chat_id, results)
 
-        logging.debug(f"Response content: {response}")
-        # response = pipe(prompt, max_new_tokens=10)[0]['generated_text']
-        
-        logging.debug(f"Generated name: {generated_name}")
-    except Exception as e:
-        logging.error(f"Error processing LLM response: {str(e)}")
-        # Update MongoDB with the generated name where chatId and id match
-    update_mongo_item(chat_id, item_id, generated_name)
-   
 
 def consume_and_process_items():
     while True:
@@ -0,0 +1,183 @@
+package org.dungeon.prototype.bot;
+
+import org.dungeon.prototype.exception.CallbackParsingException;
+import org.dungeon.prototype.properties.CallbackType;
+import org.dungeon.prototype.properties.KeyboardButtonProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static org.dungeon.prototype.properties.CallbackType.*;
+
+/**
+ * Compares callback resolution through linear scan of buttons followed by chain of
+ * {@code startsWith}/{@code replaceFirst} checks, the way {@link CallbackHandler} used to do it,
+ * with compiled {@link CallbackRouter} and with decoding of {@link CallbackCodec} payload.
+ * Buttons mirror ones of application.yml.
+ * Run with {@code gradle jmh}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CallbackRouterBenchmark {
+    private static final String ITEM_ID = "66f1a2b3c4d5e6f7a8b9c0d1";
+
+    @Param({"btn_left", "btn_inventory", "btn_treasure_item_collected_" + ITEM_ID,
+            "btn_merchant_display_secondary_weapon_" + ITEM_ID, "btn_player_attribute_upgrade_power"})
+    private String callbackData;
+
+    private KeyboardButtonProperties keyboardButtonProperties;
+    private CallbackRouter callbackRouter;
+    private CallbackCodec callbackCodec;
+    private String encodedCallbackData;
+
+    @Setup
+    public void setUp() {
+        Map<CallbackType, KeyboardButtonProperties.KeyboardButtonAttributes> buttons = new LinkedHashMap<>();
+        addButton(buttons, BOT_START, "/start");
+        addButton(buttons, START_GAME, "btn_start_game");
+        addButton(buttons, CONTINUE_GAME, "btn_continue_game");
+        addButton(buttons, NEXT_LEVEL, "btn_next_level");
+        addButton(buttons, LEFT, "btn_left");
+        addButton(buttons, RIGHT, "btn_right");
+        addButton(buttons, FORWARD, "btn_forward");
+        addButton(buttons, BACK, "btn_turn_back");
+        addButton(buttons, ATTACK, "btn_attack");
+        addButton(buttons, SECONDARY_ATTACK, "btn_attack_sec");
+        addButton(buttons, MAP, "btn_map");
+        addButton(buttons, PLAYER_STATS, "btn_stats");
+        addButton(buttons, MENU_BACK, "btn_menu_back");
+        addButton(buttons, SHRINE, "btn_shrine_use");
+        addButton(buttons, MERCHANT_BUY_MENU, "btn_merchant_buy_menu");
+        addButton(buttons, MERCHANT_BUY_MENU_BACK, "btn_merchant_buy_menu");
+        addButton(buttons, MERCHANT_SELL_MENU, "btn_merchant_sell_menu");
+        addButton(buttons, MERCHANT_SELL_MENU_BACK, "btn_merchant_sell_menu");
+        addButton(buttons, RESTORE_ARMOR, "btn_restore_armor");
+        addButton(buttons, SHARPEN_WEAPON, "btn_sharpen_weapon");
+        addButton(buttons, TREASURE_OPEN, "btn_treasure_open");
+        addButton(buttons, TREASURE_GOLD_COLLECTED, "btn_treasure_gold_collected");
+        addButton(buttons, TREASURE_ITEM_COLLECTED, "btn_treasure_item_collected_%s");
+        addButton(buttons, TREASURE_COLLECT_ALL, "btn_treasure_collect_all");
+        addButton(buttons, INVENTORY, "btn_inventory");
+        addButton(buttons, HEAD, "btn_inventory_display_head_%s");
+        addButton(buttons, VEST, "btn_inventory_display_vest_%s");
+        addButton(buttons, GLOVES, "btn_inventory_display_gloves_%s");
+        addButton(buttons, BOOTS, "btn_inventory_display_boots_%s");
+        addButton(buttons, RIGHT_HAND, "btn_inventory_display_primary_weapon_%s");
+        addButton(buttons, LEFT_HAND, "btn_inventory_display_secondary_weapon_%s");
+        addButton(buttons, ITEM_INVENTORY, "btn_inventory_display_item_%s");
+        addButton(buttons, ITEM_INVENTORY_BACK, "btn_inventory");
+        addButton(buttons, ITEM_INVENTORY_EQUIP, "btn_inventory_item_equip_%s");
+        addButton(buttons, ITEM_INVENTORY_UN_EQUIP, "btn_inventory_item_un_equip_%s");
+        addButton(buttons, MERCHANT_SELL_DISPLAY_HEAD, "btn_merchant_display_head_%s");
+        addButton(buttons, MERCHANT_SELL_DISPLAY_VEST, "btn_merchant_display_vest_%s");
+        addButton(buttons, MERCHANT_SELL_DISPLAY_GLOVES, "btn_merchant_display_gloves_%s");
+        addButton(buttons, MERCHANT_SELL_DISPLAY_BOOTS, "btn_merchant_display_boots_%s");
+        addButton(buttons, MERCHANT_SELL_DISPLAY_RIGHT_HAND, "btn_merchant_display_primary_weapon_%s");
+        addButton(buttons, MERCHANT_SELL_DISPLAY_LEFT_HAND, "btn_merchant_display_secondary_weapon_%s");
+        addButton(buttons, MERCHANT_SELL_DISPLAY_ITEM, "btn_merchant_display_item_%s");
+        addButton(buttons, MERCHANT_ITEM_SELL, "btn_merchant_list_item_sell_%s");
+        addButton(buttons, MERCHANT_ITEM_BUY, "btn_merchant_list_item_buy_%s");
+        addButton(buttons, MERCHANT_SELL_PRICE, "btn_merchant_sell_%s");
+        addButton(buttons, MERCHANT_BUY_PRICE, "btn_merchant_buy_%s");
+        addButton(buttons, PLAYER_ATTRIBUTE_UPGRADE, "btn_player_attribute_upgrade_%s");
+        keyboardButtonProperties = new KeyboardButtonProperties();
+        keyboardButtonProperties.setButtons(buttons);
+        callbackRouter = new CallbackRouter(keyboardButtonProperties);
+        callbackCodec = new CallbackCodec();
+        CallbackRouter.Callback callback = callbackRouter.route(callbackData);
+        encodedCallbackData = isNull(callback.parameter()) ?
+                callbackCodec.encode(callback.type()) :
+                callbackCodec.encode(callback.type(), callback.parameter());
+    }
+
+    @Benchmark
+    public CallbackRouter.Callback route_linearScanAndRegex() {
+        try {
+            return new CallbackRouter.Callback(keyboardButtonProperties.getButtons().entrySet().stream()
+                    .filter(entry -> callbackData.equals(entry.getValue().getCallback()))
+                    .map(Map.Entry::getKey)
+                    .findFirst().orElseThrow(() -> new CallbackParsingException(callbackData)), null);
+        } catch (CallbackParsingException e) {
+            return parseCompositeCallbackData();
+        }
+    }
+
+    @Benchmark
+    public CallbackRouter.Callback route_compiledRouter() {
+        return callbackRouter.route(callbackData);
+    }
+
+    @Benchmark
+    public CallbackRouter.Callback decode_binaryPayload() {
+        return callbackCodec.decode(encodedCallbackData);
+    }
+
+    /**
+     * Same checks as former composite callback parsing, each check is evaluated
+     * as every matching branch used to be executed
+     */
+    private CallbackRouter.Callback parseCompositeCallbackData() {
+        CallbackRouter.Callback callback = null;
+        if (callbackData.startsWith("btn_treasure_item_collected_")) {
+            callback = parse(TREASURE_ITEM_COLLECTED, "btn_treasure_item_collected_");
+        }
+        if (callbackData.startsWith("btn_inventory_display_")) {
+            callback = parseIfMatches(callback, ITEM_INVENTORY, "btn_inventory_display_item_");
+            callback = parseIfMatches(callback, HEAD, "btn_inventory_display_head_");
+            callback = parseIfMatches(callback, VEST, "btn_inventory_display_vest_");
+            callback = parseIfMatches(callback, GLOVES, "btn_inventory_display_gloves_");
+            callback = parseIfMatches(callback, BOOTS, "btn_inventory_display_boots_");
+            callback = parseIfMatches(callback, RIGHT_HAND, "btn_inventory_display_primary_weapon_");
+            callback = parseIfMatches(callback, LEFT_HAND, "btn_inventory_display_secondary_weapon_");
+        }
+        if (callbackData.startsWith("btn_inventory_item_")) {
+            callback = parseIfMatches(callback, ITEM_INVENTORY_EQUIP, "btn_inventory_item_equip_");
+            callback = parseIfMatches(callback, ITEM_INVENTORY_UN_EQUIP, "btn_inventory_item_un_equip_");
+        }
+        if (callbackData.startsWith("btn_merchant_")) {
+            callback = parseIfMatches(callback, MERCHANT_ITEM_SELL, "btn_merchant_list_item_sell_");
+            callback = parseIfMatches(callback, MERCHANT_ITEM_BUY, "btn_merchant_list_item_buy_");
+            callback = parseIfMatches(callback, MERCHANT_SELL_PRICE, "btn_merchant_sell_");
+            callback = parseIfMatches(callback, MERCHANT_BUY_PRICE, "btn_merchant_buy_");
+            if (callbackData.startsWith("btn_merchant_display_")) {
+                callback = parseIfMatches(callback, MERCHANT_SELL_DISPLAY_ITEM, "btn_merchant_display_item_");
+                callback = parseIfMatches(callback, MERCHANT_SELL_DISPLAY_HEAD, "btn_merchant_display_head_");
+                callback = parseIfMatches(callback, MERCHANT_SELL_DISPLAY_VEST, "btn_merchant_display_vest_");
+                callback = parseIfMatches(callback, MERCHANT_SELL_DISPLAY_GLOVES, "btn_merchant_display_gloves_");
+                callback = parseIfMatches(callback, MERCHANT_SELL_DISPLAY_BOOTS, "btn_merchant_display_boots_");
+                callback = parseIfMatches(callback, MERCHANT_SELL_DISPLAY_RIGHT_HAND, "btn_merchant_display_primary_weapon_");
+                callback = parseIfMatches(callback, MERCHANT_SELL_DISPLAY_LEFT_HAND, "btn_merchant_display_secondary_weapon_");
+            }
+        }
+        if (callbackData.startsWith("btn_player_attribute_upgrade_")) {
+            callback = parse(PLAYER_ATTRIBUTE_UPGRADE, "btn_player_attribute_upgrade_");
+        }
+        return callback;
+    }
+
+    private CallbackRouter.Callback parseIfMatches(CallbackRouter.Callback callback, CallbackType callbackType, String prefix) {
+        return callbackData.startsWith(prefix) ? parse(callbackType, prefix) : callback;
+    }
+
+    private CallbackRouter.Callback parse(CallbackType callbackType, String prefix) {
+        return new CallbackRouter.Callback(callbackType, callbackData.replaceFirst("^" + prefix, ""));
+    }
+
+    private static void addButton(Map<CallbackType, KeyboardButtonProperties.KeyboardButtonAttributes> buttons,
+                                  CallbackType callbackType, String callback) {
+        KeyboardButtonProperties.KeyboardButtonAttributes attributes = new KeyboardButtonProperties.KeyboardButtonAttributes();
+        attributes.setCallback(callback);
+        buttons.put(callbackType, attributes);
+    }
+}
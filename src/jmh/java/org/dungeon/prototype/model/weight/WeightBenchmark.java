@@ -0,0 +1,45 @@
+package org.dungeon.prototype.model.weight;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares distance evaluation of monster optimizer objective:
+ * immutable weight arithmetic against reused accumulator.
+ * Run with {@code gradle jmh}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeightBenchmark {
+    private final Weight target = Weight.builder().hp(120.0).maxHp(120.0).attack(0.7)
+            .criticalHitChance(12.5).chanceToKnockout(0.02).build();
+    private final WeightAccumulator accumulator = new WeightAccumulator();
+    private double hp = 100.0;
+
+    @Benchmark
+    public double distance_immutable() {
+        hp += 1e-9;
+        final Weight current = Weight.builder().hp(hp).maxHp(hp).attack(0.65)
+                .criticalHitChance(11.0).chanceToKnockout(0.03).build();
+        return target.add(current.getNegative()).getNorm();
+    }
+
+    @Benchmark
+    public double distance_accumulator() {
+        hp += 1e-9;
+        return accumulator.reset()
+                .set(Weight.HP, hp)
+                .set(Weight.MAX_HP, hp)
+                .set(Weight.ATTACK, 0.65)
+                .set(Weight.CRITICAL_HIT_CHANCE, 11.0)
+                .set(Weight.CHANCE_TO_KNOCKOUT, 0.03)
+                .distanceTo(target);
+    }
+}
@@ -0,0 +1,91 @@
+package org.dungeon.prototype.service.room.generation.room.content;
+
+import org.apache.commons.math3.random.Well19937c;
+import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
+import org.dungeon.prototype.util.KdTree;
+import org.dungeon.prototype.util.RandomUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.dungeon.prototype.util.RoomGenerationUtils.calculateMonsterWeight;
+
+/**
+ * Compares monster optimizer with stat table lookup by latency,
+ * mean relative weight error of each engine is printed after trial.
+ * Run with {@code gradle jmh}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MonsterGenerationBenchmark {
+    private static final int TARGETS = 64;
+
+    @Param({"1", "10", "50"})
+    private int level;
+
+    private KdTree<double[]> table;
+    private Weight[] targets;
+    private int next;
+    private double optimizerError;
+    private long optimizerRuns;
+    private double tableError;
+    private long tableRuns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = RandomUtil.withSeed(42L, () -> MonsterStatTable.sampleTable(8192));
+        targets = new Weight[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            final double spread = 1.0 + 0.2 * i / TARGETS;
+            targets[i] = Weight.builder()
+                    .hp(20.0 * level * spread)
+                    .maxHp(20.0 * level * spread)
+                    .armor(3.0 * level)
+                    .attack(0.4 + 0.4 * i / TARGETS)
+                    .criticalHitChance(2.0 * level * spread)
+                    .chanceToKnockout(0.25 * i / TARGETS)
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nlevel %d: optimizer error %.4f, table error %.4f%n", level,
+                optimizerError / Math.max(1, optimizerRuns), tableError / Math.max(1, tableRuns));
+    }
+
+    @Benchmark
+    public double[] optimizer() {
+        final Weight target = targets[next++ % TARGETS];
+        final double[] attributes = MonsterFactory.optimizeAttributes(target, new Well19937c(next));
+        optimizerError += getRelativeError(target, attributes);
+        optimizerRuns++;
+        return attributes;
+    }
+
+    @Benchmark
+    public double[] table() {
+        final Weight target = targets[next++ % TARGETS];
+        final double[] attributes = MonsterStatTable.lookup(table, target, 8);
+        tableError += getRelativeError(target, attributes);
+        tableRuns++;
+        return attributes;
+    }
+
+    private static double getRelativeError(Weight target, double[] attributes) {
+        return calculateMonsterWeight(new WeightAccumulator(), (int) attributes[0], (int) attributes[0],
+                (int) attributes[1], attributes[2], attributes[3], attributes[4], attributes[5],
+                attributes[10], attributes[11], attributes[12], attributes[13]).distanceTo(target) / target.getNorm();
+    }
+}
@@ -0,0 +1,79 @@
+package org.dungeon.prototype.util;
+
+import org.apache.commons.math3.distribution.EnumeratedDistribution;
+import org.apache.commons.math3.random.RandomDataGenerator;
+import org.apache.commons.math3.util.Pair;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.simple.RandomSource;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial;
+import org.dungeon.prototype.model.room.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.dungeon.prototype.model.room.RoomType.DRAGON;
+import static org.dungeon.prototype.model.room.RoomType.SWAMP_BEAST;
+import static org.dungeon.prototype.model.room.RoomType.VAMPIRE;
+import static org.dungeon.prototype.model.room.RoomType.WEREWOLF;
+import static org.dungeon.prototype.model.room.RoomType.ZOMBIE;
+
+/**
+ * Compares sampling through per-call {@link EnumeratedDistribution},
+ * the way {@link RandomUtil} used to do it, with current samplers.
+ * Run with {@code gradle jmh}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RandomUtilBenchmark {
+    private static final List<WeaponMaterial> MATERIALS = List.of(WeaponMaterial.values());
+    private static final List<RoomType> MONSTERS = List.of(WEREWOLF, SWAMP_BEAST, VAMPIRE, DRAGON, ZOMBIE);
+    private static final double[] MONSTER_WEIGHTS = {0.35, 0.1, 0.25, 0.2, 0.1};
+    private static final AliasTable<RoomType> MONSTER_TABLE = AliasTable.of(MONSTERS, MONSTER_WEIGHTS);
+
+    private final RandomDataGenerator legacyRandom = new RandomDataGenerator();
+    private final UniformRandomProvider rng = RandomSource.XO_RO_SHI_RO_128_PP.create();
+
+    @Benchmark
+    public WeaponMaterial enumValue_enumeratedDistribution() {
+        return new EnumeratedDistribution<>(legacyRandom.getRandomGenerator(),
+                MATERIALS.stream().map(material -> new Pair<>(material, 1.0)).toList()).sample();
+    }
+
+    @Benchmark
+    public WeaponMaterial enumValue_randomUtil() {
+        return RandomUtil.getRandomEnumValue(MATERIALS);
+    }
+
+    @Benchmark
+    public Boolean coin_enumeratedDistribution() {
+        return new EnumeratedDistribution<>(legacyRandom.getRandomGenerator(),
+                List.of(Pair.create(true, 0.3), Pair.create(false, 0.7))).sample();
+    }
+
+    @Benchmark
+    public Boolean coin_randomUtil() {
+        return RandomUtil.flipAdjustedCoin(0.3);
+    }
+
+    @Benchmark
+    public RoomType weighted_enumeratedDistributionFreshGenerator() {
+        return new EnumeratedDistribution<>(List.of(
+                Pair.create(WEREWOLF, MONSTER_WEIGHTS[0]),
+                Pair.create(SWAMP_BEAST, MONSTER_WEIGHTS[1]),
+                Pair.create(VAMPIRE, MONSTER_WEIGHTS[2]),
+                Pair.create(DRAGON, MONSTER_WEIGHTS[3]),
+                Pair.create(ZOMBIE, MONSTER_WEIGHTS[4]))).sample();
+    }
+
+    @Benchmark
+    public RoomType weighted_aliasTable() {
+        return MONSTER_TABLE.sample(rng);
+    }
+}
@@ -67,8 +67,7 @@ public class GeneralAspectHandler {
                             monster.setAttackPattern(monster.getDefaultAttackPattern());
                         }
                         monster.setCurrentAttack(monster.getAttackPattern().poll());
-                        monsterService.updateMonster(monster);
-                        roomService.saveOrUpdateRoomContent(monsterRoom);
+                        monsterService.updateMonster(currentRoom, monster);
                     }
                 }
             }
@@ -105,7 +104,7 @@ public class GeneralAspectHandler {
                                 monster.setAttackPattern(monster.getDefaultAttackPattern());
                             }
                             monster.setCurrentAttack(monster.getAttackPattern().poll());
-                            monsterService.updateMonster(effectService.updateMonsterEffects(monsterRoom.getMonster()));
+                            monsterService.updateMonster(room, effectService.updateMonsterEffects(monsterRoom.getMonster()));
                             messageService.sendMonsterRoomMessage(chatId, player, room);
                         }
                     }
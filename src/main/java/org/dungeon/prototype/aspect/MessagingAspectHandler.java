@@ -6,6 +6,7 @@ import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.dungeon.prototype.bot.DungeonBot;
+import org.dungeon.prototype.bot.OutboundMessageScheduler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
@@ -18,6 +19,8 @@ import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 public class MessagingAspectHandler {
     @Autowired
     DungeonBot dungeonBot;
+    @Autowired
+    OutboundMessageScheduler outboundMessageScheduler;
 
     @Before(value = "@annotation(org.dungeon.prototype.annotations.aspect.AnswerCallback)")
     public void answerCallback(JoinPoint joinPoint) {
@@ -46,14 +49,14 @@ public class MessagingAspectHandler {
     private void handleSendingPhotoMessage(JoinPoint joinPoint, SendPhoto message) {
         Object[] args = joinPoint.getArgs();
         if (args.length > 0 && args[0] instanceof Long chatId) {
-            dungeonBot.sendMessage(chatId, message);
+            outboundMessageScheduler.send(chatId, message);
         }
     }
 
     private void handleSendingMessage(JoinPoint joinPoint, SendMessage message) {
         Object[] args = joinPoint.getArgs();
         if (args.length > 0 && args[0] instanceof Long chatId) {
-            dungeonBot.sendMessage(chatId, message);
+            outboundMessageScheduler.send(chatId, message);
         }
     }
 }
@@ -0,0 +1,201 @@
+package org.dungeon.prototype.bot;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.exception.CallbackParsingException;
+import org.dungeon.prototype.properties.CallbackType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static org.dungeon.prototype.properties.CallbackType.*;
+
+/**
+ * Encodes callback data of buttons into compact binary payload:
+ * version byte, action code byte, parameter kind byte and parameter, armoured with base64url
+ * and marked with {@value #MARKER}. Hex ids (i.e. item ids) are written as raw bytes, numbers as varints.
+ * Callback data without marker comes from buttons sent before payload was introduced
+ * and is resolved by {@link CallbackRouter}
+ */
+@Slf4j
+@Component
+public class CallbackCodec {
+    private static final char MARKER = '~';
+    private static final byte VERSION = 1;
+    private static final int MAX_CALLBACK_DATA_LENGTH = 64;
+    /**
+     * Action codes are indexes in this list, so it's append only:
+     * buttons already sent to chats decode by them
+     */
+    private static final List<CallbackType> ACTIONS = List.of(
+            BOT_START, CONTINUE_GAME, START_GAME, NEXT_LEVEL, LEFT, RIGHT, FORWARD, BACK, TREASURE_OPEN,
+            ATTACK, SECONDARY_ATTACK, SHRINE, MERCHANT_BUY_MENU, MERCHANT_BUY_MENU_BACK, MERCHANT_SELL_MENU,
+            MERCHANT_SELL_MENU_BACK, INVENTORY, PLAYER_STATS, MENU_BACK, TREASURE_GOLD_COLLECTED,
+            TREASURE_ITEM_COLLECTED, TREASURE_COLLECT_ALL, HEAD, VEST, GLOVES, BOOTS, RIGHT_HAND, LEFT_HAND,
+            MERCHANT_SELL_DISPLAY_HEAD, MERCHANT_SELL_DISPLAY_VEST, MERCHANT_SELL_DISPLAY_GLOVES,
+            MERCHANT_SELL_DISPLAY_BOOTS, MERCHANT_SELL_DISPLAY_RIGHT_HAND, MERCHANT_SELL_DISPLAY_LEFT_HAND,
+            MERCHANT_SELL_DISPLAY_ITEM, ITEM_INVENTORY, ITEM_INVENTORY_BACK, ITEM_INVENTORY_EQUIP,
+            ITEM_INVENTORY_UN_EQUIP, MERCHANT_ITEM_SELL, MERCHANT_ITEM_BUY, MERCHANT_SELL_PRICE,
+            MERCHANT_BUY_PRICE, MAP, RESTORE_ARMOR, SHARPEN_WEAPON, PLAYER_ATTRIBUTE_UPGRADE);
+    private static final Map<CallbackType, Byte> ACTION_CODES = new EnumMap<>(CallbackType.class);
+
+    static {
+        for (int i = 0; i < ACTIONS.size(); i++) {
+            ACTION_CODES.put(ACTIONS.get(i), (byte) i);
+        }
+    }
+
+    private static final byte NO_PARAMETER = 0;
+    private static final byte HEX_PARAMETER = 1;
+    private static final byte NUMBER_PARAMETER = 2;
+    private static final byte TEXT_PARAMETER = 3;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Autowired
+    private CallbackRouter callbackRouter;
+
+    /**
+     * Encodes callback data of button without parameter
+     */
+    public String encode(CallbackType callbackType) {
+        return armour(header(callbackType, NO_PARAMETER));
+    }
+
+    /**
+     * Encodes callback data of button with numeric parameter
+     */
+    public String encode(CallbackType callbackType, int parameter) {
+        val payload = header(callbackType, NUMBER_PARAMETER);
+        writeVarint(payload, (parameter << 1) ^ (parameter >> 31));
+        return armour(payload);
+    }
+
+    /**
+     * Encodes callback data of button with id or other text parameter
+     */
+    public String encode(CallbackType callbackType, String parameter) {
+        if (isHex(parameter)) {
+            val payload = header(callbackType, HEX_PARAMETER);
+            writeBytes(payload, HEX.parseHex(parameter));
+            return armour(payload);
+        }
+        val payload = header(callbackType, TEXT_PARAMETER);
+        writeBytes(payload, parameter.getBytes(StandardCharsets.UTF_8));
+        return armour(payload);
+    }
+
+    /**
+     * Decodes callback data of pressed button
+     *
+     * @param callbackData data of pressed button
+     * @return callback type with parameter formatted same way it was passed on encoding
+     * @throws CallbackParsingException if data is malformed or matches no button
+     */
+    public CallbackRouter.Callback decode(String callbackData) {
+        if (callbackData.isEmpty() || callbackData.charAt(0) != MARKER) {
+            return callbackRouter.route(callbackData);
+        }
+        try {
+            val payload = ByteBuffer.wrap(Base64.getUrlDecoder().decode(callbackData.substring(1)));
+            val version = payload.get();
+            if (version != VERSION) {
+                log.warn("Callback {} has unsupported version {}", callbackData, version);
+                throw new CallbackParsingException(callbackData);
+            }
+            val callbackType = ACTIONS.get(Byte.toUnsignedInt(payload.get()));
+            val parameter = switch (payload.get()) {
+                case NO_PARAMETER -> null;
+                case HEX_PARAMETER -> HEX.formatHex(readBytes(payload, callbackData));
+                case NUMBER_PARAMETER -> {
+                    val value = readVarint(payload);
+                    yield Integer.toString((value >>> 1) ^ -(value & 1));
+                }
+                case TEXT_PARAMETER -> new String(readBytes(payload, callbackData), StandardCharsets.UTF_8);
+                default -> throw new CallbackParsingException(callbackData);
+            };
+            return new CallbackRouter.Callback(callbackType, parameter);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new CallbackParsingException(callbackData);
+        }
+    }
+
+    private static ByteArrayOutputStream header(CallbackType callbackType, byte parameterKind) {
+        val code = ACTION_CODES.get(callbackType);
+        if (isNull(code)) {
+            throw new IllegalArgumentException("No action code for " + callbackType);
+        }
+        val payload = new ByteArrayOutputStream(16);
+        payload.write(VERSION);
+        payload.write(code);
+        payload.write(parameterKind);
+        return payload;
+    }
+
+    private static String armour(ByteArrayOutputStream payload) {
+        val callbackData = MARKER + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.toByteArray());
+        if (callbackData.length() > MAX_CALLBACK_DATA_LENGTH) {
+            log.warn("Callback data {} exceeds {} bytes", callbackData, MAX_CALLBACK_DATA_LENGTH);
+        }
+        return callbackData;
+    }
+
+    private static boolean isHex(String value) {
+        if (value.isEmpty() || value.length() % 2 != 0) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            val c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeBytes(ByteArrayOutputStream payload, byte[] bytes) {
+        writeVarint(payload, bytes.length);
+        payload.writeBytes(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer payload, String callbackData) {
+        val length = readVarint(payload);
+        //length is checked before allocation, so forged payload can't claim more bytes than it has
+        if (length < 0 || length > payload.remaining()) {
+            throw new CallbackParsingException(callbackData);
+        }
+        val bytes = new byte[length];
+        payload.get(bytes);
+        return bytes;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream payload, int value) {
+        while ((value & ~0x7F) != 0) {
+            payload.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        payload.write(value);
+    }
+
+    private static int readVarint(ByteBuffer payload) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            val b = payload.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -9,7 +9,6 @@ import org.dungeon.prototype.exception.RestrictedOperationException;
 import org.dungeon.prototype.model.player.PlayerAttribute;
 import org.dungeon.prototype.model.room.content.MonsterRoom;
 import org.dungeon.prototype.properties.CallbackType;
-import org.dungeon.prototype.properties.KeyboardButtonProperties;
 import org.dungeon.prototype.service.BattleService;
 import org.dungeon.prototype.service.PlayerService;
 import org.dungeon.prototype.service.effect.EffectService;
@@ -18,12 +17,13 @@ import org.dungeon.prototype.service.item.generation.ItemGenerator;
 import org.dungeon.prototype.service.level.LevelService;
 import org.dungeon.prototype.service.room.RoomService;
 import org.dungeon.prototype.service.room.TreasureService;
+import org.dungeon.prototype.util.SeedUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
 import static org.dungeon.prototype.properties.CallbackType.*;
@@ -53,7 +53,7 @@ public class CallbackHandler {
     @Autowired
     private TreasureService treasureService;
     @Autowired
-    private KeyboardButtonProperties keyboardButtonProperties;
+    private CallbackCodec callbackCodec;
 
     /**
      * Handles callbacks from incoming updates
@@ -63,164 +63,98 @@ public class CallbackHandler {
      */
     @AnswerCallback
     public void handleCallbackQuery(Long chatId, CallbackQuery callbackQuery) {
-        val callData = callbackQuery.getData();
+        final CallbackRouter.Callback callback;
         try {
-            val callBackData = getCallbackType(callData);
-
-            switch (callBackData) {
-                case START_GAME ->
-                        handleStartingNewGame(chatId);
-                case CONTINUE_GAME ->
-                        handleContinuingGame(chatId);
-                case NEXT_LEVEL ->
-                        handleNextLevel(chatId);
-                case LEFT, RIGHT, FORWARD, BACK ->
-                        handleMovingToRoom(chatId, callBackData);
-                case ATTACK, SECONDARY_ATTACK ->
-                        handleAttack(chatId, callBackData);
-                case TREASURE_OPEN ->
-                        handleOpeningTreasure(chatId);
-                case TREASURE_GOLD_COLLECTED ->
-                        handleCollectingTreasureGold(chatId);
-                case SHRINE ->
-                        handleShrineRefill(chatId);
-                case MERCHANT_BUY_MENU, MERCHANT_BUY_MENU_BACK ->
-                        handleOpenMerchantBuyMenu(chatId);
-                case MERCHANT_SELL_MENU, MERCHANT_SELL_MENU_BACK ->
-                        handleOpenMerchantSellMenu(chatId);
-                case MAP ->
-                        handleSendingMapMessage(chatId);
-                case INVENTORY, ITEM_INVENTORY_BACK ->
-                        handleSendingInventoryMessage(chatId);
-                case PLAYER_STATS ->
-                        playerService.sendPlayerStatsMessage(chatId);
-                case MENU_BACK ->
-                        handleSendingRoomMessage(chatId);
-                case TREASURE_COLLECT_ALL ->
-                        handleCollectingTreasure(chatId);
-                case RESTORE_ARMOR -> roomService.restoreArmor(chatId);
-                case SHARPEN_WEAPON -> inventoryService.sharpenWeapon(chatId);
-            }
+            callback = callbackCodec.decode(callbackQuery.getData());
         } catch (CallbackParsingException e) {
-            log.warn("Processing composite callback, parsing failed: {}", e.getMessage());
-            parseCompositeCallbackData(chatId, callData);
-        }
-
-    }
-
-    private void parseCompositeCallbackData(Long chatId, String callData) {
-        if (callData.startsWith("btn_treasure_item_collected_")) {
-            val itemId = callData.replaceFirst("^" + "btn_treasure_item_collected_", "");
-            treasureService.collectTreasureItem(chatId, itemId);
-        }
-        if (callData.startsWith("btn_inventory_display_")) {
-            if (callData.startsWith("btn_inventory_display_item_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_display_item_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, INVENTORY, Optional.empty());
-            }
-
-            if (callData.startsWith("btn_inventory_display_head_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_display_head_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, INVENTORY, Optional.of(HEAD));
-            }
-            if (callData.startsWith("btn_inventory_display_vest_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_display_vest_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, INVENTORY, Optional.of(VEST));
-            }
-            if (callData.startsWith("btn_inventory_display_gloves_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_display_gloves_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, INVENTORY, Optional.of(GLOVES));
-            }
-            if (callData.startsWith("btn_inventory_display_boots_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_display_boots_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, INVENTORY, Optional.of(BOOTS));
-            }
-            if (callData.startsWith("btn_inventory_display_primary_weapon_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_display_primary_weapon_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, INVENTORY, Optional.of(RIGHT_HAND));
-            }
-            if (callData.startsWith("btn_inventory_display_secondary_weapon_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_display_secondary_weapon_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, INVENTORY, Optional.of(LEFT_HAND));
-            }
+            log.warn("Processing callback, parsing failed: {}", e.getMessage());
+            return;
         }
-        if (callData.startsWith("btn_inventory_item_")) {
-            if (callData.startsWith("btn_inventory_item_equip_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_item_equip_", "");
-                inventoryService.equipItem(chatId, itemId);
-            }
-            if (callData.startsWith("btn_inventory_item_un_equip_")) {
-                val itemId = callData.replaceFirst("^" + "btn_inventory_item_un_equip_", "");
-                inventoryService.unEquipItem(chatId, itemId);
-            }
+        val callBackData = callback.type();
+        val parameter = callback.parameter();
+        switch (callBackData) {
+            case START_GAME ->
+                    handleStartingNewGame(chatId);
+            case CONTINUE_GAME ->
+                    handleContinuingGame(chatId);
+            case NEXT_LEVEL ->
+                    handleNextLevel(chatId);
+            case LEFT, RIGHT, FORWARD, BACK ->
+                    handleMovingToRoom(chatId, callBackData);
+            case ATTACK, SECONDARY_ATTACK ->
+                    handleAttack(chatId, callBackData);
+            case TREASURE_OPEN ->
+                    handleOpeningTreasure(chatId);
+            case TREASURE_GOLD_COLLECTED ->
+                    handleCollectingTreasureGold(chatId);
+            case SHRINE ->
+                    handleShrineRefill(chatId);
+            case MERCHANT_BUY_MENU, MERCHANT_BUY_MENU_BACK ->
+                    handleOpenMerchantBuyMenu(chatId);
+            case MERCHANT_SELL_MENU, MERCHANT_SELL_MENU_BACK ->
+                    handleOpenMerchantSellMenu(chatId);
+            case MAP ->
+                    handleSendingMapMessage(chatId);
+            case INVENTORY, ITEM_INVENTORY_BACK ->
+                    handleSendingInventoryMessage(chatId);
+            case PLAYER_STATS ->
+                    playerService.sendPlayerStatsMessage(chatId);
+            case MENU_BACK ->
+                    handleSendingRoomMessage(chatId);
+            case TREASURE_COLLECT_ALL ->
+                    handleCollectingTreasure(chatId);
+            case RESTORE_ARMOR -> roomService.restoreArmor(chatId);
+            case SHARPEN_WEAPON -> inventoryService.sharpenWeapon(chatId);
+            case TREASURE_ITEM_COLLECTED ->
+                    treasureService.collectTreasureItem(chatId, parameter);
+            case ITEM_INVENTORY ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, INVENTORY, Optional.empty());
+            case HEAD, VEST, GLOVES, BOOTS, RIGHT_HAND, LEFT_HAND ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, INVENTORY, Optional.of(callBackData));
+            case ITEM_INVENTORY_EQUIP ->
+                    inventoryService.equipItem(chatId, parameter);
+            case ITEM_INVENTORY_UN_EQUIP ->
+                    inventoryService.unEquipItem(chatId, parameter);
+            case MERCHANT_ITEM_SELL, MERCHANT_SELL_DISPLAY_ITEM ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, MERCHANT_SELL_MENU, Optional.empty());
+            case MERCHANT_SELL_DISPLAY_HEAD ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, MERCHANT_SELL_MENU, Optional.of(HEAD));
+            case MERCHANT_SELL_DISPLAY_VEST ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, MERCHANT_SELL_MENU, Optional.of(VEST));
+            case MERCHANT_SELL_DISPLAY_GLOVES ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, MERCHANT_SELL_MENU, Optional.of(GLOVES));
+            case MERCHANT_SELL_DISPLAY_BOOTS ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, MERCHANT_SELL_MENU, Optional.of(BOOTS));
+            case MERCHANT_SELL_DISPLAY_RIGHT_HAND ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, MERCHANT_SELL_MENU, Optional.of(RIGHT_HAND));
+            case MERCHANT_SELL_DISPLAY_LEFT_HAND ->
+                    inventoryService.openInventoryItemInfo(chatId, parameter, MERCHANT_SELL_MENU, Optional.of(LEFT_HAND));
+            case MERCHANT_ITEM_BUY ->
+                    roomService.openMerchantBuyItem(chatId, parameter);
+            case MERCHANT_SELL_PRICE ->
+                    inventoryService.sellItem(chatId, parameter);
+            case MERCHANT_BUY_PRICE ->
+                    inventoryService.buyItem(chatId, parameter);
+            case PLAYER_ATTRIBUTE_UPGRADE ->
+                    roomService.upgradePlayerAttribute(chatId, PlayerAttribute.fromValue(parameter));
+            default ->
+                    log.warn("Callback {} isn't handled", callBackData);
         }
-        if (callData.startsWith("btn_merchant_")) {
-
-            if (callData.startsWith("btn_merchant_list_item_sell_")) {
-                val itemId = callData.replaceFirst("^" + "btn_merchant_list_item_sell_", "");
-                inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.empty());
-            }
-
-            if (callData.startsWith("btn_merchant_list_item_buy_")) {
-                val itemId = callData.replaceFirst("^" + "btn_merchant_list_item_buy_", "");
-                roomService.openMerchantBuyItem(chatId, itemId);
-            }
-            if (callData.startsWith("btn_merchant_sell_")) {
-                val itemId = callData.replaceFirst("^" + "btn_merchant_sell_", "");
-                inventoryService.sellItem(chatId, itemId);
-            }
-            if (callData.startsWith("btn_merchant_buy_")) {
-                val itemId = callData.replaceFirst("^" + "btn_merchant_buy_", "");
-                inventoryService.buyItem(chatId, itemId);
-            }
-
-            if (callData.startsWith("btn_merchant_display_")) {
-                if (callData.startsWith("btn_merchant_display_item_")) {
-                    val itemId = callData.replaceFirst("^" + "btn_merchant_display_item_", "");
-                    inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.empty());
-                }
-                if (callData.startsWith("btn_merchant_display_head_")) {
-                    val itemId = callData.replaceFirst("^" + "btn_merchant_display_head_", "");
-                    inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.of(HEAD));
-                }
-                if (callData.startsWith("btn_merchant_display_vest_")) {
-                    val itemId = callData.replaceFirst("^" + "btn_merchant_display_vest_", "");
-                    inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.of(VEST));
-                }
-                if (callData.startsWith("btn_merchant_display_gloves_")) {
-                    val itemId = callData.replaceFirst("^" + "btn_merchant_display_gloves_", "");
-                    inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.of(GLOVES));
-                }
-                if (callData.startsWith("btn_merchant_display_boots_")) {
-                    val itemId = callData.replaceFirst("^" + "btn_merchant_display_boots_", "");
-                    inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.of(BOOTS));
-                }
-                if (callData.startsWith("btn_merchant_display_primary_weapon_")) {
-                    val itemId = callData.replaceFirst("^" + "btn_merchant_display_primary_weapon_", "");
-                    inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.of(RIGHT_HAND));
-                }
-                if (callData.startsWith("btn_merchant_display_secondary_weapon_")) {
-                    val itemId = callData.replaceFirst("^" + "btn_merchant_display_secondary_weapon_", "");
-                    inventoryService.openInventoryItemInfo(chatId, itemId, MERCHANT_SELL_MENU, Optional.of(LEFT_HAND));
-                }
-            }
-        }
-        if (callData.startsWith("btn_player_attribute_upgrade_")) {
-            val playerAttribute = PlayerAttribute.fromValue(callData.replaceFirst("^" + "btn_player_attribute_upgrade_", ""));
-            roomService.upgradePlayerAttribute(chatId, playerAttribute);
-        }
-        //TODO: add parsing exception
     }
 
     private void handleStartingNewGame(Long chatId) {
+        val gameSeed = SeedUtil.newGameSeed();
         try {
-            itemGenerator.generateItems(chatId).get();
+            itemGenerator.generateItems(chatId, gameSeed).get();
+        } catch (CancellationException e) {
+            log.info("Item generation for chat {} superseded by newer game", chatId);
+            return;
         } catch (InterruptedException | ExecutionException e) {
             throw new ItemGenerationException(chatId, e.getMessage(), START_GAME);
         }
         log.info("Item generation completed for chat {}!", chatId);
         val defaultInventory = inventoryService.getDefaultInventory(chatId);
-        var player = playerService.getPlayerPreparedForNewGame(chatId, defaultInventory);
+        var player = playerService.getPlayerPreparedForNewGame(chatId, defaultInventory, gameSeed);
         player = effectService.updatePlayerEffects(player);
         player = effectService.updateArmorEffect(player);
         log.info("Player loaded: {}", player);
@@ -274,9 +208,8 @@ public class CallbackHandler {
 
     private void handleShrineRefill(Long chatId) {
         val player = playerService.getPlayer(chatId);
-        val level = levelService.getLevel(chatId);
         val currentRoom = roomService.getRoomByIdAndChatId(chatId, player.getCurrentRoomId());
-        levelService.shrineUsage(chatId, player, currentRoom, level);
+        levelService.shrineUsage(chatId, player, currentRoom);
     }
 
     private void handleAttack(Long chatId, CallbackType callBackData) {
@@ -309,12 +242,4 @@ public class CallbackHandler {
         val player = playerService.getPlayer(chatId);
         inventoryService.sendInventoryMessage(chatId, player);
     }
-
-    private CallbackType getCallbackType(String callbackData) {
-        return keyboardButtonProperties.getButtons().entrySet().stream()
-                .filter(entry -> callbackData.equals(entry.getValue().getCallback()))
-                .map(Map.Entry::getKey)
-                .findFirst().orElseThrow(() ->
-                        new CallbackParsingException(callbackData));
-    }
 }
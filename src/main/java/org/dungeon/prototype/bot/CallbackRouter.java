@@ -0,0 +1,122 @@
+package org.dungeon.prototype.bot;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.exception.CallbackParsingException;
+import org.dungeon.prototype.properties.CallbackType;
+import org.dungeon.prototype.properties.KeyboardButtonProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Resolves callback data of pressed buttons, compiled once from {@link KeyboardButtonProperties}.
+ * Static callbacks are looked up by exact match, composite ones ({@code prefix_%s})
+ * are matched by longest prefix in a trie, remainder of callback data becomes parameter
+ */
+@Slf4j
+@Component
+public class CallbackRouter {
+    private static final String PARAMETER_PLACEHOLDER = "%s";
+
+    private final Map<String, CallbackType> staticCallbacks = new HashMap<>();
+    private final Node prefixes = new Node();
+
+    public CallbackRouter(KeyboardButtonProperties keyboardButtonProperties) {
+        keyboardButtonProperties.getButtons().forEach((callbackType, attributes) -> {
+            val callback = attributes.getCallback();
+            if (isNull(callback)) {
+                return;
+            }
+            if (callback.endsWith(PARAMETER_PLACEHOLDER)) {
+                addPrefix(callback.substring(0, callback.length() - PARAMETER_PLACEHOLDER.length()), callbackType);
+            } else {
+                // several buttons may share callback, first one is handled as before
+                staticCallbacks.putIfAbsent(callback, callbackType);
+            }
+        });
+        log.debug("Compiled {} static callbacks", staticCallbacks.size());
+    }
+
+    /**
+     * Resolves callback data
+     *
+     * @param callbackData data of pressed button
+     * @return callback type with parameter of composite callback
+     * @throws CallbackParsingException if data matches no button
+     */
+    public Callback route(String callbackData) {
+        val callbackType = staticCallbacks.get(callbackData);
+        if (nonNull(callbackType)) {
+            return new Callback(callbackType, null);
+        }
+        var node = prefixes;
+        CallbackType matched = null;
+        int matchedLength = 0;
+        for (int i = 0; i < callbackData.length() && nonNull(node); i++) {
+            node = node.getChild(callbackData.charAt(i));
+            if (nonNull(node) && nonNull(node.callbackType)) {
+                matched = node.callbackType;
+                matchedLength = i + 1;
+            }
+        }
+        if (isNull(matched)) {
+            throw new CallbackParsingException(callbackData);
+        }
+        return new Callback(matched, callbackData.substring(matchedLength));
+    }
+
+    private void addPrefix(String prefix, CallbackType callbackType) {
+        var node = prefixes;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.getOrAddChild(prefix.charAt(i));
+        }
+        if (isNull(node.callbackType)) {
+            node.callbackType = callbackType;
+        }
+    }
+
+    /**
+     * Pressed button resolved from its callback data
+     *
+     * @param type      type of button
+     * @param parameter remainder of composite callback, null for static ones
+     */
+    public record Callback(CallbackType type, String parameter) {
+    }
+
+    /**
+     * Trie node, children are kept in small arrays as callback prefixes branch rarely
+     */
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private CallbackType callbackType;
+
+        private Node getChild(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrAddChild(char key) {
+            var child = getChild(key);
+            if (isNull(child)) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
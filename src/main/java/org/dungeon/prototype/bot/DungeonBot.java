@@ -3,19 +3,14 @@ package org.dungeon.prototype.bot;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.dungeon.prototype.exception.CallbackException;
-import org.dungeon.prototype.exception.DeleteMessageException;
-import org.dungeon.prototype.exception.SendMessageException;
-import org.dungeon.prototype.properties.CallbackType;
 import org.dungeon.prototype.service.PlayerService;
 import org.dungeon.prototype.service.state.ChatStateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
-import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
 import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
-import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.starter.SpringWebhookBot;
@@ -35,8 +30,8 @@ public class DungeonBot extends SpringWebhookBot {
     private final String botUsername;
     private final  String botPath;
 
-    public DungeonBot(String botUsername, String botToken, String botPath, SetWebhook setWebhook) {
-        super(setWebhook, botToken);
+    public DungeonBot(String botUsername, String botToken, String botPath, SetWebhook setWebhook, DefaultBotOptions botOptions) {
+        super(botOptions, setWebhook, botToken);
         this.botUsername = botUsername;
         this.botPath = botPath;
     }
@@ -93,56 +88,6 @@ public class DungeonBot extends SpringWebhookBot {
         }
     }
 
-    /**
-     * Sends text message to chat
-     * and deletes previous sent message if possible
-     * Should be executed by annotating method with {@link org.dungeon.prototype.annotations.aspect.MessageSending}
-     *
-     * @param chatId  id of chat
-     * @param message message to be sent
-     */
-    public void sendMessage(long chatId, SendMessage message) {
-        try {
-            val messageId = execute(message).getMessageId();
-            val lastMessageId = chatStateService.updateLastMessage(chatId, messageId);
-            lastMessageId.ifPresent(id -> deleteMessage(chatId, id));
-        } catch (TelegramApiException e) {
-            throw new SendMessageException(e.getMessage(), chatId, CallbackType.CONTINUE_GAME);
-        }
-    }
-
-    /**
-     * Sends photo message to chat
-     * and deletes previous sent message if possible
-     * Should be executed by annotating method with {@link org.dungeon.prototype.annotations.aspect.PhotoMessageSending}
-     *
-     * @param chatId  id of chat
-     * @param message message to be sent
-     */
-    public void sendMessage(long chatId, SendPhoto message) {
-        try {
-            val messageId = execute(message).getMessageId();
-            val lastMessageId = chatStateService.updateLastMessage(chatId, messageId);
-            lastMessageId.ifPresent(id -> deleteMessage(chatId, id));
-        } catch (TelegramApiException e) {
-            throw new SendMessageException(e.getMessage(), chatId, CallbackType.CONTINUE_GAME);
-        }
-    }
-
-    public void deleteMessage(long chatId, Integer messageId) {
-        val deleteMessage = DeleteMessage.builder()
-                .chatId(chatId)
-                .messageId(messageId)
-                .build();
-        try {
-            if (!execute(deleteMessage)) {
-                throw new DeleteMessageException(chatId, messageId, CallbackType.CONTINUE_GAME);
-            }
-        } catch (TelegramApiException e) {
-            throw new DeleteMessageException(chatId, messageId, e.getMessage(), CallbackType.CONTINUE_GAME);
-        }
-    }
-
     private void processTextMessage(Long chatId, String messageText) {
         if (messageText.equals("/start") && chatStateService.isStartAvailable(chatId)) {
             botCommandHandler.processStartAction(chatId);
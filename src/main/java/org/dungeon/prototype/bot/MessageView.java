@@ -0,0 +1,58 @@
+package org.dungeon.prototype.bot;
+
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboard;
+
+import java.util.Objects;
+
+import static java.util.Objects.isNull;
+
+/**
+ * What is displayed by message in chat: text or caption, keyboard and image.
+ * Compared with view of previous message to send only changed parts of it
+ *
+ * @param photo     true for photo message
+ * @param text      text or caption
+ * @param parseMode parse mode of text
+ * @param keyboard  inline keyboard, null if message has none
+ * @param image     digest or file id of image, null for text message
+ * @param editable  false if message has keyboard other than inline one, those can't be edited
+ */
+record MessageView(boolean photo, String text, String parseMode, InlineKeyboardMarkup keyboard,
+                   String image, boolean editable) {
+
+    static MessageView text(String text, String parseMode, ReplyKeyboard replyMarkup) {
+        return new MessageView(false, text, parseMode, toKeyboard(replyMarkup), null, isEditable(replyMarkup));
+    }
+
+    static MessageView photo(String caption, String parseMode, ReplyKeyboard replyMarkup, String image) {
+        return new MessageView(true, caption, parseMode, toKeyboard(replyMarkup), image, isEditable(replyMarkup));
+    }
+
+    /**
+     * @return true if message with this view can be edited to show next one
+     */
+    boolean canBeEditedTo(MessageView next) {
+        return editable && next.editable && photo == next.photo;
+    }
+
+    boolean isImageChanged(MessageView next) {
+        return !Objects.equals(image, next.image);
+    }
+
+    boolean isTextChanged(MessageView next) {
+        return !Objects.equals(text, next.text) || !Objects.equals(parseMode, next.parseMode);
+    }
+
+    boolean isKeyboardChanged(MessageView next) {
+        return !Objects.equals(keyboard, next.keyboard);
+    }
+
+    private static InlineKeyboardMarkup toKeyboard(ReplyKeyboard replyMarkup) {
+        return replyMarkup instanceof InlineKeyboardMarkup inlineKeyboardMarkup ? inlineKeyboardMarkup : null;
+    }
+
+    private static boolean isEditable(ReplyKeyboard replyMarkup) {
+        return isNull(replyMarkup) || replyMarkup instanceof InlineKeyboardMarkup;
+    }
+}
@@ -0,0 +1,603 @@
+package org.dungeon.prototype.bot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.exception.FileLoadingException;
+import org.dungeon.prototype.properties.OutboundProperties;
+import org.dungeon.prototype.service.state.ChatStateService;
+import org.dungeon.prototype.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessages;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageCaption;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageMedia;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.media.InputMediaPhoto;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Sends messages to Telegram without blocking threads handling updates.
+ * Requests are paced by global and per chat token buckets, chat is paused for retry_after
+ * when Telegram answers with 429, other failed sends are retried with backoff.
+ * Messages of one chat are sent one at a time in order of submission while different chats
+ * are pipelined through async execution. Deletion of replaced messages yields to sends
+ * and is coalesced into batch requests.
+ * Last message of chat is edited in place when possible: only changed image, caption, text
+ * or keyboard is sent, message is sent anew and previous one deleted otherwise
+ */
+@Slf4j
+@Component
+public class OutboundMessageScheduler {
+    private static final String METRIC_NAME = "dungeon.outbound";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+    private static final String NOT_MODIFIED = "message is not modified";
+    private static final long MAX_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private DungeonBot dungeonBot;
+    @Autowired
+    private ChatStateService chatStateService;
+    @Autowired
+    private OutboundProperties outboundProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    /**
+     * Queues by chat, served chat is moved to the end so chats take turns
+     */
+    private final Map<Long, ChatQueue> chatQueues = new LinkedHashMap<>();
+    /**
+     * Last message sent to chat, which next one may be edited into
+     */
+    private final Map<Long, LastMessage> lastMessages = new HashMap<>();
+    private final AtomicInteger queuedMessages = new AtomicInteger();
+    private final AtomicInteger queuedDeletions = new AtomicInteger();
+    private final Map<UpdateMode, Counter> updateCounters = new EnumMap<>(UpdateMode.class);
+    private TokenBucket globalBucket;
+    private boolean running;
+    private long idleNanos;
+    private Thread dispatcher;
+    private Timer latencyTimer;
+    private Counter throttledCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        globalBucket = new TokenBucket(outboundProperties.getGlobalRate(), outboundProperties.getGlobalBurst(), System.nanoTime());
+        latencyTimer = meterRegistry.timer(METRIC_NAME + ".latency");
+        throttledCounter = meterRegistry.counter(METRIC_NAME + ".throttled");
+        failedCounter = meterRegistry.counter(METRIC_NAME + ".failed");
+        for (UpdateMode mode : UpdateMode.values()) {
+            updateCounters.put(mode, meterRegistry.counter(METRIC_NAME + ".updates", "mode", mode.name().toLowerCase()));
+        }
+        meterRegistry.gauge(METRIC_NAME + ".queued", Tags.of("type", "message"), queuedMessages);
+        meterRegistry.gauge(METRIC_NAME + ".queued", Tags.of("type", "deletion"), queuedDeletions);
+        val threadFactory = new CustomizableThreadFactory("outbound-");
+        threadFactory.setDaemon(true);
+        running = true;
+        dispatcher = threadFactory.newThread(this::dispatch);
+        dispatcher.start();
+    }
+
+    /**
+     * Stops accepting messages and waits for queued ones to be sent
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatcher.join(outboundProperties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queuedMessages.get() > 0) {
+            log.warn("{} messages weren't sent before shutdown", queuedMessages.get());
+        }
+    }
+
+    /**
+     * Queues text message, it either replaces previous message of chat
+     * or is sent anew and previous one is deleted once it's sent
+     *
+     * @param chatId  id of chat
+     * @param message message to be sent
+     */
+    public void send(long chatId, SendMessage message) {
+        val view = MessageView.text(message.getText(), message.getParseMode(), message.getReplyMarkup());
+        enqueue(chatId, new OutboundMessage(view, () -> dungeonBot.executeAsync(message), null, null));
+    }
+
+    /**
+     * Queues photo message, it either replaces previous message of chat
+     * or is sent anew and previous one is deleted once it's sent
+     *
+     * @param chatId  id of chat
+     * @param message message to be sent
+     */
+    public void send(long chatId, SendPhoto message) {
+        val photo = message.getPhoto();
+        // uploaded image is kept to be compared with previous one and to upload it again on retry
+        val image = readImage(chatId, photo);
+        val view = MessageView.photo(message.getCaption(), message.getParseMode(), message.getReplyMarkup(),
+                isNull(image) ? photo.getAttachName() : digest(image));
+        enqueue(chatId, new OutboundMessage(view, () -> {
+            if (nonNull(image)) {
+                message.setPhoto(new InputFile(new ByteArrayInputStream(image), photo.getMediaName()));
+            }
+            return dungeonBot.executeAsync(message);
+        }, image, photo.getMediaName()));
+    }
+
+    /**
+     * Makes next message of chat to be sent anew instead of replacing last one,
+     * so it appears below message sent by user
+     *
+     * @param chatId id of chat
+     */
+    public void detachLastMessage(long chatId) {
+        lock.lock();
+        try {
+            lastMessages.remove(chatId);
+            val chatQueue = chatQueues.get(chatId);
+            if (nonNull(chatQueue) && chatQueue.inFlight) {
+                chatQueue.detached = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(long chatId, OutboundMessage message) {
+        lock.lock();
+        try {
+            if (!running) {
+                log.warn("Scheduler is shut down, message to chat {} is dropped", chatId);
+                return;
+            }
+            message.queuedAt = System.nanoTime();
+            getChatQueue(chatId).messages.add(message);
+            queuedMessages.incrementAndGet();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addDeletion(ChatQueue chatQueue, int messageId) {
+        // message id is 0 until first message is sent to chat
+        if (messageId > 0 && chatQueue.deletions.add(messageId)) {
+            queuedDeletions.incrementAndGet();
+        }
+    }
+
+    private ChatQueue getChatQueue(long chatId) {
+        return chatQueues.computeIfAbsent(chatId, id -> new ChatQueue(id, new TokenBucket(
+                outboundProperties.getChatRate(), outboundProperties.getChatBurst(), System.nanoTime())));
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Runnable request;
+            lock.lock();
+            try {
+                var next = pollRequest(System.nanoTime());
+                while (isNull(next)) {
+                    if (!running && queuedMessages.get() == 0) {
+                        return;
+                    }
+                    changed.awaitNanos(idleNanos);
+                    next = pollRequest(System.nanoTime());
+                }
+                request = next;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            request.run();
+        }
+    }
+
+    /**
+     * Takes next request permitted by rate limits, messages first,
+     * otherwise sets time to wait until some may be permitted
+     */
+    private Runnable pollRequest(long now) {
+        idleNanos = MAX_IDLE_NANOS;
+        val globalWait = globalBucket.nanosUntilAvailable(now);
+        if (globalWait > 0) {
+            idleNanos = globalWait;
+            return null;
+        }
+        ChatQueue deletionsQueue = null;
+        val iterator = chatQueues.values().iterator();
+        while (iterator.hasNext()) {
+            val chatQueue = iterator.next();
+            if (!chatQueue.inFlight) {
+                skipUnchanged(chatQueue);
+            }
+            if (chatQueue.inFlight || (chatQueue.messages.isEmpty() && chatQueue.deletions.isEmpty())) {
+                if (!chatQueue.inFlight && chatQueue.bucket.isFull(now)) {
+                    iterator.remove();
+                }
+                continue;
+            }
+            val wait = Math.max(chatQueue.pausedUntil - now, chatQueue.bucket.nanosUntilAvailable(now));
+            if (wait > 0) {
+                idleNanos = Math.min(idleNanos, wait);
+                continue;
+            }
+            if (!chatQueue.messages.isEmpty()) {
+                return takeMessage(chatQueue, now);
+            }
+            if (isNull(deletionsQueue)) {
+                deletionsQueue = chatQueue;
+            }
+        }
+        return isNull(deletionsQueue) ? null : takeDeletions(deletionsQueue, now);
+    }
+
+    /**
+     * Drops queued messages that show exactly what last message of chat already does
+     */
+    private void skipUnchanged(ChatQueue chatQueue) {
+        while (!chatQueue.messages.isEmpty() &&
+                UpdateMode.NONE.equals(getUpdateMode(chatQueue.chatId, chatQueue.messages.peek().view))) {
+            chatQueue.messages.poll();
+            queuedMessages.decrementAndGet();
+            updateCounters.get(UpdateMode.NONE).increment();
+        }
+    }
+
+    private Runnable takeMessage(ChatQueue chatQueue, long now) {
+        acquire(chatQueue, now);
+        val message = chatQueue.messages.poll();
+        queuedMessages.decrementAndGet();
+        val mode = getUpdateMode(chatQueue.chatId, message.view);
+        val messageId = UpdateMode.SEND.equals(mode) ? 0 : lastMessages.get(chatQueue.chatId).messageId();
+        updateCounters.get(mode).increment();
+        val request = getRequest(chatQueue.chatId, messageId, message, mode);
+        return () -> {
+            CompletableFuture<? extends Serializable> result;
+            try {
+                result = request.execute();
+            } catch (TelegramApiException | RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            result.whenComplete((sent, e) -> onMessageSent(chatQueue, message, mode, messageId, sent, e));
+        };
+    }
+
+    /**
+     * Chooses the smallest edit turning last message of chat into given view
+     */
+    private UpdateMode getUpdateMode(long chatId, MessageView view) {
+        val lastMessage = lastMessages.get(chatId);
+        if (!outboundProperties.isEditInPlace() || isNull(lastMessage) || !lastMessage.view().canBeEditedTo(view)) {
+            return UpdateMode.SEND;
+        }
+        val previous = lastMessage.view();
+        if (view.photo() && previous.isImageChanged(view)) {
+            return UpdateMode.EDIT_MEDIA;
+        }
+        if (previous.isTextChanged(view)) {
+            return view.photo() ? UpdateMode.EDIT_CAPTION : UpdateMode.EDIT_TEXT;
+        }
+        if (previous.isKeyboardChanged(view)) {
+            return UpdateMode.EDIT_KEYBOARD;
+        }
+        return UpdateMode.NONE;
+    }
+
+    /**
+     * Builds request for update mode, edits carry the rest of view along
+     * as Telegram drops caption and keyboard omitted from them
+     */
+    private Request<? extends Serializable> getRequest(long chatId, int messageId, OutboundMessage message, UpdateMode mode) {
+        val view = message.view;
+        return switch (mode) {
+            case EDIT_MEDIA -> () -> dungeonBot.executeAsync(EditMessageMedia.builder()
+                    .chatId(String.valueOf(chatId))
+                    .messageId(messageId)
+                    .media(getInputMedia(message))
+                    .replyMarkup(view.keyboard())
+                    .build());
+            case EDIT_CAPTION -> () -> dungeonBot.executeAsync(EditMessageCaption.builder()
+                    .chatId(String.valueOf(chatId))
+                    .messageId(messageId)
+                    .caption(view.text())
+                    .parseMode(view.parseMode())
+                    .replyMarkup(view.keyboard())
+                    .build());
+            case EDIT_TEXT -> () -> dungeonBot.executeAsync(EditMessageText.builder()
+                    .chatId(String.valueOf(chatId))
+                    .messageId(messageId)
+                    .text(view.text())
+                    .parseMode(view.parseMode())
+                    .replyMarkup(view.keyboard())
+                    .build());
+            case EDIT_KEYBOARD -> () -> dungeonBot.executeAsync(EditMessageReplyMarkup.builder()
+                    .chatId(String.valueOf(chatId))
+                    .messageId(messageId)
+                    .replyMarkup(view.keyboard())
+                    .build());
+            default -> message.send;
+        };
+    }
+
+    private static InputMediaPhoto getInputMedia(OutboundMessage message) {
+        val media = new InputMediaPhoto();
+        if (nonNull(message.image)) {
+            media.setMedia(new ByteArrayInputStream(message.image), message.imageName);
+        } else {
+            media.setMedia(message.view.image());
+        }
+        media.setCaption(message.view.text());
+        media.setParseMode(message.view.parseMode());
+        return media;
+    }
+
+    private Runnable takeDeletions(ChatQueue chatQueue, long now) {
+        acquire(chatQueue, now);
+        final List<Integer> messageIds = new ArrayList<>(Math.min(chatQueue.deletions.size(), outboundProperties.getDeleteBatchSize()));
+        val iterator = chatQueue.deletions.iterator();
+        while (iterator.hasNext() && messageIds.size() < outboundProperties.getDeleteBatchSize()) {
+            messageIds.add(iterator.next());
+            iterator.remove();
+        }
+        queuedDeletions.addAndGet(-messageIds.size());
+        val deleteMessages = DeleteMessages.builder()
+                .chatId(String.valueOf(chatQueue.chatId))
+                .messageIds(messageIds)
+                .build();
+        return () -> {
+            CompletableFuture<Boolean> result;
+            try {
+                result = dungeonBot.executeAsync(deleteMessages);
+            } catch (TelegramApiException | RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            result.whenComplete((deleted, e) -> onMessagesDeleted(chatQueue, messageIds, e));
+        };
+    }
+
+    private void acquire(ChatQueue chatQueue, long now) {
+        globalBucket.tryAcquire(now);
+        chatQueue.bucket.tryAcquire(now);
+        chatQueue.inFlight = true;
+        chatQueue.detached = false;
+        chatQueues.remove(chatQueue.chatId);
+        chatQueues.put(chatQueue.chatId, chatQueue);
+    }
+
+    private void onMessageSent(ChatQueue chatQueue, OutboundMessage message, UpdateMode mode,
+                               int editedMessageId, Serializable sent, Throwable e) {
+        lock.lock();
+        try {
+            chatQueue.inFlight = false;
+            val now = System.nanoTime();
+            val edit = !UpdateMode.SEND.equals(mode);
+            if (isNull(e) || (edit && isNotModified(unwrap(e)))) {
+                latencyTimer.record(now - message.queuedAt, TimeUnit.NANOSECONDS);
+                val messageId = edit ? editedMessageId : ((Message) sent).getMessageId();
+                if (chatQueue.detached) {
+                    lastMessages.remove(chatQueue.chatId);
+                } else {
+                    lastMessages.put(chatQueue.chatId, new LastMessage(messageId, message.view));
+                }
+                chatStateService.updateLastMessage(chatQueue.chatId, messageId)
+                        .filter(previousId -> previousId != messageId)
+                        .ifPresent(previousId -> addDeletion(chatQueue, previousId));
+            } else if (edit && isRejected(unwrap(e))) {
+                // message may be deleted by user or can't be edited anymore, sending new one instead
+                log.debug("Unable to edit message {} of chat {}: {}", editedMessageId, chatQueue.chatId, unwrap(e).getMessage());
+                lastMessages.remove(chatQueue.chatId);
+                chatQueue.messages.addFirst(message);
+                queuedMessages.incrementAndGet();
+            } else if (scheduleRetry(chatQueue, message, unwrap(e), now)) {
+                chatQueue.messages.addFirst(message);
+                queuedMessages.incrementAndGet();
+            } else {
+                failedCounter.increment();
+                log.error("Unable to send message to chat {}: {}", chatQueue.chatId, unwrap(e).getMessage());
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onMessagesDeleted(ChatQueue chatQueue, List<Integer> messageIds, Throwable e) {
+        lock.lock();
+        try {
+            chatQueue.inFlight = false;
+            if (nonNull(e)) {
+                val cause = unwrap(e);
+                if (isTooManyRequests(cause)) {
+                    pause(chatQueue, (TelegramApiRequestException) cause, System.nanoTime());
+                    messageIds.forEach(messageId -> addDeletion(chatQueue, messageId));
+                } else {
+                    // messages older than 48 hours can't be deleted by bot, not worth retrying
+                    log.debug("Unable to delete messages {} of chat {}: {}", messageIds, chatQueue.chatId, cause.getMessage());
+                }
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean scheduleRetry(ChatQueue chatQueue, OutboundMessage message, Throwable cause, long now) {
+        if (isTooManyRequests(cause)) {
+            pause(chatQueue, (TelegramApiRequestException) cause, now);
+            return true;
+        }
+        if (isRejected(cause)) {
+            // rejected by Telegram, it will be rejected again
+            return false;
+        }
+        message.attempts++;
+        if (message.attempts >= outboundProperties.getMaxAttempts()) {
+            return false;
+        }
+        chatQueue.pausedUntil = now + (outboundProperties.getRetryBackoff().toNanos() << (message.attempts - 1));
+        log.warn("Retrying message to chat {} after failed attempt {}: {}", chatQueue.chatId, message.attempts, cause.getMessage());
+        return true;
+    }
+
+    private void pause(ChatQueue chatQueue, TelegramApiRequestException cause, long now) {
+        throttledCounter.increment();
+        val retryAfter = nonNull(cause.getParameters()) && nonNull(cause.getParameters().getRetryAfter()) ?
+                cause.getParameters().getRetryAfter() : 1;
+        chatQueue.pausedUntil = now + TimeUnit.SECONDS.toNanos(retryAfter);
+        log.warn("Throttled by Telegram, chat {} paused for {}s", chatQueue.chatId, retryAfter);
+    }
+
+    private static boolean isTooManyRequests(Throwable cause) {
+        return cause instanceof TelegramApiRequestException requestException &&
+                nonNull(requestException.getErrorCode()) && requestException.getErrorCode() == TOO_MANY_REQUESTS;
+    }
+
+    private static boolean isRejected(Throwable cause) {
+        return cause instanceof TelegramApiRequestException requestException &&
+                nonNull(requestException.getErrorCode()) && requestException.getErrorCode() < SERVER_ERROR &&
+                requestException.getErrorCode() != TOO_MANY_REQUESTS;
+    }
+
+    private static boolean isNotModified(Throwable cause) {
+        return cause instanceof TelegramApiRequestException requestException &&
+                nonNull(requestException.getApiResponse()) && requestException.getApiResponse().contains(NOT_MODIFIED);
+    }
+
+    /**
+     * @return bytes of image to be uploaded, null if photo refers to file already stored by Telegram
+     */
+    private static byte[] readImage(long chatId, InputFile photo) {
+        if (!photo.isNew()) {
+            return null;
+        }
+        try {
+            if (nonNull(photo.getNewMediaStream())) {
+                try (InputStream stream = photo.getNewMediaStream()) {
+                    return stream.readAllBytes();
+                }
+            }
+            return Files.readAllBytes(photo.getNewMediaFile().toPath());
+        } catch (IOException e) {
+            throw new FileLoadingException(chatId, e.getMessage());
+        }
+    }
+
+    private static String digest(byte[] image) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && nonNull(e.getCause()) ? e.getCause() : e;
+    }
+
+    @FunctionalInterface
+    private interface Request<T> {
+        CompletableFuture<T> execute() throws TelegramApiException;
+    }
+
+    private enum UpdateMode {
+        SEND, EDIT_MEDIA, EDIT_CAPTION, EDIT_TEXT, EDIT_KEYBOARD, NONE
+    }
+
+    private record LastMessage(int messageId, MessageView view) {
+    }
+
+    private static class OutboundMessage {
+        private final MessageView view;
+        private final Request<Message> send;
+        private final byte[] image;
+        private final String imageName;
+        private long queuedAt;
+        private int attempts;
+
+        private OutboundMessage(MessageView view, Request<Message> send, byte[] image, String imageName) {
+            this.view = view;
+            this.send = send;
+            this.image = image;
+            this.imageName = imageName;
+        }
+    }
+
+    /**
+     * Pending requests of single chat, guarded by scheduler's lock
+     */
+    private static class ChatQueue {
+        private final Long chatId;
+        private final TokenBucket bucket;
+        private final Deque<OutboundMessage> messages = new ArrayDeque<>();
+        private final Set<Integer> deletions = new LinkedHashSet<>();
+        private boolean inFlight;
+        /**
+         * Message in flight was sent before user's message, next one can't replace it
+         */
+        private boolean detached;
+        private long pausedUntil;
+
+        private ChatQueue(Long chatId, TokenBucket bucket) {
+            this.chatId = chatId;
+            this.bucket = bucket;
+            this.pausedUntil = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.dungeon.prototype.bot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.exception.CallbackException;
+import org.dungeon.prototype.exception.DungeonPrototypeExceptionHandler;
+import org.dungeon.prototype.exception.PlayerException;
+import org.dungeon.prototype.properties.UpdateDispatchProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Accepts webhook updates without handling them on request thread.
+ * Updates are put into mailbox of their chat, each mailbox is drained by single virtual thread at a time,
+ * so updates of one chat are handled strictly in order of arrival while different chats are handled in parallel
+ */
+@Slf4j
+@Component
+public class UpdateDispatcher {
+    private static final String METRIC_NAME = "dungeon.updates";
+
+    @Autowired
+    private DungeonBot dungeonBot;
+    @Autowired
+    private OutboundMessageScheduler outboundMessageScheduler;
+    @Autowired
+    private DungeonPrototypeExceptionHandler exceptionHandler;
+    @Autowired
+    private UpdateDispatchProperties updateDispatchProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedUpdates = new AtomicInteger();
+    private ExecutorService executor;
+    private Counter rejectedCounter;
+    private Timer queueTimer;
+    private Timer handlingTimer;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("chat-update-", 0).factory());
+        rejectedCounter = meterRegistry.counter(METRIC_NAME + ".rejected");
+        queueTimer = meterRegistry.timer(METRIC_NAME + ".queue.time");
+        handlingTimer = meterRegistry.timer(METRIC_NAME + ".handling");
+        meterRegistry.gauge(METRIC_NAME + ".queued", queuedUpdates);
+        meterRegistry.gauge(METRIC_NAME + ".mailboxes", mailboxes, Map::size);
+    }
+
+    /**
+     * Stops accepting updates and waits for queued ones to be handled
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(updateDispatchProperties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("{} updates weren't handled before shutdown", queuedUpdates.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Puts update into mailbox of its chat
+     *
+     * @param update received update
+     * @return false if update is dropped as mailbox of its chat or dispatcher is full
+     */
+    public boolean dispatch(Update update) {
+        val chatId = getChatId(update);
+        if (chatId.isEmpty()) {
+            log.debug("Update {} has no chat, skipping", update.getUpdateId());
+            return true;
+        }
+        if (queuedUpdates.incrementAndGet() > updateDispatchProperties.getMaxQueuedUpdates()) {
+            return reject(update, chatId.get(), "dispatcher");
+        }
+        val accepted = new boolean[1];
+        val mailbox = mailboxes.compute(chatId.get(), (id, current) -> {
+            val target = isNull(current) ? new Mailbox(id) : current;
+            accepted[0] = target.offer(update);
+            return target;
+        });
+        if (!accepted[0]) {
+            return reject(update, chatId.get(), "mailbox");
+        }
+        mailbox.scheduleIfIdle();
+        return true;
+    }
+
+    private boolean reject(Update update, Long chatId, String full) {
+        queuedUpdates.decrementAndGet();
+        rejectedCounter.increment();
+        log.warn("Update {} of chat {} dropped, {} is full", update.getUpdateId(), chatId, full);
+        return false;
+    }
+
+    private void handle(Long chatId, Update update) {
+        if (update.hasMessage()) {
+            // user's message is below last one of bot now, reply has to follow it
+            outboundMessageScheduler.detachLastMessage(chatId);
+        }
+        try {
+            handlingTimer.record(() -> dungeonBot.onWebhookUpdateReceived(update));
+        } catch (PlayerException e) {
+            exceptionHandler.handleException(e);
+        } catch (CallbackException e) {
+            exceptionHandler.handleCallbackException(e);
+        } catch (RuntimeException e) {
+            log.error("Unable to handle update {} of chat {}", update.getUpdateId(), chatId, e);
+        }
+    }
+
+    static Optional<Long> getChatId(Update update) {
+        if (update.hasMessage()) {
+            return Optional.ofNullable(update.getMessage().getChatId());
+        }
+        if (update.hasCallbackQuery() && nonNull(update.getCallbackQuery().getMessage())) {
+            return Optional.ofNullable(update.getCallbackQuery().getMessage().getChatId());
+        }
+        return Optional.empty();
+    }
+
+    private record QueuedUpdate(Update update, long queuedAt) {
+    }
+
+    /**
+     * Updates of single chat waiting to be handled,
+     * guarded by its own monitor
+     */
+    private class Mailbox {
+        private final Long chatId;
+        private final Queue<QueuedUpdate> updates = new ArrayDeque<>();
+        private boolean draining;
+
+        private Mailbox(Long chatId) {
+            this.chatId = chatId;
+        }
+
+        private synchronized boolean offer(Update update) {
+            if (updates.size() >= updateDispatchProperties.getMailboxCapacity()) {
+                return false;
+            }
+            return updates.offer(new QueuedUpdate(update, System.nanoTime()));
+        }
+
+        private synchronized boolean isIdle() {
+            return !draining && updates.isEmpty();
+        }
+
+        private void scheduleIfIdle() {
+            synchronized (this) {
+                if (draining || updates.isEmpty()) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.warn("Dispatcher is shut down, {} updates of chat {} are dropped", updates.size(), chatId);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                final QueuedUpdate next;
+                synchronized (this) {
+                    next = updates.poll();
+                    if (isNull(next)) {
+                        draining = false;
+                    }
+                }
+                if (isNull(next)) {
+                    // map is locked before mailbox here as well as on dispatch
+                    mailboxes.computeIfPresent(chatId, (id, mailbox) -> mailbox.isIdle() ? null : mailbox);
+                    return;
+                }
+                queuedUpdates.decrementAndGet();
+                queueTimer.record(System.nanoTime() - next.queuedAt(), TimeUnit.NANOSECONDS);
+                handle(chatId, next.update());
+            }
+        }
+    }
+}
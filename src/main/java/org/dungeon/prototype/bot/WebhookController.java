@@ -10,14 +10,18 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 @RequestMapping("${bot.path}")
 public class WebhookController {
 
-    private final DungeonBot dungeonBot;
+    private final UpdateDispatcher updateDispatcher;
 
-    public WebhookController(DungeonBot dungeonBot) {
-        this.dungeonBot = dungeonBot;
+    public WebhookController(UpdateDispatcher updateDispatcher) {
+        this.updateDispatcher = updateDispatcher;
     }
 
+    /**
+     * Acknowledges update as soon as it's queued, dropped updates are acknowledged as well
+     * so Telegram doesn't redeliver them to overloaded bot
+     */
     @PostMapping
     public void onUpdateReceived(@RequestBody Update update) {
-        dungeonBot.onWebhookUpdateReceived(update);
+        updateDispatcher.dispatch(update);
     }
 }
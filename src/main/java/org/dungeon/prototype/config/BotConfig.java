@@ -1,10 +1,13 @@
 package org.dungeon.prototype.config;
 
+import lombok.val;
 import org.dungeon.prototype.bot.DungeonBot;
+import org.dungeon.prototype.properties.OutboundProperties;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 
 @Configuration
@@ -14,6 +17,7 @@ public class BotConfig {
     private final String botUsername;
     private final String webHookUrl;
     private final String botPath;
+
     public BotConfig(@Value("${bot.token}") String botToken,
                      @Value("${bot.username}") String botUsername,
                      @Value("${bot.webhook}") String webHookUrl,
@@ -56,8 +60,18 @@ public class BotConfig {
                 .build();
     }
 
+    /**
+     * Options of bot's http client, async requests are executed by pool of {@code outbound.sender-threads}
+     */
+    @Bean
+    public DefaultBotOptions botOptions(OutboundProperties outboundProperties) {
+        val botOptions = new DefaultBotOptions();
+        botOptions.setMaxThreads(outboundProperties.getSenderThreads());
+        return botOptions;
+    }
+
     @Bean
-    public DungeonBot dungeonBot(String botUsername,String botToken, String botPath, SetWebhook setWebhook) {
-        return new DungeonBot(botUsername, botToken, botPath, setWebhook);
+    public DungeonBot dungeonBot(String botUsername, String botToken, String botPath, SetWebhook setWebhook, DefaultBotOptions botOptions) {
+        return new DungeonBot(botUsername, botToken, botPath, setWebhook, botOptions);
     }
 }
@@ -1,11 +1,13 @@
 package org.dungeon.prototype.exception;
 
+import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameBatchRequestDto;
 import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameRequestDto;
 import org.dungeon.prototype.properties.CallbackType;
 
 public class KafkaMessageException extends PlayerException {
-    public KafkaMessageException(ItemNameRequestDto dto, CallbackType buttonData) {
-        super(String.format("Unable to request name for item:%s, prompt:%s", dto.getId(), dto.getPrompt()),
+    public KafkaMessageException(ItemNameBatchRequestDto dto, CallbackType buttonData) {
+        super(String.format("Unable to request names for items:%s",
+                        dto.getItems().stream().map(ItemNameRequestDto::getId).toList()),
                 dto.getChatId(), buttonData);
     }
 }
@@ -0,0 +1,57 @@
+package org.dungeon.prototype.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameBatchReplyDto;
+import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameReplyDto;
+import org.dungeon.prototype.service.item.generation.ItemNamingRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import static java.util.Objects.isNull;
+
+@Slf4j
+@Service
+public class ItemNamingReplyListener {
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ItemNamingRegistry itemNamingRegistry;
+    private ObjectReader replyReader;
+
+    @PostConstruct
+    public void init() {
+        replyReader = objectMapper.readerFor(ItemNameBatchReplyDto.class);
+    }
+
+    @KafkaListener(topics = "${kafka-topics.item-naming-reply-topic}")
+    public void onItemNamingReply(String message) {
+        log.debug("Received item naming reply: {}", message);
+        final ItemNameBatchReplyDto reply;
+        try {
+            reply = replyReader.readValue(message);
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to parse item naming reply {}: {}", message, e.getMessage());
+            return;
+        }
+        if (isNull(reply.getItems())) {
+            log.warn("Item naming reply without items: {}", message);
+            return;
+        }
+        reply.getItems().forEach(this::processItem);
+    }
+
+    private void processItem(ItemNameReplyDto item) {
+        if (isNull(item.getId())) {
+            log.warn("Item naming reply without item id: {}", item);
+        } else if (isNull(item.getName()) || item.getName().isBlank()) {
+            itemNamingRegistry.fail(item.getId(), isNull(item.getError()) ? "empty name" : item.getError());
+        } else {
+            itemNamingRegistry.complete(item.getId(), item.getName().strip());
+        }
+    }
+}
@@ -2,9 +2,11 @@ package org.dungeon.prototype.kafka;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.dungeon.prototype.exception.KafkaMessageException;
-import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameRequestDto;
+import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameBatchRequestDto;
 import org.dungeon.prototype.properties.CallbackType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -17,15 +19,28 @@ public class KafkaProducer {
     private KafkaTemplate<String, String> kafkaTemplate;
     @Autowired
     private ObjectMapper objectMapper;
+    private ObjectWriter itemNamingRequestWriter;
 
-    public void sendItemNamingRequest(String topic, ItemNameRequestDto dto) {
+    @PostConstruct
+    public void init() {
+        itemNamingRequestWriter = objectMapper.writerFor(ItemNameBatchRequestDto.class);
+    }
+
+    /**
+     * Sends batch of naming requests, keyed by chat id so that batches of chat are consumed in order
+     *
+     * @param topic item naming topic
+     * @param dto   batch of requests
+     */
+    public void sendItemNamingRequest(String topic, ItemNameBatchRequestDto dto) {
         String message;
         try {
-            message = objectMapper.writeValueAsString(dto);
+            message = itemNamingRequestWriter.writeValueAsString(dto);
         } catch (JsonProcessingException e) {
             throw new KafkaMessageException(dto, CallbackType.MENU_BACK);
         }
-        log.info("Sending message to kafka stream, topic: {}, message: {}", topic, message);
-        kafkaTemplate.send(topic, message);
+        log.info("Sending message to kafka stream, topic: {}, items: {}", topic, dto.getItems().size());
+        log.debug("Item naming request: {}", message);
+        kafkaTemplate.send(topic, String.valueOf(dto.getChatId()), message);
     }
 }
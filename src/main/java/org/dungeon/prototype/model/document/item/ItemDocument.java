@@ -18,6 +18,11 @@ public class ItemDocument {
     private String id;
     @Indexed
     private Long chatId;
+    /**
+     * Id of {@link ItemTemplateDocument} holding attributes and specs of item,
+     * those fields aren't stored with item if it's set
+     */
+    private String templateId;
     private ItemAttributes attributes;
     private ItemType itemType;
 
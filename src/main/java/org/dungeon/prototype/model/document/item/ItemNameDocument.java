@@ -0,0 +1,24 @@
+package org.dungeon.prototype.model.document.item;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of names generated for items with same signature, shared by all chats
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "item_names")
+public class ItemNameDocument {
+    @Id
+    private String id;
+    private String signature;
+    private List<String> names = new ArrayList<>();
+    private Instant updatedAt;
+}
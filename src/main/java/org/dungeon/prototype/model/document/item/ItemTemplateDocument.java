@@ -0,0 +1,36 @@
+package org.dungeon.prototype.model.document.item;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.dungeon.prototype.model.inventory.attributes.MagicType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Vanilla item of attributes combination shared by all chats: stats and weight
+ * don't depend on chat, so chat items only refer to template and keep their effects and name
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "item_templates")
+public class ItemTemplateDocument {
+    @Id
+    private String id;
+    private ItemAttributes attributes;
+    private ItemType itemType;
+
+    //weapon specs
+    private Integer attack;
+    private Double criticalHitChance;
+    private Double criticalHitMultiplier;
+    private Double chanceToMiss;
+    private Double chanceToKnockOut;
+    private Boolean isCompleteDragonBone;
+
+    //wearable specs
+    private Integer armor;
+    private Double chanceToDodge;
+
+    private Double weightAbs;
+    private MagicType magicType;
+}
@@ -7,7 +7,6 @@ import org.dungeon.prototype.model.document.room.RoomDocument;
 import org.dungeon.prototype.model.level.ui.GridSection;
 import org.dungeon.prototype.model.level.ui.LevelMap;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Map;
@@ -19,10 +18,13 @@ public class LevelDocument {
     @Id
     private Long chatId;
     private Integer number;
+    private Long seed;
     private Point start;
     private Point end;
     private GridSection[][] grid;
     private LevelMap levelMap;
-    @DBRef
+    /**
+     * Rooms with their contents are embedded, so level is read in one query
+     */
     private Map<String, RoomDocument> roomsMap;
 }
@@ -8,14 +8,12 @@ import org.dungeon.prototype.model.inventory.attributes.MagicType;
 import org.dungeon.prototype.model.monster.MonsterAttack;
 import org.dungeon.prototype.model.monster.MonsterClass;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.LinkedList;
 import java.util.List;
 
 @Data
 @NoArgsConstructor
-@Document(collection = "monsters")
 public class MonsterDocument {
     @Id
     private String id;
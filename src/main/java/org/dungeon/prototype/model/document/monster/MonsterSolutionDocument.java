@@ -0,0 +1,20 @@
+package org.dungeon.prototype.model.document.monster;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.dungeon.prototype.model.monster.MonsterClass;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@Document(collection = "monster_solutions")
+public class MonsterSolutionDocument {
+    @Id
+    private String id;
+    private MonsterClass monsterClass;
+    private double[] attributes;
+    private Instant solvedAt;
+}
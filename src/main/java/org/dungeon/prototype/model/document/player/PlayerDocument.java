@@ -20,6 +20,7 @@ public class PlayerDocument {
     @Id
     private String id;
     private Long chatId;
+    private Long gameSeed;
     private String nickname;
     private Point currentRoom;
     private String currentRoomId;
@@ -9,8 +9,7 @@ import org.dungeon.prototype.model.document.weight.WeightDocument;
 import org.dungeon.prototype.model.room.RoomType;
 import org.dungeon.prototype.annotations.validation.MultiConditionalNotNull;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
-import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.annotation.Transient;
 
 import java.util.List;
 
@@ -33,14 +32,17 @@ import java.util.List;
                 conditionalValues = {"TREASURE", "MERCHANT"}
         )
 })
-@Document(collection = "roomContent")
 public class RoomContentDocument {
     @Id
     String id;
-    @DBRef
     private MonsterDocument monster;
     private Integer gold;
-    @DBRef
+    /**
+     * Items are stored in chat's items collection and referred by id,
+     * they're resolved in one query for whole level
+     */
+    private List<String> itemIds;
+    @Transient
     private List<ItemDocument> items;
 
     private EffectDocument effect;
@@ -19,6 +19,7 @@ public abstract class Item {
     protected String id;
     protected String name;
     protected Long chatId;
+    protected String templateId;
     protected List<Effect> effects;
     protected MagicType magicType;
     public abstract ItemAttributes getAttributes();
@@ -26,15 +27,16 @@ public abstract class Item {
     public abstract Weight getWeight();
 
     public Integer getBuyingPrice() {
-        return (int) (getWeight().toVector().getNorm() * getBuyingPriceRatio());
+        return (int) (getWeight().getNorm() * getBuyingPriceRatio());
     }
 
     public Integer getSellingPrice() {
-        return (int) (getWeight().toVector().getNorm() * getSellingPriceRatio());
+        return (int) (getWeight().getNorm() * getSellingPriceRatio());
     }
     public Item(Item item) {
         this.name = item.getName();
         this.chatId = item.getChatId();
+        this.templateId = item.getTemplateId();
         this.effects = item.getEffects();
         this.magicType = item.getMagicType();
     }
@@ -0,0 +1,22 @@
+package org.dungeon.prototype.model.inventory.items.naming.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Envelope of naming results for items of one chat, in order of request.
+ * Each item is either named or failed independently of others
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemNameBatchReplyDto {
+    @JsonProperty("chatId")
+    private Long chatId;
+    @JsonProperty("items")
+    private List<ItemNameReplyDto> items;
+}
@@ -0,0 +1,19 @@
+package org.dungeon.prototype.model.inventory.items.naming.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Envelope of naming requests for items of one chat, names are replied with {@link ItemNameBatchReplyDto}
+ */
+@Data
+@AllArgsConstructor
+public class ItemNameBatchRequestDto {
+    @JsonProperty("chatId")
+    private Long chatId;
+    @JsonProperty("items")
+    private List<ItemNameRequestDto> items;
+}
@@ -0,0 +1,20 @@
+package org.dungeon.prototype.model.inventory.items.naming.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemNameReplyDto {
+    @JsonProperty("chatId")
+    private Long chatId;
+    @JsonProperty("id")
+    private String id;
+    @JsonProperty("name")
+    private String name;
+    @JsonProperty("error")
+    private String error;
+}
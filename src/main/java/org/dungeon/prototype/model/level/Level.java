@@ -20,6 +20,7 @@ public class Level {
 
     private Long chatId;
     private Integer number;
+    private Long seed;
     private Point start;
     private Point end;
     private GridSection[][] grid;
@@ -0,0 +1,22 @@
+package org.dungeon.prototype.model.level.generation;
+
+import lombok.Value;
+import org.dungeon.prototype.model.room.Room;
+import org.dungeon.prototype.model.room.RoomType;
+import org.dungeon.prototype.model.weight.Weight;
+
+/**
+ * Room populated with items by cluster, kept until items
+ * of concurrently populated clusters are merged.
+ * Special treasure of dead end has no expected weight and room type
+ */
+@Value
+public class ItemsRoomPick {
+    Room room;
+    Weight expectedWeight;
+    RoomType roomType;
+
+    public boolean isSpecialTreasure() {
+        return roomType == null;
+    }
+}
@@ -0,0 +1,284 @@
+package org.dungeon.prototype.model.level.generation;
+
+import lombok.Getter;
+import lombok.val;
+import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.level.ui.GridSection;
+import org.dungeon.prototype.model.room.Room;
+import org.dungeon.prototype.model.room.RoomType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.nonNull;
+import static org.dungeon.prototype.util.LevelUtil.getCrossroadIcon;
+import static org.dungeon.prototype.util.LevelUtil.getIcon;
+
+/**
+ * Generation-time level grid backed by flat primitive arrays.
+ * Cells are addressed by linear index {@code x * size + y},
+ * neighbours are read from offset table precomputed on grid creation.
+ * Converted to persisted {@link GridSection} model once generation is finished
+ */
+public class LevelGenerationGrid {
+    public static final int NONE = -1;
+    public static final int NEIGHBOURS_COUNT = 4;
+
+    private static final byte DEAD_END = 1;
+    private static final byte CONNECTION_POINT = 1 << 1;
+
+    @Getter
+    private final int size;
+    private final int[] stepsFromStart;
+    private final byte[] flags;
+    private final RoomType[] roomTypes;
+    private final Room[] rooms;
+    private final Point[] points;
+    private final int[] neighbours;
+
+    public LevelGenerationGrid(int size) {
+        this.size = size;
+        val cellsCount = size * size;
+        this.stepsFromStart = new int[cellsCount];
+        this.flags = new byte[cellsCount];
+        this.roomTypes = new RoomType[cellsCount];
+        this.rooms = new Room[cellsCount];
+        this.points = new Point[cellsCount];
+        this.neighbours = new int[cellsCount * NEIGHBOURS_COUNT];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                val cell = getCell(x, y);
+                points[cell] = new Point(x, y);
+                val offset = cell * NEIGHBOURS_COUNT;
+                neighbours[offset] = x + 1 < size ? getCell(x + 1, y) : NONE;
+                neighbours[offset + 1] = x > 0 ? getCell(x - 1, y) : NONE;
+                neighbours[offset + 2] = y + 1 < size ? getCell(x, y + 1) : NONE;
+                neighbours[offset + 3] = y > 0 ? getCell(x, y - 1) : NONE;
+            }
+        }
+    }
+
+    public int getCell(int x, int y) {
+        return x * size + y;
+    }
+
+    public int getCell(Point point) {
+        return getCell(point.getX(), point.getY());
+    }
+
+    public int getX(int cell) {
+        return cell / size;
+    }
+
+    public int getY(int cell) {
+        return cell % size;
+    }
+
+    public Point getPoint(int cell) {
+        return points[cell];
+    }
+
+    /**
+     * @param cell  grid cell
+     * @param index neighbour index, from 0 to {@link #NEIGHBOURS_COUNT} exclusive
+     * @return adjacent cell or {@link #NONE} if it's outside the grid
+     */
+    public int getNeighbour(int cell, int index) {
+        return neighbours[cell * NEIGHBOURS_COUNT + index];
+    }
+
+    /**
+     * @return adjacent cell if it belongs to cluster, {@link #NONE} otherwise
+     */
+    public int getNeighbourInCluster(int cell, int index, LevelGridCluster cluster) {
+        val neighbour = getNeighbour(cell, index);
+        return neighbour != NONE && isInCluster(neighbour, cluster) ? neighbour : NONE;
+    }
+
+    public boolean isInCluster(int cell, LevelGridCluster cluster) {
+        return cluster.contains(getX(cell), getY(cell));
+    }
+
+    public boolean isAdjacent(int cell, int other) {
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            if (getNeighbour(cell, i) == other) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int countNeighboursInCluster(int cell, LevelGridCluster cluster) {
+        int count = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            if (getNeighbourInCluster(cell, i, cluster) != NONE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int countNeighboursOutsideCluster(int cell, LevelGridCluster cluster) {
+        int count = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = getNeighbour(cell, i);
+            if (neighbour != NONE && !isInCluster(neighbour, cluster)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getStepsFromStart(int cell) {
+        return stepsFromStart[cell];
+    }
+
+    public void setStepsFromStart(int cell, int steps) {
+        stepsFromStart[cell] = steps;
+    }
+
+    public boolean isDeadEnd(int cell) {
+        return (flags[cell] & DEAD_END) != 0;
+    }
+
+    public void setDeadEnd(int cell, boolean deadEnd) {
+        setFlag(cell, DEAD_END, deadEnd);
+    }
+
+    public boolean isConnectionPoint(int cell) {
+        return (flags[cell] & CONNECTION_POINT) != 0;
+    }
+
+    public void setConnectionPoint(int cell, boolean connectionPoint) {
+        setFlag(cell, CONNECTION_POINT, connectionPoint);
+    }
+
+    public void setRoomType(int cell, RoomType roomType) {
+        roomTypes[cell] = roomType;
+    }
+
+    public boolean hasRoom(int cell) {
+        return nonNull(rooms[cell]);
+    }
+
+    public Room getRoom(int cell) {
+        return rooms[cell];
+    }
+
+    public void putRoom(Room room) {
+        rooms[getCell(room.getPoint())] = room;
+    }
+
+    /**
+     * @return rooms placed on grid mapped by their points
+     */
+    public Map<Point, Room> getRoomsMap() {
+        Map<Point, Room> roomsMap = new HashMap<>();
+        for (Room room : rooms) {
+            if (nonNull(room)) {
+                roomsMap.put(room.getPoint(), room);
+            }
+        }
+        return roomsMap;
+    }
+
+    /**
+     * Converts grid to persisted model
+     *
+     * @return grid of {@link GridSection}s
+     */
+    public GridSection[][] toGridSections() {
+        GridSection[][] grid = new GridSection[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                val cell = getCell(x, y);
+                val section = new GridSection();
+                section.setPoint(points[cell]);
+                section.setStepsFromStart(stepsFromStart[cell]);
+                section.setDeadEnd(isDeadEnd(cell));
+                section.setConnectionPoint(isConnectionPoint(cell));
+                section.setEmoji(getIcon(Optional.ofNullable(roomTypes[cell])));
+                grid[x][y] = section;
+            }
+        }
+        return grid;
+    }
+
+    //FOR DEBUGGING
+
+    /**
+     * @return grid state with path steps of each cell
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int y = size - 1; y >= 0; y--) {
+            for (int x = 0; x < size; x++) {
+                val cell = getCell(x, y);
+                val steps = stepsFromStart[cell];
+                if (isConnectionPoint(cell)) {
+                    result.append(getCrossroadIcon());
+                } else if (isDeadEnd(cell)) {
+                    result.append(steps > 9 ? "{" : "{0").append(steps).append("}");
+                } else if (steps < 0 || steps > 9) {
+                    result.append("[").append(steps).append("]");
+                } else {
+                    result.append("[0").append(steps).append("]");
+                }
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return map state with types of populated rooms
+     */
+    public String printMap() {
+        StringBuilder result = new StringBuilder();
+        for (int y = size - 1; y >= 0; y--) {
+            for (int x = 0; x < size; x++) {
+                val cell = getCell(x, y);
+                val steps = stepsFromStart[cell];
+                if (hasRoom(cell)) {
+                    result.append("[")
+                            .append(nonNull(rooms[cell].getRoomContent()) ?
+                                    getLogsIcon(rooms[cell].getRoomContent().getRoomType()) : "EM")
+                            .append("]");
+                } else if (steps > 0) {
+                    result.append(steps > 9 ? "[" : "[0").append(steps).append("]");
+                } else {
+                    result.append("[XX]");
+                }
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+    private void setFlag(int cell, byte flag, boolean value) {
+        if (value) {
+            flags[cell] |= flag;
+        } else {
+            flags[cell] &= (byte) ~flag;
+        }
+    }
+
+    private static String getLogsIcon(RoomType roomType) {
+        return switch (roomType) {
+            case NORMAL -> "NO";
+            case START -> "ST";
+            case END -> "EN";
+            case TREASURE -> "TR";
+            case TREASURE_LOOTED -> "TL";
+            case WEREWOLF, VAMPIRE, SWAMP_BEAST, DRAGON, ZOMBIE -> "MO";
+            case WEREWOLF_KILLED, VAMPIRE_KILLED, SWAMP_BEAST_KILLED, DRAGON_KILLED, ZOMBIE_KILLED -> "MK";
+            case HEALTH_SHRINE -> "HS";
+            case MANA_SHRINE -> "MS";
+            case ANVIL -> "AN";
+            case SHRINE_DRAINED -> "SD";
+            case MERCHANT -> "ME";
+        };
+    }
+}
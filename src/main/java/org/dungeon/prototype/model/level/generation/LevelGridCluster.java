@@ -1,8 +1,9 @@
 package org.dungeon.prototype.model.level.generation;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.dungeon.prototype.model.Point;
-import org.dungeon.prototype.model.level.ui.GridSection;
 import org.dungeon.prototype.model.weight.Weight;
 
 import java.util.ArrayList;
@@ -16,8 +17,11 @@ public class LevelGridCluster {
     Point endConnectionPoint;
     int size = 0;
     int negativeRoomsCount = 0;
-    List<GridSection> deadEnds = new ArrayList<>();
+    List<Integer> deadEnds = new ArrayList<>();
     Weight clusterExpectedWeight;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    List<ItemsRoomPick> itemsRoomPicks = new ArrayList<>();
 
     public LevelGridCluster(Point startConnectionPoint, Point endConnectionPoint) {
         this.startConnectionPoint = startConnectionPoint;
@@ -34,6 +38,13 @@ public class LevelGridCluster {
                         abs(endConnectionPoint.getY() - startConnectionPoint.getY()));
     }
 
+    public boolean contains(int x, int y) {
+        return startConnectionPoint.getX() <= x &&
+                startConnectionPoint.getY() <= y &&
+                endConnectionPoint.getX() >= x &&
+                endConnectionPoint.getY() >= y;
+    }
+
     public boolean hasSmallSide() {
         return (abs(endConnectionPoint.getX() - startConnectionPoint.getX()) < 4) ||
                 (abs(endConnectionPoint.getY() - startConnectionPoint.getY()) < 4);
@@ -60,15 +71,19 @@ public class LevelGridCluster {
         return deadEnds.size() > 0;
     }
 
-    public void addDeadEnd(GridSection section) {
-        deadEnds.add(section);
+    public void addDeadEnd(int cell) {
+        deadEnds.add(cell);
     }
 
-    public void removeDeadEnd(GridSection deadEnd) {
-        deadEnds.remove(deadEnd);
+    public void removeDeadEnd(int cell) {
+        deadEnds.remove(Integer.valueOf(cell));
     }
 
-    public void addDeadEnds(List<GridSection> processedDeadEnds) {
+    public void addDeadEnds(List<Integer> processedDeadEnds) {
         deadEnds.addAll(processedDeadEnds);
     }
+
+    public void addItemsRoomPick(ItemsRoomPick itemsRoomPick) {
+        itemsRoomPicks.add(itemsRoomPick);
+    }
 }
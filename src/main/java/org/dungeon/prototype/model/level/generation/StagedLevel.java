@@ -0,0 +1,16 @@
+package org.dungeon.prototype.model.level.generation;
+
+import lombok.Value;
+import org.dungeon.prototype.model.level.Level;
+import org.dungeon.prototype.model.weight.Weight;
+
+/**
+ * Level generated ahead of time and not yet persisted,
+ * along with player's weight it was generated for
+ */
+@Value
+public class StagedLevel {
+    int number;
+    Level level;
+    Weight playerWeight;
+}
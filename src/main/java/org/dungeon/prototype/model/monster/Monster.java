@@ -55,7 +55,7 @@ public class Monster {
     }
 
     public Integer getXpReward() {
-        return (int) getWeight().toVector().getNorm();
+        return (int) getWeight().getNorm();
     }
 
     public void decreaseHp(Integer amount) {
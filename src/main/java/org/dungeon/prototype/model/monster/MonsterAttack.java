@@ -2,7 +2,6 @@ package org.dungeon.prototype.model.monster;
 
 import lombok.Builder;
 import lombok.Data;
-import org.apache.commons.math3.linear.ArrayRealVector;
 import org.dungeon.prototype.model.effect.Effect;
 import org.dungeon.prototype.model.weight.Weight;
 
@@ -26,8 +25,7 @@ public class MonsterAttack {
                 .attack(1.0 - chanceToMiss)
                 .chanceToKnockout(chanceToKnockOut)
                 .build().add( nonNull(effect) ?
-                        Weight.fromVector((ArrayRealVector) effect.getWeight().getNegative().toVector()
-                                .mapMultiply(causingEffectProbability)) :
+                        effect.getWeight().getNegative().multiply(causingEffectProbability) :
                         new Weight());
     }
 }
@@ -24,6 +24,7 @@ import static org.apache.commons.math3.util.FastMath.max;
 public class Player {
     private String id;
     private Long chatId;
+    private Long gameSeed;
     private String nickname;
     private Point currentRoom;
     private String currentRoomId;
@@ -42,7 +42,10 @@ public class Room {
     private RoomContent roomContent;
     private Point point;
 
-    public void addAdjacentRoom(Direction direction) {
+    /**
+     * Synchronized since connection point rooms are shared by clusters populated concurrently
+     */
+    public synchronized void addAdjacentRoom(Direction direction) {
         adjacentRooms.put(direction, true);
         log.info("Added adjacent room to {} in {} direction", point, direction);
     }
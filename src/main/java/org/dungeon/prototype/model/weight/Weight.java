@@ -1,95 +1,158 @@
 package org.dungeon.prototype.model.weight;
 
 
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.NoArgsConstructor;
-import lombok.Value;
 import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.util.FastMath;
 import org.dungeon.prototype.model.effect.attributes.EffectAttribute;
 
-@Value
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class Weight {
-    @Builder.Default
-    Double hp = 0.0;
-    @Builder.Default
-    Double maxHp = 0.0;
-    @Builder.Default
-    Double mana = 0.0;
-    @Builder.Default
-    Double maxMana = 0.0;
-    @Builder.Default
-    Double armor = 0.0;
-    @Builder.Default
-    Double maxArmor = 0.0;
-    @Builder.Default
-    Double chanceToDodge = 0.0;
-    @Builder.Default
-    Double goldBonus = 0.0;
-    @Builder.Default
-    Double xpBonus = 0.0;
-    @Builder.Default
-    Double attack = 0.0;
-    @Builder.Default
-    Double criticalHitChance = 0.0;
-    @Builder.Default
-    Double criticalHitMultiplier = 0.0;
-    @Builder.Default
-    Double chanceToKnockout = 0.0;
-    @Builder.Default
-    Double arcaneMagic = 0.0;
-    @Builder.Default
-    Double divineMagic = 0.0;
+import java.util.Arrays;
+
+/**
+ * Immutable weight backed by primitive array, norm is calculated once on creation.
+ * Critical hit multiplier isn't part of weight vector: it's left out of norm
+ * and isn't carried over by vector arithmetic
+ */
+public final class Weight {
+    public static final int HP = 0;
+    public static final int MAX_HP = 1;
+    public static final int MANA = 2;
+    public static final int MAX_MANA = 3;
+    public static final int ARMOR = 4;
+    public static final int MAX_ARMOR = 5;
+    public static final int CHANCE_TO_DODGE = 6;
+    public static final int GOLD_BONUS = 7;
+    public static final int XP_BONUS = 8;
+    public static final int ATTACK = 9;
+    public static final int CRITICAL_HIT_CHANCE = 10;
+    public static final int CHANCE_TO_KNOCKOUT = 11;
+    public static final int ARCANE_MAGIC = 12;
+    public static final int DIVINE_MAGIC = 13;
+    public static final int CRITICAL_HIT_MULTIPLIER = 14;
+    public static final int VECTOR_SIZE = 14;
+    static final int SIZE = 15;
+
+    private final double[] values;
+    private final double norm;
+
+    public Weight() {
+        this(new double[SIZE]);
+    }
+
+    /**
+     * @param values components of weight, array is owned by created instance
+     */
+    Weight(double[] values) {
+        this.values = values;
+        this.norm = calculateNorm(values);
+    }
+
+    public static WeightBuilder builder() {
+        return new WeightBuilder();
+    }
+
+    public double getHp() {
+        return values[HP];
+    }
+
+    public double getMaxHp() {
+        return values[MAX_HP];
+    }
+
+    public double getMana() {
+        return values[MANA];
+    }
+
+    public double getMaxMana() {
+        return values[MAX_MANA];
+    }
+
+    public double getArmor() {
+        return values[ARMOR];
+    }
+
+    public double getMaxArmor() {
+        return values[MAX_ARMOR];
+    }
+
+    public double getChanceToDodge() {
+        return values[CHANCE_TO_DODGE];
+    }
+
+    public double getGoldBonus() {
+        return values[GOLD_BONUS];
+    }
+
+    public double getXpBonus() {
+        return values[XP_BONUS];
+    }
+
+    public double getAttack() {
+        return values[ATTACK];
+    }
+
+    public double getCriticalHitChance() {
+        return values[CRITICAL_HIT_CHANCE];
+    }
+
+    public double getCriticalHitMultiplier() {
+        return values[CRITICAL_HIT_MULTIPLIER];
+    }
+
+    public double getChanceToKnockout() {
+        return values[CHANCE_TO_KNOCKOUT];
+    }
+
+    public double getArcaneMagic() {
+        return values[ARCANE_MAGIC];
+    }
+
+    public double getDivineMagic() {
+        return values[DIVINE_MAGIC];
+    }
+
+    /**
+     * @param index index of component, one of constants of this class
+     * @return component of weight
+     */
+    public double get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return euclidean norm of weight vector
+     */
+    public double getNorm() {
+        return norm;
+    }
 
     public ArrayRealVector toVector() {
-        return new ArrayRealVector(new double[] {
-                hp, maxHp, mana, maxMana, armor,
-                maxArmor, chanceToDodge, goldBonus, xpBonus,
-                attack, criticalHitChance, chanceToKnockout,
-                arcaneMagic, divineMagic
-        });
+        return new ArrayRealVector(Arrays.copyOf(values, VECTOR_SIZE), false);
     }
 
     public ArrayRealVector getHealthSubVector() {
-        return new ArrayRealVector(new double[] {hp, maxHp});
+        return new ArrayRealVector(new double[] {getHp(), getMaxHp()});
     }
 
     public ArrayRealVector getMagicSubVector() {
-        return new ArrayRealVector(new double[] {mana, maxMana, arcaneMagic, divineMagic});
+        return new ArrayRealVector(new double[] {getMana(), getMaxMana(), getArcaneMagic(), getDivineMagic()});
     }
 
     public ArrayRealVector getDefenseSubVector() {
-        return new ArrayRealVector(new double[] {armor, maxArmor, chanceToDodge});
+        return new ArrayRealVector(new double[] {getArmor(), getMaxArmor(), getChanceToDodge()});
     }
 
     public ArrayRealVector getAttackSubVector() {
-        return new ArrayRealVector(new double[] {attack, criticalHitChance, criticalHitMultiplier, chanceToKnockout});
+        return new ArrayRealVector(new double[] {getAttack(), getCriticalHitChance(), getCriticalHitMultiplier(), getChanceToKnockout()});
     }
 
     public ArrayRealVector getBonusSubVector() {
-        return new ArrayRealVector(new double[] {goldBonus, xpBonus});
+        return new ArrayRealVector(new double[] {getGoldBonus(), getXpBonus()});
     }
+
     public static Weight fromVector(ArrayRealVector vector) {
-        return Weight.builder()
-                .hp(vector.getDataRef()[0])
-                .maxHp(vector.getDataRef()[1])
-                .mana(vector.getDataRef()[2])
-                .maxMana(vector.getDataRef()[3])
-                .armor(vector.getDataRef()[4])
-                .maxArmor(vector.getDataRef()[5])
-                .chanceToDodge(vector.getDataRef()[6])
-                .goldBonus(vector.getDataRef()[7])
-                .xpBonus(vector.getDataRef()[8])
-                .attack(vector.getDataRef()[9])
-                .criticalHitChance(vector.getDataRef()[10])
-                .chanceToKnockout(vector.getDataRef()[11])
-                .arcaneMagic(vector.getDataRef()[12])
-                .divineMagic(vector.getDataRef()[13])
-                .build();
+        return new Weight(Arrays.copyOf(vector.getDataRef(), SIZE));
     }
+
     public static Weight buildWeightVectorForAttribute(EffectAttribute attribute, double value) {
         return switch (attribute) {
             case HEALTH -> Weight.builder().hp(value).build();
@@ -121,14 +184,155 @@ public class Weight {
     }
 
     public Weight add(Weight weight) {
-        return Weight.fromVector(this.toVector().add(weight.toVector()));
+        final double[] result = new double[SIZE];
+        for (int i = 0; i < VECTOR_SIZE; i++) {
+            result[i] = values[i] + weight.values[i];
+        }
+        return new Weight(result);
     }
 
-    public Weight multiply(Double multiplier) {
-        return Weight.fromVector((ArrayRealVector) toVector().mapMultiply(multiplier));
+    public Weight multiply(double multiplier) {
+        final double[] result = new double[SIZE];
+        for (int i = 0; i < VECTOR_SIZE; i++) {
+            result[i] = values[i] * multiplier;
+        }
+        return new Weight(result);
     }
 
     public Weight getNegative() {
-        return Weight.fromVector((ArrayRealVector) this.toVector().mapMultiply(-1.0));
+        return multiply(-1.0);
+    }
+
+    /**
+     * @return mutable copy for in-place arithmetic
+     */
+    public WeightAccumulator toAccumulator() {
+        return new WeightAccumulator().add(this);
+    }
+
+    static double calculateNorm(double[] values) {
+        double sum = 0.0;
+        for (int i = 0; i < VECTOR_SIZE; i++) {
+            sum += values[i] * values[i];
+        }
+        return FastMath.sqrt(sum);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Weight weight && Arrays.equals(values, weight.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "Weight(hp=" + getHp() +
+                ", maxHp=" + getMaxHp() +
+                ", mana=" + getMana() +
+                ", maxMana=" + getMaxMana() +
+                ", armor=" + getArmor() +
+                ", maxArmor=" + getMaxArmor() +
+                ", chanceToDodge=" + getChanceToDodge() +
+                ", goldBonus=" + getGoldBonus() +
+                ", xpBonus=" + getXpBonus() +
+                ", attack=" + getAttack() +
+                ", criticalHitChance=" + getCriticalHitChance() +
+                ", criticalHitMultiplier=" + getCriticalHitMultiplier() +
+                ", chanceToKnockout=" + getChanceToKnockout() +
+                ", arcaneMagic=" + getArcaneMagic() +
+                ", divineMagic=" + getDivineMagic() + ")";
+    }
+
+    public static class WeightBuilder {
+        private final double[] values = new double[SIZE];
+
+        WeightBuilder() {
+        }
+
+        public WeightBuilder hp(double hp) {
+            values[HP] = hp;
+            return this;
+        }
+
+        public WeightBuilder maxHp(double maxHp) {
+            values[MAX_HP] = maxHp;
+            return this;
+        }
+
+        public WeightBuilder mana(double mana) {
+            values[MANA] = mana;
+            return this;
+        }
+
+        public WeightBuilder maxMana(double maxMana) {
+            values[MAX_MANA] = maxMana;
+            return this;
+        }
+
+        public WeightBuilder armor(double armor) {
+            values[ARMOR] = armor;
+            return this;
+        }
+
+        public WeightBuilder maxArmor(double maxArmor) {
+            values[MAX_ARMOR] = maxArmor;
+            return this;
+        }
+
+        public WeightBuilder chanceToDodge(double chanceToDodge) {
+            values[CHANCE_TO_DODGE] = chanceToDodge;
+            return this;
+        }
+
+        public WeightBuilder goldBonus(double goldBonus) {
+            values[GOLD_BONUS] = goldBonus;
+            return this;
+        }
+
+        public WeightBuilder xpBonus(double xpBonus) {
+            values[XP_BONUS] = xpBonus;
+            return this;
+        }
+
+        public WeightBuilder attack(double attack) {
+            values[ATTACK] = attack;
+            return this;
+        }
+
+        public WeightBuilder criticalHitChance(double criticalHitChance) {
+            values[CRITICAL_HIT_CHANCE] = criticalHitChance;
+            return this;
+        }
+
+        public WeightBuilder criticalHitMultiplier(double criticalHitMultiplier) {
+            values[CRITICAL_HIT_MULTIPLIER] = criticalHitMultiplier;
+            return this;
+        }
+
+        public WeightBuilder chanceToKnockout(double chanceToKnockout) {
+            values[CHANCE_TO_KNOCKOUT] = chanceToKnockout;
+            return this;
+        }
+
+        public WeightBuilder arcaneMagic(double arcaneMagic) {
+            values[ARCANE_MAGIC] = arcaneMagic;
+            return this;
+        }
+
+        public WeightBuilder divineMagic(double divineMagic) {
+            values[DIVINE_MAGIC] = divineMagic;
+            return this;
+        }
+
+        public Weight build() {
+            return new Weight(values.clone());
+        }
     }
 }
@@ -0,0 +1,80 @@
+package org.dungeon.prototype.model.weight;
+
+import org.apache.commons.math3.util.FastMath;
+
+import java.util.Arrays;
+
+import static org.dungeon.prototype.model.weight.Weight.SIZE;
+import static org.dungeon.prototype.model.weight.Weight.VECTOR_SIZE;
+
+/**
+ * Mutable counterpart of {@link Weight} for hot loops (optimizer objectives, sums over items),
+ * all operations work in place without allocations. Not thread-safe, intended to be confined to single
+ * computation
+ */
+public final class WeightAccumulator {
+    private final double[] values = new double[SIZE];
+
+    public WeightAccumulator reset() {
+        Arrays.fill(values, 0.0);
+        return this;
+    }
+
+    /**
+     * @param index index of component, one of {@link Weight} constants
+     * @param value new value of component
+     */
+    public WeightAccumulator set(int index, double value) {
+        values[index] = value;
+        return this;
+    }
+
+    public double get(int index) {
+        return values[index];
+    }
+
+    public WeightAccumulator add(Weight weight) {
+        for (int i = 0; i < VECTOR_SIZE; i++) {
+            values[i] += weight.get(i);
+        }
+        return this;
+    }
+
+    /**
+     * Adds weight multiplied by factor, same as {@code add(weight.multiply(factor))}
+     */
+    public WeightAccumulator addScaled(Weight weight, double factor) {
+        for (int i = 0; i < VECTOR_SIZE; i++) {
+            values[i] += weight.get(i) * factor;
+        }
+        return this;
+    }
+
+    public WeightAccumulator scale(double factor) {
+        for (int i = 0; i < VECTOR_SIZE; i++) {
+            values[i] *= factor;
+        }
+        return this;
+    }
+
+    public double getNorm() {
+        return Weight.calculateNorm(values);
+    }
+
+    /**
+     * Euclidean distance between accumulated vector and given weight,
+     * same as {@code weight.add(toWeight().getNegative()).getNorm()}
+     */
+    public double distanceTo(Weight weight) {
+        double sum = 0.0;
+        for (int i = 0; i < VECTOR_SIZE; i++) {
+            final double difference = weight.get(i) - values[i];
+            sum += difference * difference;
+        }
+        return FastMath.sqrt(sum);
+    }
+
+    public Weight toWeight() {
+        return new Weight(values.clone());
+    }
+}
@@ -14,6 +14,11 @@ import java.util.Map;
 public class GenerationProperties {
     private Map<MonsterClass, MonsterClassGenerationAttributes> monsters;
     private LevelGenerationAttributes level;
+    private LevelPrefetchAttributes prefetch;
+    private ItemGenerationExecutorAttributes itemExecutor;
+    private MonsterSolverCacheAttributes monsterSolverCache;
+    private MonsterTableAttributes monsterTable;
+    private ItemNameCacheAttributes itemNameCache;
     private ItemsGenerationProperties items;
 
     @Data
@@ -29,4 +34,60 @@ public class GenerationProperties {
         private int gridSizeIncrement;
         private int incrementStep;
     }
+
+    @Data
+    public static class LevelPrefetchAttributes {
+        private boolean enabled;
+        private int poolSize;
+        private int queueCapacity;
+        /**
+         * Relative distance between player's weight at generation time and current one,
+         * exceeding which staged level is considered stale
+         */
+        private double weightDriftThreshold;
+    }
+
+    @Data
+    public static class ItemGenerationExecutorAttributes {
+        private int poolSize;
+        /**
+         * Generation phases waiting for free thread, exceeding ones are rejected
+         */
+        private int queueCapacity;
+    }
+
+    @Data
+    public static class MonsterSolverCacheAttributes {
+        private boolean enabled;
+        private int capacity;
+        /**
+         * Relative size of quantization cell of expected weight,
+         * weights falling into same cell share solution
+         */
+        private double quantizationStep;
+        /**
+         * Maximal relative deviation applied to each attribute of solution
+         */
+        private double jitter;
+    }
+
+    @Data
+    public static class MonsterTableAttributes {
+        /**
+         * Generates monsters by lookup in precomputed table instead of optimizer
+         */
+        private boolean enabled;
+        private int samples;
+        private int neighbours;
+    }
+
+    @Data
+    public static class ItemNameCacheAttributes {
+        private boolean enabled;
+        /**
+         * Generated names of same item signature needed before they're reused instead of requesting new one
+         */
+        private int minVariants;
+        private int maxVariants;
+    }
 }
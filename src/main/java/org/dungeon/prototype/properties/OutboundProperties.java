@@ -0,0 +1,45 @@
+package org.dungeon.prototype.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("outbound")
+public class OutboundProperties {
+    /**
+     * Threads of bot's http client executing async requests
+     */
+    private int senderThreads = 8;
+    /**
+     * Requests per second to Telegram from whole bot
+     */
+    private double globalRate = 30;
+    private int globalBurst = 30;
+    /**
+     * Requests per second to single chat
+     */
+    private double chatRate = 1;
+    private int chatBurst = 3;
+    /**
+     * Attempts to send message failed for reasons other than rate limiting
+     */
+    private int maxAttempts = 3;
+    /**
+     * Delay before second attempt, doubled with each next one
+     */
+    private Duration retryBackoff = Duration.ofMillis(500);
+    /**
+     * Max messages deleted with single request, limited by Telegram with 100
+     */
+    private int deleteBatchSize = 100;
+    /**
+     * Time given to queued messages to be sent on shutdown
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+    /**
+     * Edit last message of chat instead of sending new one and deleting previous
+     */
+    private boolean editInPlace = true;
+}
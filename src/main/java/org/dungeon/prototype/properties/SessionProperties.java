@@ -0,0 +1,28 @@
+package org.dungeon.prototype.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("session")
+public class SessionProperties {
+    /**
+     * Maximum number of chats which game state is kept in memory, a count of sessions rather than
+     * memory size, least recently used one is flushed and evicted on overflow
+     */
+    private int maxSessions = 1000;
+    /**
+     * Delay between flushes of changed game state to database
+     */
+    private Duration flushInterval = Duration.ofSeconds(2);
+    /**
+     * Path of journal of changes not yet flushed to database, journal is disabled if empty
+     */
+    private String journalPath;
+    /**
+     * Forces each journal record to storage device before change is acknowledged
+     */
+    private boolean journalSync = false;
+}
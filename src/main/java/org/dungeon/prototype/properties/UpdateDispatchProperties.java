@@ -0,0 +1,23 @@
+package org.dungeon.prototype.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("update-dispatch")
+public class UpdateDispatchProperties {
+    /**
+     * Updates of single chat waiting to be handled, exceeding ones are dropped
+     */
+    private int mailboxCapacity = 32;
+    /**
+     * Updates of all chats waiting to be handled, exceeding ones are dropped
+     */
+    private int maxQueuedUpdates = 10000;
+    /**
+     * Time given to queued updates to be handled on shutdown
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
@@ -1,9 +1,9 @@
 package org.dungeon.prototype.repository;
 
-import org.dungeon.prototype.model.document.monster.MonsterDocument;
+import org.dungeon.prototype.model.document.item.ItemNameDocument;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface MonsterRepository extends MongoRepository<MonsterDocument, String> {
+public interface ItemNameRepository extends MongoRepository<ItemNameDocument, String> {
 }
@@ -0,0 +1,9 @@
+package org.dungeon.prototype.repository;
+
+import org.dungeon.prototype.model.document.item.ItemTemplateDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ItemTemplateRepository extends MongoRepository<ItemTemplateDocument, String> {
+}
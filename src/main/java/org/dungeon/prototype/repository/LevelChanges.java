@@ -0,0 +1,117 @@
+package org.dungeon.prototype.repository;
+
+import lombok.val;
+import org.bson.Document;
+import org.dungeon.prototype.model.Point;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Pending changes of level document written with single update: new values of fields set by their paths
+ * and sections added to visited rooms of level map, expanding map bounds.
+ * Paths of set fields never overlap: field inside one already pending is applied to pending value
+ * and pending fields inside newly set one are dropped. Values are bson, so update isn't mapped
+ */
+public class LevelChanges {
+    private static final String LEVEL_MAP = "levelMap";
+
+    private final Map<String, Object> fields = new LinkedHashMap<>();
+    private final Map<Point, Document> visitedRooms = new LinkedHashMap<>();
+    private Integer maxX;
+    private Integer minX;
+    private Integer maxY;
+    private Integer minY;
+
+    /**
+     * Sets field of level, replacing its pending value
+     *
+     * @param path  path of field
+     * @param value bson value
+     */
+    public void set(String path, Object value) {
+        fields.keySet().removeIf(pendingPath -> pendingPath.startsWith(path + "."));
+        for (val field : fields.entrySet()) {
+            if (path.startsWith(field.getKey() + ".")) {
+                field.setValue(withField(field.getValue(), path.substring(field.getKey().length() + 1), value));
+                return;
+            }
+        }
+        fields.put(path, value);
+    }
+
+    /**
+     * Adds section to visited rooms of level map, unless it's already there
+     *
+     * @param point   point of section
+     * @param section bson of grid section
+     */
+    public void addVisitedRoom(Point point, Document section) {
+        visitedRooms.putIfAbsent(point, section);
+        maxX = max(maxX, point.getX() + 1);
+        minX = min(minX, point.getX() - 1);
+        maxY = max(maxY, point.getY() + 1);
+        minY = min(minY, point.getY() - 1);
+    }
+
+    /**
+     * Applies newer changes on top of these ones
+     *
+     * @param newer changes made after these ones
+     */
+    public void addAll(LevelChanges newer) {
+        newer.fields.forEach(this::set);
+        newer.visitedRooms.forEach(visitedRooms::putIfAbsent);
+        maxX = max(maxX, newer.maxX);
+        minX = min(minX, newer.minX);
+        maxY = max(maxY, newer.maxY);
+        minY = min(minY, newer.minY);
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty() && visitedRooms.isEmpty();
+    }
+
+    public int size() {
+        return fields.size() + visitedRooms.size();
+    }
+
+    /**
+     * @return update with $set of changed fields, $addToSet of visited rooms and $min/$max of map bounds
+     */
+    public Update toUpdate() {
+        val update = new Update();
+        fields.forEach(update::set);
+        if (!visitedRooms.isEmpty()) {
+            update.addToSet(LEVEL_MAP + ".visitedRooms").each(visitedRooms.values().toArray());
+            update.max(LEVEL_MAP + ".maxX", maxX)
+                    .min(LEVEL_MAP + ".minX", minX)
+                    .max(LEVEL_MAP + ".maxY", maxY)
+                    .min(LEVEL_MAP + ".minY", minY);
+        }
+        return update;
+    }
+
+    private static Object withField(Object parent, String path, Object value) {
+        val document = isNull(parent) ? new Document() : new Document((Document) parent);
+        val dot = path.indexOf('.');
+        if (dot < 0) {
+            document.put(path, value);
+        } else {
+            val key = path.substring(0, dot);
+            document.put(key, withField(document.get(key), path.substring(dot + 1), value));
+        }
+        return document;
+    }
+
+    private static Integer max(Integer current, Integer value) {
+        return isNull(current) || (!isNull(value) && value > current) ? value : current;
+    }
+
+    private static Integer min(Integer current, Integer value) {
+        return isNull(current) || (!isNull(value) && value < current) ? value : current;
+    }
+}
@@ -9,10 +9,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
-public interface LevelRepository extends MongoRepository<LevelDocument, Long> {
-    @Query(value = "{ '_id' : ?0 }")
-    Optional<LevelDocument> findByChatId(@Param("_id") Long chatId);
-
+public interface LevelRepository extends MongoRepository<LevelDocument, Long>, LevelRepositoryCustom {
     @Query(value = "{ '_id': ?0}", fields = "{ 'number': 1, '_id': 0 }")
     Optional<LevelNumberProjection> findNumberByChatId(@Param("_id") Long chatId);
 
@@ -0,0 +1,28 @@
+package org.dungeon.prototype.repository;
+
+import org.dungeon.prototype.model.document.room.RoomDocument;
+
+import java.util.Collection;
+
+/**
+ * Access to level aggregate: rooms, their contents and monsters are embedded into level document,
+ * items of rooms are referred by id and resolved in one query
+ */
+public interface LevelRepositoryCustom {
+
+    /**
+     * Loads items of given rooms with one query
+     *
+     * @param rooms rooms which items are resolved by their ids
+     */
+    void resolveItems(Collection<RoomDocument> rooms);
+
+    /**
+     * Applies pending changes to chat's level with single update: fields and room contents are set
+     * by their paths, visited rooms are added to level map
+     *
+     * @param chatId  id of chat
+     * @param changes pending changes of level
+     */
+    void applyChanges(Long chatId, LevelChanges changes);
+}
@@ -0,0 +1,59 @@
+package org.dungeon.prototype.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.model.document.item.ItemDocument;
+import org.dungeon.prototype.model.document.level.LevelDocument;
+import org.dungeon.prototype.model.document.room.RoomContentDocument;
+import org.dungeon.prototype.model.document.room.RoomDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.nonNull;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Slf4j
+public class LevelRepositoryCustomImpl implements LevelRepositoryCustom {
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void applyChanges(Long chatId, LevelChanges changes) {
+        // values are already converted to bson, so update is issued against collection without mapping
+        val result = mongoTemplate.updateFirst(query(where("_id").is(chatId)), changes.toUpdate(),
+                mongoTemplate.getCollectionName(LevelDocument.class));
+        if (result.getMatchedCount() == 0) {
+            log.warn("Level of chat {} not found, {} changes aren't saved", chatId, changes.size());
+        }
+    }
+
+    @Override
+    public void resolveItems(Collection<RoomDocument> rooms) {
+        val contents = rooms.stream()
+                .map(RoomDocument::getRoomContent)
+                .filter(content -> nonNull(content) && nonNull(content.getItemIds()))
+                .toList();
+        val itemIds = contents.stream()
+                .flatMap(content -> content.getItemIds().stream())
+                .collect(Collectors.toSet());
+        final Map<String, ItemDocument> itemsById = itemIds.isEmpty() ? Map.of() :
+                mongoTemplate.find(query(where("_id").in(itemIds)), ItemDocument.class).stream()
+                        .collect(Collectors.toMap(ItemDocument::getId, Function.identity()));
+        if (itemsById.size() < itemIds.size()) {
+            log.warn("{} of {} room items not found", itemIds.size() - itemsById.size(), itemIds.size());
+        }
+        for (RoomContentDocument content : contents) {
+            content.setItems(content.getItemIds().stream()
+                    .map(itemsById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+    }
+}
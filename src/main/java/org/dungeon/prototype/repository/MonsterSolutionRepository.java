@@ -0,0 +1,9 @@
+package org.dungeon.prototype.repository;
+
+import org.dungeon.prototype.model.document.monster.MonsterSolutionDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MonsterSolutionRepository extends MongoRepository<MonsterSolutionDocument, String> {
+}
@@ -2,6 +2,7 @@ package org.dungeon.prototype.repository.converters.mapstruct;
 
 import org.dungeon.prototype.model.document.item.EffectDocument;
 import org.dungeon.prototype.model.document.item.ItemDocument;
+import org.dungeon.prototype.model.document.item.ItemTemplateDocument;
 import org.dungeon.prototype.model.effect.Effect;
 import org.dungeon.prototype.model.inventory.Item;
 import org.dungeon.prototype.model.inventory.items.Usable;
@@ -9,6 +10,7 @@ import org.dungeon.prototype.model.inventory.items.Weapon;
 import org.dungeon.prototype.model.inventory.items.Wearable;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.Mappings;
 import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
@@ -38,7 +40,7 @@ public interface ItemMapper {
             @Mapping(target = "isCompleteDragonBone", ignore = true),
             @Mapping(target = "armor", ignore = true),
             @Mapping(target = "chanceToDodge", ignore = true),
-            @Mapping(target = "weightAbs", expression = "java(usable.getWeight().toVector().getNorm())")
+            @Mapping(target = "weightAbs", expression = "java(usable.getWeight().getNorm())")
     })
     ItemDocument mapUsableToDocument(Usable usable);
 
@@ -50,7 +52,7 @@ public interface ItemMapper {
             @Mapping(target = "chanceToKnockOut", ignore = true),
             @Mapping(target = "isCompleteDragonBone", ignore = true),
             @Mapping(target = "amount", ignore = true),
-            @Mapping(target = "weightAbs", expression = "java(wearable.getWeight().toVector().getNorm())")
+            @Mapping(target = "weightAbs", expression = "java(wearable.getWeight().getNorm())")
     })
     ItemDocument mapWearableToDocument(Wearable wearable);
 
@@ -58,7 +60,7 @@ public interface ItemMapper {
             @Mapping(target = "armor", ignore = true),
             @Mapping(target = "chanceToDodge", ignore = true),
             @Mapping(target = "amount", ignore = true),
-            @Mapping(target = "weightAbs", expression = "java(weapon.getWeight().toVector().getNorm())")
+            @Mapping(target = "weightAbs", expression = "java(weapon.getWeight().getNorm())")
     })
     ItemDocument mapWeaponToDocument(Weapon weapon);
 
@@ -88,6 +90,20 @@ public interface ItemMapper {
     })
     Usable mapToUsable(ItemDocument document);
 
+    @Mapping(target = "id", ignore = true)
+    ItemTemplateDocument mapToTemplate(ItemDocument document);
+
+    @Mappings({
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "chatId", ignore = true),
+            @Mapping(target = "templateId", ignore = true),
+            @Mapping(target = "name", ignore = true),
+            @Mapping(target = "amount", ignore = true),
+            @Mapping(target = "effects", ignore = true),
+            @Mapping(target = "weightAbs", ignore = true)
+    })
+    void applyTemplate(ItemTemplateDocument template, @MappingTarget ItemDocument document);
+
     @Named("mapEffects")
     default List<Effect> mapEffects(List<EffectDocument> documents) {
         return documents.stream()
@@ -12,6 +12,8 @@ import org.mapstruct.Mappings;
 import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,6 +27,7 @@ public interface RoomContentMapper {
             @Mapping(target = "monster", ignore = true),
             @Mapping(target = "gold", ignore = true),
             @Mapping(target = "items", ignore = true),
+            @Mapping(target = "itemIds", ignore = true),
             @Mapping(target = "chanceToBreakWeapon", ignore = true),
             @Mapping(target = "attackBonus", ignore = true),
             @Mapping(target = "armorRestored", ignore = true),
@@ -38,13 +41,15 @@ public interface RoomContentMapper {
             @Mapping(target = "attackBonus", ignore = true),
             @Mapping(target = "armorRestored", ignore = true),
             @Mapping(target = "effect", ignore = true),
-            @Mapping(target = "gold", source = "roomContent", qualifiedByName = "mapGoldToDocument")
+            @Mapping(target = "gold", source = "roomContent", qualifiedByName = "mapGoldToDocument"),
+            @Mapping(target = "itemIds", source = "items", qualifiedByName = "mapItemIds")
     })
     RoomContentDocument mapToDocument(ItemsRoom roomContent);
 
     @Mappings({
             @Mapping(target = "gold", ignore = true),
             @Mapping(target = "items", ignore = true),
+            @Mapping(target = "itemIds", ignore = true),
             @Mapping(target = "chanceToBreakWeapon", ignore = true),
             @Mapping(target = "attackBonus", ignore = true),
             @Mapping(target = "armorRestored", ignore = true),
@@ -56,6 +61,7 @@ public interface RoomContentMapper {
             @Mapping(target = "monster", ignore = true),
             @Mapping(target = "gold", ignore = true),
             @Mapping(target = "items", ignore = true),
+            @Mapping(target = "itemIds", ignore = true),
             @Mapping(target = "chanceToBreakWeapon", ignore = true),
             @Mapping(target = "attackBonus", ignore = true),
             @Mapping(target = "armorRestored", ignore = true),
@@ -66,6 +72,7 @@ public interface RoomContentMapper {
             @Mapping(target = "monster", ignore = true),
             @Mapping(target = "gold", ignore = true),
             @Mapping(target = "items", ignore = true),
+            @Mapping(target = "itemIds", ignore = true),
             @Mapping(target = "effect", ignore = true),
     })
     RoomContentDocument mapToDocument(Anvil anvil);
@@ -123,6 +130,14 @@ public interface RoomContentMapper {
         }
     }
 
+    @Named("mapItemIds")
+    default List<String> mapItemIds(Set<Item> items) {
+        if (isNull(items)) {
+            return null;
+        }
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+
     default RoomContentDocument mapToRoomContentDocument(RoomContent roomContent) {
         if (isNull(roomContent)) {
             return null;
@@ -141,6 +156,9 @@ public interface RoomContentMapper {
 
     @NotNull
     private static Set<Item> convertItems(RoomContentDocument document) {
+        if (isNull(document.getItems())) {
+            return new HashSet<>();
+        }
         return document.getItems().stream().map(itemDocument ->
                 switch (itemDocument.getItemType()) {
                     case WEARABLE -> ItemMapper.INSTANCE.mapToWearable(itemDocument);
@@ -0,0 +1,14 @@
+package org.dungeon.prototype.repository.projections;
+
+import lombok.Data;
+import org.dungeon.prototype.model.document.item.ItemAttributes;
+import org.dungeon.prototype.model.document.item.ItemType;
+
+@Data
+public class ItemCatalogProjection {
+    private String id;
+    private String templateId;
+    private Double weightAbs;
+    private ItemType itemType;
+    private ItemAttributes attributes;
+}
@@ -1,9 +0,0 @@
-package org.dungeon.prototype.repository.projections;
-
-import lombok.Data;
-
-@Data
-public class ItemWeightProjection {
-    private String id;
-    private Double weightAbs;
-}
@@ -65,13 +65,13 @@ public class BattleService {
                 messageService.sendRoomMessage(chatId, player, currentRoom);
             }
         } else {
-            monsterAttacks(player, monster);
+            monsterAttacks(player, currentRoom, monster);
             playerService.updatePlayer(player);
             messageService.sendMonsterRoomMessage(chatId, player, currentRoom);
         }
     }
 
-    private void monsterAttacks(Player player, Monster monster) {
+    private void monsterAttacks(Player player, Room currentRoom, Monster monster) {
         if (nonNull(monster.getEffects()) && monster.getEffects().stream().anyMatch(monsterEffect -> MOVING.equals(monsterEffect.getAttribute()))) {
             return;
         }
@@ -104,7 +104,7 @@ public class BattleService {
             player.decreaseHp(diff);
             log.info("Player's health decreased by: {}", diff);
         }
-        monsterService.updateMonster(monster);
+        monsterService.updateMonster(currentRoom, monster);
     }
 
     private void playerAttacks(Monster monster, Player player, CallbackType attackType) {
@@ -4,15 +4,15 @@ import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.dungeon.prototype.annotations.aspect.ChatStateUpdate;
 import org.dungeon.prototype.exception.EntityNotFoundException;
+import org.dungeon.prototype.model.document.player.PlayerDocument;
 import org.dungeon.prototype.model.inventory.Inventory;
 import org.dungeon.prototype.model.player.Player;
 import org.dungeon.prototype.model.player.PlayerAttribute;
 import org.dungeon.prototype.properties.CallbackType;
 import org.dungeon.prototype.properties.PlayerProperties;
-import org.dungeon.prototype.repository.PlayerRepository;
 import org.dungeon.prototype.repository.converters.mapstruct.PlayerMapper;
-import org.dungeon.prototype.repository.projections.NicknameProjection;
 import org.dungeon.prototype.service.message.MessageService;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -30,7 +30,7 @@ import static org.dungeon.prototype.util.PlayerUtil.getSecondaryAttack;
 @Service
 public class PlayerService {
     @Autowired
-    PlayerRepository playerRepository;
+    GameSessionCache gameSessionCache;
     @Autowired
     PlayerProperties playerProperties;
     @Autowired
@@ -43,7 +43,7 @@ public class PlayerService {
      * @return found player
      */
     public Player getPlayer(Long chatId) {
-        val playerDocument = playerRepository.findByChatId(chatId)
+        val playerDocument = gameSessionCache.getPlayer(chatId)
                 .orElseThrow(() ->
                         new EntityNotFoundException(chatId, "player", CallbackType.BOT_START));
         return PlayerMapper.INSTANCE.mapToPlayer(playerDocument);
@@ -53,10 +53,12 @@ public class PlayerService {
      * Prepares player for new game
      * @param chatId current chat id
      * @param defaultInventory player's default inventory
+     * @param gameSeed seed of new game, levels are generated from
      * @return prepared player with default inventory
      */
-    public Player getPlayerPreparedForNewGame(Long chatId, Inventory defaultInventory) {
+    public Player getPlayerPreparedForNewGame(Long chatId, Inventory defaultInventory, long gameSeed) {
         Player player = getPlayer(chatId);
+        player.setGameSeed(gameSeed);
         player.setMaxHp(getDefaultMaxHp(player));
         player.setHp(player.getMaxHp());
         player.setXp(0L);
@@ -107,7 +109,7 @@ public class PlayerService {
      */
     public Player updatePlayer(Player player) {
         val playerDocument = PlayerMapper.INSTANCE.mapToDocument(player);
-        val savedPlayer = playerRepository.save(playerDocument);
+        val savedPlayer = gameSessionCache.savePlayer(playerDocument);
         return PlayerMapper.INSTANCE.mapToPlayer(savedPlayer);
     }
 
@@ -117,7 +119,7 @@ public class PlayerService {
      * @return true if player exists
      */
     public Boolean hasPlayer(Long chatId) {
-        return playerRepository.existsByChatId(chatId);
+        return gameSessionCache.getPlayer(chatId).isPresent();
     }
 
     /**
@@ -127,7 +129,7 @@ public class PlayerService {
      * @return found nickname
      */
     public String getNicknameByChatId(Long chatId) {
-        return playerRepository.getNicknameByChatId(chatId).map(NicknameProjection::getNickname).orElseThrow(() ->
+        return gameSessionCache.getPlayer(chatId).map(PlayerDocument::getNickname).orElseThrow(() ->
                 new EntityNotFoundException(chatId, "player", CallbackType.CONTINUE_GAME));
         }
 
@@ -144,7 +146,7 @@ public class PlayerService {
     private Player addNewPlayer(Long chatId, String nickname) {
         val player = generatePlayer(chatId, nickname);
         val playerDocument = PlayerMapper.INSTANCE.mapToDocument(player);
-        val savedPlayer = playerRepository.save(playerDocument);
+        val savedPlayer = gameSessionCache.savePlayer(playerDocument);
         log.info("Player generated: {}", player);
         return PlayerMapper.INSTANCE.mapToPlayer(savedPlayer);
     }
@@ -172,6 +174,6 @@ public class PlayerService {
         }
         log.info("Player default inventory initialized: {}", player);
         val playerDocument = PlayerMapper.INSTANCE.mapToDocument(player);
-        playerRepository.save(playerDocument);
+        gameSessionCache.savePlayer(playerDocument);
     }
 }
@@ -1,16 +1,11 @@
 package org.dungeon.prototype.service.effect;
 
 import lombok.val;
-import org.apache.commons.math3.analysis.MultivariateFunction;
 import org.apache.commons.math3.analysis.UnivariateFunction;
-import org.apache.commons.math3.optim.InitialGuess;
 import org.apache.commons.math3.optim.MaxEval;
-import org.apache.commons.math3.optim.PointValuePair;
-import org.apache.commons.math3.optim.SimpleBounds;
 import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
-import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
-import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.BOBYQAOptimizer;
 import org.apache.commons.math3.optim.univariate.BrentOptimizer;
+import org.apache.commons.math3.optim.univariate.SearchInterval;
 import org.apache.commons.math3.optim.univariate.UnivariateObjectiveFunction;
 import org.apache.commons.math3.optim.univariate.UnivariatePointValuePair;
 import org.dungeon.prototype.model.effect.Effect;
@@ -21,10 +16,12 @@ import org.dungeon.prototype.model.effect.attributes.Action;
 import org.dungeon.prototype.model.effect.attributes.EffectApplicant;
 import org.dungeon.prototype.model.effect.attributes.EffectAttribute;
 import org.dungeon.prototype.model.inventory.Item;
+import org.dungeon.prototype.model.weight.Weight;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EffectFactory {
+    private static final int MAX_REGENERATION_TURNS = 10;
 
     /**
      * Generates given attribute regeneration effect
@@ -33,51 +30,47 @@ public class EffectFactory {
      * @return expirable accumulated addition effect
      */
     public ExpirableAdditionEffect generateRegenerationEffect(EffectAttribute attribute, double expectedWeightAbs) {
-        MultivariateFunction objective = point -> objectiveEffectGenerationFunction(
-                point,
-                attribute,
-                expectedWeightAbs
-        );
-
-        BOBYQAOptimizer optimizer = new BOBYQAOptimizer(4);
-
-        PointValuePair result = optimizer.optimize(
-                new MaxEval(10000),                             // Maximum evaluations
-                new ObjectiveFunction(objective),              // Objective function
-                GoalType.MINIMIZE,                             // Minimization goal
-                new InitialGuess(new double[]{1.0, 3.0}),
-                new SimpleBounds(new double[]{0.0, 0.0},
-                        new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY})
-        );
-
-        double[] optimizedAttributes = result.getPoint();
+        val unitWeightAbs = Weight.buildWeightVectorForAttribute(attribute, 1.0).getNorm();
+        int amount = 0;
+        int turnsLeft = 0;
+        double error = Double.POSITIVE_INFINITY;
+        // Regeneration weight is linear in amount, so for each duration only whole amounts
+        // around exact solution are checked
+        for (int turns = 1; turns <= MAX_REGENERATION_TURNS && unitWeightAbs > 0.0; turns++) {
+            val exactAmount = expectedWeightAbs * (turns + 1) / (turns * unitWeightAbs);
+            val floorAmount = (int) Math.max(0.0, Math.floor(exactAmount));
+            for (int candidate = floorAmount; candidate <= floorAmount + 1; candidate++) {
+                val candidateError = objectiveEffectGenerationFunction(candidate, turns, attribute, expectedWeightAbs);
+                if (candidateError < error) {
+                    amount = candidate;
+                    turnsLeft = turns;
+                    error = candidateError;
+                }
+            }
+        }
 
         return ExpirableAdditionEffect.builder()
                 .isAccumulated(true)
                 .applicableTo(EffectApplicant.PLAYER)
                 .attribute(attribute)
-                .amount((int) optimizedAttributes[0])
-                .turnsLeft((int) optimizedAttributes[1])
+                .amount(amount)
+                .turnsLeft(turnsLeft)
                 .build();
     }
 
     /**
-     * Generates item effect to change its weight by expected value
-     * @param item to add effect to
+     * Generates item effect to change its weight by expected value, item itself isn't changed
+     * @param item to generate effect for
      * @param attribute attribute to apply
      * @param action {@link Action#ADD} or {@link Action#MULTIPLY}
      * @param expectedWeightChange expected weight norm delta
      * @return generated effect
      */
     public Effect generateItemEffect(Item item, EffectAttribute attribute, Action action, double expectedWeightChange) {
-        UnivariateFunction objective = point -> objectiveEffectWeightChangeFunction(
-                point,
-                item,
-                attribute,
-                action,
-                expectedWeightChange);
+        val evaluator = new ItemEffectWeightEvaluator(item);
+        UnivariateFunction objective = point ->
+                Math.abs(expectedWeightChange - evaluator.getWeightChange(attribute, action, point));
 
-        // Powell's method for multidimensional optimization)
         BrentOptimizer optimizer = new BrentOptimizer(1e-10, 1e-14);
 
         // Optimization problem setup
@@ -85,51 +78,51 @@ public class EffectFactory {
                 new MaxEval(1000),                             // Maximum evaluations
                 new UnivariateObjectiveFunction(objective),              // Objective function
                 GoalType.MINIMIZE,                             // Minimization goal
-                new InitialGuess(new double[]{1.0})
+                getSearchInterval(action, expectedWeightChange)
         );
 
         // Optimized attributes result
         double optimizedAttribute = result.getPoint();
 
-        return PermanentMultiplicationEffect
-                .builder()
-                .applicableTo(EffectApplicant.ITEM)
-                .attribute(attribute)
-                .multiplier(optimizedAttribute)
-                .build();
+        return switch (action) {
+            case ADD -> PermanentAdditionEffect
+                    .builder()
+                    .applicableTo(EffectApplicant.ITEM)
+                    .attribute(attribute)
+                    .amount(getClosestWholeAmount(objective, optimizedAttribute))
+                    .build();
+            case MULTIPLY, OTHER -> PermanentMultiplicationEffect
+                    .builder()
+                    .applicableTo(EffectApplicant.ITEM)
+                    .attribute(attribute)
+                    .multiplier(optimizedAttribute)
+                    .build();
+        };
     }
 
-    private static double objectiveEffectWeightChangeFunction(double point, Item item, EffectAttribute attribute, Action action, double expectedWeightChange) {
-        val oldWeight = item.getWeight().toVector();
-        switch (action) {
-            case ADD -> item.getEffects().add(
-                    PermanentAdditionEffect.builder()
-                            .applicableTo(EffectApplicant.ITEM)
-                            .attribute(attribute)
-                            .amount((int) point)
-                            .build()
-            );
-            case MULTIPLY -> item.getEffects().add(
-                    PermanentMultiplicationEffect.builder()
-                            .applicableTo(EffectApplicant.ITEM)
-                            .attribute(attribute)
-                            .multiplier(point)
-                            .build()
-            );
-            case OTHER -> {
-            }
-        }
-        return Math.abs(expectedWeightChange - item.getWeight().toVector().subtract(oldWeight).getNorm());
+    // Amount is optimized as continuous, closest of neighbouring whole amounts is taken
+    private static int getClosestWholeAmount(UnivariateFunction objective, double amount) {
+        val floorAmount = Math.floor(amount);
+        return (int) (objective.value(floorAmount) <= objective.value(floorAmount + 1.0) ? floorAmount : floorAmount + 1.0);
+    }
+
+    private static SearchInterval getSearchInterval(Action action, double expectedWeightChange) {
+        return switch (action) {
+            // amounts up to about twice expected change
+            case ADD -> new SearchInterval(1.0, Math.max(2.0, 2.0 * expectedWeightChange + 1.0), 1.0);
+            // from removing attribute completely to doubling it, starting with no change
+            case MULTIPLY, OTHER -> new SearchInterval(0.0, 2.0, 1.0);
+        };
     }
 
-    private static double objectiveEffectGenerationFunction(double[] point, EffectAttribute attribute, double expectedWeightAbs) {
+    private static double objectiveEffectGenerationFunction(int amount, int turnsLeft, EffectAttribute attribute, double expectedWeightAbs) {
         ExpirableAdditionEffect effect = ExpirableAdditionEffect.builder()
                 .attribute(attribute)
                 .applicableTo(EffectApplicant.PLAYER)
                 .isAccumulated(true)
-                .amount((int) point[0])
-                .turnsLeft((int) point[1])
+                .amount(amount)
+                .turnsLeft(turnsLeft)
                 .build();
-        return Math.abs(expectedWeightAbs - effect.getWeight().toVector().getNorm());
+        return Math.abs(expectedWeightAbs - effect.getWeight().getNorm());
     }
 }
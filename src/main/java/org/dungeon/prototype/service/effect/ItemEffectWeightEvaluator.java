@@ -0,0 +1,39 @@
+package org.dungeon.prototype.service.effect;
+
+import lombok.val;
+import org.dungeon.prototype.model.effect.attributes.Action;
+import org.dungeon.prototype.model.effect.attributes.EffectAttribute;
+import org.dungeon.prototype.model.inventory.Item;
+import org.dungeon.prototype.model.inventory.items.Usable;
+import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
+
+/**
+ * Evaluates change of item's weight caused by candidate effect without adding effect to item.
+ * Item's weight is linear in weights of its effects, so candidate's weight, scaled same way
+ * item scales its effects, is added to weight item had before. Not thread-safe
+ */
+final class ItemEffectWeightEvaluator {
+    private final Weight baseWeight;
+    private final double effectsScale;
+    private final WeightAccumulator weight = new WeightAccumulator();
+
+    ItemEffectWeightEvaluator(Item item) {
+        this.baseWeight = item.getWeight();
+        this.effectsScale = item instanceof Usable usable ? usable.getAmount() : 1.0;
+    }
+
+    /**
+     * @param attribute attribute of candidate effect
+     * @param action    {@link Action#ADD} for addition effect, multiplication one otherwise
+     * @param point     amount of addition, not necessarily whole, or multiplier
+     * @return norm of item's weight change
+     */
+    double getWeightChange(EffectAttribute attribute, Action action, double point) {
+        val effectWeight = switch (action) {
+            case ADD -> Weight.buildWeightVectorForAttribute(attribute, point);
+            case MULTIPLY, OTHER -> Weight.buildWeightVectorForAttribute(attribute, 1.0 - point);
+        };
+        return weight.reset().add(baseWeight).addScaled(effectWeight, effectsScale).distanceTo(baseWeight);
+    }
+}
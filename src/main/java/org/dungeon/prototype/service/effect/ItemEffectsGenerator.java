@@ -1,7 +1,7 @@
 package org.dungeon.prototype.service.effect;
 
 import lombok.val;
-import org.apache.commons.math3.util.Pair;
+import org.bson.types.ObjectId;
 import org.dungeon.prototype.model.effect.Effect;
 import org.dungeon.prototype.model.effect.attributes.Action;
 import org.dungeon.prototype.model.effect.attributes.EffectAttribute;
@@ -10,22 +10,19 @@ import org.dungeon.prototype.model.inventory.items.Usable;
 import org.dungeon.prototype.model.inventory.items.Weapon;
 import org.dungeon.prototype.model.inventory.items.Wearable;
 import org.dungeon.prototype.properties.ItemsGenerationProperties;
-import org.dungeon.prototype.service.item.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-import static java.util.Objects.nonNull;
 import static org.dungeon.prototype.model.effect.attributes.Action.MULTIPLY;
 import static org.dungeon.prototype.model.effect.attributes.EffectAttribute.*;
 import static org.dungeon.prototype.util.RandomUtil.getRandomInt;
 
 @Component
 public class ItemEffectsGenerator {
-    @Autowired
-    private ItemService itemService;
     @Autowired
     private EffectFactory effectFactory;
     @Autowired
@@ -33,68 +30,48 @@ public class ItemEffectsGenerator {
 
     /**
      * Generates configured amount of effects to change item's weight norm by given delta
-     * @param chatId current chat's id
-     * @param itemId id of item to apply effect to
+     * and adds them to item, item isn't stored
+     * @param item item to apply effect to
      * @param expectedWeightChange expected weight norm delta
-     * @return added effect's weight norm
+     * @return item's weight norm with added effects, empty if no effect can be added
      */
-    public Optional<Double> addItemEffect(Long chatId, String itemId, double expectedWeightChange) {
-        val item = itemService.findItem(chatId, itemId);
-        if (nonNull(item)) {
-            if (item instanceof Usable) {
-                //TODO: fix after implementing usable
-                return Optional.empty();
-            }
-            val minEffectsAmount = itemsGenerationProperties.getEffects().getMinimumAmountPerItemMap().get(item.getAttributes().getQuality());
-            val maxEffectsAmount = itemsGenerationProperties.getEffects().getMaximumAmountPerItemMap().get(item.getAttributes().getQuality());
+    public Optional<Double> addItemEffect(Item item, double expectedWeightChange) {
+        if (item instanceof Usable) {
+            //TODO: fix after implementing usable
+            return Optional.empty();
+        }
+        val minEffectsAmount = itemsGenerationProperties.getEffects().getMinimumAmountPerItemMap().get(item.getAttributes().getQuality());
+        val maxEffectsAmount = itemsGenerationProperties.getEffects().getMaximumAmountPerItemMap().get(item.getAttributes().getQuality());
 
-            if (item.getEffects().size() < minEffectsAmount) {
-                val amount = minEffectsAmount - item.getEffects().size();
-                double sum = 0.0;
-                for (int i = 0; i < amount; i++) {
-                     sum += generateAndAddItemEffect(expectedWeightChange / amount, item).orElse(0.0);
-                }
-                return Optional.of(sum);
-            } else if (item.getEffects().size() < maxEffectsAmount) {
-                return generateAndAddItemEffect(expectedWeightChange, item);
+        if (item.getEffects().size() < minEffectsAmount) {
+            val amount = minEffectsAmount - item.getEffects().size();
+            for (int i = 1; i < amount; i++) {
+                generateAndAddItemEffect(expectedWeightChange / amount, item);
             }
+            return generateAndAddItemEffect(expectedWeightChange / amount, item);
+        } else if (item.getEffects().size() < maxEffectsAmount) {
+            return generateAndAddItemEffect(expectedWeightChange, item);
         }
         return Optional.empty();
     }
 
     /**
-     * Generates configured amount of effects to change item's weight norm by given delta
-     * and adds to copy of initial item
-     * @param chatId current chat's id
-     * @param itemId id of item to copy and apply effect to
+     * Generates effect to change item's weight norm by given delta
+     * and adds it to copy of initial item, copy isn't stored
+     * @param vanillaItem item to copy and apply effect to
      * @param expectedWeightChange expected weight norm delta
-     * @return id and weight norm of newly created item
+     * @return copy of item with new id, empty if effect can't be added
      */
-    public Pair<String, Double> copyItemAndAddEffect(Long chatId, String itemId, double expectedWeightChange) {
-        val vanillaItem = itemService.findItem(chatId, itemId);
-        if (nonNull(vanillaItem)) {
-            switch (vanillaItem.getItemType()) {
-                case WEAPON -> {
-                    val weapon = new Weapon((Weapon) vanillaItem);
-                    if (generateAndAddItemEffect(expectedWeightChange, weapon).isPresent()) {
-                        return Pair.create(weapon.getId(), weapon.getWeight().toVector().getNorm());
-                    }
-                }
-                case WEARABLE -> {
-                    val wearable = new Wearable((Wearable) vanillaItem);
-                    if (generateAndAddItemEffect(expectedWeightChange, wearable).isPresent()) {
-                        return Pair.create(wearable.getId(), wearable.getWeight().toVector().getNorm());
-                    }
-                }
-                case USABLE -> {
-                    val usable = new Usable((Usable) vanillaItem);
-                    if (generateAndAddItemEffect(expectedWeightChange, usable).isPresent()) {
-                        return Pair.create(usable.getId(), usable.getWeight().toVector().getNorm());
-                    }
-                }
-            }
-        }
-        return null;
+    public Optional<Item> copyItemAndAddEffect(Item vanillaItem, double expectedWeightChange) {
+        final Item copy = switch (vanillaItem.getItemType()) {
+            case WEAPON -> new Weapon((Weapon) vanillaItem);
+            case WEARABLE -> new Wearable((Wearable) vanillaItem);
+            case USABLE -> new Usable((Usable) vanillaItem);
+        };
+        copy.setId(new ObjectId().toHexString());
+        //copy constructors share effects with initial item
+        copy.setEffects(new ArrayList<>(vanillaItem.getEffects()));
+        return generateAndAddItemEffect(expectedWeightChange, copy).map(weight -> copy);
     }
 
     private Optional<Double> generateAndAddItemEffect(double expectedWeightChange, Item item) {
@@ -119,7 +96,7 @@ public class ItemEffectsGenerator {
             if (attribute.equals(CHANCE_TO_DODGE)) {
                 action = MULTIPLY;
             } else {
-                action = Action.values()[getRandomInt(0, Action.values().length)];
+                action = Action.values()[getRandomInt(0, Action.values().length - 1)];
             }
         } else {
             //TODO: add case for usable
@@ -127,7 +104,6 @@ public class ItemEffectsGenerator {
         }
         effect = effectFactory.generateItemEffect(item, attribute, action, expectedWeightChange);
         item.getEffects().add(effect);
-        item = itemService.saveItem(item);
-        return Optional.of(item.getWeight().toVector().getNorm());
+        return Optional.of(item.getWeight().getNorm());
     }
 }
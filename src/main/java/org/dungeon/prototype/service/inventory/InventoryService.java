@@ -17,6 +17,7 @@ import org.dungeon.prototype.service.effect.EffectService;
 import org.dungeon.prototype.service.item.ItemService;
 import org.dungeon.prototype.service.message.MessageService;
 import org.dungeon.prototype.service.room.RoomService;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.dungeon.prototype.util.MessageUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -41,6 +42,8 @@ public class InventoryService {
     private MessageService messageService;
     @Autowired
     private InventoryRepository inventoryRepository;
+    @Autowired
+    private GameSessionCache gameSessionCache;
 
     /**
      * Builds default inventory for start of the game
@@ -54,18 +57,20 @@ public class InventoryService {
         inventory.setItems(new ArrayList<>());
         inventory.setVest(getDefaultVest(chatId));
         inventory.setPrimaryWeapon(getDefaultWeapon(chatId));
-        inventory = saveOrUpdateInventory(inventory);
+        inventory = saveOrUpdateInventory(chatId, inventory);
         return inventory;
     }
 
     /**
-     * Saves or updates inventory to repository
+     * Saves or updates inventory to repository and to cached player of chat
+     * @param chatId id of player's chat
      * @param inventory inventory to save or update
      * @return saved or updated inventory
      */
-    public Inventory saveOrUpdateInventory(Inventory inventory) {
+    public Inventory saveOrUpdateInventory(Long chatId, Inventory inventory) {
         val inventoryDocument = InventoryMapper.INSTANCE.mapToDocument(inventory);
         val savedInventoryDocument = inventoryRepository.save(inventoryDocument);
+        gameSessionCache.updateInventory(chatId, savedInventoryDocument);
         return InventoryMapper.INSTANCE.mapToEntity(savedInventoryDocument);
     }
 
@@ -90,7 +95,7 @@ public class InventoryService {
             player.addEffects(new ArrayList<>(item.getEffects()));
             player = effectService.updateArmorEffect(player);
             playerService.updatePlayer(player);
-            saveOrUpdateInventory(inventory);
+            saveOrUpdateInventory(chatId, inventory);
             messageService.sendInventoryMessage(chatId, inventory);
         }
     }
@@ -111,7 +116,7 @@ public class InventoryService {
         }
         if (inventory.unEquip(item) && (item.getEffects().isEmpty() || player.removeEffects(item.getEffects()))) {
             effectService.updateArmorEffect(player);
-            saveOrUpdateInventory(inventory);
+            saveOrUpdateInventory(chatId, inventory);
             messageService.sendInventoryMessage(chatId, inventory);
         }
     }
@@ -128,7 +133,7 @@ public class InventoryService {
         val isEquipped = inventory.isEquipped(item);
         if (inventory.removeItem(item)) {
             player.addGold(item.getSellingPrice());
-            saveOrUpdateInventory(inventory);
+            saveOrUpdateInventory(chatId, inventory);
             if (isEquipped && !item.getEffects().isEmpty()) {
                  player.removeEffects(item.getEffects());
                  player = effectService.updateArmorEffect(player);
@@ -158,7 +163,7 @@ public class InventoryService {
         player.removeGold(item.getSellingPrice());
         playerService.updatePlayer(player);
         roomService.saveOrUpdateRoom(currentRoom);
-        saveOrUpdateInventory(player.getInventory());
+        saveOrUpdateInventory(chatId, player.getInventory());
         messageService.sendMerchantBuyMenuMessage(chatId, player.getGold(),
                 ((Merchant)currentRoom.getRoomContent()).getItems());
     }
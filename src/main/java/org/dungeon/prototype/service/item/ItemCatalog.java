@@ -0,0 +1,183 @@
+package org.dungeon.prototype.service.item;
+
+import lombok.val;
+import org.dungeon.prototype.model.document.item.ItemType;
+import org.dungeon.prototype.model.inventory.attributes.Quality;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableAttributes;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableType;
+import org.dungeon.prototype.repository.projections.ItemCatalogProjection;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Immutable in-memory index of chat items, sorted by absolute weight.
+ * Selections are represented by bitsets over positions in weight order, so that
+ * excluding used items and filtering by quality or item type are bitwise operations
+ * and closest weight lookups are binary searches
+ */
+public final class ItemCatalog {
+    private final String[] ids;
+    private final double[] weightsAbs;
+    private final Map<String, Integer> positions;
+    private final Map<Quality, BitSet> byQuality = new EnumMap<>(Quality.class);
+    private final Map<ItemType, BitSet> byItemType = new EnumMap<>(ItemType.class);
+    private final Map<WearableType, BitSet> byWearableType = new EnumMap<>(WearableType.class);
+
+    private ItemCatalog(List<ItemCatalogProjection> items) {
+        ids = new String[items.size()];
+        weightsAbs = new double[items.size()];
+        positions = HashMap.newHashMap(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            val item = items.get(i);
+            ids[i] = item.getId();
+            weightsAbs[i] = item.getWeightAbs();
+            positions.put(item.getId(), i);
+            if (nonNull(item.getAttributes()) && nonNull(item.getAttributes().getQuality())) {
+                byQuality.computeIfAbsent(item.getAttributes().getQuality(), quality -> new BitSet(ids.length)).set(i);
+            }
+            if (nonNull(item.getItemType())) {
+                byItemType.computeIfAbsent(item.getItemType(), itemType -> new BitSet(ids.length)).set(i);
+            }
+            if (item.getAttributes() instanceof WearableAttributes attributes && nonNull(attributes.getWearableType())) {
+                byWearableType.computeIfAbsent(attributes.getWearableType(), wearableType -> new BitSet(ids.length)).set(i);
+            }
+        }
+    }
+
+    /**
+     * Builds catalog of items, items without weight are skipped
+     *
+     * @param items items projections
+     * @return catalog
+     */
+    public static ItemCatalog of(Collection<ItemCatalogProjection> items) {
+        //ties are ordered by id, so that selections don't depend on order of items in repository
+        return new ItemCatalog(items.stream()
+                .filter(item -> nonNull(item.getId()) && nonNull(item.getWeightAbs()))
+                .sorted(Comparator.comparingDouble(ItemCatalogProjection::getWeightAbs)
+                        .thenComparing(ItemCatalogProjection::getId))
+                .toList());
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getId(int position) {
+        return ids[position];
+    }
+
+    public double getWeightAbs(int position) {
+        return weightsAbs[position];
+    }
+
+    /**
+     * @param usedItemIds ids of items to exclude, unknown ids are ignored
+     * @return selection of all items except used ones
+     */
+    public BitSet getAvailable(Set<String> usedItemIds) {
+        val available = new BitSet(ids.length);
+        available.set(0, ids.length);
+        for (String itemId : usedItemIds) {
+            val position = positions.get(itemId);
+            if (nonNull(position)) {
+                available.clear(position);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * @return new selection of items from given one having any of given qualities
+     */
+    public BitSet filterByQuality(BitSet selection, Set<Quality> qualities) {
+        val mask = new BitSet(ids.length);
+        qualities.stream().map(byQuality::get).filter(Objects::nonNull).forEach(mask::or);
+        mask.and(selection);
+        return mask;
+    }
+
+    /**
+     * @return new selection of items from given one of given type
+     */
+    public BitSet filterByItemType(BitSet selection, ItemType itemType) {
+        val mask = (BitSet) byItemType.getOrDefault(itemType, new BitSet()).clone();
+        mask.and(selection);
+        return mask;
+    }
+
+    /**
+     * @return new selection of wearables from given one of given type
+     */
+    public BitSet filterByWearableType(BitSet selection, WearableType wearableType) {
+        val mask = (BitSet) byWearableType.getOrDefault(wearableType, new BitSet()).clone();
+        mask.and(selection);
+        return mask;
+    }
+
+    /**
+     * @return position of lightest selected item, -1 if selection is empty
+     */
+    public int findLightest(BitSet selection) {
+        return selection.nextSetBit(0);
+    }
+
+    /**
+     * @return position of heaviest selected item, -1 if selection is empty
+     */
+    public int findHeaviest(BitSet selection) {
+        return selection.previousSetBit(ids.length - 1);
+    }
+
+    /**
+     * @return position of heaviest selected item lighter than value, -1 if there is none
+     */
+    public int findClosestLesser(BitSet selection, double value) {
+        final int bound = lowerBound(value);
+        return bound > 0 ? selection.previousSetBit(bound - 1) : -1;
+    }
+
+    /**
+     * Looks for selected items lighter than value, heaviest first
+     *
+     * @param selection items to choose from
+     * @param value     exclusive weight limit
+     * @param count     max amount of items
+     * @return ids of found items
+     */
+    public List<String> findClosestLesser(BitSet selection, double value, int count) {
+        final List<String> found = new ArrayList<>(Math.min(count, ids.length));
+        for (int i = findClosestLesser(selection, value); i >= 0 && found.size() < count; i = selection.previousSetBit(i - 1)) {
+            found.add(ids[i]);
+        }
+        return found;
+    }
+
+    /**
+     * @return first position with weight not less than value
+     */
+    private int lowerBound(double value) {
+        int from = 0;
+        int to = weightsAbs.length;
+        while (from < to) {
+            final int middle = (from + to) >>> 1;
+            if (weightsAbs[middle] < value) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+}
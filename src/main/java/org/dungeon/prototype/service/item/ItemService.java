@@ -5,7 +5,9 @@ import lombok.val;
 import org.apache.commons.math3.util.Pair;
 import org.dungeon.prototype.exception.EntityNotFoundException;
 import org.dungeon.prototype.model.document.item.ItemDocument;
+import org.dungeon.prototype.model.document.item.ItemType;
 import org.dungeon.prototype.model.inventory.Item;
+import org.dungeon.prototype.model.inventory.attributes.Quality;
 import org.dungeon.prototype.model.inventory.attributes.wearable.WearableType;
 import org.dungeon.prototype.model.inventory.items.Weapon;
 import org.dungeon.prototype.model.inventory.items.Wearable;
@@ -13,33 +15,57 @@ import org.dungeon.prototype.model.weight.Weight;
 import org.dungeon.prototype.properties.CallbackType;
 import org.dungeon.prototype.repository.ItemRepository;
 import org.dungeon.prototype.repository.converters.mapstruct.ItemMapper;
-import org.dungeon.prototype.repository.projections.ItemWeightProjection;
 import org.dungeon.prototype.service.item.generation.ItemNamingService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static org.apache.commons.math3.util.FastMath.abs;
 
 @Slf4j
 @Component
 public class ItemService {
+    private static final Set<Quality> HIGH_QUALITIES = EnumSet.of(Quality.LEGENDARY, Quality.MYTHIC);
     private final ItemMapper itemMapper = ItemMapper.INSTANCE;
     @Autowired
     private ItemNamingService itemNamingService;
     @Autowired
     private ItemRepository itemRepository;
+    @Autowired
+    private ItemTemplateStore itemTemplateStore;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    private final Map<Long, ItemCatalog> catalogs = new ConcurrentHashMap<>();
 
+    /**
+     * Loads catalog of chat items, which serves weight based selections during level generation,
+     * should be called once items are generated. Catalog is dropped whenever chat items are changed
+     * and lazily reloaded on next selection
+     *
+     * @param chatId id of current chat
+     */
+    public void loadCatalog(Long chatId) {
+        val catalog = buildCatalog(chatId);
+        catalogs.put(chatId, catalog);
+        log.info("Loaded catalog of {} items for chat {}", catalog.size(), chatId);
+    }
 
     /**
      * Saves item to repository
@@ -50,7 +76,8 @@ public class ItemService {
     @Transactional
     public Item saveItem(Item item) {
         val itemDocument = ItemMapper.INSTANCE.mapToDocument(item);
-        val savedItemDocument = itemRepository.save(itemDocument);
+        val savedItemDocument = itemTemplateStore.attach(itemRepository.save(itemTemplateStore.detach(itemDocument)));
+        catalogs.remove(savedItemDocument.getChatId());
         return switch (savedItemDocument.getItemType()) {
             case WEAPON -> ItemMapper.INSTANCE.mapToWeapon(savedItemDocument);
             case WEARABLE -> ItemMapper.INSTANCE.mapToWearable(savedItemDocument);
@@ -68,23 +95,16 @@ public class ItemService {
      */
     @Transactional
     public Wearable getMostLightweightWearable(Long chatId, WearableType wearableType) {
-        List<ItemDocument> documents = itemRepository.findWearablesByChatIdTypeAndMinWeight(chatId, wearableType, PageRequest.of(0, 1));
-        if (isNull(documents) || documents.isEmpty()) {
+        val catalog = getCatalog(chatId);
+        val position = catalog.findLightest(catalog.filterByWearableType(catalog.getAvailable(Collections.emptySet()), wearableType));
+        val optionalDocument = position < 0 ? Optional.<ItemDocument>empty() :
+                itemRepository.findByChatIdAndId(chatId, catalog.getId(position));
+        if (optionalDocument.isEmpty()) {
             log.error("Unable find most lightweight wearable of type {} for chat id {}!", wearableType, chatId);
             throw new EntityNotFoundException(chatId, wearableType.toString(), CallbackType.MENU_BACK);
         }
 
-        //TODO: refactor
-        var document = documents.getFirst();
-        if (nonNull(document) && isNull(document.getName())) {
-            itemNamingService.requestNameGeneration(itemMapper.mapToWearable(document));
-            log.info("Waiting for name generation of item {} for chat {}...", document.getId(), chatId);
-            while (isNull(document.getName())) {
-                document = itemRepository.findByChatIdAndId(document.getChatId(), document.getId()).orElse(null);
-            }
-            log.info("Name for item id:{} acquired: {}", document.getId(), document.getName());
-        }
-        return itemMapper.mapToWearable(document);
+        return awaitNames(chatId, List.of(itemMapper.mapToWearable(optionalDocument.get()))).getFirst();
     }
 
     /**
@@ -96,56 +116,43 @@ public class ItemService {
      */
     @Transactional
     public Weapon getMostLightWeightMainWeapon(Long chatId) {
-        val documents = itemRepository.findMainWeaponByChatIdAndMinWeight(chatId, PageRequest.of(0, 1));
-        if (isNull(documents) || documents.isEmpty()) {
+        val catalog = getCatalog(chatId);
+        val position = catalog.findLightest(catalog.filterByItemType(catalog.getAvailable(Collections.emptySet()), ItemType.WEAPON));
+        val optionalDocument = position < 0 ? Optional.<ItemDocument>empty() :
+                itemRepository.findByChatIdAndId(chatId, catalog.getId(position));
+        if (optionalDocument.isEmpty()) {
             log.error("Unable to find most lightweight weapon for chat id {}!", chatId);
             throw new EntityNotFoundException(chatId, "weapon", CallbackType.MENU_BACK);
         }
 
-        //TODO: refactor
-        var document = documents.getFirst();
-        if (nonNull(document) && isNull(document.getName())) {
-            itemNamingService.requestNameGeneration(itemMapper.mapToWeapon(document));
-            log.info("Waiting for name generation of item {} for chat {}...", document.getId(), chatId);
-            while (isNull(document.getName())) {
-                document = itemRepository.findByChatIdAndId(document.getChatId(), document.getId()).orElse(null);
-            }
-            log.info("Name for item id:{} acquired: {}", document.getId(), document.getName());
-        }
-        return itemMapper.mapToWeapon(document);
+        return awaitNames(chatId, List.of(itemMapper.mapToWeapon(optionalDocument.get()))).getFirst();
     }
 
     public Item getHighQualityItem(long chatId, int playerLuck, Set<String> usedItemIds) {
         //TODO: make player luck affect rarity/expectedWeight
-        List<ItemWeightProjection> itemWeights = itemRepository.getHighQualityItemWeights(chatId, usedItemIds);
-        if (itemWeights.isEmpty()) {
-            val optionalItem = itemRepository.findByChatIdAndMaxWeight(chatId, usedItemIds);
-            if (optionalItem.isPresent()) {
-                return switch (optionalItem.get().getItemType()) {
-                    case WEAPON -> ItemMapper.INSTANCE.mapToWeapon(optionalItem.get());
-                    case WEARABLE -> ItemMapper.INSTANCE.mapToWearable(optionalItem.get());
-                    case USABLE -> ItemMapper.INSTANCE.mapToUsable(optionalItem.get());
-                };
-            } else {
+        val catalog = getCatalog(chatId);
+        val available = catalog.getAvailable(usedItemIds);
+        val highQuality = catalog.filterByQuality(available, HIGH_QUALITIES);
+        if (highQuality.isEmpty()) {
+            val heaviest = catalog.findHeaviest(available);
+            if (heaviest < 0) {
                 throw new EntityNotFoundException(chatId, "item", CallbackType.MENU_BACK);
             }
+            return findItem(chatId, catalog.getId(heaviest));
         }
 
-        val weightLimit = getLimitWeightForSpecialItem(playerLuck, itemWeights.stream().map(ItemWeightProjection::getWeightAbs).collect(Collectors.toList()));
-        val itemId = itemWeights.stream()
-                .filter(itemWeight -> itemWeight.getWeightAbs() < weightLimit)
-                .findFirst().map(ItemWeightProjection::getId)
-                .orElseThrow(() -> new EntityNotFoundException(chatId, "item", CallbackType.MENU_BACK));
-        return findItem(chatId, itemId);
+        val weightLimit = getLimitWeightForSpecialItem(playerLuck,
+                catalog.getWeightAbs(catalog.findLightest(highQuality)),
+                catalog.getWeightAbs(catalog.findHeaviest(highQuality)));
+        val position = catalog.findClosestLesser(highQuality, weightLimit);
+        if (position < 0) {
+            throw new EntityNotFoundException(chatId, "item", CallbackType.MENU_BACK);
+        }
+        return findItem(chatId, catalog.getId(position));
     }
 
-    private double getLimitWeightForSpecialItem(int playerLuck, List<Double> weights) {
-        double max = weights.stream().mapToDouble(weight -> weight).max().getAsDouble();
-        double min = weights.stream().mapToDouble(weight -> weight).min().getAsDouble();
-
+    private double getLimitWeightForSpecialItem(int playerLuck, double min, double max) {
         return (max - min) * playerLuck / 10.0;
-
-
     }
 
     /**
@@ -162,22 +169,9 @@ public class ItemService {
         log.info("Collecting items...");
         log.info("Expected weight: {}, max items amount: {}", expectedWeight, maxItems);
 
-        var weightsAbs = itemRepository.findClosestLesserWeight(chatId,
-                        expectedWeight.toVector().getNorm(),
-                        usedItemIds,
-                        PageRequest.of(0, maxItems)).stream()
-                .sorted(Comparator.comparing(ItemWeightProjection::getWeightAbs))
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        var weightsAbsSum = weightsAbs.stream().mapToDouble(ItemWeightProjection::getWeightAbs).sum();
-
-        while (abs(expectedWeight.toVector().getNorm() - weightsAbsSum) < expectedWeight.toVector().getNorm() - weightsAbsSum) {
-            weightsAbs.removeLast();
-            weightsAbs.add(itemRepository.findClosestLesserWeight(chatId, weightsAbs.getFirst().getWeightAbs(), usedItemIds,
-                    PageRequest.of(0, 1)).getFirst());
-            weightsAbsSum = weightsAbs.stream().mapToDouble(ItemWeightProjection::getWeightAbs).sum();
-        }
-        return findItems(chatId, weightsAbs.stream().map(ItemWeightProjection::getId).toList());
+        val catalog = getCatalog(chatId);
+        val itemIds = catalog.findClosestLesser(catalog.getAvailable(usedItemIds), expectedWeight.getNorm(), maxItems);
+        return findItems(chatId, itemIds);
     }
 
     /**
@@ -212,6 +206,7 @@ public class ItemService {
      * @param chatId id of current chat
      */
     public void dropCollection(Long chatId) {
+        catalogs.remove(chatId);
         itemRepository.deleteAllByChatId(chatId);
     }
 
@@ -224,8 +219,14 @@ public class ItemService {
      */
     @Transactional
     public <T extends Item> Set<Item> saveItems(List<T> items) {
-        val itemDocuments = items.stream().map(ItemMapper.INSTANCE::mapToDocument).toList();
-        val savedItemDocuments = itemRepository.saveAll(itemDocuments);
+        val itemDocuments = items.stream()
+                .map(ItemMapper.INSTANCE::mapToDocument)
+                .map(itemTemplateStore::detach)
+                .toList();
+        val savedItemDocuments = itemRepository.saveAll(itemDocuments).stream()
+                .map(itemTemplateStore::attach)
+                .toList();
+        savedItemDocuments.stream().map(ItemDocument::getChatId).distinct().forEach(catalogs::remove);
         return savedItemDocuments.stream().map(itemDocument -> switch (itemDocument.getItemType()) {
             case WEAPON -> ItemMapper.INSTANCE.mapToWeapon(itemDocument);
             case WEARABLE -> ItemMapper.INSTANCE.mapToWearable(itemDocument);
@@ -233,40 +234,64 @@ public class ItemService {
         }).collect(Collectors.toSet());
     }
 
+    /**
+     * Stores items with single unordered bulk write: new items are inserted,
+     * existing ones are replaced
+     *
+     * @param items to store, should have ids
+     */
+    public void upsertItems(Collection<? extends Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        val bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ItemDocument.class);
+        items.stream()
+                .map(ItemMapper.INSTANCE::mapToDocument)
+                .map(itemTemplateStore::detach)
+                .forEach(document -> bulkOperations.replaceOne(Query.query(Criteria.where("_id").is(document.getId())),
+                        document, FindAndReplaceOptions.options().upsert()));
+        val result = bulkOperations.execute();
+        items.stream().map(Item::getChatId).distinct().forEach(catalogs::remove);
+        log.info("Bulk write of {} items: {} inserted, {} replaced", items.size(), result.getUpserts().size(), result.getModifiedCount());
+    }
+
+    private ItemCatalog getCatalog(long chatId) {
+        return catalogs.computeIfAbsent(chatId, this::buildCatalog);
+    }
+
+    private ItemCatalog buildCatalog(long chatId) {
+        val items = itemRepository.findCatalogByChatId(chatId);
+        items.stream()
+                .filter(item -> isNull(item.getAttributes()) && nonNull(item.getTemplateId()))
+                .forEach(item -> item.setAttributes(itemTemplateStore.getAttributes(item.getTemplateId())));
+        return ItemCatalog.of(items);
+    }
+
     private Set<Item> findItems(Long chatId, List<String> itemIds) {
-        val itemDocuments = itemRepository.findAllByChatIdAndIdIn(chatId, itemIds);
-        var items = itemDocuments.stream()
+        val items = itemRepository.findAllByChatIdAndIdIn(chatId, itemIds).stream()
                 .map(itemDocument ->
                         switch (itemDocument.getItemType()) {
                             case WEAPON -> ItemMapper.INSTANCE.mapToWeapon(itemDocument);
                             case WEARABLE -> ItemMapper.INSTANCE.mapToWearable(itemDocument);
                             case USABLE -> ItemMapper.INSTANCE.mapToUsable(itemDocument);
                         })
-                .peek(item -> {
-                    if (isNull(item.getName())) {
-                        itemNamingService.requestNameGeneration(item);
-                    }
-                })
-                .collect(Collectors.toCollection(HashSet::new));
-        while (items.stream().anyMatch(item -> isNull(item.getName()))) {
-            items = items.stream().map(item -> {
-                if (isNull(item.getName())) {
-                    val updatedItemDocumentOptional = itemRepository.findByChatIdAndId(chatId, item.getId());
-                    if (updatedItemDocumentOptional.isEmpty()) {
-                        return item;
-                    }
-                    val updatedItemDocument = updatedItemDocumentOptional.get();
-                    return switch (updatedItemDocument.getItemType()) {
-                        case WEAPON -> ItemMapper.INSTANCE.mapToWeapon(updatedItemDocument);
-                        case WEARABLE -> ItemMapper.INSTANCE.mapToWearable(updatedItemDocument);
-                        case USABLE -> ItemMapper.INSTANCE.mapToUsable(updatedItemDocument);
-                    };
-                } else {
-                    return item;
-                }
-            }).collect(Collectors.toCollection(HashSet::new));
+                .toList();
+        //names are set before items are hashed
+        return new HashSet<>(awaitNames(chatId, items));
+    }
 
+    /**
+     * Requests names for unnamed items and waits for them, naming requests
+     * complete either with generated name or with fallback one
+     */
+    private <T extends Item> List<T> awaitNames(Long chatId, List<T> items) {
+        val unnamed = items.stream().filter(item -> isNull(item.getName())).toList();
+        if (unnamed.isEmpty()) {
+            return items;
         }
+        val names = itemNamingService.requestNameGeneration(unnamed);
+        log.info("Waiting for name generation of {} items for chat {}...", unnamed.size(), chatId);
+        unnamed.forEach(item -> item.setName(names.get(item.getId()).join()));
         return items;
     }
 }
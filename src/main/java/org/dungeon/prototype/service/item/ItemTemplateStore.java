@@ -0,0 +1,187 @@
+package org.dungeon.prototype.service.item;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.bson.Document;
+import org.dungeon.prototype.model.document.item.ItemAttributes;
+import org.dungeon.prototype.model.document.item.ItemDocument;
+import org.dungeon.prototype.model.document.item.ItemTemplateDocument;
+import org.dungeon.prototype.model.inventory.Item;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.repository.ItemTemplateRepository;
+import org.dungeon.prototype.repository.converters.mapstruct.ItemMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static org.dungeon.prototype.util.RandomUtil.withSeed;
+
+/**
+ * Store of vanilla item templates shared by all chats. Template of attributes combination
+ * is created once from vanilla item and kept both in repository and in memory.
+ * Chat items are stored with reference to template only, attributes and specs
+ * are filled from template whenever item document is read, including ones referenced by other documents
+ */
+@Slf4j
+@Service
+public class ItemTemplateStore implements AfterConvertCallback<ItemDocument> {
+    private final ItemMapper itemMapper = ItemMapper.INSTANCE;
+    @Value("${generation.items.wearables.default-armor}")
+    private Integer defaultArmor;
+    @Autowired
+    private GenerationProperties generationProperties;
+    @Autowired
+    private ItemTemplateRepository itemTemplateRepository;
+
+    private final Map<String, ItemTemplateDocument> templates = new ConcurrentHashMap<>();
+    /**
+     * Digest of item generation properties, templates are recreated once they change,
+     * while previous ones are kept for items already referring them
+     */
+    private String version;
+
+    @PostConstruct
+    public void init() {
+        val items = generationProperties.getItems();
+        version = digest(items.getWeapon().toString() + items.getWearables().toString() + defaultArmor);
+        try {
+            itemTemplateRepository.findAll().forEach(template -> templates.put(template.getId(), template));
+        } catch (DataAccessException e) {
+            log.warn("Unable to load item templates: {}", e.getMessage());
+        }
+        log.info("Loaded {} item templates", templates.size());
+    }
+
+    /**
+     * Looks up templates of attributes combinations, missing ones are created in one batch.
+     * Vanilla item of template draws from random stream of its own, so template doesn't depend
+     * on chat it's created for
+     *
+     * @param attributes  attributes combinations
+     * @param vanillaItem generates vanilla item of attributes
+     * @return templates in order of attributes
+     */
+    public <A extends ItemAttributes> List<ItemTemplateDocument> getTemplates(List<A> attributes,
+                                                                              Function<A, ? extends Item> vanillaItem) {
+        final List<ItemTemplateDocument> result = new ArrayList<>(attributes.size());
+        final Map<String, ItemTemplateDocument> created = new LinkedHashMap<>();
+        for (A itemAttributes : attributes) {
+            val templateId = getTemplateId(itemAttributes);
+            var template = templates.getOrDefault(templateId, created.get(templateId));
+            if (isNull(template)) {
+                template = withSeed(Long.parseUnsignedLong(templateId.substring(0, 16), 16), () ->
+                        itemMapper.mapToTemplate(itemMapper.mapToDocument(vanillaItem.apply(itemAttributes))));
+                template.setId(templateId);
+                created.put(templateId, template);
+            }
+            result.add(template);
+        }
+        if (!created.isEmpty()) {
+            itemTemplateRepository.saveAll(created.values());
+            templates.putAll(created);
+            log.info("Created {} item templates", created.size());
+        }
+        return result;
+    }
+
+    /**
+     * Creates document of chat item of given template without effects
+     *
+     * @param template template of item
+     * @param chatId   id of chat
+     * @return item document
+     */
+    public ItemDocument newItemDocument(ItemTemplateDocument template, Long chatId) {
+        val document = new ItemDocument();
+        itemMapper.applyTemplate(template, document);
+        document.setChatId(chatId);
+        document.setTemplateId(template.getId());
+        document.setWeightAbs(template.getWeightAbs());
+        return document;
+    }
+
+    /**
+     * Fills attributes and specs of item from its template, items without template are left as is
+     *
+     * @param document item document
+     * @return same document
+     */
+    public ItemDocument attach(ItemDocument document) {
+        if (isNull(document.getTemplateId())) {
+            return document;
+        }
+        val template = getTemplate(document.getTemplateId());
+        if (isNull(template)) {
+            log.error("Template {} of item {} not found", document.getTemplateId(), document.getId());
+            return document;
+        }
+        itemMapper.applyTemplate(template, document);
+        return document;
+    }
+
+    /**
+     * @param document item document
+     * @return document to be stored: one holding only reference to template and fields of chat item,
+     * if item has template, same document otherwise
+     */
+    public ItemDocument detach(ItemDocument document) {
+        if (isNull(document.getTemplateId())) {
+            return document;
+        }
+        val detached = new ItemDocument();
+        detached.setId(document.getId());
+        detached.setChatId(document.getChatId());
+        detached.setTemplateId(document.getTemplateId());
+        detached.setItemType(document.getItemType());
+        detached.setName(document.getName());
+        detached.setWeightAbs(document.getWeightAbs());
+        detached.setEffects(document.getEffects());
+        return detached;
+    }
+
+    /**
+     * @param templateId id of template
+     * @return attributes of template, null if there's no such template
+     */
+    public ItemAttributes getAttributes(String templateId) {
+        val template = getTemplate(templateId);
+        return isNull(template) ? null : template.getAttributes();
+    }
+
+    @Override
+    public ItemDocument onAfterConvert(ItemDocument entity, Document document, String collection) {
+        return attach(entity);
+    }
+
+    private ItemTemplateDocument getTemplate(String templateId) {
+        val template = templates.get(templateId);
+        if (isNull(template)) {
+            //template of previous version, or created by another instance
+            return itemTemplateRepository.findById(templateId)
+                    .map(found -> templates.computeIfAbsent(templateId, id -> found))
+                    .orElse(null);
+        }
+        return template;
+    }
+
+    private String getTemplateId(ItemAttributes attributes) {
+        return digest(version + ":" + attributes.getClass().getSimpleName() + ":" + attributes);
+    }
+
+    private static String digest(String value) {
+        return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,247 @@
+package org.dungeon.prototype.service.item.generation;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.model.inventory.attributes.Quality;
+import org.dungeon.prototype.model.inventory.attributes.weapon.Handling;
+import org.dungeon.prototype.model.inventory.attributes.weapon.Size;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttributes;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponHandlerMaterial;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponType;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableAttributes;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableType;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.properties.WeaponGenerationProperties;
+import org.dungeon.prototype.properties.WearableGenerationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.dungeon.prototype.model.inventory.attributes.weapon.Handling.SINGLE_HANDED;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.Handling.TWO_HANDED;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.Size.LARGE;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.Size.MEDIUM;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.Size.SMALL;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.BLUNT;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.SLASH;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.STAB;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.STRIKE;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.DIAMOND;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.DRAGON_BONE;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.ENCHANTED_WOOD;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.OBSIDIAN;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.PLATINUM;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.STONE;
+import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.WOOD;
+import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.CLOTH;
+import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.ELVEN_SILK;
+import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.WOOL;
+import static org.dungeon.prototype.util.RandomUtil.getRandomInt;
+
+/**
+ * Space of valid attributes combinations of weapons and wearables, enumerated once on startup.
+ * Combinations are sampled without replacement by partial Fisher–Yates shuffle of their indices,
+ * so generation takes as many random draws as items it needs and never retries duplicates.
+ * Only combinations which parameters can be calculated from generation properties are included
+ */
+@Slf4j
+@Service
+public class ItemAttributesSpace {
+    @Autowired
+    private GenerationProperties generationProperties;
+
+    private WeaponAttributes[] weaponAttributes;
+    private WearableAttributes[] wearableAttributes;
+
+    @PostConstruct
+    public void init() {
+        weaponAttributes = enumerateWeaponAttributes(generationProperties.getItems().getWeapon())
+                .toArray(WeaponAttributes[]::new);
+        wearableAttributes = enumerateWearableAttributes(generationProperties.getItems().getWearables())
+                .toArray(WearableAttributes[]::new);
+        log.info("Enumerated {} weapon and {} wearable attributes combinations",
+                weaponAttributes.length, wearableAttributes.length);
+    }
+
+    public int getWeaponAttributesCount() {
+        return weaponAttributes.length;
+    }
+
+    public int getWearableAttributesCount() {
+        return wearableAttributes.length;
+    }
+
+    /**
+     * Draws distinct weapon attributes combinations from current random stream
+     *
+     * @param count amount of combinations, capped by size of space
+     * @return new attributes instances
+     */
+    public List<WeaponAttributes> sampleWeaponAttributes(int count) {
+        return sample(weaponAttributes, count, attributes -> new WeaponAttributes(attributes.getWeaponType(),
+                attributes.getHandling(), attributes.getWeaponMaterial(), attributes.getWeaponHandlerMaterial(),
+                attributes.getQuality(), attributes.getSize(), attributes.getWeaponAttackType()));
+    }
+
+    /**
+     * Draws distinct wearable attributes combinations from current random stream
+     *
+     * @param count amount of combinations, capped by size of space
+     * @return new attributes instances
+     */
+    public List<WearableAttributes> sampleWearableAttributes(int count) {
+        return sample(wearableAttributes, count, attributes -> newWearableAttributes(attributes.getWearableType(),
+                attributes.getWearableMaterial(), attributes.getQuality()));
+    }
+
+    private static <T> List<T> sample(T[] space, int count, Function<T, T> copy) {
+        if (count > space.length) {
+            log.warn("Requested {} attributes combinations, only {} are valid", count, space.length);
+        }
+        val limit = Math.min(count, space.length);
+        val indices = new int[space.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        final List<T> sampled = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            val j = getRandomInt(i, indices.length - 1);
+            val index = indices[j];
+            indices[j] = indices[i];
+            indices[i] = index;
+            //table entries are shared, so each item gets its own copy
+            sampled.add(copy.apply(space[index]));
+        }
+        return sampled;
+    }
+
+    static List<WeaponAttributes> enumerateWeaponAttributes(WeaponGenerationProperties properties) {
+        final List<WeaponAttributes> combinations = new ArrayList<>();
+        for (WeaponType type : WeaponType.values()) {
+            if (!properties.getDefaultAttributes().containsKey(type)) {
+                continue;
+            }
+            for (Handling handling : getHandlings(type)) {
+                for (WeaponMaterial material : getWeaponMaterials(type)) {
+                    for (WeaponHandlerMaterial handlerMaterial : getHandlerMaterials(material)) {
+                        for (Quality quality : getQualities(material, handlerMaterial)) {
+                            for (Size size : getSizes(type, handling)) {
+                                for (WeaponAttackType attackType : getAttackTypes(type)) {
+                                    val attributes = new WeaponAttributes(type, handling, material, handlerMaterial,
+                                            quality, size, attackType);
+                                    if (isCalculable(properties, attributes)) {
+                                        combinations.add(attributes);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return combinations;
+    }
+
+    static List<WearableAttributes> enumerateWearableAttributes(WearableGenerationProperties properties) {
+        final List<WearableAttributes> combinations = new ArrayList<>();
+        for (WearableType type : WearableType.values()) {
+            for (WearableMaterial material : getWearableMaterials(type)) {
+                if (!properties.getArmorBonus().containsKey(material) ||
+                        (WearableType.BOOTS.equals(type) && !properties.getChanceToDodgeRatio().containsKey(material))) {
+                    continue;
+                }
+                for (Quality quality : Quality.values()) {
+                    if (properties.getQualityAdjustmentRatio().containsKey(quality)) {
+                        combinations.add(newWearableAttributes(type, material, quality));
+                    }
+                }
+            }
+        }
+        return combinations;
+    }
+
+    private static boolean isCalculable(WeaponGenerationProperties properties, WeaponAttributes attributes) {
+        return properties.getHandlingAdjustmentAttributes().containsKey(attributes.getHandling()) &&
+                properties.getWeaponMaterialAdjustmentAttributes().containsKey(attributes.getWeaponMaterial()) &&
+                (properties.getWeaponHandlerMaterialAdjustmentAttributes().containsKey(attributes.getWeaponHandlerMaterial()) ||
+                        properties.getCompleteMaterialAdjustmentAttributes().containsKey(attributes.getWeaponHandlerMaterial())) &&
+                properties.getSizeAdjustmentAttributes().containsKey(attributes.getSize()) &&
+                properties.getAttackTypeAdjustmentAttributes().containsKey(attributes.getWeaponAttackType()) &&
+                properties.getQualityAdjustmentRatio().containsKey(attributes.getQuality());
+    }
+
+    private static List<Handling> getHandlings(WeaponType type) {
+        return switch (type) {
+            case SWORD, AXE -> List.of(SINGLE_HANDED, TWO_HANDED);
+            case DAGGER -> List.of(SINGLE_HANDED);
+            default -> List.of(Handling.values());
+        };
+    }
+
+    private static List<WeaponMaterial> getWeaponMaterials(WeaponType type) {
+        return switch (type) {
+            case SWORD, AXE, DAGGER -> List.of(WeaponMaterial.IRON, WeaponMaterial.STEEL, PLATINUM, DIAMOND, WeaponMaterial.MITHRIL, DRAGON_BONE);
+            case CLUB -> List.of(WOOD, STONE, ENCHANTED_WOOD);
+            case MACE -> List.of(STONE, WeaponMaterial.IRON, WeaponMaterial.STEEL, PLATINUM, DIAMOND, WeaponMaterial.MITHRIL, OBSIDIAN, DRAGON_BONE, ENCHANTED_WOOD);
+            case STAFF -> List.of(WOOD, STONE, OBSIDIAN, WeaponMaterial.MITHRIL, DRAGON_BONE, ENCHANTED_WOOD);
+            default -> List.of(WeaponMaterial.values());
+        };
+    }
+
+    private static List<WeaponHandlerMaterial> getHandlerMaterials(WeaponMaterial material) {
+        return switch (material) {
+            case WOOD, ENCHANTED_WOOD -> List.of(WeaponHandlerMaterial.WOOD, WeaponHandlerMaterial.LEATHER, WeaponHandlerMaterial.TREATED_LEATHER);
+            case STONE -> List.of(WeaponHandlerMaterial.LEATHER, WeaponHandlerMaterial.TREATED_LEATHER);
+            default -> List.of(WeaponHandlerMaterial.values());
+        };
+    }
+
+    private static List<Quality> getQualities(WeaponMaterial material, WeaponHandlerMaterial handlerMaterial) {
+        return DRAGON_BONE.equals(material) && WeaponHandlerMaterial.DRAGON_BONE.equals(handlerMaterial) ?
+                List.of(Quality.MYTHIC) :
+                List.of(Quality.values());
+    }
+
+    private static List<Size> getSizes(WeaponType type, Handling handling) {
+        if (TWO_HANDED.equals(handling)) {
+            return List.of(LARGE);
+        }
+        return WeaponType.DAGGER.equals(type) ? List.of(SMALL, MEDIUM) : List.of(Size.values());
+    }
+
+    private static List<WeaponAttackType> getAttackTypes(WeaponType type) {
+        return switch (type) {
+            case SWORD -> List.of(STAB, SLASH);
+            case AXE -> List.of(SLASH);
+            case DAGGER, SPEAR -> List.of(STAB);
+            case CLUB -> List.of(BLUNT);
+            case MACE -> List.of(SLASH, BLUNT);
+            default -> List.of(STRIKE);
+        };
+    }
+
+    private static List<WearableMaterial> getWearableMaterials(WearableType type) {
+        return switch (type) {
+            case HELMET -> List.of(WearableMaterial.IRON, WearableMaterial.STEEL, WearableMaterial.MITHRIL);
+            case BOOTS -> List.of(WearableMaterial.values()).stream()
+                    .filter(material -> !List.of(CLOTH, ELVEN_SILK, WOOL).contains(material))
+                    .toList();
+            default -> List.of(WearableMaterial.values());
+        };
+    }
+
+    private static WearableAttributes newWearableAttributes(WearableType type, WearableMaterial material, Quality quality) {
+        val attributes = new WearableAttributes();
+        attributes.setWearableType(type);
+        attributes.setWearableMaterial(material);
+        attributes.setQuality(quality);
+        return attributes;
+    }
+}
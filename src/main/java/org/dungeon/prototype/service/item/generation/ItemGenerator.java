@@ -1,85 +1,78 @@
 package org.dungeon.prototype.service.item.generation;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.math3.util.Pair;
 import org.dungeon.prototype.model.inventory.Item;
 import org.dungeon.prototype.model.inventory.attributes.MagicType;
-import org.dungeon.prototype.model.inventory.attributes.Quality;
-import org.dungeon.prototype.model.inventory.attributes.weapon.Handling;
-import org.dungeon.prototype.model.inventory.attributes.weapon.Size;
-import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType;
 import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttributes;
 import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponHandlerMaterial;
-import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial;
-import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponType;
 import org.dungeon.prototype.model.inventory.attributes.wearable.WearableAttributes;
 import org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial;
 import org.dungeon.prototype.model.inventory.attributes.wearable.WearableType;
 import org.dungeon.prototype.model.inventory.items.Weapon;
 import org.dungeon.prototype.model.inventory.items.Wearable;
 import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.repository.converters.mapstruct.ItemMapper;
 import org.dungeon.prototype.service.effect.ItemEffectsGenerator;
 import org.dungeon.prototype.service.item.ItemService;
+import org.dungeon.prototype.service.item.ItemTemplateStore;
 import org.dungeon.prototype.service.message.MessageService;
-import org.dungeon.prototype.util.RandomUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.Handling.SINGLE_HANDED;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.Handling.TWO_HANDED;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.Size.LARGE;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.Size.MEDIUM;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.Size.SMALL;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.BLUNT;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.SLASH;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.STAB;
 import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType.STRIKE;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponHandlerMaterial.LEATHER;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponHandlerMaterial.TREATED_LEATHER;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.DIAMOND;
 import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.DRAGON_BONE;
 import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.ENCHANTED_WOOD;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.OBSIDIAN;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.PLATINUM;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.STONE;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial.WOOD;
-import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponType.DAGGER;
 import static org.dungeon.prototype.model.inventory.attributes.weapon.WeaponType.STAFF;
-import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.CLOTH;
-import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.ELVEN_SILK;
-import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.IRON;
-import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.MITHRIL;
-import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.STEEL;
-import static org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial.WOOL;
 import static org.dungeon.prototype.util.GenerationUtil.applyAdjustment;
 import static org.dungeon.prototype.util.GenerationUtil.multiplyAllParametersBy;
-import static org.dungeon.prototype.util.RandomUtil.getRandomEnumValue;
 import static org.dungeon.prototype.util.RandomUtil.getRandomMagicType;
+import static org.dungeon.prototype.util.RandomUtil.withSeed;
+import static org.dungeon.prototype.util.SeedUtil.split;
 
 @Slf4j
 @Service
 public class ItemGenerator {
+    private static final int WEAPONS_STREAM = 0;
+    private static final int WEARABLES_STREAM = 1;
+    private static final int EFFECTS_STREAM = 2;
+    private static final String METRIC_NAME = "dungeon.item.generation";
+    private static final String VANILLA_PHASE = "vanilla";
+    private static final String EFFECTS_PHASE = "effects";
+    private final ItemMapper itemMapper = ItemMapper.INSTANCE;
+
     @Value("${generation.items.weapon.weapon-attributes-pool-size}")
     private Integer weaponAttributesPoolSize;
     @Value("${generation.items.weapon.weapon-per-game}")
@@ -97,187 +90,162 @@ public class ItemGenerator {
     @Autowired
     private ItemEffectsGenerator itemEffectsGenerator;
     @Autowired
+    private ItemAttributesSpace itemAttributesSpace;
+    @Autowired
+    private ItemTemplateStore itemTemplateStore;
+    @Autowired
+    private ItemNamingService itemNamingService;
+    @Autowired
     private GenerationProperties generationProperties;
-    private final Map<Long, CyclicBarrier> barriersByChat = new ConcurrentHashMap<>();
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, CompletableFuture<Void>> generationsByChat = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        val properties = generationProperties.getItemExecutor();
+        val threadFactory = new CustomizableThreadFactory("item-generation-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                threadFactory);
+        meterRegistry.gauge(METRIC_NAME + ".queue", executor.getQueue(), Collection::size);
+        meterRegistry.gauge(METRIC_NAME + ".active", executor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge(METRIC_NAME + ".in-flight", generationsByChat, Map::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
     /**
-     * Generates items for game: runs two async generators
-     * for {@link Wearable} and {@link Weapon} items
-     * for game and stores results to repository.
-     * Items should be removed when game is over
+     * Generates items for game in two phases on item generation executor:
+     * {@link Weapon} and {@link Wearable} vanilla items are generated and stored concurrently,
+     * once both are stored, effects are added to them concurrently.
+     * Items should be removed when game is over.
+     * Each generator draws from its own stream of game seed,
+     * so same seed yields same items.
+     * Once all items are stored, their catalog is loaded for level generation.
+     * Generation previously started for chat is cancelled
      *
-     * @param chatId id of chat where game runs
+     * @param chatId   id of chat where game runs
+     * @param gameSeed seed of game
+     * @return future completed once items are generated
      */
     @Transactional
-    public CompletableFuture<Void> generateItems(Long chatId) {
+    public CompletableFuture<Void> generateItems(Long chatId, long gameSeed) {
+        cancelGeneration(chatId);
         messageService.sendItemsGeneratingInfoMessage(chatId);
-        barriersByChat.put(chatId, new CyclicBarrier(2));
         itemService.dropCollection(chatId);
 
-        CompletableFuture<Void> weaponsFuture = CompletableFuture.runAsync(() -> generateWeapons(chatId));
-        CompletableFuture<Void> wearablesFuture = CompletableFuture.runAsync(() -> generateWearables(chatId));
+        val generation = new CompletableFuture<Void>();
+        generationsByChat.put(chatId, generation);
+        generation.whenComplete((result, e) -> generationsByChat.remove(chatId, generation));
 
-        return CompletableFuture.allOf(weaponsFuture, wearablesFuture);
+        val weaponsSeed = split(gameSeed, WEAPONS_STREAM);
+        val wearablesSeed = split(gameSeed, WEARABLES_STREAM);
+        val vanillaWeapons = runPhase(generation, VANILLA_PHASE, "weapon",
+                () -> withSeed(weaponsSeed, () -> generateVanillaWeapons(chatId)));
+        val vanillaWearables = runPhase(generation, VANILLA_PHASE, "wearable",
+                () -> withSeed(wearablesSeed, () -> generateVanillaWearables(chatId)));
+
+        //effects phase is scheduled by completion of vanilla one, so no thread waits for the other item type
+        CompletableFuture.allOf(vanillaWeapons, vanillaWearables)
+                .thenCompose(ignored -> CompletableFuture.allOf(
+                        runPhase(generation, EFFECTS_PHASE, "weapon",
+                                () -> withSeed(split(weaponsSeed, EFFECTS_STREAM),
+                                        () -> addEffects(chatId, vanillaWeapons.join(), weaponPerGame))),
+                        runPhase(generation, EFFECTS_PHASE, "wearable",
+                                () -> withSeed(split(wearablesSeed, EFFECTS_STREAM),
+                                        () -> addEffects(chatId, vanillaWearables.join(), wearablesPerGame)))))
+                .thenRun(() -> itemService.loadCatalog(chatId))
+                .whenComplete((result, e) -> {
+                    if (isNull(e)) {
+                        generation.complete(null);
+                    } else {
+                        generation.completeExceptionally(e instanceof CompletionException && nonNull(e.getCause()) ? e.getCause() : e);
+                    }
+                });
+        return generation;
     }
 
-    private void generateWeapons(Long chatId) {
-        Set<WeaponAttributes> generatedAttributesCombinations = new HashSet<>();
-        while (generatedAttributesCombinations.size() < weaponAttributesPoolSize) {
-            val type = getRandomEnumValue(List.of(WeaponType.values()));
-            Handling handling;
-            switch (type) {
-                case SWORD, AXE -> handling = getRandomEnumValue(List.of(SINGLE_HANDED, TWO_HANDED));
-                case DAGGER -> handling = SINGLE_HANDED;
-                default -> handling = getRandomEnumValue(List.of(Handling.values())); //TODO: consider more constraints
-            }
-            WeaponMaterial weaponMaterial;
-            switch (type) {
-                case SWORD, AXE, DAGGER ->
-                        weaponMaterial = getRandomEnumValue(List.of(WeaponMaterial.IRON, WeaponMaterial.STEEL, PLATINUM, DIAMOND, WeaponMaterial.MITHRIL, DRAGON_BONE));
-                case CLUB -> weaponMaterial = getRandomEnumValue(List.of(WOOD, STONE, ENCHANTED_WOOD));
-                case MACE ->
-                        weaponMaterial = getRandomEnumValue(List.of(WeaponMaterial.STONE, WeaponMaterial.IRON, WeaponMaterial.STEEL, PLATINUM, DIAMOND, WeaponMaterial.MITHRIL, OBSIDIAN, DRAGON_BONE, ENCHANTED_WOOD));
-                case STAFF ->
-                        weaponMaterial = getRandomEnumValue(List.of(WOOD, STONE, OBSIDIAN, WeaponMaterial.MITHRIL, DRAGON_BONE, ENCHANTED_WOOD));
-                default -> weaponMaterial = getRandomEnumValue(List.of(WeaponMaterial.values()));
-            }
-            WeaponHandlerMaterial weaponHandlerMaterial;
-            switch (weaponMaterial) {
-                case WOOD ->
-                        weaponHandlerMaterial = getRandomEnumValue(List.of(WeaponHandlerMaterial.WOOD, WeaponHandlerMaterial.LEATHER, TREATED_LEATHER));
-                case STONE ->
-                        weaponHandlerMaterial = getRandomEnumValue(List.of(WeaponHandlerMaterial.LEATHER, TREATED_LEATHER));
-                case ENCHANTED_WOOD ->
-                        weaponHandlerMaterial = getRandomEnumValue(List.of(WeaponHandlerMaterial.WOOD, LEATHER, TREATED_LEATHER));
-                default -> weaponHandlerMaterial = getRandomEnumValue(List.of(WeaponHandlerMaterial.values()));
-            }
-            Quality quality;
-            if (DRAGON_BONE.equals(weaponMaterial) && WeaponHandlerMaterial.DRAGON_BONE.equals(weaponHandlerMaterial)) {
-                quality = Quality.MYTHIC;
-            } else {
-                quality = getRandomEnumValue(List.of(Quality.values()));
-            }
-            Size size;
-            if (TWO_HANDED.equals(handling)) {
-                size = LARGE;
-            } else {
-                if (DAGGER.equals(type)) {
-                    size = getRandomEnumValue(List.of(SMALL, MEDIUM));
-                } else {
-                    size = getRandomEnumValue(List.of(Size.values()));
+    /**
+     * Cancels items generation running for chat, phase in progress is finished,
+     * but following ones aren't started
+     *
+     * @param chatId id of chat
+     */
+    public void cancelGeneration(Long chatId) {
+        val generation = generationsByChat.remove(chatId);
+        if (nonNull(generation) && generation.cancel(false)) {
+            log.info("Items generation for chat {} cancelled", chatId);
+        }
+    }
+
+    private <T> CompletableFuture<T> runPhase(CompletableFuture<Void> generation, String phase, String itemType, Supplier<T> action) {
+        val timer = meterRegistry.timer(METRIC_NAME + ".phase", "phase", phase, "type", itemType);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (generation.isDone()) {
+                    throw new CancellationException("Items generation is cancelled");
                 }
-            }
-            WeaponAttackType weaponAttackType;
-            switch (type) {
-                case SWORD -> weaponAttackType = getRandomEnumValue(List.of(STAB, SLASH));
-                case AXE -> weaponAttackType = SLASH;
-                case DAGGER, SPEAR -> weaponAttackType = STAB;
-                case CLUB -> weaponAttackType = BLUNT;
-                case MACE -> weaponAttackType = getRandomEnumValue(List.of(SLASH, BLUNT));
-                default -> weaponAttackType = STRIKE;
-            }
-            val attributes = new WeaponAttributes();
-            attributes.setWeaponType(type);
-            attributes.setHandling(handling);
-            attributes.setWeaponMaterial(weaponMaterial);
-            attributes.setWeaponHandlerMaterial(weaponHandlerMaterial);
-            attributes.setQuality(quality);
-            attributes.setSize(size);
-            attributes.setWeaponAttackType(weaponAttackType);
-            log.debug("Random attributes combination: {}", attributes);
-            if (generatedAttributesCombinations.contains(attributes)) {
-                log.debug("Already processed, skipping to next combination...");
-                continue;
-            }
-            generatedAttributesCombinations.add(attributes);
+                return timer.record(action);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Item generation queue is full, {} phase of {} items rejected", phase, itemType);
+            //fails generation at once, so its phases already queued are skipped
+            generation.completeExceptionally(e);
+            return CompletableFuture.failedFuture(e);
         }
+    }
 
-        val vanillaWeapons = generatedAttributesCombinations.stream()
-                .flatMap(attributes -> Stream.of(generateVanillaWeapon(attributes, chatId)))
-                .limit(weaponPerGame)
-                .collect(Collectors.toList());
-        val savedItems = itemService.saveItems(vanillaWeapons);
+    private CompletableFuture<Void> runPhase(CompletableFuture<Void> generation, String phase, String itemType, Runnable action) {
+        return runPhase(generation, phase, itemType, () -> {
+            action.run();
+            return null;
+        });
+    }
 
+    private Set<Item> generateVanillaWeapons(Long chatId) {
+        val attributes = itemAttributesSpace.sampleWeaponAttributes(Math.min(weaponAttributesPoolSize, weaponPerGame));
+        val vanillaWeapons = itemTemplateStore.getTemplates(attributes, this::generateVanillaWeapon).stream()
+                .map(template -> itemMapper.mapToWeapon(itemTemplateStore.newItemDocument(template, chatId)))
+                .toList();
+        val savedItems = itemService.saveItems(vanillaWeapons);
         log.info("{} weapons without effects generated.", savedItems.size());
-        awaitBarrier(chatId);
-
-        log.info("Adding effects to weapons...");
-        addEffects(chatId, savedItems, weaponPerGame);
+        return savedItems;
     }
 
-
-    private void generateWearables(Long chatId) {
-        Set<WearableAttributes> attributesCombinations = new HashSet<>();
-        Map<WearableType, Integer> typesCount = new HashMap<>();
-        while (attributesCombinations.size() < wearableAttributesPoolSize) {
-            var type = getRandomEnumValue(List.of(WearableType.values()));
-            WearableMaterial material = null;
-            switch (type) {
-                case VEST -> {
-                    material = RandomUtil.getRandomEnumValue(List.of(WearableMaterial.values()));
-                    if (typesCount.containsKey(WearableType.VEST)) {
-                        typesCount.put(WearableType.VEST, typesCount.get(WearableType.VEST) + 1);
-                    } else {
-                        typesCount.put(WearableType.VEST, 1);
-                    }
-                }
-                case HELMET -> {
-                    material = getRandomEnumValue(List.of(IRON, STEEL, MITHRIL));
-                    if (typesCount.containsKey(WearableType.HELMET)) {
-                        typesCount.put(WearableType.HELMET, typesCount.get(WearableType.HELMET) + 1);
-                    } else {
-                        typesCount.put(WearableType.HELMET, 1);
-                    }
-                }
-                case GLOVES -> {
-                    material = getRandomEnumValue(List.of(WearableMaterial.values()));
-                    if (typesCount.containsKey(WearableType.GLOVES)) {
-                        typesCount.put(WearableType.GLOVES, typesCount.get(WearableType.GLOVES) + 1);
-                    } else {
-                        typesCount.put(WearableType.GLOVES, 1);
-                    }
-                }
-                case BOOTS -> {
-                    material = RandomUtil.getRandomEnumValue(List.of(WearableMaterial.values()), List.of(CLOTH, ELVEN_SILK, WOOL));
-                    if (typesCount.containsKey(WearableType.BOOTS)) {
-                        typesCount.put(WearableType.BOOTS, typesCount.get(WearableType.BOOTS) + 1);
-                    } else {
-                        typesCount.put(WearableType.BOOTS, 1);
-                    }
-                }
-            }
-            val quality = getRandomEnumValue(List.of(Quality.values()));
-            val wearableAttributes = new WearableAttributes();
-            wearableAttributes.setWearableType(type);
-            wearableAttributes.setQuality(quality);
-            wearableAttributes.setWearableMaterial(material);
-            log.debug("Random attributes combination: {}", wearableAttributes);
-            if (attributesCombinations.contains(wearableAttributes)) {
-                log.debug("Already processed, skipping to next combination...");
-                continue;
-            }
-            attributesCombinations.add(wearableAttributes);
-        }
-        val vanillaWearables = attributesCombinations.stream()
-                .flatMap(attributes -> Stream.of(generateVanillaWearable(attributes, chatId)))
-                .collect(Collectors.toList());
+    private Set<Item> generateVanillaWearables(Long chatId) {
+        val attributes = itemAttributesSpace.sampleWearableAttributes(wearableAttributesPoolSize);
+        val vanillaWearables = itemTemplateStore.getTemplates(attributes, this::generateVanillaWearable).stream()
+                .map(template -> itemMapper.mapToWearable(itemTemplateStore.newItemDocument(template, chatId)))
+                .toList();
         val savedItems = itemService.saveItems(vanillaWearables);
         log.info("{} wearables without effects generated.", savedItems.size());
-        awaitBarrier(chatId);
-
-        log.info("Adding effects to wearables...");
-        addEffects(chatId, savedItems, wearablesPerGame);
+        return savedItems;
     }
 
+    /**
+     * Adds effects to generated items in memory, enriched items are stored with single bulk write,
+     * only then naming of all items is requested
+     */
     private void addEffects(Long chatId, Set<Item> savedItems, Integer limit) {
+        final Map<String, Item> itemsById = savedItems.stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+        final Set<String> enrichedItemIds = new LinkedHashSet<>();
         val weightScale = savedItems.stream()
-                .map(item -> Pair.create(item.getId(), item.getWeight().toVector().getNorm()))
+                .map(item -> Pair.create(item.getId(), item.getWeight().getNorm()))
                 .sorted(Comparator.comparing(Pair::getValue))
                 .collect(Collectors.toCollection(ArrayList::new));
         log.info("Adding effects to generated items, amount: {}", savedItems.size());
         double largestSegment = 0.0;
         int startSegmentIndex = 0;
-        val vanillaItemsIds = weightScale.stream().map(Pair::getKey).toList();
+        val vanillaItemsIds = Set.copyOf(itemsById.keySet());
         while (weightScale.size() < limit) {
             for (int i = 1; i < weightScale.size(); i++) {
                 //TODO: add loop and proceed further in selected direction by scale to next itemId
@@ -293,21 +261,25 @@ public class ItemGenerator {
             val point = expectedWeightChange > 0 ? startSegmentIndex : startSegmentIndex + 1;
             val itemId = weightScale.get(point).getKey();
             if (vanillaItemsIds.contains(itemId)) {
-                val newItemData = itemEffectsGenerator.copyItemAndAddEffect(chatId, weightScale.get(point).getKey(), expectedWeightChange);
-                if (nonNull(newItemData)) {
-                    insertNewItem(newItemData, weightScale);
+                val newItem = itemEffectsGenerator.copyItemAndAddEffect(itemsById.get(itemId), expectedWeightChange);
+                if (newItem.isPresent()) {
+                    itemsById.put(newItem.get().getId(), newItem.get());
+                    enrichedItemIds.add(newItem.get().getId());
+                    insertNewItem(Pair.create(newItem.get().getId(), newItem.get().getWeight().getNorm()), weightScale);
                 }
             } else {
-                val updatedWeight = itemEffectsGenerator.addItemEffect(chatId, weightScale.get(point).getKey(), expectedWeightChange);
+                val updatedWeight = itemEffectsGenerator.addItemEffect(itemsById.get(itemId), expectedWeightChange);
                 if (updatedWeight.isPresent()) {
+                    enrichedItemIds.add(itemId);
                     val oldValue = weightScale.get(point);
                     weightScale.remove(point);
                     insertNewItem(Pair.create(oldValue.getKey(), updatedWeight.get()), weightScale);
-                } else {
-
                 }
             }
         }
+        itemService.upsertItems(enrichedItemIds.stream().map(itemsById::get).toList());
+        log.info("{} items with effects stored for chat {}", enrichedItemIds.size(), chatId);
+        itemNamingService.requestNameGeneration(List.copyOf(itemsById.values()));
     }
 
     private void insertNewItem(Pair<String, Double> newItemData, List<Pair<String, Double>> weightScale) {
@@ -320,11 +292,10 @@ public class ItemGenerator {
         weightScale.add(insertPosition, newItemData);
     }
 
-    private Weapon generateVanillaWeapon(WeaponAttributes weaponAttributes, Long chatId) {
+    private Weapon generateVanillaWeapon(WeaponAttributes weaponAttributes) {
         log.info("Generating weapon...");
         val weapon = new Weapon();
         weapon.setAttributes(weaponAttributes);
-        weapon.setChatId(chatId);
         weapon.setEffects(Collections.emptyList());
         return calculateParameters(weapon);
     }
@@ -399,11 +370,10 @@ public class ItemGenerator {
         }
     }
 
-    private Wearable generateVanillaWearable(WearableAttributes wearableAttributes, Long chatId) {
+    private Wearable generateVanillaWearable(WearableAttributes wearableAttributes) {
         log.info("Generating wearable...");
         val wearable = new Wearable();
         wearable.setAttributes(wearableAttributes);
-        wearable.setChatId(chatId);
         wearable.setEffects(Collections.emptyList());
         return calculateParameters(wearable);
     }
@@ -429,13 +399,4 @@ public class ItemGenerator {
         wearable.setChanceToDodge(chanceToDodge);
         return wearable;
     }
-
-    private void awaitBarrier(Long chatId) {
-        try {
-            barriersByChat.get(chatId).await();  // Wait for both threads to complete generating vanilla items
-        } catch (Exception e) {
-            Thread.currentThread().interrupt();
-            log.error("Error while waiting at barrier: {}", e.getMessage());
-        }
-    }
 }
@@ -0,0 +1,139 @@
+package org.dungeon.prototype.service.item.generation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.model.document.item.ItemNameDocument;
+import org.dungeon.prototype.model.effect.Effect;
+import org.dungeon.prototype.model.inventory.Item;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.repository.ItemNameRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Persistent cache of generated item names shared by all chats: names are pooled by item signature,
+ * which consists of same attributes and effects as naming prompt. Once pool has enough variants,
+ * items of that signature get one of them instead of being named by model
+ */
+@Slf4j
+@Service
+public class ItemNameCache {
+    private static final String METRIC_NAME = "dungeon.item.naming.cache";
+
+    @Autowired
+    private GenerationProperties generationProperties;
+    @Autowired
+    private ItemNameRepository itemNameRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        hitCounter = meterRegistry.counter(METRIC_NAME, "result", "hit");
+        missCounter = meterRegistry.counter(METRIC_NAME, "result", "miss");
+    }
+
+    /**
+     * Canonical signature of item: effects are sorted, so that their order doesn't matter
+     *
+     * @param item to get signature of
+     * @return signature
+     */
+    public static String getSignature(Item item) {
+        return item.getAttributes().toString() +
+                (nonNull(item.getEffects()) && !item.getEffects().isEmpty() ?
+                        " that " + item.getEffects().stream().map(Effect::toString).sorted().collect(Collectors.joining(", ")) :
+                        "");
+    }
+
+    /**
+     * Looks up names for items by their signatures
+     *
+     * @param signaturesByItemId signatures of items by item ids
+     * @return names of items, which signatures have enough variants, by item ids
+     */
+    public Map<String, String> findNames(Map<String, String> signaturesByItemId) {
+        val properties = generationProperties.getItemNameCache();
+        if (isNull(properties) || !properties.isEnabled() || signaturesByItemId.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, List<String>> pools;
+        try {
+            pools = itemNameRepository.findAllById(signaturesByItemId.values().stream().map(ItemNameCache::getKey).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(ItemNameDocument::getId, ItemNameDocument::getNames));
+        } catch (DataAccessException e) {
+            log.warn("Unable to load cached item names: {}", e.getMessage());
+            missCounter.increment(signaturesByItemId.size());
+            return Collections.emptyMap();
+        }
+        final Map<String, String> names = new LinkedHashMap<>();
+        signaturesByItemId.forEach((itemId, signature) -> {
+            val pool = pools.getOrDefault(getKey(signature), Collections.emptyList());
+            if (pool.size() >= properties.getMinVariants() && !pool.isEmpty()) {
+                //variant is picked by item id, so that same item always gets same name
+                names.put(itemId, pool.get(Math.floorMod(itemId.hashCode(), pool.size())));
+                hitCounter.increment();
+            } else {
+                missCounter.increment();
+            }
+        });
+        return names;
+    }
+
+    /**
+     * Adds generated name to pool of its signature, oldest variant is dropped when pool is full
+     *
+     * @param signature signature of named item
+     * @param name      generated name
+     */
+    public synchronized void addName(String signature, String name) {
+        val properties = generationProperties.getItemNameCache();
+        if (isNull(properties) || !properties.isEnabled()) {
+            return;
+        }
+        try {
+            val key = getKey(signature);
+            val document = itemNameRepository.findById(key).orElseGet(() -> {
+                val created = new ItemNameDocument();
+                created.setId(key);
+                created.setSignature(signature);
+                return created;
+            });
+            if (document.getNames().contains(name)) {
+                return;
+            }
+            document.getNames().add(name);
+            while (document.getNames().size() > properties.getMaxVariants()) {
+                document.getNames().removeFirst();
+            }
+            document.setUpdatedAt(Instant.now());
+            itemNameRepository.save(document);
+        } catch (DataAccessException e) {
+            log.warn("Unable to cache name {} of item {}: {}", name, signature, e.getMessage());
+        }
+    }
+
+    private static String getKey(String signature) {
+        return DigestUtils.md5DigestAsHex(signature.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,138 @@
+package org.dungeon.prototype.service.item.generation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Registry of pending item naming requests: each item has at most one request in flight,
+ * its future is completed with name from reply topic, or with fallback name
+ * if naming of item failed or no reply arrives in time
+ */
+@Slf4j
+@Component
+public class ItemNamingRegistry {
+    private static final String METRIC_NAME = "dungeon.item.naming";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, PendingName> pending = new ConcurrentHashMap<>();
+    private Counter replyCounter;
+    private Counter fallbackCounter;
+
+    @PostConstruct
+    public void init() {
+        replyCounter = meterRegistry.counter(METRIC_NAME, "result", "reply");
+        fallbackCounter = meterRegistry.counter(METRIC_NAME, "result", "fallback");
+        meterRegistry.gauge(METRIC_NAME + ".pending", pending, Map::size);
+    }
+
+    /**
+     * Registers naming requests for items, only items without pending request are requested
+     *
+     * @param itemIds      ids of items to be named
+     * @param timeout      time to wait for reply
+     * @param fallbackName name to use for item if it isn't named
+     * @param request      sends single request for ids of items it's called with
+     * @return futures of items names by item ids, in given order
+     */
+    public Map<String, CompletableFuture<String>> register(Collection<String> itemIds, Duration timeout,
+                                                           Function<String, String> fallbackName,
+                                                           Consumer<List<String>> request) {
+        final Map<String, CompletableFuture<String>> names = new LinkedHashMap<>();
+        final Map<String, PendingName> requested = new LinkedHashMap<>();
+        for (String itemId : itemIds) {
+            val created = new PendingName(new CompletableFuture<>(), fallbackName);
+            val existing = pending.putIfAbsent(itemId, created);
+            if (nonNull(existing)) {
+                names.put(itemId, existing.name());
+                continue;
+            }
+            created.name().whenComplete((name, e) -> pending.remove(itemId, created));
+            names.put(itemId, created.name());
+            requested.put(itemId, created);
+        }
+        if (requested.isEmpty()) {
+            return names;
+        }
+        //registered before request is sent, so that reply can't outrun it
+        try {
+            request.accept(List.copyOf(requested.keySet()));
+        } catch (RuntimeException e) {
+            log.warn("Unable to request names for items {}: {}", requested.keySet(), e.getMessage());
+            requested.forEach(this::completeWithFallback);
+            return names;
+        }
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> requested.forEach((itemId, pendingName) -> {
+                    if (completeWithFallback(itemId, pendingName)) {
+                        log.warn("Name for item {} wasn't generated in {}, fallback name used", itemId, timeout);
+                    }
+                }));
+        return names;
+    }
+
+    /**
+     * Completes pending request with generated name, replies to unknown items are ignored
+     *
+     * @param itemId id of named item
+     * @param name   generated name
+     */
+    public void complete(String itemId, String name) {
+        val pendingName = pending.get(itemId);
+        if (isNull(pendingName)) {
+            log.debug("No pending naming request for item {}", itemId);
+            return;
+        }
+        if (pendingName.name().complete(name)) {
+            replyCounter.increment();
+        }
+    }
+
+    /**
+     * Completes pending request with fallback name
+     *
+     * @param itemId id of item which wasn't named
+     * @param reason of failure
+     */
+    public void fail(String itemId, String reason) {
+        val pendingName = pending.get(itemId);
+        if (nonNull(pendingName) && completeWithFallback(itemId, pendingName)) {
+            log.warn("Naming of item {} failed: {}, fallback name used", itemId, reason);
+        }
+    }
+
+    private boolean completeWithFallback(String itemId, PendingName pendingName) {
+        //fallback name may be stored, so it's not evaluated for completed requests
+        if (pendingName.name().isDone()) {
+            return false;
+        }
+        if (pendingName.name().complete(pendingName.fallbackName().apply(itemId))) {
+            fallbackCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private record PendingName(CompletableFuture<String> name, Function<String, String> fallbackName) {
+    }
+}
@@ -1,15 +1,27 @@
 package org.dungeon.prototype.service.item.generation;
 
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
 import org.dungeon.prototype.kafka.KafkaProducer;
+import org.dungeon.prototype.model.document.item.ItemDocument;
 import org.dungeon.prototype.model.effect.Effect;
 import org.dungeon.prototype.model.inventory.Item;
+import org.dungeon.prototype.model.inventory.items.Weapon;
+import org.dungeon.prototype.model.inventory.items.Wearable;
+import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameBatchRequestDto;
 import org.dungeon.prototype.model.inventory.items.naming.api.dto.ItemNameRequestDto;
 import org.dungeon.prototype.repository.ItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.nonNull;
@@ -19,20 +31,64 @@ import static java.util.Objects.nonNull;
 public class ItemNamingService {
     @Value("${kafka-topics.item-naming-topic}")
     private String topic;
+    @Value("${item-naming.reply-timeout}")
+    private Duration replyTimeout;
+    @Value("${item-naming.batch-size}")
+    private Integer batchSize;
     @Autowired
     KafkaProducer kafkaProducer;
     @Autowired
     ItemRepository itemRepository;
+    @Autowired
+    ItemNamingRegistry itemNamingRegistry;
+    @Autowired
+    ItemNameCache itemNameCache;
 
     /**
-     * Sends request to generate name for item
+     * Names items by names cached for their signatures, for the rest sends requests
+     * to generate names if there are no pending ones. Items are requested in batches of same chat
      *
-     * @param item to be named
+     * @param items to be named
+     * @return futures of items names by item ids, completed with fallback names if items aren't named in time
      */
-    public void requestNameGeneration(Item item) {
-        log.info("Preparing item {} for naming request...", item.getId());
-        kafkaProducer.sendItemNamingRequest(topic,
-                new ItemNameRequestDto(item.getChatId(), item.getId(), generatePrompt(item)));
+    public Map<String, CompletableFuture<String>> requestNameGeneration(List<? extends Item> items) {
+        final Map<String, Item> itemsById = items.stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+        final Map<String, String> signatures = itemsById.values().stream()
+                .collect(Collectors.toMap(Item::getId, ItemNameCache::getSignature));
+        val cachedNames = itemNameCache.findNames(signatures);
+        cachedNames.forEach(this::saveName);
+
+        val requestedNames = itemNamingRegistry.register(
+                itemsById.keySet().stream().filter(itemId -> !cachedNames.containsKey(itemId)).toList(),
+                replyTimeout,
+                itemId -> saveFallbackName(itemsById.get(itemId)),
+                itemIds -> sendRequests(itemIds.stream().map(itemsById::get).toList()));
+        requestedNames.forEach((itemId, name) -> name.thenAcceptAsync(generatedName -> {
+            if (!generatedName.equals(getFallbackName(itemsById.get(itemId)))) {
+                itemNameCache.addName(signatures.get(itemId), generatedName);
+            }
+        }));
+
+        final Map<String, CompletableFuture<String>> names = new LinkedHashMap<>();
+        itemsById.keySet().forEach(itemId -> names.put(itemId, cachedNames.containsKey(itemId) ?
+                CompletableFuture.completedFuture(cachedNames.get(itemId)) :
+                requestedNames.get(itemId)));
+        return names;
+    }
+
+    private void sendRequests(List<Item> items) {
+        final Map<Long, List<Item>> itemsByChat = items.stream()
+                .collect(Collectors.groupingBy(Item::getChatId, LinkedHashMap::new, Collectors.toList()));
+        itemsByChat.forEach((chatId, chatItems) -> {
+            for (int from = 0; from < chatItems.size(); from += batchSize) {
+                val batch = chatItems.subList(from, Math.min(from + batchSize, chatItems.size()));
+                log.info("Preparing {} items of chat {} for naming request...", batch.size(), chatId);
+                kafkaProducer.sendItemNamingRequest(topic, new ItemNameBatchRequestDto(chatId, batch.stream()
+                        .map(item -> new ItemNameRequestDto(chatId, item.getId(), generatePrompt(item)))
+                        .toList()));
+            }
+        });
     }
 
     private String generatePrompt(Item item) {
@@ -41,4 +97,37 @@ public class ItemNamingService {
                         " that " + item.getEffects().stream().map(Effect::toString).collect(Collectors.joining(", ")) :
                         "");
     }
+
+    private void saveName(String itemId, String name) {
+        try {
+            itemRepository.updateNameIfAbsent(itemId, name);
+        } catch (DataAccessException e) {
+            log.warn("Unable to save cached name for item {}: {}", itemId, e.getMessage());
+        }
+    }
+
+    /**
+     * Stores fallback name unless item was named meanwhile, so that item isn't requested again
+     */
+    private String saveFallbackName(Item item) {
+        val fallbackName = getFallbackName(item);
+        try {
+            if (itemRepository.updateNameIfAbsent(item.getId(), fallbackName) == 0) {
+                return itemRepository.findByChatIdAndId(item.getChatId(), item.getId())
+                        .map(ItemDocument::getName)
+                        .orElse(fallbackName);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Unable to save fallback name for item {}: {}", item.getId(), e.getMessage());
+        }
+        return fallbackName;
+    }
+
+    private String getFallbackName(Item item) {
+        return switch (item) {
+            case Weapon weapon -> weapon.getAttributes().getQuality() + " " + weapon.getAttributes().getWeaponType();
+            case Wearable wearable -> wearable.getAttributes().getQuality() + " " + wearable.getAttributes().getWearableType();
+            default -> item.getAttributes().getQuality() + " " + item.getItemType().getValue();
+        };
+    }
 }
@@ -0,0 +1,121 @@
+package org.dungeon.prototype.service.level;
+
+import com.mongodb.DBRef;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Migrates levels which rooms, room contents and monsters are stored in collections of their own
+ * and referred by {@link DBRef} to level aggregate with all of them embedded.
+ * Legacy collections are dropped once all levels are migrated
+ */
+@Slf4j
+@Service
+public class LevelMigrationService {
+    private static final String LEVELS = "levels";
+    private static final String ROOMS = "rooms";
+    private static final String ROOM_CONTENTS = "roomContent";
+    private static final String MONSTERS = "monsters";
+    private static final String ROOMS_MAP = "roomsMap";
+    private static final String ROOM_CONTENT = "roomContent";
+    private static final String MONSTER = "monster";
+    private static final String ITEMS = "items";
+    private static final String ITEM_IDS = "itemIds";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        try {
+            if (!mongoTemplate.collectionExists(ROOMS)) {
+                return;
+            }
+            var migrated = 0;
+            for (Document level : mongoTemplate.findAll(Document.class, LEVELS)) {
+                if (isLegacy(level)) {
+                    embedRooms(level);
+                    mongoTemplate.save(level, LEVELS);
+                    migrated++;
+                }
+            }
+            Stream.of(ROOMS, ROOM_CONTENTS, MONSTERS).forEach(mongoTemplate::dropCollection);
+            log.info("Migrated {} levels to embedded rooms", migrated);
+        } catch (DataAccessException e) {
+            log.warn("Unable to migrate levels: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces references to rooms of level with rooms themselves, embedding their contents and monsters.
+     * References to items are replaced with item ids
+     *
+     * @param level legacy level document
+     */
+    void embedRooms(Document level) {
+        val roomsMap = level.get(ROOMS_MAP, Document.class);
+        val rooms = findReferenced(roomsMap.values(), ROOMS);
+        val contents = findReferenced(rooms.values().stream().map(room -> room.get(ROOM_CONTENT)).toList(), ROOM_CONTENTS);
+        val monsters = findReferenced(contents.values().stream().map(content -> content.get(MONSTER)).toList(), MONSTERS);
+        contents.values().forEach(content -> {
+            embed(content, MONSTER, monsters);
+            val items = content.getList(ITEMS, DBRef.class);
+            if (nonNull(items)) {
+                content.put(ITEM_IDS, items.stream().map(item -> item.getId().toString()).toList());
+            }
+            content.remove(ITEMS);
+        });
+        rooms.values().forEach(room -> embed(room, ROOM_CONTENT, contents));
+
+        val embeddedRooms = new Document();
+        roomsMap.forEach((key, value) -> {
+            val room = value instanceof DBRef reference ? rooms.get(reference.getId()) : value;
+            if (isNull(room)) {
+                log.warn("Room {} of level {} not found, skipping", key, level.get("_id"));
+            } else {
+                embeddedRooms.put(key, room);
+            }
+        });
+        level.put(ROOMS_MAP, embeddedRooms);
+    }
+
+    private static boolean isLegacy(Document level) {
+        val roomsMap = level.get(ROOMS_MAP, Document.class);
+        return nonNull(roomsMap) && roomsMap.values().stream().anyMatch(DBRef.class::isInstance);
+    }
+
+    private Map<Object, Document> findReferenced(Collection<?> references, String collection) {
+        val ids = references.stream()
+                .filter(DBRef.class::isInstance)
+                .map(reference -> ((DBRef) reference).getId())
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return mongoTemplate.find(query(where("_id").in(ids)), Document.class, collection).stream()
+                .collect(Collectors.toMap(document -> document.get("_id"), Function.identity()));
+    }
+
+    private static void embed(Document document, String field, Map<Object, Document> referenced) {
+        if (document.get(field) instanceof DBRef reference) {
+            document.put(field, referenced.get(reference.getId()));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.dungeon.prototype.service.level;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.math3.util.Pair;
+import org.dungeon.prototype.model.level.Level;
+import org.dungeon.prototype.model.level.generation.StagedLevel;
+import org.dungeon.prototype.model.player.Player;
+import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.service.PlayerService;
+import org.dungeon.prototype.service.level.generation.LevelGenerationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Generates next level in background while player clears current one.
+ * Staged level is kept in memory until player proceeds to it
+ * and is regenerated if player's weight changed materially in the meantime.
+ * Discarded generation is interrupted and stops at next generation step, freeing its thread
+ */
+@Slf4j
+@Service
+public class LevelPrefetchService {
+    private static final String METRIC_NAME = "dungeon.level.prefetch";
+
+    @Autowired
+    private LevelGenerationService levelGenerationService;
+    @Autowired
+    private PlayerService playerService;
+    @Autowired
+    private GenerationProperties generationProperties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Pair<Integer, Future<StagedLevel>>> stagedLevels = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter staleCounter;
+    private Counter rebaseCounter;
+    private Timer generationTimer;
+
+    @PostConstruct
+    public void init() {
+        val properties = generationProperties.getPrefetch();
+        val threadFactory = new CustomizableThreadFactory("level-prefetch-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                threadFactory);
+        hitCounter = meterRegistry.counter(METRIC_NAME, "result", "hit");
+        missCounter = meterRegistry.counter(METRIC_NAME, "result", "miss");
+        staleCounter = meterRegistry.counter(METRIC_NAME, "result", "stale");
+        rebaseCounter = meterRegistry.counter(METRIC_NAME + ".rebase");
+        generationTimer = meterRegistry.timer(METRIC_NAME + ".generation");
+        meterRegistry.gauge(METRIC_NAME + ".queue", executor.getQueue(), Collection::size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedules background generation of given level,
+     * replacing one previously staged for chat
+     *
+     * @param chatId      current chat id
+     * @param levelNumber number of level to generate
+     */
+    public void prefetch(Long chatId, int levelNumber) {
+        if (!generationProperties.getPrefetch().isEnabled()) {
+            return;
+        }
+        discard(chatId);
+        try {
+            Future<StagedLevel> future = executor.submit(() -> generationTimer.record(() -> {
+                val player = playerService.getPlayer(chatId);
+                log.info("Prefetching level {} for chat {}", levelNumber, chatId);
+                val level = levelGenerationService.generateLevel(chatId, player, levelNumber);
+                return new StagedLevel(levelNumber, level, player.getWeight());
+            }));
+            stagedLevels.put(chatId, Pair.create(levelNumber, future));
+        } catch (RejectedExecutionException e) {
+            log.warn("Prefetch queue is full, level {} for chat {} will be generated on demand", levelNumber, chatId);
+        }
+    }
+
+    /**
+     * Takes level staged for chat, waiting for its generation to finish if it's still running
+     *
+     * @param chatId      current chat id
+     * @param player      player proceeding to level
+     * @param levelNumber number of expected level
+     * @return staged level if it's present and still matches player's weight, empty otherwise
+     */
+    public Optional<Level> takeStagedLevel(Long chatId, Player player, int levelNumber) {
+        val task = stagedLevels.remove(chatId);
+        if (isNull(task) || task.getKey() != levelNumber) {
+            if (nonNull(task)) {
+                cancel(task.getValue());
+            }
+            missCounter.increment();
+            return Optional.empty();
+        }
+        final StagedLevel stagedLevel;
+        try {
+            stagedLevel = task.getValue().get();
+        } catch (InterruptedException e) {
+            cancel(task.getValue());
+            Thread.currentThread().interrupt();
+            missCounter.increment();
+            return Optional.empty();
+        } catch (CancellationException | ExecutionException e) {
+            log.warn("Prefetch of level {} for chat {} failed: {}", levelNumber, chatId, e.getMessage());
+            missCounter.increment();
+            return Optional.empty();
+        }
+        if (isStale(stagedLevel, player)) {
+            log.info("Staged level {} for chat {} is stale", levelNumber, chatId);
+            staleCounter.increment();
+            return Optional.empty();
+        }
+        hitCounter.increment();
+        return Optional.of(stagedLevel.getLevel());
+    }
+
+    /**
+     * Regenerates staged level if player's weight drifted away
+     * from the one level was generated for
+     *
+     * @param chatId current chat id
+     * @param player current player
+     */
+    public void rebaseIfStale(Long chatId, Player player) {
+        val task = stagedLevels.get(chatId);
+        if (isNull(task) || !Future.State.SUCCESS.equals(task.getValue().state())) {
+            return;
+        }
+        if (isStale(task.getValue().resultNow(), player)) {
+            log.info("Player's weight changed, rebasing staged level {} for chat {}", task.getKey(), chatId);
+            rebaseCounter.increment();
+            prefetch(chatId, task.getKey());
+        }
+    }
+
+    /**
+     * Drops level staged for chat, cancelling its generation
+     *
+     * @param chatId current chat id
+     */
+    public void discard(Long chatId) {
+        val task = stagedLevels.remove(chatId);
+        if (nonNull(task)) {
+            cancel(task.getValue());
+        }
+    }
+
+    /**
+     * Interrupts running generation and drops queued one, so it doesn't hold pool slot or queue place
+     */
+    private void cancel(Future<StagedLevel> future) {
+        future.cancel(true);
+        executor.purge();
+    }
+
+    private boolean isStale(StagedLevel stagedLevel, Player player) {
+        val staged = getPersistentComponents(stagedLevel.getPlayerWeight());
+        val current = getPersistentComponents(player.getWeight());
+        double distance = 0.0;
+        double norm = 0.0;
+        for (int i = 0; i < staged.length; i++) {
+            distance += (current[i] - staged[i]) * (current[i] - staged[i]);
+            norm += staged[i] * staged[i];
+        }
+        return Math.sqrt(distance) > generationProperties.getPrefetch().getWeightDriftThreshold() * Math.sqrt(norm);
+    }
+
+    /**
+     * Current hp, mana and armor are restored between battles and
+     * don't affect player's strength, so they are left out of comparison
+     */
+    private static double[] getPersistentComponents(Weight weight) {
+        return new double[]{
+                weight.getMaxHp(), weight.getMaxMana(), weight.getMaxArmor(),
+                weight.getChanceToDodge(), weight.getGoldBonus(), weight.getXpBonus(),
+                weight.getAttack(), weight.getCriticalHitChance(), weight.getCriticalHitMultiplier(),
+                weight.getChanceToKnockout(), weight.getArcaneMagic(), weight.getDivineMagic()
+        };
+    }
+}
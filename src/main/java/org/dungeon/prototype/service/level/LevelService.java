@@ -3,6 +3,7 @@ package org.dungeon.prototype.service.level;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.math3.util.Pair;
+import org.bson.types.ObjectId;
 import org.dungeon.prototype.annotations.aspect.ChatStateUpdate;
 import org.dungeon.prototype.annotations.aspect.RoomInitialization;
 import org.dungeon.prototype.annotations.aspect.TurnUpdate;
@@ -19,19 +20,19 @@ import org.dungeon.prototype.model.room.content.MonsterRoom;
 import org.dungeon.prototype.model.room.content.RoomContent;
 import org.dungeon.prototype.model.room.content.Shrine;
 import org.dungeon.prototype.properties.CallbackType;
-import org.dungeon.prototype.repository.LevelRepository;
 import org.dungeon.prototype.repository.converters.mapstruct.LevelMapper;
+import org.dungeon.prototype.repository.converters.mapstruct.RoomContentMapper;
+import org.dungeon.prototype.repository.converters.mapstruct.RoomMapper;
 import org.dungeon.prototype.service.PlayerService;
 import org.dungeon.prototype.service.effect.EffectService;
 import org.dungeon.prototype.service.level.generation.LevelGenerationService;
 import org.dungeon.prototype.service.message.MessageService;
-import org.dungeon.prototype.service.room.RoomService;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
 import static org.dungeon.prototype.bot.state.ChatState.GAME;
@@ -44,9 +45,9 @@ public class LevelService {
     @Autowired
     LevelGenerationService levelGenerationService;
     @Autowired
-    private LevelRepository levelRepository;
+    private LevelPrefetchService levelPrefetchService;
     @Autowired
-    private RoomService roomService;
+    private GameSessionCache gameSessionCache;
     @Autowired
     private PlayerService playerService;
     @Autowired
@@ -60,13 +61,15 @@ public class LevelService {
      * @param chatId id of chat where game starts
      */
     public void startNewGame(Long chatId, Player player) {
+        levelPrefetchService.discard(chatId);
         val level = startNewLevel(chatId, player, 1);
         log.info("Starting new game...");
         messageService.sendNewLevelMessage(chatId, player, level, 1);
     }
 
     /**
-     * Generates next level of game and starts it
+     * Starts next level of game, taking one prefetched in background if it's still relevant,
+     * or generating it otherwise
      *
      * @param chatId id of chat where game runs
      */
@@ -107,20 +110,21 @@ public class LevelService {
     @TurnUpdate
     @RoomInitialization
     public void moveToRoom(Long chatId, Player player, Room nextRoom, Direction newDirection) {
-        var level = getLevel(chatId);
-        val levelMap = level.getLevelMap();
-        if (levelMap.isContainsRoom(nextRoom.getPoint().getX(), nextRoom.getPoint().getY()) ||
-                levelMap.addRoom(level.getGrid()[nextRoom.getPoint().getX()][nextRoom.getPoint().getY()])) {
-            saveOrUpdateLevel(level);
-            player.setCurrentRoom(nextRoom.getPoint());
-            player.setCurrentRoomId(nextRoom.getId());
-            player.setDirection(newDirection);
-            playerService.updatePlayer(player);
-            if (nextRoom.getRoomContent() instanceof MonsterRoom) {
-                messageService.sendMonsterRoomMessage(chatId, player, nextRoom);
-            } else {
-                messageService.sendRoomMessage(chatId, player, nextRoom);
-            }
+        val level = getLevel(chatId);
+        val point = nextRoom.getPoint();
+        //level map is shared with cached level, so it's updated by session cache only
+        if (!level.getLevelMap().isContainsRoom(point.getX(), point.getY())) {
+            gameSessionCache.addVisitedRoom(chatId, level.getGrid()[point.getX()][point.getY()]);
+        }
+        player.setCurrentRoom(point);
+        player.setCurrentRoomId(nextRoom.getId());
+        player.setDirection(newDirection);
+        playerService.updatePlayer(player);
+        levelPrefetchService.rebaseIfStale(chatId, player);
+        if (nextRoom.getRoomContent() instanceof MonsterRoom) {
+            messageService.sendMonsterRoomMessage(chatId, player, nextRoom);
+        } else {
+            messageService.sendRoomMessage(chatId, player, nextRoom);
         }
     }
 
@@ -132,11 +136,7 @@ public class LevelService {
     public void updateAfterMonsterKill(Room currentRoom) {
         val roomType = getMonsterKilledRoomType(currentRoom.getRoomContent().getRoomType());
         currentRoom.setRoomContent(new EmptyRoom(roomType));
-        roomService.saveOrUpdateRoomContent(currentRoom.getRoomContent());
-        roomService.saveOrUpdateRoom(currentRoom);
-        val level = getLevel(currentRoom.getChatId());
-        level.updateRoomType(currentRoom.getPoint(), roomType);
-        saveOrUpdateLevel(level);
+        updateRoomContent(currentRoom);
     }
 
     /**
@@ -146,11 +146,7 @@ public class LevelService {
      */
     public void updateAfterTreasureLooted(Room currentRoom) {
         currentRoom.setRoomContent(new EmptyRoom(RoomType.TREASURE_LOOTED));
-        roomService.saveOrUpdateRoomContent(currentRoom.getRoomContent());
-        roomService.saveOrUpdateRoom(currentRoom);
-        val level = getLevel(currentRoom.getChatId());
-        level.updateRoomType(currentRoom.getPoint(), RoomType.TREASURE_LOOTED);
-        saveOrUpdateLevel(level);
+        updateRoomContent(currentRoom);
     }
 
     /**
@@ -159,37 +155,30 @@ public class LevelService {
      * @param chatId      current chat id
      * @param player      current player
      * @param currentRoom shrine room
-     * @param level       current level
      */
-    public void shrineUsage(Long chatId, Player player, Room currentRoom, Level level) {
+    public void shrineUsage(Long chatId, Player player, Room currentRoom) {
         if (currentRoom.getRoomContent() instanceof Shrine) {
             player.addEffect(((Shrine) currentRoom.getRoomContent()).getEffect());
-            level.updateRoomType(currentRoom.getPoint(), RoomType.SHRINE_DRAINED);
-            saveOrUpdateLevel(level);
             currentRoom.setRoomContent(new EmptyRoom(RoomType.SHRINE_DRAINED));
-            roomService.saveOrUpdateRoomContent(currentRoom.getRoomContent());
-            roomService.saveOrUpdateRoom(currentRoom);
+            updateRoomContent(currentRoom);
             playerService.updatePlayer(player);
             messageService.sendRoomMessage(chatId, player, currentRoom);
         }
     }
 
     /**
-     * Saves level to repository
+     * Saves level to repository together with its rooms,
+     * replacing previous level of chat
      *
      * @param level level to save or update
      * @return saved or updated level
      */
     public Level saveOrUpdateLevel(Level level) {
-        level.setRoomsMap(level.getRoomsMap().entrySet().stream()
-                .peek(entry -> {
-                    if (isNull(entry.getValue().getId())) {
-                        entry.setValue(roomService.saveOrUpdateRoom(entry.getValue()));
-                    }
-                })
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        level.getRoomsMap().values().stream()
+                .filter(room -> isNull(room.getId()))
+                .forEach(room -> room.setId(new ObjectId().toHexString()));
         val levelDocument = LevelMapper.INSTANCE.mapToDocument(level);
-        val savedLevelDocument = levelRepository.save(levelDocument);
+        val savedLevelDocument = gameSessionCache.saveLevel(levelDocument);
         return LevelMapper.INSTANCE.mapToLevel(savedLevelDocument);
     }
 
@@ -210,10 +199,10 @@ public class LevelService {
      * throws {@link EntityNotFoundException} if none found
      *
      * @param chatId current chat id
-     * @return found level
+     * @return found level, items of its rooms aren't loaded
      */
     public Level getLevel(Long chatId) {
-        val levelDocument = levelRepository.findByChatId(chatId).orElseThrow(() ->
+        val levelDocument = gameSessionCache.getLevel(chatId).orElseThrow(() ->
                 new EntityNotFoundException(chatId, "level", CallbackType.MENU_BACK));
         return LevelMapper.INSTANCE.mapToLevel(levelDocument);
     }
@@ -224,22 +213,27 @@ public class LevelService {
      * @param chatId current chat id
      */
     public void remove(Long chatId) {
-        levelRepository.removeByChatId(chatId);
+        levelPrefetchService.discard(chatId);
+        gameSessionCache.removeLevel(chatId);
+    }
+
+    private void updateRoomContent(Room room) {
+        gameSessionCache.updateRoomContent(room.getChatId(), room.getPoint(),
+                RoomContentMapper.INSTANCE.mapToRoomContentDocument(room.getRoomContent()));
     }
 
     private Integer getLevelNumber(Long chatId) {
-        val projection = levelRepository.findNumberByChatId(chatId)
+        return gameSessionCache.getLevelNumber(chatId)
                 .orElseThrow(() ->
                         new EntityNotFoundException(chatId, "level number", CallbackType.MENU_BACK));
-        return projection.getNumber();
     }
 
     public Level startNewLevel(Long chatId, Player player, Integer levelNumber) {
-        messageService.sendLevelGeneratingInfoMessage(chatId, levelNumber);
-        var level = levelGenerationService.generateLevel(chatId, player, levelNumber);
-        if (levelRepository.existsByChatId(chatId)) {
-            levelRepository.removeByChatId(chatId);
-        }
+        var level = levelPrefetchService.takeStagedLevel(chatId, player, levelNumber)
+                .orElseGet(() -> {
+                    messageService.sendLevelGeneratingInfoMessage(chatId, levelNumber);
+                    return levelGenerationService.generateLevel(chatId, player, levelNumber);
+                });
         level = saveOrUpdateLevel(level);
         log.info("Level generated: {}", level);
         val direction = level.getRoomsMap().get(level.getStart()).getAdjacentRooms().entrySet().stream()
@@ -250,20 +244,18 @@ public class LevelService {
         player.setCurrentRoom(level.getStart());
         player.setCurrentRoomId(level.getRoomsMap().get(level.getStart()).getId());
         playerService.updatePlayer(player);
+        levelPrefetchService.prefetch(chatId, levelNumber + 1);
         return level;
     }
 
     public boolean hasLevel(Long chatId) {
-        return levelRepository.existsByChatId(chatId);
+        return gameSessionCache.hasLevel(chatId);
     }
 
     public Room getRoomByChatIdAndCoordinates(Long chatId, Point point) {
-        val room = getLevel(chatId).getRoomByCoordinates(point);
-        if (isNull(room)) {
-            throw new EntityNotFoundException(chatId, "room", CallbackType.MENU_BACK,
-                    Pair.create("point", point.toString()));
-        } else {
-            return room;
-        }
+        return gameSessionCache.getRoom(chatId, point)
+                .map(RoomMapper.INSTANCE::mapToRoom)
+                .orElseThrow(() -> new EntityNotFoundException(chatId, "room", CallbackType.MENU_BACK,
+                        Pair.create("point", point.toString())));
     }
 }
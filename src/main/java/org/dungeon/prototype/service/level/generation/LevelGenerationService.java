@@ -2,9 +2,10 @@ package org.dungeon.prototype.service.level.generation;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.dungeon.prototype.model.inventory.Item;
 import org.dungeon.prototype.model.level.Level;
 import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.level.generation.LevelGenerationGrid;
+import org.dungeon.prototype.model.level.generation.ItemsRoomPick;
 import org.dungeon.prototype.model.level.generation.LevelGridCluster;
 import org.dungeon.prototype.model.level.generation.NextRoomDto;
 import org.dungeon.prototype.model.level.ui.LevelMap;
@@ -12,7 +13,6 @@ import org.dungeon.prototype.model.player.Player;
 import org.dungeon.prototype.model.player.PlayerAttribute;
 import org.dungeon.prototype.model.room.Room;
 import org.dungeon.prototype.model.room.RoomType;
-import org.dungeon.prototype.model.level.ui.GridSection;
 import org.dungeon.prototype.model.room.content.EndRoom;
 import org.dungeon.prototype.model.room.content.ItemsRoom;
 import org.dungeon.prototype.model.room.content.RoomContent;
@@ -33,7 +33,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -43,16 +48,17 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static org.apache.commons.math3.util.FastMath.abs;
 import static org.apache.commons.math3.util.FastMath.max;
-import static org.dungeon.prototype.util.LevelUtil.generateEmptyMapGrid;
-import static org.dungeon.prototype.util.LevelUtil.getAdjacentSectionsInCluster;
-import static org.dungeon.prototype.util.LevelUtil.getIcon;
-import static org.dungeon.prototype.util.LevelUtil.printMapGridToLogs;
-import static org.dungeon.prototype.util.LevelUtil.printMapToLogs;
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NEIGHBOURS_COUNT;
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NONE;
 import static org.dungeon.prototype.util.LevelUtil.setMutualAdjacency;
 import static org.dungeon.prototype.util.RandomUtil.getDeadEndRouteRoomType;
 import static org.dungeon.prototype.util.RandomUtil.getRandomClusterConnectionRoomType;
 import static org.dungeon.prototype.util.RandomUtil.getRandomInt;
 import static org.dungeon.prototype.util.RandomUtil.getRandomRoomType;
+import static org.dungeon.prototype.util.RandomUtil.withSeed;
+import static org.dungeon.prototype.util.SeedUtil.getLevelSeed;
+import static org.dungeon.prototype.util.SeedUtil.newGameSeed;
+import static org.dungeon.prototype.util.SeedUtil.split;
 
 @Slf4j
 @Service
@@ -65,7 +71,8 @@ public class LevelGenerationService {
     private GenerationProperties generationProperties;
 
     /**
-     * Generates level and fills with content
+     * Generates level and fills with content.
+     * Level seed is derived from player's game seed
      *
      * @param chatId      id of player's chat
      * @param player      player starting level
@@ -73,12 +80,34 @@ public class LevelGenerationService {
      * @return generated level
      */
     public Level generateLevel(long chatId, Player player, int levelNumber) {
-        log.info("Generating level {}", levelNumber);
+        val seed = nonNull(player.getGameSeed()) ?
+                getLevelSeed(player.getGameSeed(), chatId, levelNumber) :
+                newGameSeed();
+        return generateLevel(chatId, player, levelNumber, seed);
+    }
+
+    /**
+     * Generates level from given seed: same seed, player's weight
+     * and items of chat always yield same level
+     *
+     * @param chatId      id of player's chat
+     * @param player      player starting level
+     * @param levelNumber number of level
+     * @param seed        seed of level
+     * @return generated level
+     */
+    public Level generateLevel(long chatId, Player player, int levelNumber, long seed) {
+        return withSeed(seed, () -> generateSeededLevel(chatId, player, levelNumber, seed));
+    }
+
+    private Level generateSeededLevel(long chatId, Player player, int levelNumber, long seed) {
+        log.info("Generating level {}, seed: {}", levelNumber, seed);
         //initializing level and calculating basic attributes
         val gridSize = calculateGridSize(levelNumber);
         var level = new Level();
         level.setChatId(chatId);
         level.setNumber(levelNumber);
+        level.setSeed(seed);
         log.info("Grid size {}", gridSize);
 
         val clusterConnectionPoints =
@@ -92,185 +121,276 @@ public class LevelGenerationService {
                 .collect(Collectors.toMap(Function.identity(), point -> new LevelGridCluster(clusterConnectionPoints.get(clusterConnectionPoints.indexOf(point) - 1), point)));
 
 
-        List<WalkerBuilder> walkers = initializeWalkers(clusters.values());
-
         //empty level grid will be filled with rooms during generation
-        GridSection[][] grid = generateEmptyMapGrid(gridSize);
+        val grid = new LevelGenerationGrid(gridSize);
         initConnectionSections(grid, clusterConnectionPoints);//TODO:consider removing after debug
-        val levelStartSection = setStartSection(grid, clusterConnectionPoints.getFirst());
-        val levelEndSection = setEndSection(grid, clusterConnectionPoints.getLast());
+        val levelStartCell = setStartSection(grid, clusterConnectionPoints.getFirst());
+        setEndSection(grid, clusterConnectionPoints.getLast());
+
+        List<WalkerBuilder> walkers = initializeWalkers(grid, clusters.values());
 
         while (!walkers.isEmpty()) {
             for (WalkerBuilder walker : walkers) {
                 walker.nextStep(grid);
-                log.debug("Current grid state\n{}", printMapGridToLogs(grid));
+                log.debug("Current grid state\n{}", grid);
             }
             walkers.removeIf(WalkerBuilder::isStopped);
         }
+        checkInterrupted();
 
         log.debug("Clusters data: {}", clusters);
-        log.debug("Current grid state\n{}", printMapGridToLogs(grid));
+        log.debug("Current grid state\n{}", grid);
 
         processNegativeSectionsAndDeadEnds(clusters.values(), grid);
 
         Set<String> usedItemIds = new HashSet<>();
-        Map<Point, Room> roomsMap = new HashMap<>();
         double levelDensity = clusters.values().stream().mapToInt(LevelGridCluster::getSize).sum() / (double) (gridSize * gridSize);
         log.info("Populating connection point rooms with content...");
         for (int i = 0; i < clusterConnectionPoints.size(); i++) {
+            checkInterrupted();
             if (i == 0) {
                 Room start = new Room(clusterConnectionPoints.get(i), chatId, new StartRoom());
                 level.setStart(start.getPoint());
-                roomsMap.put(start.getPoint(), start);
-                log.debug("Current map state\n{}", printMapToLogs(grid, roomsMap));
+                grid.putRoom(start);
                 continue;
             }
             if (i == clusterConnectionPoints.size() - 1) {
                 Room end = new Room(clusterConnectionPoints.get(i), chatId, new EndRoom());
                 level.setEnd(end.getPoint());
-                roomsMap.put(end.getPoint(), end);
+                grid.putRoom(end);
                 Weight expectedWeight = weightCalculationService.getExpectedClusterConnectionPointWeight(player.getWeight(),
-                        player.getWeight().toVector().getNorm() / levelDensity,
+                        player.getWeight().getNorm() / levelDensity,
                         i, clusterConnectionPoints.size());
                 clusters.get(clusterConnectionPoints.get(i)).setClusterExpectedWeight(expectedWeight);
                 continue;
             }
-            var currentSection = grid[clusterConnectionPoints.get(i).getX()][clusterConnectionPoints.get(i).getY()];
-            log.info("Current section:{}", currentSection);
+            val currentCell = grid.getCell(clusterConnectionPoints.get(i));
+            log.info("Current section:{}", grid.getPoint(currentCell));
             Weight expectedWeight = weightCalculationService.getExpectedClusterConnectionPointWeight(player.getWeight(),
-                    player.getWeight().toVector().getNorm() / levelDensity,
+                    player.getWeight().getNorm() / levelDensity,
                     i, clusterConnectionPoints.size());
-            log.info("Expected weight norm: {}, expected weight: {}", expectedWeight.toVector().getNorm(), expectedWeight);
+            log.info("Expected weight norm: {}, expected weight: {}", expectedWeight.getNorm(), expectedWeight);
             val roomType = getRandomClusterConnectionRoomType(expectedWeight, i, clusterConnectionPoints.size());
-            val roomContent = roomContentGenerationService.getNextRoomContent(expectedWeight, chatId, roomType, usedItemIds);
-            if (roomContent instanceof ItemsRoom itemsRoom) {
-                usedItemIds.addAll(itemsRoom.getItems().stream().map(Item::getId).collect(Collectors.toSet()));
-            }
-            clusters.get(currentSection.getPoint()).setClusterExpectedWeight(roomContent.getRoomContentWeight());
-            Room room = buildRoom(currentSection, chatId, roomContent);
-            roomsMap.put(room.getPoint(), room);
-            log.debug("Current map state\n{}", printMapToLogs(grid, roomsMap));
+            val roomContent = getNextRoomContent(expectedWeight, chatId, roomType, usedItemIds);
+            clusters.get(grid.getPoint(currentCell)).setClusterExpectedWeight(roomContent.getRoomContentWeight());
+            Room room = buildRoom(grid, currentCell, chatId, roomContent);
+            grid.putRoom(room);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Current map state\n{}", grid.printMap());
         }
 
-        for (LevelGridCluster cluster : clusters.values()) {
-            Point clusterEndPoint = cluster.getEndConnectionPoint();
-            log.info("Processing cluster endSection: {}", clusterEndPoint);
-            int deadEndsRouteStepsCount = 0;
-            if (cluster.hasDeadEnds()) {
-                deadEndsRouteStepsCount = populateDeadEnds(chatId, player, grid, cluster, roomsMap, usedItemIds);
+        //populated in order of connection points, so that each cluster keeps its stream
+        val orderedClusters = clusterConnectionPoints.stream()
+                .skip(1)
+                .map(clusters::get)
+                .toList();
+        populateClusters(chatId, player, grid, orderedClusters, usedItemIds, seed);
+
+        //converting to persisted model only once generation is finished
+        val sections = grid.toGridSections();
+        level.setRoomsMap(grid.getRoomsMap());
+        level.setGrid(sections);
+        level.setLevelMap(new LevelMap(sections[grid.getX(levelStartCell)][grid.getY(levelStartCell)]));
+        log.debug("Current grid state\n{}", grid);
+        return level;
+    }
+
+    /**
+     * Populates clusters concurrently, each one drawing from its own stream of level seed
+     * and picking items regardless of other clusters. Items picked by several clusters
+     * are resolved afterwards in cluster order, so result doesn't depend on scheduling.
+     * Interruption of generating thread is passed on to cluster threads
+     */
+    private void populateClusters(long chatId, Player player, LevelGenerationGrid grid,
+                                  List<LevelGridCluster> clusters, Set<String> usedItemIds, long seed) {
+        log.info("Populating {} clusters...", clusters.size());
+        try (val executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = IntStream.range(0, clusters.size())
+                    .mapToObj(i -> {
+                        Set<String> clusterUsedItemIds = new HashSet<>(usedItemIds);
+                        return executor.submit(() -> withSeed(split(seed, i), () ->
+                                populateCluster(chatId, player, grid, clusters.get(i), clusterUsedItemIds)));
+                    })
+                    .collect(Collectors.toList());
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Level generation is cancelled");
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
             }
-            var adjacentSections = getAdjacentSectionsInCluster(clusterEndPoint, grid, cluster).stream()
-                    .filter(section -> section.getStepsFromStart() > 0)
-                    .collect(Collectors.toCollection(HashSet::new));
-            var mainPathStart = adjacentSections.stream()
-                    .max(Comparator.comparing(GridSection::getStepsFromStart))
-                    .orElseGet(GridSection::new);
-            log.info("Main path start: {}", mainPathStart);
-            val mainPathWalker = WalkerDistributor.builder()
-                    .chatId(chatId)
-                    .cluster(cluster)
-                    .currentSection(grid[clusterEndPoint.getX()][clusterEndPoint.getY()])
-                    .runSubWalkerOnRouteFork(true)
-                    .previousRoom(roomsMap.get(clusterEndPoint))
-                    .currentStep(mainPathStart.getStepsFromStart())
-                    .status(WalkerDistributor.Status.RUNNING)
-                    .mainPathLength(mainPathStart.getStepsFromStart())
-                    .totalSteps(cluster.getSize() - deadEndsRouteStepsCount)
-                    .build();
-            while (mainPathWalker.isRunning()) {
-                log.info("Main cluster walker - id: {}, status: {}, current step: {}, current point: {}",
-                        mainPathWalker.getId(), mainPathWalker.getStatus(), mainPathWalker.getCurrentStep(),
-                        mainPathWalker.getCurrentSection().getPoint());
-                log.info("Main path walker next step...");
-                val nextRoom = mainPathWalker.nextStep(grid, roomsMap);
-                if (nonNull(nextRoom)) {
-                    populateRoom(chatId, player, grid, usedItemIds, roomsMap, cluster, nextRoom);
+        }
+        mergeItemsRoomPicks(chatId, player, grid, clusters, usedItemIds, seed);
+    }
+
+    /**
+     * Keeps items of the first cluster that picked them and picks items again
+     * for rooms of following clusters, from stream of room's cell
+     */
+    private void mergeItemsRoomPicks(long chatId, Player player, LevelGenerationGrid grid,
+                                     List<LevelGridCluster> clusters, Set<String> usedItemIds, long seed) {
+        for (int i = 0; i < clusters.size(); i++) {
+            val clusterSeed = split(seed, i);
+            for (ItemsRoomPick pick : clusters.get(i).getItemsRoomPicks()) {
+                val room = pick.getRoom();
+                if (room.getRoomContent() instanceof ItemsRoom itemsRoom &&
+                        itemsRoom.getItems().stream().noneMatch(item -> usedItemIds.contains(item.getId()))) {
+                    addUsedItems(itemsRoom, usedItemIds);
+                    continue;
+                }
+                log.info("Items of room {} are taken by another cluster, picking again...", room.getPoint());
+                RoomContent roomContent = withSeed(split(clusterSeed, grid.getCell(room.getPoint())), () ->
+                        pick.isSpecialTreasure() ?
+                                roomContentGenerationService.getSpecialTreasure(chatId, player.getAttributes().get(PlayerAttribute.LUCK), usedItemIds) :
+                                roomContentGenerationService.getNextRoomContent(pick.getExpectedWeight(), chatId, pick.getRoomType(), usedItemIds));
+                setRoomContent(grid, room, roomContent);
+                if (roomContent instanceof ItemsRoom itemsRoom) {
+                    addUsedItems(itemsRoom, usedItemIds);
                 }
             }
+        }
+    }
 
-            while (!mainPathWalker.getSubWalkers().isEmpty()) {
-                log.info("Processing running sub-walkers...");
-                for (WalkerDistributor walker : mainPathWalker.getSubWalkers()) {
-                    log.info("Sub-walker - id: {}, running: {}, current step: {}, current point: {}",
-                            walker.getId(), walker.isRunning(), walker.getCurrentStep(),
-                            walker.getCurrentSection().getPoint());
-                    NextRoomDto nextRoom;
-                    if (walker.isRunning()) {
-                        nextRoom = walker.nextStep(grid, roomsMap);
-                        if (nonNull(nextRoom)) {
-                            populateRoom(chatId, player, grid, usedItemIds, roomsMap, cluster, nextRoom);
-                        }
-                    } else {
-                        if (walker.isWaiting()) {
-                            while (!walker.getSubWalkers().isEmpty()) {
-                                for (WalkerDistributor walkerDistributor : walker.getSubWalkers()) {
-                                    nextRoom = walkerDistributor.nextStep(grid, roomsMap);
-                                    if (nonNull(nextRoom)) {
-                                        populateRoom(chatId, player, grid, usedItemIds, roomsMap, cluster, nextRoom);
-                                    }
+    /**
+     * Populates rooms of single cluster with content.
+     * Clusters share only connection point rooms, so they are populated concurrently
+     */
+    private void populateCluster(long chatId, Player player, LevelGenerationGrid grid,
+                                 LevelGridCluster cluster, Set<String> usedItemIds) {
+        Point clusterEndPoint = cluster.getEndConnectionPoint();
+        log.info("Processing cluster endSection: {}", clusterEndPoint);
+        int deadEndsRouteStepsCount = 0;
+        if (cluster.hasDeadEnds()) {
+            deadEndsRouteStepsCount = populateDeadEnds(chatId, player, grid, cluster, usedItemIds);
+        }
+        val clusterEndCell = grid.getCell(clusterEndPoint);
+        int mainPathLength = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(clusterEndCell, i, cluster);
+            if (neighbour != NONE && grid.getStepsFromStart(neighbour) > mainPathLength) {
+                mainPathLength = grid.getStepsFromStart(neighbour);
+            }
+        }
+        log.info("Main path length: {}", mainPathLength);
+        val mainPathWalker = WalkerDistributor.builder()
+                .chatId(chatId)
+                .cluster(cluster)
+                .currentCell(clusterEndCell)
+                .runSubWalkerOnRouteFork(true)
+                .previousRoom(grid.getRoom(clusterEndCell))
+                .currentStep(mainPathLength)
+                .status(WalkerDistributor.Status.RUNNING)
+                .mainPathLength(mainPathLength)
+                .totalSteps(cluster.getSize() - deadEndsRouteStepsCount)
+                .build();
+        while (mainPathWalker.isRunning()) {
+            log.info("Main cluster walker - id: {}, status: {}, current step: {}, current point: {}",
+                    mainPathWalker.getId(), mainPathWalker.getStatus(), mainPathWalker.getCurrentStep(),
+                    grid.getPoint(mainPathWalker.getCurrentCell()));
+            log.info("Main path walker next step...");
+            val nextRoom = mainPathWalker.nextStep(grid);
+            if (nonNull(nextRoom)) {
+                populateRoom(chatId, player, grid, usedItemIds, cluster, nextRoom);
+            }
+        }
+
+        while (!mainPathWalker.getSubWalkers().isEmpty()) {
+            log.info("Processing running sub-walkers...");
+            for (WalkerDistributor walker : mainPathWalker.getSubWalkers()) {
+                log.info("Sub-walker - id: {}, running: {}, current step: {}, current point: {}",
+                        walker.getId(), walker.isRunning(), walker.getCurrentStep(),
+                        grid.getPoint(walker.getCurrentCell()));
+                NextRoomDto nextRoom;
+                if (walker.isRunning()) {
+                    nextRoom = walker.nextStep(grid);
+                    if (nonNull(nextRoom)) {
+                        populateRoom(chatId, player, grid, usedItemIds, cluster, nextRoom);
+                    }
+                } else {
+                    if (walker.isWaiting()) {
+                        while (!walker.getSubWalkers().isEmpty()) {
+                            for (WalkerDistributor walkerDistributor : walker.getSubWalkers()) {
+                                nextRoom = walkerDistributor.nextStep(grid);
+                                if (nonNull(nextRoom)) {
+                                    populateRoom(chatId, player, grid, usedItemIds, cluster, nextRoom);
                                 }
-                                walker.getSubWalkers().removeIf(WalkerDistributor::finished);
                             }
-                            walker.setStatus(WalkerDistributor.Status.FINISHED);
+                            walker.getSubWalkers().removeIf(WalkerDistributor::finished);
                         }
+                        walker.setStatus(WalkerDistributor.Status.FINISHED);
                     }
                 }
-                mainPathWalker.getSubWalkers().removeIf(WalkerDistributor::finished);
-                log.debug("Current map state\n{}", printMapToLogs(grid, roomsMap));
             }
+            mainPathWalker.getSubWalkers().removeIf(WalkerDistributor::finished);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Current map state\n{}", grid.printMap());
         }
-        level.setRoomsMap(roomsMap);
-        level.setGrid(grid);
-        level.setLevelMap(new LevelMap(levelStartSection));
-        log.debug("Current map state\n{}", printMapToLogs(grid, roomsMap));
-        log.debug("Current grid state\n{}", printMapGridToLogs(grid));
-        return level;
     }
 
     private void populateRoom(long chatId, Player player,
-                              GridSection[][] grid, Set<String> usedItemIds,
-                              Map<Point, Room> roomsMap, LevelGridCluster cluster,
-                              NextRoomDto nextRoom) {
-        log.info("Populating room {}...", nextRoom.getSection().getPoint());
+                              LevelGenerationGrid grid, Set<String> usedItemIds,
+                              LevelGridCluster cluster, NextRoomDto nextRoom) {
+        checkInterrupted();
+        log.info("Populating room {}...", grid.getPoint(nextRoom.getCell()));
         Weight expectedWeight = weightCalculationService.getExpectedWeigth(cluster.getClusterExpectedWeight(),
-                player.getWeight().toVector().getNorm() / cluster.getDensity(),
+                player.getWeight().getNorm() / cluster.getDensity(),
                 nextRoom.getCurrentStep(),
                 nextRoom.getTotalSteps());
         log.info("Expected weight: {}", expectedWeight);
         val roomType = getRandomRoomType(expectedWeight, nextRoom.getCurrentStep(), nextRoom.getTotalSteps());
         log.info("Room type: {}", roomType);
-        RoomContent roomContent = roomContentGenerationService.getNextRoomContent(expectedWeight, chatId, roomType, usedItemIds);
-        if (roomContent instanceof ItemsRoom itemsRoom) {
-            usedItemIds.addAll(itemsRoom.getItems().stream().map(Item::getId).collect(Collectors.toSet()));
-        }
+        RoomContent roomContent = getNextRoomContent(expectedWeight, chatId, roomType, usedItemIds);
         Room room = nextRoom.getRoom();
-        setRoomContent(grid, room, roomContent, roomsMap);
-        roomsMap.put(room.getPoint(), room);
+        setRoomContent(grid, room, roomContent);
+        if (roomContent instanceof ItemsRoom) {
+            cluster.addItemsRoomPick(new ItemsRoomPick(room, expectedWeight, roomType));
+        }
+        grid.putRoom(room);
         if (nextRoom.getCurrentStep() == 0) {
-            setMutualAdjacency(roomsMap.get(cluster.getStartConnectionPoint()), room);
+            setMutualAdjacency(grid.getRoom(grid.getCell(cluster.getStartConnectionPoint())), room);
         }
-        log.info("Current map state\n{}", printMapToLogs(grid, roomsMap));
     }
 
-    private int populateDeadEnds(long chatId, Player player, GridSection[][] grid, LevelGridCluster cluster, Map<Point, Room> roomsMap, Set<String> usedItemIds) {
+    private int populateDeadEnds(long chatId, Player player, LevelGenerationGrid grid, LevelGridCluster cluster, Set<String> usedItemIds) {
         return cluster.getDeadEnds().stream()
-                .mapToInt(section -> populateDeadEnd(chatId, player, grid, section, cluster, roomsMap, usedItemIds))
+                .mapToInt(cell -> populateDeadEnd(chatId, player, grid, cell, cluster, usedItemIds))
                 .sum();
     }
 
-    private int populateDeadEnd(long chatId, Player player, GridSection[][] grid, GridSection start, LevelGridCluster cluster, Map<Point, Room> roomsMap, Set<String> usedItemIds) {
+    private int populateDeadEnd(long chatId, Player player, LevelGenerationGrid grid, int start, LevelGridCluster cluster, Set<String> usedItemIds) {
+        checkInterrupted();
         val roomContent = roomContentGenerationService.getSpecialTreasure(chatId, player.getAttributes().get(PlayerAttribute.LUCK), usedItemIds);
-        usedItemIds.addAll(roomContent.getItems().stream().map(Item::getId).collect(Collectors.toSet()));
+        addUsedItems(roomContent, usedItemIds);
         val rewardWeight = roomContent.getRoomContentWeight();
-        var room = buildRoom(start, chatId, roomContent);
-        roomsMap.put(room.getPoint(), room);
-        val adjacentSections = getAdjacentSectionsInCluster(start.getPoint(), grid, cluster).stream()
-                .filter(section -> section.getStepsFromStart() == start.getStepsFromStart() - 1)
-                .toList();
+        var room = buildRoom(grid, start, chatId, roomContent);
+        grid.putRoom(room);
+        cluster.addItemsRoomPick(new ItemsRoomPick(room, null, null));
+        int[] adjacentSections = new int[NEIGHBOURS_COUNT];
+        int adjacentSectionsCount = 0;
+        int totalRooms = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(start, i, cluster);
+            if (neighbour != NONE && grid.getStepsFromStart(neighbour) == grid.getStepsFromStart(start) - 1) {
+                adjacentSections[adjacentSectionsCount++] = neighbour;
+                totalRooms += grid.getStepsFromStart(neighbour);
+            }
+        }
         ArrayList<WalkerDistributor> deadEndPopulatingWalkers;
-        int totalRooms = adjacentSections.stream().mapToInt(GridSection::getStepsFromStart).sum();
         Weight lastAddedWeight = null;
-        if (adjacentSections.size() > 1) {
+        if (adjacentSectionsCount > 1) {
             deadEndPopulatingWalkers = Stream.of(WalkerDistributor.builder()
                             .chatId(chatId)
                             .previousRoom(room)
@@ -278,8 +398,8 @@ public class LevelGenerationService {
                             .status(WalkerDistributor.Status.RUNNING)
                             .cluster(cluster)
                             .totalSteps(totalRooms)
-                            .currentSection(start)
-                            .currentStep(adjacentSections.getFirst().getStepsFromStart())
+                            .currentCell(start)
+                            .currentStep(grid.getStepsFromStart(adjacentSections[0]))
                             .build(),
                     WalkerDistributor.builder()
                             .chatId(chatId)
@@ -288,8 +408,8 @@ public class LevelGenerationService {
                             .status(WalkerDistributor.Status.RUNNING)
                             .cluster(cluster)
                             .totalSteps(totalRooms)
-                            .currentSection(start)
-                            .currentStep(adjacentSections.getLast().getStepsFromStart())
+                            .currentCell(start)
+                            .currentStep(grid.getStepsFromStart(adjacentSections[adjacentSectionsCount - 1]))
                             .build()
             ).collect(Collectors.toCollection(ArrayList::new));
         } else {
@@ -300,31 +420,31 @@ public class LevelGenerationService {
                     .status(WalkerDistributor.Status.RUNNING)
                     .cluster(cluster)
                     .totalSteps(totalRooms)
-                    .currentSection(start)
-                    .currentStep(adjacentSections.getFirst().getStepsFromStart())
+                    .currentCell(start)
+                    .currentStep(grid.getStepsFromStart(adjacentSections[0]))
                     .build()).collect(Collectors.toCollection(ArrayList::new));
         }
         while (!deadEndPopulatingWalkers.isEmpty()) {
             totalRooms += deadEndPopulatingWalkers.stream().mapToInt(WalkerDistributor::getTotalSteps).sum();
             deadEndPopulatingWalkers.removeIf(walkerDistributor -> !walkerDistributor.isRunning());
             for (WalkerDistributor walkerDistributor : deadEndPopulatingWalkers) {
-                val next = walkerDistributor.nextStep(grid, roomsMap);
+                val next = walkerDistributor.nextStep(grid);
                 if (nonNull(next)) {
                     val nextExpectedWeight = weightCalculationService.getExpectedDeadEndRouteWeight(
                             isNull(lastAddedWeight) ? rewardWeight : lastAddedWeight,
-                            rewardWeight.toVector().getNorm(),
+                            rewardWeight.getNorm(),
                             next.getCurrentStep());
                     val nextRoomType = getDeadEndRouteRoomType(nextExpectedWeight, next.getCurrentStep(), cluster.getDensity());
-                    val nextRoomContent = roomContentGenerationService.getNextRoomContent(nextExpectedWeight, chatId, nextRoomType, usedItemIds);
-                    if (nextRoomContent instanceof ItemsRoom itemsRoom) {
-                        usedItemIds.addAll(itemsRoom.getItems().stream().map(Item::getId).collect(Collectors.toSet()));
-                    }
+                    val nextRoomContent = getNextRoomContent(nextExpectedWeight, chatId, nextRoomType, usedItemIds);
                     val nextRoom = next.getRoom();
                     lastAddedWeight = nextRoomContent.getRoomContentWeight();
-                    setRoomContent(grid, nextRoom, nextRoomContent, roomsMap);
-                    roomsMap.put(room.getPoint(), room);
+                    setRoomContent(grid, nextRoom, nextRoomContent);
+                    if (nextRoomContent instanceof ItemsRoom) {
+                        cluster.addItemsRoomPick(new ItemsRoomPick(nextRoom, nextExpectedWeight, nextRoomType));
+                    }
+                    grid.putRoom(room);
                     if (next.getCurrentStep() == 0) {
-                        setMutualAdjacency(roomsMap.get(cluster.getStartConnectionPoint()), room);
+                        setMutualAdjacency(grid.getRoom(grid.getCell(cluster.getStartConnectionPoint())), room);
                     }
                 }
             }
@@ -332,64 +452,78 @@ public class LevelGenerationService {
         return totalRooms;
     }
 
-    private void initConnectionSections(GridSection[][] grid, LinkedList<Point> clusterConnectionPoints) {
+    private RoomContent getNextRoomContent(Weight expectedWeight, long chatId, RoomType roomType, Set<String> usedItemIds) {
+        val roomContent = roomContentGenerationService.getNextRoomContent(expectedWeight, chatId, roomType, usedItemIds);
+        if (roomContent instanceof ItemsRoom itemsRoom) {
+            addUsedItems(itemsRoom, usedItemIds);
+        }
+        return roomContent;
+    }
+
+    private void addUsedItems(ItemsRoom itemsRoom, Set<String> usedItemIds) {
+        itemsRoom.getItems().forEach(item -> usedItemIds.add(item.getId()));
+    }
+
+    private void initConnectionSections(LevelGenerationGrid grid, LinkedList<Point> clusterConnectionPoints) {
         for (Point point : clusterConnectionPoints) {
-            val section = new GridSection(point.getX(), point.getY());
-            section.setConnectionPoint(true);
-            grid[point.getX()][point.getY()] = section;
+            grid.setConnectionPoint(grid.getCell(point), true);
         }
     }
 
-    private void processNegativeSectionsAndDeadEnds(Collection<LevelGridCluster> clusters, GridSection[][] grid) {
+    private void processNegativeSectionsAndDeadEnds(Collection<LevelGridCluster> clusters, LevelGenerationGrid grid) {
         log.info("Processing negative sections and dead ends...");
         clusters.stream().filter(LevelGridCluster::hasNegativeRooms)
                 .forEach(cluster -> {
                     log.info("Processing negative rooms of cluster {}", cluster);
-                    GridSection endSection = grid[cluster.getEndConnectionPoint().getX()][cluster.getEndConnectionPoint().getY()];
-                    processNegativeSections(grid, cluster, endSection);
+                    processNegativeSections(grid, cluster, grid.getCell(cluster.getEndConnectionPoint()));
                 });
         clusters.stream().filter(LevelGridCluster::hasDeadEnds)
                 .forEach(cluster -> processDeadEnds(grid, cluster));
     }
 
-    private void processDeadEnds(GridSection[][] grid, LevelGridCluster cluster) {
+    private void processDeadEnds(LevelGenerationGrid grid, LevelGridCluster cluster) {
         log.info("Processing deadEnds of cluster {}", cluster);
-        List<GridSection> processedDeadEnds = new ArrayList<>();
+        List<Integer> processedDeadEnds = new ArrayList<>();
+        int[] adjacentSections = new int[NEIGHBOURS_COUNT];
         cluster.getDeadEnds().removeIf(deadEnd -> {
-            val adjacentSections = getAdjacentSectionsInCluster(deadEnd.getPoint(), grid, cluster);
-            if (adjacentSections.stream()
-                    .anyMatch(section -> section.getStepsFromStart() == deadEnd.getStepsFromStart() + 1) &&
-                    adjacentSections.stream()
-                            .anyMatch(section -> section.getStepsFromStart() == deadEnd.getStepsFromStart() - 1)) {
-                deadEnd.setDeadEnd(false);
+            if (isOnPath(grid, cluster, deadEnd)) {
+                grid.setDeadEnd(deadEnd, false);
                 return true;
             } else {
-                var oldPath = deadEnd.getStepsFromStart();
-                val expectedPath = getCrossroadPairMiddlePath(adjacentSections.stream().toList(), oldPath);
+                var oldPath = grid.getStepsFromStart(deadEnd);
+                int adjacentSectionsCount = 0;
+                for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+                    val neighbour = grid.getNeighbourInCluster(deadEnd, i, cluster);
+                    if (neighbour != NONE) {
+                        adjacentSections[adjacentSectionsCount++] = neighbour;
+                    }
+                }
+                val expectedPath = getCrossroadPairMiddlePath(grid, adjacentSections, adjacentSectionsCount, oldPath);
                 if (expectedPath.isPresent()) {
-                    int path = expectedPath.get();
+                    int path = expectedPath.getAsInt();
                     if (path == oldPath) {
-                        deadEnd.setDeadEnd(false);
+                        grid.setDeadEnd(deadEnd, false);
                         return true;
                     }
-                    if (deadEnd.getStepsFromStart() > path) {
-                        var currentSection = deadEnd;
-                        currentSection.setStepsFromStart(path - 1);
+                    if (grid.getStepsFromStart(deadEnd) > path) {
+                        int currentSection = deadEnd;
+                        grid.setStepsFromStart(currentSection, path - 1);
                         while (path <= oldPath) {
                             oldPath--;
-                            GridSection found = currentSection;
-                            for (GridSection section : getAdjacentSectionsInCluster(currentSection.getPoint(), grid, cluster)) {
-                                if (oldPath == section.getStepsFromStart()) {
-                                    found = section;
+                            int found = currentSection;
+                            for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+                                val neighbour = grid.getNeighbourInCluster(currentSection, i, cluster);
+                                if (neighbour != NONE && oldPath == grid.getStepsFromStart(neighbour)) {
+                                    found = neighbour;
                                     break;
                                 }
                             }
                             currentSection = found;
-                            currentSection.setStepsFromStart(path);
+                            grid.setStepsFromStart(currentSection, path);
                             path++;
                         }
                         processedDeadEnds.add(currentSection);
-                        deadEnd.setDeadEnd(false);
+                        grid.setDeadEnd(deadEnd, false);
                         return true;
                     }
                     return false;
@@ -399,83 +533,102 @@ public class LevelGenerationService {
         });
         log.info("Processed dead ends:{}", processedDeadEnds);
         processedDeadEnds.removeIf(deadEnd -> {
-            val adjacentSections = getAdjacentSectionsInCluster(deadEnd.getPoint(), grid, cluster);
-            if (adjacentSections.stream()
-                    .anyMatch(section -> section.getStepsFromStart() == deadEnd.getStepsFromStart() + 1) &&
-                    adjacentSections.stream()
-                            .anyMatch(section -> section.getStepsFromStart() == deadEnd.getStepsFromStart() - 1)) {
-                deadEnd.setDeadEnd(false);
-                return true;
-            } else {
-                deadEnd.setDeadEnd(true);
-                return false;
-            }
+            val onPath = isOnPath(grid, cluster, deadEnd);
+            grid.setDeadEnd(deadEnd, !onPath);
+            return onPath;
         });
         log.info("Processed dead ends filtered out: {}", processedDeadEnds);
         cluster.addDeadEnds(processedDeadEnds);
         log.debug("Cluster data:{}", cluster);
-        log.debug("Current grid state\n{}", printMapGridToLogs(grid));
+        log.debug("Current grid state\n{}", grid);
     }
 
-    private Optional<Integer> getCrossroadPairMiddlePath(List<GridSection> adjacentSections, int expectedPath) {
-        List<Integer> availableOptions = new ArrayList<>();
-        for (int i = 0; i < adjacentSections.size(); i++) {
-            for (int j = i + 1; j < adjacentSections.size(); j++) {
-                int diff = Math.abs(adjacentSections.get(i).getStepsFromStart() - adjacentSections.get(j).getStepsFromStart());
-                if (diff == 2) {
-                    if ((max(adjacentSections.get(i).getStepsFromStart(), adjacentSections.get(j).getStepsFromStart()) == expectedPath + 1)) {
-                        return Optional.of(expectedPath);
-                    } else {
-                        availableOptions.add(max(adjacentSections.get(i).getStepsFromStart(), adjacentSections.get(j).getStepsFromStart()));
+    /**
+     * @return true if cell has both preceding and following path step among adjacent cells
+     */
+    private boolean isOnPath(LevelGenerationGrid grid, LevelGridCluster cluster, int cell) {
+        val steps = grid.getStepsFromStart(cell);
+        boolean hasNext = false;
+        boolean hasPrevious = false;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(cell, i, cluster);
+            if (neighbour != NONE) {
+                hasNext |= grid.getStepsFromStart(neighbour) == steps + 1;
+                hasPrevious |= grid.getStepsFromStart(neighbour) == steps - 1;
+            }
+        }
+        return hasNext && hasPrevious;
+    }
+
+    private OptionalInt getCrossroadPairMiddlePath(LevelGenerationGrid grid, int[] adjacentSections, int adjacentSectionsCount, int expectedPath) {
+        boolean hasOptions = false;
+        int bestOption = Integer.MIN_VALUE;
+        for (int i = 0; i < adjacentSectionsCount; i++) {
+            val first = grid.getStepsFromStart(adjacentSections[i]);
+            for (int j = i + 1; j < adjacentSectionsCount; j++) {
+                val second = grid.getStepsFromStart(adjacentSections[j]);
+                if (Math.abs(first - second) == 2) {
+                    val option = max(first, second);
+                    if (option == expectedPath + 1) {
+                        return OptionalInt.of(expectedPath);
+                    }
+                    hasOptions = true;
+                    if (option < expectedPath - 1 && option > bestOption) {
+                        bestOption = option;
                     }
                 }
             }
         }
-        if (availableOptions.isEmpty()) {
-            return adjacentSections.stream()
-                    .filter(section -> section.getStepsFromStart() < expectedPath - 1)
-                    .max(Comparator.comparing(GridSection::getStepsFromStart))
-                    .map(GridSection::getStepsFromStart);
-        } else {
-            return availableOptions.stream()
-                    .filter(number -> number < expectedPath - 1)
-                    .max(Integer::compareTo);
+        if (!hasOptions) {
+            for (int i = 0; i < adjacentSectionsCount; i++) {
+                val steps = grid.getStepsFromStart(adjacentSections[i]);
+                if (steps < expectedPath - 1 && steps > bestOption) {
+                    bestOption = steps;
+                }
+            }
         }
+        return bestOption == Integer.MIN_VALUE ? OptionalInt.empty() : OptionalInt.of(bestOption);
     }
 
-    private void processNegativeSections(GridSection[][] grid, LevelGridCluster cluster, GridSection currentSection) {
-        log.info("Processing section {} of cluster {}", currentSection, cluster);
-        val adjacentSections = getAdjacentSectionsInCluster(currentSection.getPoint(), grid, cluster);
-        var stepsFromStart = currentSection.getStepsFromStart();
-        val negativeAdjacentSections = adjacentSections.stream()
-                .filter(section -> section.getStepsFromStart() < 0)
-                .collect(Collectors.toSet());
-        if (negativeAdjacentSections.size() > 0) {
-            negativeAdjacentSections
-                    .forEach(section -> processNegativeBranch(section, stepsFromStart, grid, cluster));
+    private void processNegativeSections(LevelGenerationGrid grid, LevelGridCluster cluster, int currentSection) {
+        log.info("Processing section {} of cluster {}", grid.getPoint(currentSection), cluster);
+        val stepsFromStart = grid.getStepsFromStart(currentSection);
+        int[] negativeAdjacentSections = new int[NEIGHBOURS_COUNT];
+        int negativeAdjacentSectionsCount = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(currentSection, i, cluster);
+            if (neighbour != NONE && grid.getStepsFromStart(neighbour) < 0) {
+                negativeAdjacentSections[negativeAdjacentSectionsCount++] = neighbour;
+            }
+        }
+        for (int i = 0; i < negativeAdjacentSectionsCount; i++) {
+            processNegativeBranch(negativeAdjacentSections[i], stepsFromStart, grid, cluster);
+        }
+        int positiveAdjacentSectionsCount = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(currentSection, i, cluster);
+            if (neighbour != NONE && grid.getStepsFromStart(neighbour) > 0) {
+                positiveAdjacentSectionsCount++;
+            }
         }
-        if (adjacentSections.stream().filter(section -> section.getStepsFromStart() > 0).count() < 3) {
-            adjacentSections.stream()
-                    .filter(section -> section.getStepsFromStart() > 0)
-                    .filter(section -> !currentSection.getPoint().equals(section.getPoint()))
-                    .findFirst()
-                    .ifPresent(section ->
-                            processNegativeSections(grid, cluster, currentSection));
+        if (positiveAdjacentSectionsCount > 0 && positiveAdjacentSectionsCount < 3) {
+            processNegativeSections(grid, cluster, currentSection);
         }
-        log.debug("Current grid state\n{}", printMapGridToLogs(grid));
+        log.debug("Current grid state\n{}", grid);
     }
 
-    private void processNegativeBranch(GridSection section, int stepsFromStart, GridSection[][] grid, LevelGridCluster cluster) {
-        log.info("Processing negative branch of section {}, steps from start: {}", section, stepsFromStart);
-        Optional<GridSection> currentSection = Optional.of(section);
-        Optional<GridSection> lastSection = Optional.empty();
+    private void processNegativeBranch(int section, int stepsFromStart, LevelGenerationGrid grid, LevelGridCluster cluster) {
+        log.info("Processing negative branch of section {}, steps from start: {}", grid.getPoint(section), stepsFromStart);
+        int currentSection = section;
+        int lastSection = NONE;
         int counter = 0;
-        while (currentSection.isPresent()) {
+        while (currentSection != NONE) {
             lastSection = currentSection;
-            Optional<GridSection> nextSection = Optional.empty();
-            for (GridSection adjacentSection : getAdjacentSectionsInCluster(currentSection.get().getPoint(), grid, cluster)) {
-                if (adjacentSection.getStepsFromStart() == currentSection.get().getStepsFromStart() - 1) {
-                    nextSection = Optional.of(adjacentSection);
+            int nextSection = NONE;
+            for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+                val neighbour = grid.getNeighbourInCluster(currentSection, i, cluster);
+                if (neighbour != NONE && grid.getStepsFromStart(neighbour) == grid.getStepsFromStart(currentSection) - 1) {
+                    nextSection = neighbour;
                     counter++;
                     break;
                 }
@@ -483,28 +636,28 @@ public class LevelGenerationService {
             currentSection = nextSection;
         }
 
-        GridSection negativeDeadEnd = lastSection.get();
-        negativeDeadEnd.setDeadEnd(true);
-        cluster.addDeadEnd(negativeDeadEnd);
-        currentSection = Optional.of(negativeDeadEnd);
-        while (currentSection.isPresent()) {
-            currentSection.get().setStepsFromStart(counter);
-            Optional<GridSection> nextSection = Optional.empty();
-            for (GridSection adjacentSection : getAdjacentSectionsInCluster(currentSection.get().getPoint(), grid, cluster)) {
-                if (adjacentSection.getStepsFromStart() < 0) {
-                    adjacentSection.setStepsFromStart(stepsFromStart + counter);
+        grid.setDeadEnd(lastSection, true);
+        cluster.addDeadEnd(lastSection);
+        currentSection = lastSection;
+        while (currentSection != NONE) {
+            grid.setStepsFromStart(currentSection, counter);
+            int nextSection = NONE;
+            for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+                val neighbour = grid.getNeighbourInCluster(currentSection, i, cluster);
+                if (neighbour != NONE && grid.getStepsFromStart(neighbour) < 0) {
+                    grid.setStepsFromStart(neighbour, stepsFromStart + counter);
                     cluster.decrementNegativeRoomsCount();
-                    nextSection = Optional.of(adjacentSection);
+                    nextSection = neighbour;
                     break;
                 }
             }
             counter--;
             currentSection = nextSection;
-            log.debug("Current grid state\n{}", printMapGridToLogs(grid));
+            log.debug("Current grid state\n{}", grid);
         }
     }
 
-    private List<WalkerBuilder> initializeWalkers(Collection<LevelGridCluster> clusters) {
+    private List<WalkerBuilder> initializeWalkers(LevelGenerationGrid grid, Collection<LevelGridCluster> clusters) {
         log.info("Initializing walkers for clusters: {}", clusters);
         return clusters.stream().flatMap(cluster -> {
             log.info("Processing cluster: {}", cluster);
@@ -515,14 +668,14 @@ public class LevelGenerationService {
                                 .isReversed(false)
                                 .cluster(cluster)
                                 .longestPathDefault(true)
-                                .currentPoint(cluster.getStartConnectionPoint())
+                                .currentCell(grid.getCell(cluster.getStartConnectionPoint()))
                                 .build(),
                         WalkerBuilder.builder()
                                 .pathFromStart(0)
                                 .isReversed(false)
                                 .longestPathDefault(true)
                                 .cluster(cluster)
-                                .currentPoint(cluster.getStartConnectionPoint())
+                                .currentCell(grid.getCell(cluster.getStartConnectionPoint()))
                                 .build());
             } else if (cluster.hasSmallSide()) {
                 log.info("Small sided cluster...");
@@ -531,14 +684,14 @@ public class LevelGenerationService {
                                 .isReversed(false)
                                 .cluster(cluster)
                                 .longestPathDefault(false)
-                                .currentPoint(cluster.getStartConnectionPoint())
+                                .currentCell(grid.getCell(cluster.getStartConnectionPoint()))
                                 .build(),
                         WalkerBuilder.builder()
                                 .isReversed(true)
                                 .longestPathDefault(true)
                                 .pathFromStart(0)
                                 .cluster(cluster)
-                                .currentPoint(cluster.getEndConnectionPoint())
+                                .currentCell(grid.getCell(cluster.getEndConnectionPoint()))
                                 .build());
             }
             int fromStartWalkersNumber = getRandomInt(1, 2);
@@ -553,7 +706,7 @@ public class LevelGenerationService {
                             .isReversed(false)
                             .longestPathDefault(fromStartWalkersNumber == 2 && i == 0)
                             .cluster(cluster)
-                            .currentPoint(cluster.getStartConnectionPoint())
+                            .currentCell(grid.getCell(cluster.getStartConnectionPoint()))
                             .build();
                 } else {
                     return WalkerBuilder.builder()
@@ -561,7 +714,7 @@ public class LevelGenerationService {
                             .pathFromStart(0)
                             .longestPathDefault(fromEndWalkersNumber == 1 || i == 2)
                             .cluster(cluster)
-                            .currentPoint(cluster.getEndConnectionPoint())
+                            .currentCell(grid.getCell(cluster.getEndConnectionPoint()))
                             .build();
                 }
             });
@@ -621,39 +774,47 @@ public class LevelGenerationService {
         return getRandomInt(rangeStart, rangeEnd);
     }
 
-    private void setRoomContent(GridSection[][] grid, Room room, RoomContent roomContent, Map<Point, Room> roomsMap) {
+    private void setRoomContent(LevelGenerationGrid grid, Room room, RoomContent roomContent) {
         log.info("Setting type {} to room [x:{}, y:{}]", roomContent.getRoomType(), room.getPoint().getX(), room.getPoint().getY());
-        grid[room.getPoint().getX()][room.getPoint().getY()].setEmoji(getIcon(Optional.of(roomContent.getRoomType())));
+        grid.setRoomType(grid.getCell(room.getPoint()), roomContent.getRoomType());
         room.setRoomContent(roomContent);
-        log.debug("Current map state\n{}", printMapToLogs(grid, roomsMap));
     }
 
-    private Room buildRoom(GridSection section, Long chatId, RoomContent roomContent) {
+    private Room buildRoom(LevelGenerationGrid grid, int cell, Long chatId, RoomContent roomContent) {
         val room = new Room();
         room.setChatId(chatId);
-        section.setEmoji(getIcon(Optional.ofNullable(roomContent.getRoomType())));
-        room.setPoint(section.getPoint());
+        grid.setRoomType(cell, roomContent.getRoomType());
+        room.setPoint(grid.getPoint(cell));
         room.setRoomContent(roomContent);
         return room;
     }
 
+    /**
+     * Stops generation whose thread was interrupted, e.g. discarded prefetch of level
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Level generation is cancelled");
+        }
+    }
+
     private Integer calculateGridSize(Integer levelNumber) {
         val properties = generationProperties.getLevel();
         val increments = (levelNumber - 1) / properties.getIncrementStep();
         return properties.getLevelOneGridSize() + increments * properties.getGridSizeIncrement();
     }
 
-    private GridSection setStartSection(GridSection[][] grid, Point startPoint) {
-        val startSection = grid[startPoint.getX()][startPoint.getY()];
-        startSection.setStepsFromStart(0);
-        startSection.setEmoji(getIcon(Optional.of(RoomType.START)));
-        return startSection;
+    private int setStartSection(LevelGenerationGrid grid, Point startPoint) {
+        val startCell = grid.getCell(startPoint);
+        grid.setStepsFromStart(startCell, 0);
+        grid.setRoomType(startCell, RoomType.START);
+        return startCell;
     }
 
-    private GridSection setEndSection(GridSection[][] grid, Point endPoint) {
-        val endSection = grid[endPoint.getX()][endPoint.getY()];
-        endSection.setStepsFromStart(0);
-        endSection.setEmoji(getIcon(Optional.of(RoomType.END)));
-        return endSection;
+    private int setEndSection(LevelGenerationGrid grid, Point endPoint) {
+        val endCell = grid.getCell(endPoint);
+        grid.setStepsFromStart(endCell, 0);
+        grid.setRoomType(endCell, RoomType.END);
+        return endCell;
     }
 }
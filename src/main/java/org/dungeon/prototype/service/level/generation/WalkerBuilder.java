@@ -4,19 +4,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.level.generation.LevelGenerationGrid;
 import org.dungeon.prototype.model.level.generation.LevelGridCluster;
-import org.dungeon.prototype.model.level.ui.GridSection;
 import org.dungeon.prototype.service.WalkerUniqueIdFactory;
 
-import java.util.Comparator;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
 
-import static org.dungeon.prototype.util.LevelUtil.getAdjacentSections;
-import static org.dungeon.prototype.util.LevelUtil.getAdjacentSectionsInCluster;
-import static org.dungeon.prototype.util.LevelUtil.isPointInCluster;
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NEIGHBOURS_COUNT;
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NONE;
 
 
 @Data
@@ -25,8 +20,9 @@ import static org.dungeon.prototype.util.LevelUtil.isPointInCluster;
 public class WalkerBuilder {
     @Builder.Default
     private Long id = WalkerUniqueIdFactory.getInstance().getNextId();
-    private Point previousPoint;
-    private Point currentPoint;
+    @Builder.Default
+    private int previousCell = NONE;
+    private int currentCell;
     private boolean isReversed;
     @Builder.Default
     private boolean overridingReversedPath = false;
@@ -39,139 +35,157 @@ public class WalkerBuilder {
     private int pathFromStart = 0;
     private LevelGridCluster cluster;
 
-    public void nextStep(GridSection[][] grid) {
+    public void nextStep(LevelGenerationGrid grid) {
         log.info("Walker id:{} (reversed:{}, overriding:{}, border path:{}) next step...",
                 id, isReversed, overridingReversedPath, longestPathDefault);
-        GridSection currentSection = grid[currentPoint.getX()][currentPoint.getY()];
-        log.debug("Current section: {}", currentSection);
+        log.debug("Current section: {}", grid.getPoint(currentCell));
 
-        val nextGridSectionOptional = selectNextStep(grid);
-        if (nextGridSectionOptional.isPresent()) {
-            GridSection nextGridSection = nextGridSectionOptional.get();
-            log.debug("Next grid section: {}", nextGridSection);
-            previousPoint = currentPoint;
-            currentPoint = nextGridSection.getPoint();
-            log.info("Adding grid section to point {}", currentPoint);
+        val nextCell = selectNextStep(grid);
+        if (nextCell != NONE) {
+            log.debug("Next grid section: {}", grid.getPoint(nextCell));
+            previousCell = currentCell;
+            currentCell = nextCell;
+            log.info("Adding grid section to point {}", grid.getPoint(currentCell));
             if (!isReversed && !overridingReversedPath) {
-                if (nextGridSection.getStepsFromStart() < 0) {
+                if (grid.getStepsFromStart(nextCell) < 0) {
                     log.info("Reversed walker trace met, switching to overriding reversed path mode...");
                     overridingReversedPath = true;
-                    pathToFinish = nextGridSection.getStepsFromStart();
+                    pathToFinish = grid.getStepsFromStart(nextCell);
                 }
                 pathFromStart++;
                 cluster.incrementSize();
-                nextGridSection.setStepsFromStart(pathFromStart);
+                grid.setStepsFromStart(nextCell, pathFromStart);
             } else {
                 if (isReversed) {
                     pathFromStart--;
-                    nextGridSection.setStepsFromStart(pathFromStart);
+                    grid.setStepsFromStart(nextCell, pathFromStart);
                     cluster.incrementNegativeRoomsCount();
                     log.info("Setting next point in reversed mode...");
                 } else {
                     cluster.decrementNegativeRoomsCount();
                     pathToFinish++;
                     pathFromStart++;
-                    nextGridSection.setStepsFromStart(pathFromStart);
+                    grid.setStepsFromStart(nextCell, pathFromStart);
                     cluster.incrementSize();
                     log.info("Setting next point, path from start: {}", pathFromStart);
                 }
             }
-            grid[currentPoint.getX()][currentPoint.getY()] = nextGridSection;
         } else {
             stopped = true;
             log.info("Stopped walker id:{}", this.id);
             if (!isReversed && !overridingReversedPath) {
-                if (getAdjacentSectionsInCluster(currentPoint, grid, cluster).stream()
-                        .noneMatch(section -> cluster.getEndConnectionPoint().equals(section.getPoint()))) {
-                    currentSection.setDeadEnd(true);
-                    cluster.addDeadEnd(currentSection);
+                if (!grid.isAdjacent(currentCell, grid.getCell(cluster.getEndConnectionPoint()))) {
+                    grid.setDeadEnd(currentCell, true);
+                    cluster.addDeadEnd(currentCell);
                 }
-                log.info("Stopped walker, setting dead end to {}", currentSection);
+                log.info("Stopped walker, setting dead end to {}", grid.getPoint(currentCell));
             }
         }
     }
 
-    private Optional<GridSection> selectNextStep(GridSection[][] grid) {
+    private int selectNextStep(LevelGenerationGrid grid) {
         log.info("Choosing next step...");
-        Set<GridSection> adjacentSections = getAdjacentSectionsInCluster(currentPoint, grid, cluster);
-        log.info("{} adjacent sections in cluster {}: {}", currentPoint, cluster, adjacentSections);
+        val startCell = grid.getCell(cluster.getStartConnectionPoint());
+        val endCell = grid.getCell(cluster.getEndConnectionPoint());
         if (isReversed) {
-            if (adjacentSections.stream().anyMatch(section -> cluster.getStartConnectionPoint().equals(section.getPoint()))) {
+            if (grid.isAdjacent(currentCell, startCell)) {
                 log.info("Reversed walker reached start of cluster, switching to overriding mode");
                 overridingReversedPath = true;
                 isReversed = false;
                 pathFromStart = 0;
-                val nextSection = grid[currentPoint.getX()][currentPoint.getY()];
-                pathToFinish = nextSection.getStepsFromStart();
-                return Optional.of(nextSection);
-            }
-            if (adjacentSections.stream().anyMatch(section -> section.getStepsFromStart() > 0 &&
-                    !currentPoint.equals(section.getPoint()) &&
-                    !cluster.getEndConnectionPoint().equals(section.getPoint()))) {
-                log.info("Reversed walker have adjacent section visited, switching to override mode");
-                overridingReversedPath = true;
-                isReversed = false;
-                val foundSection = adjacentSections.stream().filter(section -> section.getStepsFromStart() > 0 &&
-                        !currentPoint.equals(section.getPoint()) &&
-                        !cluster.getEndConnectionPoint().equals(section.getPoint())).findFirst().get();
-                pathFromStart = foundSection.getStepsFromStart();
-                foundSection.setDeadEnd(false);
-                cluster.removeDeadEnd(foundSection);
-                val nextSection = grid[currentPoint.getX()][currentPoint.getY()];
-                pathToFinish = nextSection.getStepsFromStart();
-                return Optional.of(nextSection);
+                pathToFinish = grid.getStepsFromStart(currentCell);
+                return currentCell;
             }
-            if (longestPathDefault) {
-                return adjacentSections.stream()
-                        .filter(section -> !currentPoint.equals(section.getPoint()))
-                        .filter(section -> section.getStepsFromStart() == 0)
-                        .filter(section -> !cluster.getEndConnectionPoint().equals(section.getPoint()))
-                        .max(Comparator.comparing(section -> getAdjacentSections(section.getPoint(), grid)
-                                .stream()
-                                .filter(adjacentSection -> !isPointInCluster(adjacentSection.getPoint(), cluster))
-                                .count()));
+            for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+                val neighbour = grid.getNeighbourInCluster(currentCell, i, cluster);
+                if (neighbour != NONE && grid.getStepsFromStart(neighbour) > 0 && neighbour != endCell) {
+                    log.info("Reversed walker have adjacent section visited, switching to override mode");
+                    overridingReversedPath = true;
+                    isReversed = false;
+                    pathFromStart = grid.getStepsFromStart(neighbour);
+                    grid.setDeadEnd(neighbour, false);
+                    cluster.removeDeadEnd(neighbour);
+                    pathToFinish = grid.getStepsFromStart(currentCell);
+                    return currentCell;
+                }
             }
-            return adjacentSections.stream()
-                    .filter(section -> !currentPoint.equals(section.getPoint()))
-                    .filter(section -> section.getStepsFromStart() == 0)
-                    .filter(section -> !cluster.getEndConnectionPoint().equals(section.getPoint()))
-                    .findAny();
+            return longestPathDefault ?
+                    findUnvisitedOnClusterBorder(grid, endCell) :
+                    findUnvisited(grid, endCell);
         } else {
             if (overridingReversedPath) {
-                if (pathToFinish == 0 && adjacentSections.stream()
-                        .anyMatch(section -> cluster.getEndConnectionPoint().equals(section.getPoint()))) {
+                if (pathToFinish == 0 && grid.isAdjacent(currentCell, endCell)) {
                     log.info("Cluster end reached");
-                    return Optional.empty();
+                    return NONE;
                 }
                 log.info("Overriding reversed path, current step:{}, path to finish:{}...", pathFromStart, pathToFinish);
-                return adjacentSections.stream()
-                        .filter(gridSection -> gridSection.getStepsFromStart() == pathToFinish &&
-                                !currentPoint.equals(gridSection.getPoint()))
-                        .findFirst();
+                for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+                    val neighbour = grid.getNeighbourInCluster(currentCell, i, cluster);
+                    if (neighbour != NONE && grid.getStepsFromStart(neighbour) == pathToFinish) {
+                        return neighbour;
+                    }
+                }
+                return NONE;
             } else {
-                if (adjacentSections.stream().anyMatch(section -> cluster.getEndConnectionPoint().equals(section.getPoint()))) {
+                if (grid.isAdjacent(currentCell, endCell)) {
                     log.info("Cluster end reached");
-                    return Optional.empty();
+                    return NONE;
                 }
                 if (longestPathDefault) {
-                    return adjacentSections.stream()
-                            .filter(section -> section.getStepsFromStart() == 0)
-                            .filter(section -> !cluster.getStartConnectionPoint().equals(section.getPoint()))
-                            .max(Comparator.comparing(section -> getAdjacentSections(section.getPoint(), grid)
-                                    .stream()
-                                    .filter(adjacentSection -> !isPointInCluster(adjacentSection.getPoint(), cluster))
-                                    .count()));
+                    return findUnvisitedOnClusterBorder(grid, startCell);
+                }
+                int nextCell = NONE;
+                int minVisitedNeighbours = Integer.MAX_VALUE;
+                for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+                    val neighbour = grid.getNeighbourInCluster(currentCell, i, cluster);
+                    if (neighbour != NONE && grid.getStepsFromStart(neighbour) == 0 && neighbour != startCell) {
+                        val visitedNeighbours = countVisitedNeighbours(grid, neighbour);
+                        if (visitedNeighbours < minVisitedNeighbours) {
+                            minVisitedNeighbours = visitedNeighbours;
+                            nextCell = neighbour;
+                        }
+                    }
                 }
-                return adjacentSections.stream()
-                        .filter(section -> section.getStepsFromStart() == 0)
-                        .filter(section -> !cluster.getStartConnectionPoint().equals(section.getPoint()))
-                        .min(Comparator.comparing(gridSection ->
-                                getAdjacentSectionsInCluster(gridSection.getPoint(), grid, cluster)
-                                        .stream()
-                                        .filter(section -> section.getStepsFromStart() > 0)
-                                        .count()));
+                return nextCell;
+            }
+        }
+    }
+
+    private int findUnvisited(LevelGenerationGrid grid, int excludedCell) {
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(currentCell, i, cluster);
+            if (neighbour != NONE && grid.getStepsFromStart(neighbour) == 0 && neighbour != excludedCell) {
+                return neighbour;
+            }
+        }
+        return NONE;
+    }
+
+    private int findUnvisitedOnClusterBorder(LevelGenerationGrid grid, int excludedCell) {
+        int nextCell = NONE;
+        int maxOuterNeighbours = -1;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(currentCell, i, cluster);
+            if (neighbour != NONE && grid.getStepsFromStart(neighbour) == 0 && neighbour != excludedCell) {
+                val outerNeighbours = grid.countNeighboursOutsideCluster(neighbour, cluster);
+                if (outerNeighbours > maxOuterNeighbours) {
+                    maxOuterNeighbours = outerNeighbours;
+                    nextCell = neighbour;
+                }
+            }
+        }
+        return nextCell;
+    }
+
+    private int countVisitedNeighbours(LevelGenerationGrid grid, int cell) {
+        int count = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(cell, i, cluster);
+            if (neighbour != NONE && grid.getStepsFromStart(neighbour) > 0) {
+                count++;
             }
         }
+        return count;
     }
 
     @Override
@@ -183,7 +197,7 @@ public class WalkerBuilder {
             return true;
         }
         return this.id.equals(walkerBuilder.getId()) &&
-                this.currentPoint.equals(walkerBuilder.getCurrentPoint()) &&
+                this.currentCell == walkerBuilder.getCurrentCell() &&
                 this.isReversed == walkerBuilder.isReversed() &&
                 this.overridingReversedPath == walkerBuilder.isOverridingReversedPath() &&
                 this.longestPathDefault == walkerBuilder.isLongestPathDefault() &&
@@ -194,13 +208,13 @@ public class WalkerBuilder {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, currentPoint, isReversed, overridingReversedPath, longestPathDefault, stopped, pathFromStart, cluster);
+        return Objects.hash(id, currentCell, isReversed, overridingReversedPath, longestPathDefault, stopped, pathFromStart, cluster);
     }
 
     @Override
     public String toString() {
         return "id=" + id +
-                ", currentPoint=" + currentPoint +
+                ", currentCell=" + currentCell +
                 ", isReversed=" + isReversed +
                 ", overridingReversedPath=" + overridingReversedPath +
                 ", longestPathDefault= " + longestPathDefault +
@@ -1,23 +1,25 @@
 package org.dungeon.prototype.service.level.generation;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.level.generation.LevelGenerationGrid;
 import org.dungeon.prototype.model.level.generation.LevelGridCluster;
 import org.dungeon.prototype.model.level.generation.NextRoomDto;
-import org.dungeon.prototype.model.level.ui.GridSection;
 import org.dungeon.prototype.model.room.Room;
 import org.dungeon.prototype.service.WalkerUniqueIdFactory;
 
 import java.util.*;
 
 import static java.util.Objects.nonNull;
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NEIGHBOURS_COUNT;
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NONE;
 import static org.dungeon.prototype.service.level.generation.WalkerDistributor.Status.FINISHED;
 import static org.dungeon.prototype.service.level.generation.WalkerDistributor.Status.RUNNING;
 import static org.dungeon.prototype.service.level.generation.WalkerDistributor.Status.WAITING;
-import static org.dungeon.prototype.util.LevelUtil.getAdjacentSectionsInCluster;
 import static org.dungeon.prototype.util.LevelUtil.setMutualAdjacency;
 
 @Data
@@ -32,66 +34,78 @@ public class WalkerDistributor {
     @Builder.Default
     private List<WalkerDistributor> subWalkers = new ArrayList<>();
     private Room previousRoom;
-    private GridSection currentSection;
+    private int currentCell;
     private int currentStep;
     @Builder.Default
     private int totalSteps = 0;
     private int mainPathLength;
     private Status status;
+    @Getter(AccessLevel.NONE)
+    private final int[] candidates = new int[NEIGHBOURS_COUNT];
 
-    public NextRoomDto nextStep(GridSection[][] grid, Map<Point, Room> roomsMap) {
+    public NextRoomDto nextStep(LevelGenerationGrid grid) {
         log.info("Distribute walker id{}, status:{} next step...", id, status);
         log.debug("Current step: {}, total steps: {}, main path length:{}", currentStep, totalSteps, mainPathLength);
-        log.debug("Current section: {}, cluster: {}", currentSection, cluster);
-        val adjacentSections = getAdjacentSectionsInCluster(currentSection.getPoint(), grid, cluster);
-        if (nonNull(previousRoom)) {
-            adjacentSections.removeIf(section -> section.getPoint().equals(previousRoom.getPoint()));
+        log.debug("Current section: {}, cluster: {}", grid.getPoint(currentCell), cluster);
+        val previousCell = nonNull(previousRoom) ? grid.getCell(previousRoom.getPoint()) : NONE;
+        int candidatesCount = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(currentCell, i, cluster);
+            if (neighbour != NONE && neighbour != previousCell &&
+                    !grid.hasRoom(neighbour) && grid.getStepsFromStart(neighbour) != 0) {
+                candidates[candidatesCount++] = neighbour;
+            }
         }
-        adjacentSections.removeIf(section -> roomsMap.containsKey(section.getPoint()) || section.getStepsFromStart() == 0);
-        GridSection nextSection = null;
-        if (adjacentSections.size() > 1 && !runSubWalkerOnRouteFork && !currentSection.isConnectionPoint()) {
+        int nextCell = NONE;
+        if (candidatesCount > 1 && !runSubWalkerOnRouteFork && !grid.isConnectionPoint(currentCell)) {
             log.info("Running sub-walker on route fork disabled...");
             log.info("Finishing walker. Running sub-walkers remaining: {}", subWalkers.size());
-            finishWalker(grid, roomsMap);
+            finishWalker(grid);
         } else {
             log.info("Assigning next section...");
-            Optional<GridSection> nextSectionOptional = adjacentSections.stream()
-                    .filter(section -> section.getStepsFromStart() == currentStep)
-                    .min(Comparator.comparing(section -> getAdjacentSectionsInCluster(section.getPoint(), grid, cluster).size()));
-            if (nextSectionOptional.isPresent()) {
-                nextSection = nextSectionOptional.get();
-                log.info("Next section: {}", nextSection);
+            int minNeighbours = Integer.MAX_VALUE;
+            for (int i = 0; i < candidatesCount; i++) {
+                if (grid.getStepsFromStart(candidates[i]) == currentStep) {
+                    val neighbours = grid.countNeighboursInCluster(candidates[i], cluster);
+                    if (neighbours < minNeighbours) {
+                        minNeighbours = neighbours;
+                        nextCell = candidates[i];
+                    }
+                }
+            }
+            if (nextCell != NONE) {
+                log.info("Next section: {}", grid.getPoint(nextCell));
             } else {
                 log.info("Finishing walker...");
-                finishWalker(grid, roomsMap);
+                finishWalker(grid);
                 return null;
             }
         }
 
-        if (nonNull(nextSection)) {
-            var room = buildRoom(nextSection, chatId);
+        if (nextCell != NONE) {
+            var room = buildRoom(grid, nextCell, chatId);
             setMutualAdjacency(room, previousRoom);
-            if (runSubWalkerOnRouteFork && adjacentSections.size() > 1) {
+            if (runSubWalkerOnRouteFork && candidatesCount > 1) {
                 log.info("Running sub-walker on route fork...");
-                for (GridSection section : adjacentSections) {
-                    if (!section.getPoint().equals(nextSection.getPoint()) && !roomsMap.containsKey(section.getPoint())) {
-                        if (currentSection.isConnectionPoint() || section.getStepsFromStart() == currentStep) {
-                            subWalkers.add(WalkerDistributor.builder()
-                                    .chatId(chatId)
-                                    .cluster(cluster)
-                                    .runSubWalkerOnRouteFork(true)
-                                    .status(RUNNING)
-                                    .currentSection(currentSection)
-                                    .previousRoom(roomsMap.get(currentSection.getPoint()))
-                                    .currentStep(section.getStepsFromStart())
-                                    .totalSteps(section.getStepsFromStart())
-                                    .build());
-                        }
+                for (int i = 0; i < candidatesCount; i++) {
+                    val candidate = candidates[i];
+                    if (candidate != nextCell &&
+                            (grid.isConnectionPoint(currentCell) || grid.getStepsFromStart(candidate) == currentStep)) {
+                        subWalkers.add(WalkerDistributor.builder()
+                                .chatId(chatId)
+                                .cluster(cluster)
+                                .runSubWalkerOnRouteFork(true)
+                                .status(RUNNING)
+                                .currentCell(currentCell)
+                                .previousRoom(grid.getRoom(currentCell))
+                                .currentStep(grid.getStepsFromStart(candidate))
+                                .totalSteps(grid.getStepsFromStart(candidate))
+                                .build());
                     }
                 }
                 log.debug("Sub-walkers: {}", subWalkers);
             }
-            currentSection = nextSection;
+            currentCell = nextCell;
             previousRoom = room;
             currentStep--;
             if (currentStep == 0) {
@@ -106,7 +120,7 @@ public class WalkerDistributor {
             }
             return NextRoomDto.builder()
                     .room(room)
-                    .section(nextSection)
+                    .cell(nextCell)
                     .currentStep(currentStep)
                     .totalSteps(totalSteps)
                     .build();
@@ -115,11 +129,14 @@ public class WalkerDistributor {
         }
     }
 
-    private void finishWalker(GridSection[][] grid, Map<Point, Room> roomsMap) {
-        getAdjacentSectionsInCluster(currentSection.getPoint(), grid, cluster).stream()
-                .filter(section -> roomsMap.containsKey(section.getPoint()) && section.getStepsFromStart() == currentStep)
-                .findFirst().ifPresent(section ->
-                        setMutualAdjacency(roomsMap.get(section.getPoint()), previousRoom));
+    private void finishWalker(LevelGenerationGrid grid) {
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbourInCluster(currentCell, i, cluster);
+            if (neighbour != NONE && grid.hasRoom(neighbour) && grid.getStepsFromStart(neighbour) == currentStep) {
+                setMutualAdjacency(grid.getRoom(neighbour), previousRoom);
+                break;
+            }
+        }
         if (subWalkers.isEmpty()) {
             log.info("No sub-walkers present, finishing walker...");
             status = Status.FINISHED;
@@ -129,11 +146,11 @@ public class WalkerDistributor {
         }
     }
 
-    private Room buildRoom(GridSection section, Long chatId) {
-        log.info("Building room on {}", section.getPoint());
+    private Room buildRoom(LevelGenerationGrid grid, int cell, Long chatId) {
+        log.info("Building room on {}", grid.getPoint(cell));
         val room = new Room();
         room.setChatId(chatId);
-        room.setPoint(section.getPoint());
+        room.setPoint(grid.getPoint(cell));
         return room;
     }
 
@@ -167,7 +184,7 @@ public class WalkerDistributor {
                 this.runSubWalkerOnRouteFork == walkerDistributor.isRunSubWalkerOnRouteFork() &&
                 this.subWalkers.equals(walkerDistributor.getSubWalkers()) &&
                 this.previousRoom.equals(walkerDistributor.getPreviousRoom()) &&
-                this.currentSection == walkerDistributor.getCurrentSection() &&
+                this.currentCell == walkerDistributor.getCurrentCell() &&
                 this.currentStep == walkerDistributor.getCurrentStep() &&
                 this.totalSteps == walkerDistributor.getTotalSteps() &&
                 this.mainPathLength == walkerDistributor.getMainPathLength() &&
@@ -176,7 +193,7 @@ public class WalkerDistributor {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, chatId, cluster, runSubWalkerOnRouteFork, subWalkers, previousRoom, currentSection, currentStep,
+        return Objects.hash(id, chatId, cluster, runSubWalkerOnRouteFork, subWalkers, previousRoom, currentCell, currentStep,
                 totalSteps, mainPathLength, status);
     }
 
@@ -188,7 +205,7 @@ public class WalkerDistributor {
                 ", runSubWalkerOnRouteFork=" + runSubWalkerOnRouteFork +
                 ", subWalkers=" + subWalkers +
                 ", previousRoom=" + previousRoom +
-                ", currentSection=" + currentSection +
+                ", currentCell=" + currentCell +
                 ", currentStep" + currentStep +
                 ", totalSteps" + totalSteps +
                 ", mainPathLength" + mainPathLength +
@@ -2,6 +2,7 @@ package org.dungeon.prototype.service.message;
 
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import org.dungeon.prototype.bot.CallbackCodec;
 import org.dungeon.prototype.exception.CallbackParsingException;
 import org.dungeon.prototype.model.inventory.Inventory;
 import org.dungeon.prototype.model.inventory.Item;
@@ -79,6 +80,8 @@ public class KeyboardService {
 
     @Autowired
     private KeyboardButtonProperties keyboardButtonProperties;
+    @Autowired
+    private CallbackCodec callbackCodec;
 
     public InlineKeyboardMarkup getStartInlineKeyboardMarkup(boolean hasSavedGame) {
         return InlineKeyboardMarkup.builder()
@@ -258,31 +261,29 @@ public class KeyboardService {
     }
 
     public InlineKeyboardMarkup getInventoryItemInfoReplyMarkup(Item item, CallbackType inventoryType) {
-        KeyboardButtonProperties.KeyboardButtonAttributes actionButton;
-        KeyboardButtonProperties.KeyboardButtonAttributes backButton;
+        CallbackType actionButtonType;
+        CallbackType backButtonType;
         switch (inventoryType) {
             case INVENTORY ->
             {
-                actionButton = keyboardButtonProperties.getButtons().get(ITEM_INVENTORY_EQUIP);
-                backButton = keyboardButtonProperties.getButtons().get(ITEM_INVENTORY_BACK);
+                actionButtonType = ITEM_INVENTORY_EQUIP;
+                backButtonType = ITEM_INVENTORY_BACK;
 
             }
             case MERCHANT_SELL_MENU ->
             {
-                actionButton = keyboardButtonProperties.getButtons().get(MERCHANT_SELL_PRICE);
-                backButton = keyboardButtonProperties.getButtons().get(MERCHANT_SELL_MENU_BACK);
+                actionButtonType = MERCHANT_SELL_PRICE;
+                backButtonType = MERCHANT_SELL_MENU_BACK;
             }
             default -> throw new CallbackParsingException(inventoryType.toString());
         }
+        val actionButton = keyboardButtonProperties.getButtons().get(actionButtonType);
         List<InlineKeyboardButton> row = new ArrayList<>();
         row.add(InlineKeyboardButton.builder()
                 .text(actionButton.getName().formatted(item.getSellingPrice()))
-                .callbackData(actionButton.getCallback().formatted(item.getId()))
-                .build());
-        row.add(InlineKeyboardButton.builder()
-                .text(backButton.getName())
-                .callbackData(backButton.getCallback())
+                .callbackData(callbackCodec.encode(actionButtonType, item.getId()))
                 .build());
+        row.add(getButton(backButtonType));
         return InlineKeyboardMarkup.builder()
                 .keyboard(List.of(row))
                 .build();
@@ -293,7 +294,7 @@ public class KeyboardService {
                 .keyboard(List.of(
                         List.of(InlineKeyboardButton.builder()
                                 .text(keyboardButtonProperties.getButtons().get(button).getName())
-                                .callbackData(keyboardButtonProperties.getButtons().get(button).getCallback())
+                                .callbackData(callbackCodec.encode(button))
                                 .build())))
                 .build();
 
@@ -302,21 +303,21 @@ public class KeyboardService {
     private InlineKeyboardButton getButton(CallbackType type) {
         return InlineKeyboardButton.builder()
                 .text(keyboardButtonProperties.getButtons().get(type).getName())
-                .callbackData(keyboardButtonProperties.getButtons().get(type).getCallback())
+                .callbackData(callbackCodec.encode(type))
                 .build();
     }
 
     private InlineKeyboardButton getButton(CallbackType type, Integer value) {
         return InlineKeyboardButton.builder()
                 .text(keyboardButtonProperties.getButtons().get(type).getName().formatted(value))
-                .callbackData(keyboardButtonProperties.getButtons().get(type).getCallback())
+                .callbackData(callbackCodec.encode(type))
                 .build();
     }
 
     private InlineKeyboardButton getTreasureItemListButton(Item item) {
         return InlineKeyboardButton.builder()
                 .text(item.getName())
-                .callbackData(keyboardButtonProperties.getButtons().get(TREASURE_ITEM_COLLECTED).getCallback().formatted(item.getId()))
+                .callbackData(callbackCodec.encode(TREASURE_ITEM_COLLECTED, item.getId()))
                 .build();
     }
 
@@ -332,16 +333,12 @@ public class KeyboardService {
             default -> throw new CallbackParsingException(inventoryType.toString());
         };
         val actionButtonProperties = keyboardButtonProperties.getButtons().get(actionButtonType);
-        val backButtonProperties = keyboardButtonProperties.getButtons().get(backButtonType);
         List<InlineKeyboardButton> row = new ArrayList<>();
         row.add(InlineKeyboardButton.builder()
                 .text(actionButtonProperties.getName())
-                .callbackData(actionButtonProperties.getCallback().formatted(sellPrice))
-                .build());
-        row.add(InlineKeyboardButton.builder()
-                .text(backButtonProperties.getName())
-                .callbackData(backButtonProperties.getCallback())
+                .callbackData(callbackCodec.encode(actionButtonType, sellPrice))
                 .build());
+        row.add(getButton(backButtonType));
         return InlineKeyboardMarkup.builder()
                 .keyboard(List.of(row))
                 .build();
@@ -372,15 +369,14 @@ public class KeyboardService {
 
     private List<InlineKeyboardButton> getInventoryItemListRow(Item item, CallbackType itemType, CallbackType itemAction) {
         List<InlineKeyboardButton> row = new ArrayList<>();
-        val itemButtonProperties = keyboardButtonProperties.getButtons().get(itemType);
         val actionButtonProperties = keyboardButtonProperties.getButtons().get(itemAction);
         row.add(InlineKeyboardButton.builder()
                 .text(item.getName())
-                .callbackData(itemButtonProperties.getCallback().formatted(item.getId()))
+                .callbackData(callbackCodec.encode(itemType, item.getId()))
                 .build());
         row.add(InlineKeyboardButton.builder()
                 .text(actionButtonProperties.getName().formatted(item.getSellingPrice()))
-                .callbackData(actionButtonProperties.getCallback().formatted(item.getId()))
+                .callbackData(callbackCodec.encode(itemAction, item.getId()))
                 .build());
         return row;
     }
@@ -401,37 +397,34 @@ public class KeyboardService {
         } else {
             buttonNameType = equippedType;
         }
-        val itemButtonAttributes = keyboardButtonProperties.getButtons().get(buttonNameType);
         val unEquipButtonAttributes = keyboardButtonProperties.getButtons().get(itemAction);
         List<InlineKeyboardButton> row = new ArrayList<>();
-        row.add(getListItemButton(item, equippedType, itemButtonAttributes));
+        row.add(getListItemButton(item, equippedType, buttonNameType));
         row.add(InlineKeyboardButton.builder()
                 .text(unEquipButtonAttributes.getName().formatted(item.getSellingPrice()))
-                .callbackData(unEquipButtonAttributes.getCallback().formatted(item.getId()))
+                .callbackData(callbackCodec.encode(itemAction, item.getId()))
                 .build());
         return row;
     }
 
-    private InlineKeyboardButton getListItemButton(Item item, CallbackType equippedType, KeyboardButtonProperties.KeyboardButtonAttributes itemButtonAttributes) {
+    private InlineKeyboardButton getListItemButton(Item item, CallbackType equippedType, CallbackType itemButtonType) {
         return InlineKeyboardButton.builder()
                 .text(formatItemType(equippedType) + ": " + item.getName())
-                .callbackData(itemButtonAttributes.getCallback().formatted(item.getId()))
+                .callbackData(callbackCodec.encode(itemButtonType, item.getId()))
                 .build();
     }
 
     private InlineKeyboardButton getPlayerAttributeButton(PlayerAttribute playerAttribute, Integer value) {
-        val buttonProperties = keyboardButtonProperties.getButtons().get(PLAYER_ATTRIBUTE_UPGRADE);
         return InlineKeyboardButton.builder()
                 .text(playerAttribute.getValue() + ": " + value + " (+1)")
-                .callbackData(buttonProperties.getCallback().formatted(playerAttribute.getValue()))
+                .callbackData(callbackCodec.encode(PLAYER_ATTRIBUTE_UPGRADE, playerAttribute.getValue()))
                 .build();
     }
 
     private InlineKeyboardButton getMerchantItemBuyListButton(Item item) {
-        val buttonProperties = keyboardButtonProperties.getButtons().get(MERCHANT_ITEM_BUY);
         return InlineKeyboardButton.builder()
                 .text(item.getName())
-                .callbackData(buttonProperties.getCallback().formatted(item.getId()))
+                .callbackData(callbackCodec.encode(MERCHANT_ITEM_BUY, item.getId()))
                 .build();
     }
 
@@ -439,7 +432,7 @@ public class KeyboardService {
         val buttonProperties = keyboardButtonProperties.getButtons().get(MERCHANT_BUY_PRICE);
         return InlineKeyboardButton.builder()
                 .text(buttonProperties.getName().formatted(item.getBuyingPrice()))
-                .callbackData(buttonProperties.getCallback().formatted(item.getId()))
+                .callbackData(callbackCodec.encode(MERCHANT_BUY_PRICE, item.getId()))
                 .build();
     }
 }
@@ -3,8 +3,9 @@ package org.dungeon.prototype.service.room;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.dungeon.prototype.model.monster.Monster;
-import org.dungeon.prototype.repository.MonsterRepository;
+import org.dungeon.prototype.model.room.Room;
 import org.dungeon.prototype.repository.converters.mapstruct.MonsterMapper;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -13,15 +14,17 @@ import org.springframework.stereotype.Service;
 public class MonsterService {
 
     @Autowired
-    MonsterRepository monsterRepository;
+    GameSessionCache gameSessionCache;
 
     /**
-     * Updates monster in repository
+     * Updates monster of given room in level
+     * @param monsterRoom room where monster is
      * @param monster to update
      * @return updated monster
      */
-    public Monster updateMonster(Monster monster) {
+    public Monster updateMonster(Room monsterRoom, Monster monster) {
         val monsterDocument = MonsterMapper.INSTANCE.mapToDocument(monster);
-        return MonsterMapper.INSTANCE.mapToMonster(monsterRepository.save(monsterDocument));
+        gameSessionCache.saveMonster(monsterRoom.getChatId(), monsterRoom.getPoint(), monsterDocument);
+        return monster;
     }
 }
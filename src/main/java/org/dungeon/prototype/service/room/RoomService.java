@@ -3,6 +3,7 @@ package org.dungeon.prototype.service.room;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.math3.util.Pair;
+import org.bson.types.ObjectId;
 import org.dungeon.prototype.exception.EntityNotFoundException;
 import org.dungeon.prototype.model.player.Player;
 import org.dungeon.prototype.model.player.PlayerAttribute;
@@ -10,20 +11,16 @@ import org.dungeon.prototype.model.room.Room;
 import org.dungeon.prototype.model.room.content.Anvil;
 import org.dungeon.prototype.model.room.content.Merchant;
 import org.dungeon.prototype.model.room.content.MonsterRoom;
-import org.dungeon.prototype.model.room.content.RoomContent;
 import org.dungeon.prototype.properties.CallbackType;
-import org.dungeon.prototype.repository.RoomContentRepository;
-import org.dungeon.prototype.repository.RoomRepository;
-import org.dungeon.prototype.repository.converters.mapstruct.RoomContentMapper;
 import org.dungeon.prototype.repository.converters.mapstruct.RoomMapper;
 import org.dungeon.prototype.service.PlayerService;
 import org.dungeon.prototype.service.effect.EffectService;
 import org.dungeon.prototype.service.message.MessageService;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 
 @Slf4j
 @Component
@@ -32,9 +29,7 @@ public class RoomService {
     @Autowired
     PlayerService playerService;
     @Autowired
-    RoomRepository roomRepository;
-    @Autowired
-    RoomContentRepository roomContentRepository;
+    GameSessionCache gameSessionCache;
     @Autowired
     EffectService effectService;
     @Autowired
@@ -58,46 +53,32 @@ public class RoomService {
     }
 
     /**
-     * Looks for room in repository by passed parameters
+     * Looks for room in level of chat by passed parameters
      *
      * @param chatId id of chat
      * @param id     of requested room
      * @return room
      */
     public Room getRoomByIdAndChatId(Long chatId, String id) {
-        val roomDocument = roomRepository.findByChatIdAndId(chatId, id).orElseThrow(() ->
+        val roomDocument = gameSessionCache.getRoom(chatId, id).orElseThrow(() ->
                     new EntityNotFoundException(chatId, "room", CallbackType.CONTINUE_GAME,
                             Pair.create("roomId", id)));
         return RoomMapper.INSTANCE.mapToRoom(roomDocument);
     }
 
     /**
-     * Saves room to.../Updates room in
-     * corresponding repository
+     * Saves room with its content to level of room's chat,
+     * replacing previous room at the same point
      *
      * @param room room to save or update
      * @return saved or updated room
      */
     public Room saveOrUpdateRoom(Room room) {
-        val roomDocument = RoomMapper.INSTANCE.mapToDocument(room);
-        if (nonNull(roomDocument.getRoomContent()) && isNull(roomDocument.getRoomContent().getId())) {
-            roomContentRepository.save(roomDocument.getRoomContent());
+        if (isNull(room.getId())) {
+            room.setId(new ObjectId().toHexString());
         }
-        val savedRoomDocument = roomRepository.save(roomDocument);
-        return RoomMapper.INSTANCE.mapToRoom(savedRoomDocument);
-    }
-
-    /**
-     * Saves room content to.../Updates room content in
-     * corresponding repository
-     *
-     * @param roomContent room content to save or update
-     * @return saved or updated room content
-     */
-    public RoomContent saveOrUpdateRoomContent(RoomContent roomContent) {
-        val roomContentDocument = RoomContentMapper.INSTANCE.mapToRoomContentDocument(roomContent);
-        val savedRoomContentDocument = roomContentRepository.save(roomContentDocument);
-        return RoomContentMapper.INSTANCE.mapToRoomContent(savedRoomContentDocument);
+        gameSessionCache.saveRoom(RoomMapper.INSTANCE.mapToDocument(room));
+        return room;
     }
 
     /**
@@ -157,7 +138,6 @@ public class RoomService {
                 player.restoreArmor();
                 playerService.updatePlayer(player);
                 anvil.setArmorRestored(true);
-                saveOrUpdateRoomContent(anvil);
                 currentRoom = saveOrUpdateRoom(currentRoom);
             }
         }
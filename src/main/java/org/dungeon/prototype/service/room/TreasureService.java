@@ -86,7 +86,7 @@ public class TreasureService {
             } else {
                 treasure.setItems(Collections.emptySet());
                 playerService.updatePlayer(player);
-                inventoryService.saveOrUpdateInventory(player.getInventory());
+                inventoryService.saveOrUpdateInventory(chatId, player.getInventory());
             }
         }
         levelService.updateAfterTreasureLooted(currentRoom);
@@ -115,7 +115,7 @@ public class TreasureService {
                 roomService.saveOrUpdateRoom(currentRoom);
             }
             playerService.updatePlayer(player);
-            inventoryService.saveOrUpdateInventory(player.getInventory());
+            inventoryService.saveOrUpdateInventory(chatId, player.getInventory());
         } else {
             log.info("No room in inventory!");
             return false;
@@ -10,13 +10,13 @@ import org.apache.commons.math3.optim.SimpleBounds;
 import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
 import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
 import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.CMAESOptimizer;
-import org.apache.commons.math3.random.RandomDataGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
 import org.dungeon.prototype.model.effect.ExpirableAdditionEffect;
 import org.dungeon.prototype.model.monster.Monster;
 import org.dungeon.prototype.model.monster.MonsterAttack;
-import org.dungeon.prototype.model.monster.MonsterAttackType;
 import org.dungeon.prototype.model.monster.MonsterClass;
 import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
 import org.dungeon.prototype.properties.GenerationProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -27,13 +27,76 @@ import java.util.Arrays;
 import static java.lang.Double.POSITIVE_INFINITY;
 import static org.dungeon.prototype.model.effect.attributes.EffectAttribute.HEALTH;
 import static org.dungeon.prototype.util.RandomUtil.getMagicTypeByMonsterClass;
+import static org.dungeon.prototype.util.RandomUtil.getRandomDouble;
 import static org.dungeon.prototype.util.RoomGenerationUtils.calculateMonsterWeight;
 
 @Slf4j
 @Service
 public class MonsterFactory {
+    private static final double[] LOWER_BOUND = {
+            1.0,
+            1.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0,
+            0.0
+    };
+    private static final double[] INITIAL_GUESS = {
+            5.0,
+            5.0,
+            0.5,
+            1.0,
+            0.5,
+            0.5,
+            0.5,
+            1.0,
+            1.0,
+            1.0,
+            0.5,
+            1.0,
+            0.5,
+            0.5,
+            0.5,
+            1.0,
+            1.0
+    };
+    private static final double[] UPPER_BOUND = {
+            POSITIVE_INFINITY,
+            POSITIVE_INFINITY,
+            1.0,
+            POSITIVE_INFINITY,
+            1.0,
+            1.0,
+            1.0,
+            POSITIVE_INFINITY,
+            POSITIVE_INFINITY,
+            POSITIVE_INFINITY,
+            1.0,
+            POSITIVE_INFINITY,
+            1.0,
+            1.0,
+            1.0,
+            POSITIVE_INFINITY,
+            POSITIVE_INFINITY
+    };
+
     @Autowired
     private GenerationProperties generationProperties;
+    @Autowired
+    private MonsterSolverCache monsterSolverCache;
+    @Autowired
+    private MonsterStatTable monsterStatTable;
 
     /**
      * Generates monster of requested class with weight as close to given as possible
@@ -46,100 +109,9 @@ public class MonsterFactory {
         val primaryAttack = properties.getPrimaryAttackType();
         val secondaryAttack = properties.getSecondaryAttackType();
 
-        val expectedHealthPlusAttack = weight.getHp() + weight.getArmor()  *
-                (weight.getChanceToKnockout() + weight.getCriticalHitChance() + weight.getAttack());
-
-        // Define optimization objective
-        MultivariateFunction objective = point -> objectiveMonsterWeightFunction(
-                point,
-                weight,
-                primaryAttack,
-                secondaryAttack,
-                expectedHealthPlusAttack);
-
-        CMAESOptimizer optimizer = new CMAESOptimizer(
-                10000,
-                1e-9,
-                true,
-                0,
-                10,
-                new RandomDataGenerator().getRandomGenerator(),
-                false,
-                null);
-        val lowerBound = new double[]{
-                1.0,
-                1.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0,
-                0.0
-        };
-        val initialGuess = new double[]{
-                5.0,
-                5.0,
-                0.5,
-                1.0,
-                0.5,
-                0.5,
-                0.5,
-                1.0,
-                1.0,
-                1.0,
-                0.5,
-                1.0,
-                0.5,
-                0.5,
-                0.5,
-                1.0,
-                1.0
-        };
-        val upperBound = new double[]{
-                POSITIVE_INFINITY,
-                POSITIVE_INFINITY,
-                1.0,
-                POSITIVE_INFINITY,
-                1.0,
-                1.0,
-                1.0,
-                POSITIVE_INFINITY,
-                POSITIVE_INFINITY,
-                POSITIVE_INFINITY,
-                1.0,
-                POSITIVE_INFINITY,
-                1.0,
-                1.0,
-                1.0,
-                POSITIVE_INFINITY,
-                POSITIVE_INFINITY
-        };
-        double[] sigma = new double[17];
-        // Can be tuned based on the scale of the function
-        Arrays.fill(sigma, 0.005);
-
-        // Optimization problem setup
-        PointValuePair result = optimizer.optimize(
-                new MaxEval(10000),                             // Maximum evaluations
-                new ObjectiveFunction(objective),              // Objective function
-                GoalType.MINIMIZE,                             // Minimization goal
-                new InitialGuess(initialGuess),
-                new CMAESOptimizer.Sigma(sigma),
-                new CMAESOptimizer.PopulationSize(12),
-                new SimpleBounds(lowerBound, upperBound)
-        );
-
-        // Optimized attributes result
-        double[] optimizedAttributes = result.getPoint();
+        // Optimized attributes result, jittered so that monsters of same solution differ
+        double[] optimizedAttributes = jitter(monsterStatTable.getAttributes(monsterClass, weight)
+                .orElseGet(() -> monsterSolverCache.getSolution(monsterClass, weight, MonsterFactory::optimizeAttributes)));
 
         return Monster.builder()
                 .monsterClass(monsterClass)
@@ -180,40 +152,55 @@ public class MonsterFactory {
                 .build();
     }
 
+    static double[] optimizeAttributes(Weight weight, RandomGenerator randomGenerator) {
+        // Define optimization objective, accumulator is reused between evaluations of single optimization
+        val currentWeight = new WeightAccumulator();
+        MultivariateFunction objective = point -> objectiveMonsterWeightFunction(point, weight, currentWeight);
+
+        CMAESOptimizer optimizer = new CMAESOptimizer(
+                10000,
+                1e-9,
+                true,
+                0,
+                10,
+                randomGenerator,
+                false,
+                null);
+        double[] sigma = new double[17];
+        // Can be tuned based on the scale of the function
+        Arrays.fill(sigma, 0.005);
+
+        // Optimization problem setup
+        PointValuePair result = optimizer.optimize(
+                new MaxEval(10000),                             // Maximum evaluations
+                new ObjectiveFunction(objective),              // Objective function
+                GoalType.MINIMIZE,                             // Minimization goal
+                new InitialGuess(INITIAL_GUESS),
+                new CMAESOptimizer.Sigma(sigma),
+                new CMAESOptimizer.PopulationSize(12),
+                new SimpleBounds(LOWER_BOUND, UPPER_BOUND)
+        );
+        return result.getPoint();
+    }
+
+    private double[] jitter(double[] attributes) {
+        val jitter = generationProperties.getMonsterSolverCache().getJitter();
+        if (jitter <= 0.0) {
+            return attributes;
+        }
+        for (int i = 0; i < attributes.length; i++) {
+            attributes[i] = Math.min(UPPER_BOUND[i],
+                    Math.max(LOWER_BOUND[i], attributes[i] * (1.0 + getRandomDouble(-jitter, jitter))));
+        }
+        return attributes;
+    }
+
     // Objective function to minimize (absolute difference between target and current weight)
-    private static double objectiveMonsterWeightFunction(double[] attributes,
-                                                         Weight targetWeight, MonsterAttackType primaryAttack, MonsterAttackType secondaryAttack, double expectedHealthXAttack) {
-        val currentWeight = calculateMonsterWeight((int) attributes[0], (int) attributes[0],
-                MonsterAttack.builder()
-                        .attackType(primaryAttack)
-                        .attack((int) attributes[1])
-                        .criticalHitChance(attributes[2])
-                        .criticalHitMultiplier(attributes[3])
-                        .chanceToKnockOut(attributes[4])
-                        .chanceToMiss(attributes[5])
-                        .causingEffectProbability(attributes[6])
-                        .effect(ExpirableAdditionEffect.builder()
-                                .isAccumulated(true)
-                                .attribute(HEALTH)
-                                .amount((int) attributes[7])
-                                .turnsLeft((int) attributes[8])
-                                .build())
-                        .build(),
-                MonsterAttack.builder()
-                        .attackType(secondaryAttack)
-                        .attack((int) attributes[9])
-                        .criticalHitChance(attributes[10])
-                        .criticalHitMultiplier(attributes[11])
-                        .chanceToKnockOut(attributes[12])
-                        .chanceToMiss(attributes[13])
-                        .causingEffectProbability(attributes[14])
-                        .effect(ExpirableAdditionEffect.builder()
-                                .isAccumulated(true)
-                                .attribute(HEALTH)
-                                .amount((int) attributes[15])
-                                .turnsLeft((int) attributes[16])
-                                .build())
-                        .build());
-        return targetWeight.add(currentWeight.getNegative()).toVector().getNorm();
+    private static double objectiveMonsterWeightFunction(double[] attributes, Weight targetWeight,
+                                                         WeightAccumulator currentWeight) {
+        calculateMonsterWeight(currentWeight.reset(), (int) attributes[0], (int) attributes[0],
+                (int) attributes[1], attributes[2], attributes[3], attributes[4], attributes[5],
+                attributes[10], attributes[11], attributes[12], attributes[13]);
+        return currentWeight.distanceTo(targetWeight);
     }
 }
@@ -0,0 +1,207 @@
+package org.dungeon.prototype.service.room.generation.room.content;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+import org.dungeon.prototype.model.document.monster.MonsterSolutionDocument;
+import org.dungeon.prototype.model.monster.MonsterClass;
+import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.repository.MonsterSolutionRepository;
+import org.dungeon.prototype.util.SeedUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static java.util.Objects.nonNull;
+import static org.dungeon.prototype.model.weight.Weight.ATTACK;
+import static org.dungeon.prototype.model.weight.Weight.CHANCE_TO_KNOCKOUT;
+import static org.dungeon.prototype.model.weight.Weight.CRITICAL_HIT_CHANCE;
+import static org.dungeon.prototype.model.weight.Weight.HP;
+import static org.dungeon.prototype.model.weight.Weight.MAX_HP;
+import static org.dungeon.prototype.util.RandomUtil.newRandomGenerator;
+
+/**
+ * Bounded LRU cache of monster attributes solutions, shared by all chats and persisted between restarts.
+ * Expected weights are quantized and solution is calculated for center of quantization cell
+ * by optimizer seeded from cell, so it doesn't depend on which chat happened to solve it first
+ */
+@Slf4j
+@Service
+public class MonsterSolverCache {
+    private static final String METRIC_NAME = "dungeon.monster.solver";
+    private static final long SOLVER_SEED = 0x6d6f6e73746572L;
+    //only these components affect monster weight, rest of expected weight adds constant to optimized distance
+    private static final int[] SOLVED_COMPONENTS = {HP, MAX_HP, ATTACK, CRITICAL_HIT_CHANCE, CHANCE_TO_KNOCKOUT};
+    private static final long ZERO_NORM_CELL = Long.MIN_VALUE;
+
+    @Autowired
+    private GenerationProperties generationProperties;
+    @Autowired
+    private MonsterSolutionRepository monsterSolutionRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    //guarded by itself, access order makes it LRU
+    private Map<String, double[]> solutions;
+    private final List<String> evictedKeys = new ArrayList<>();
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Timer solveTimer;
+
+    @PostConstruct
+    public void init() {
+        val properties = generationProperties.getMonsterSolverCache();
+        solutions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+                if (size() > properties.getCapacity()) {
+                    evictedKeys.add(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        hitCounter = meterRegistry.counter(METRIC_NAME + ".cache", "result", "hit");
+        missCounter = meterRegistry.counter(METRIC_NAME + ".cache", "result", "miss");
+        solveTimer = meterRegistry.timer(METRIC_NAME + ".solve");
+        meterRegistry.gauge(METRIC_NAME + ".cache.size", solutions, Map::size);
+        if (properties.isEnabled()) {
+            loadSolutions(properties.getCapacity());
+        }
+    }
+
+    /**
+     * Looks up solution for expected weight, solving it on cache miss
+     *
+     * @param monsterClass class of generated monster
+     * @param weight       expected weight
+     * @param solver       optimizer, called with weight to solve for and generator it should use
+     * @return copy of solution
+     */
+    public double[] getSolution(MonsterClass monsterClass, Weight weight,
+                                BiFunction<Weight, RandomGenerator, double[]> solver) {
+        val properties = generationProperties.getMonsterSolverCache();
+        if (!properties.isEnabled() || !isFinite(weight)) {
+            return solveTimer.record(() -> solver.apply(weight, newRandomGenerator()));
+        }
+        val step = properties.getQuantizationStep();
+        val cell = quantize(weight, step);
+        val key = monsterClass + ":" + step + ":" + Arrays.toString(cell);
+        double[] solution;
+        synchronized (solutions) {
+            solution = solutions.get(key);
+        }
+        if (nonNull(solution)) {
+            hitCounter.increment();
+            return solution.clone();
+        }
+        missCounter.increment();
+        //concurrent misses of same cell solve it twice with same result, which is cheaper than blocking
+        val solved = solveTimer.record(() ->
+                solver.apply(getCellCenter(cell, step), new Well19937c(SeedUtil.split(SOLVER_SEED, key.hashCode()))));
+        put(key, monsterClass, solved);
+        return solved.clone();
+    }
+
+    private void put(String key, MonsterClass monsterClass, double[] solution) {
+        final List<String> evicted;
+        synchronized (solutions) {
+            solutions.put(key, solution);
+            evicted = List.copyOf(evictedKeys);
+            evictedKeys.clear();
+        }
+        val document = new MonsterSolutionDocument();
+        document.setId(key);
+        document.setMonsterClass(monsterClass);
+        document.setAttributes(solution);
+        document.setSolvedAt(Instant.now());
+        try {
+            monsterSolutionRepository.save(document);
+            if (!evicted.isEmpty()) {
+                monsterSolutionRepository.deleteAllById(evicted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Unable to persist monster solution {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void loadSolutions(int capacity) {
+        try {
+            val documents = monsterSolutionRepository.findAll(
+                    PageRequest.of(0, capacity, Sort.by(Sort.Direction.DESC, "solvedAt"))).getContent();
+            synchronized (solutions) {
+                //least recent first, so that they're evicted first
+                for (int i = documents.size() - 1; i >= 0; i--) {
+                    solutions.put(documents.get(i).getId(), documents.get(i).getAttributes());
+                }
+            }
+            log.info("Loaded {} monster solutions", documents.size());
+        } catch (DataAccessException e) {
+            log.warn("Unable to load monster solutions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Cell is scaled by norm of solved components: first index is logarithmic norm bucket,
+     * rest are components rounded to cells of relative size of step
+     */
+    private static long[] quantize(Weight weight, double step) {
+        double norm = 0.0;
+        for (int component : SOLVED_COMPONENTS) {
+            norm += weight.get(component) * weight.get(component);
+        }
+        norm = Math.sqrt(norm);
+        val cell = new long[SOLVED_COMPONENTS.length + 1];
+        if (norm == 0.0) {
+            cell[0] = ZERO_NORM_CELL;
+            return cell;
+        }
+        cell[0] = Math.round(Math.log(norm) / Math.log1p(step));
+        val cellSize = getCellSize(cell[0], step);
+        for (int i = 0; i < SOLVED_COMPONENTS.length; i++) {
+            cell[i + 1] = Math.round(weight.get(SOLVED_COMPONENTS[i]) / cellSize);
+        }
+        return cell;
+    }
+
+    private static Weight getCellCenter(long[] cell, double step) {
+        val center = new WeightAccumulator();
+        if (cell[0] != ZERO_NORM_CELL) {
+            val cellSize = getCellSize(cell[0], step);
+            for (int i = 0; i < SOLVED_COMPONENTS.length; i++) {
+                center.set(SOLVED_COMPONENTS[i], cell[i + 1] * cellSize);
+            }
+        }
+        return center.toWeight();
+    }
+
+    private static double getCellSize(long normBucket, double step) {
+        return Math.exp(normBucket * Math.log1p(step)) * step;
+    }
+
+    private static boolean isFinite(Weight weight) {
+        for (int component : SOLVED_COMPONENTS) {
+            if (!Double.isFinite(weight.get(component))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
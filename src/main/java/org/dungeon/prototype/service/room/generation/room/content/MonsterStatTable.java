@@ -0,0 +1,172 @@
+package org.dungeon.prototype.service.room.generation.room.content;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.dungeon.prototype.model.monster.MonsterClass;
+import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.util.KdTree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.isNull;
+import static org.dungeon.prototype.util.RandomUtil.getRandomDouble;
+import static org.dungeon.prototype.util.RandomUtil.withSeed;
+import static org.dungeon.prototype.util.RoomGenerationUtils.calculateMonsterWeight;
+import static org.dungeon.prototype.util.SeedUtil.split;
+
+/**
+ * Alternative to monster optimizer: attributes are sampled once per monster class on startup
+ * and indexed by knockout chance and attack components of their weight, which are bounded.
+ * Generation takes nearest samples and refines each of them to expected weight:
+ * hp and primary attack are solved directly, primary probabilities are adjusted to close the rest.
+ * Refined sample closest to expected weight wins
+ */
+@Slf4j
+@Service
+public class MonsterStatTable {
+    private static final long TABLE_SEED = 0x7461626c65L;
+    private static final double MIN_CRITICAL_HIT_MULTIPLIER = 0.5;
+    private static final double MAX_CRITICAL_HIT_MULTIPLIER = 2.0;
+    private static final double MIN_SECONDARY_ATTACK_RATIO = 0.3;
+    private static final double MAX_EFFECT_AMOUNT = 5.0;
+    private static final double MAX_EFFECT_TURNS = 5.0;
+
+    @Autowired
+    private GenerationProperties generationProperties;
+
+    private final Map<MonsterClass, KdTree<double[]>> tables = new EnumMap<>(MonsterClass.class);
+
+    @PostConstruct
+    public void init() {
+        val properties = generationProperties.getMonsterTable();
+        if (isNull(properties) || !properties.isEnabled()) {
+            return;
+        }
+        for (MonsterClass monsterClass : generationProperties.getMonsters().keySet()) {
+            tables.put(monsterClass, withSeed(split(TABLE_SEED, monsterClass.ordinal()),
+                    () -> sampleTable(properties.getSamples())));
+        }
+        log.info("Sampled monster stat tables of {} attributes sets for {}", properties.getSamples(), tables.keySet());
+    }
+
+    /**
+     * Looks up monster attributes, laid out same way as optimizer's ones
+     *
+     * @param monsterClass class of generated monster
+     * @param weight       expected weight
+     * @return attributes, empty if table is disabled or weight can't be looked up
+     */
+    public Optional<double[]> getAttributes(MonsterClass monsterClass, Weight weight) {
+        val table = tables.get(monsterClass);
+        if (isNull(table) || !isFinite(weight)) {
+            return Optional.empty();
+        }
+        return Optional.of(lookup(table, weight, generationProperties.getMonsterTable().getNeighbours()));
+    }
+
+    /**
+     * Samples attributes sets from current random stream, hp and primary attack
+     * are left as placeholders since they're solved for each lookup
+     */
+    static KdTree<double[]> sampleTable(int samples) {
+        final List<double[]> points = new ArrayList<>(samples);
+        final List<double[]> attributes = new ArrayList<>(samples);
+        val weight = new WeightAccumulator();
+        for (int i = 0; i < samples; i++) {
+            val sample = new double[]{
+                    1.0,
+                    1.0,
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(MIN_CRITICAL_HIT_MULTIPLIER, MAX_CRITICAL_HIT_MULTIPLIER),
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(1.0, MAX_EFFECT_AMOUNT),
+                    getRandomDouble(1.0, MAX_EFFECT_TURNS),
+                    //ratio of secondary attack to primary one until refined
+                    getRandomDouble(MIN_SECONDARY_ATTACK_RATIO, 1.0),
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(MIN_CRITICAL_HIT_MULTIPLIER, MAX_CRITICAL_HIT_MULTIPLIER),
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(0.0, 1.0),
+                    getRandomDouble(1.0, MAX_EFFECT_AMOUNT),
+                    getRandomDouble(1.0, MAX_EFFECT_TURNS)
+            };
+            calculate(weight, sample);
+            points.add(getIndexPoint(weight.get(Weight.CHANCE_TO_KNOCKOUT), weight.get(Weight.ATTACK)));
+            attributes.add(sample);
+        }
+        return KdTree.of(points, attributes);
+    }
+
+    static double[] lookup(KdTree<double[]> table, Weight weight, int neighbours) {
+        val current = new WeightAccumulator();
+        double[] best = null;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (double[] sample : table.nearest(getIndexPoint(weight.getChanceToKnockout(), weight.getAttack()), neighbours)) {
+            val candidate = refine(sample, weight);
+            val distance = calculate(current.reset(), candidate).distanceTo(weight);
+            if (distance < bestDistance) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static double[] refine(double[] sample, Weight weight) {
+        val attributes = sample.clone();
+        //same hp is used for current and max one, so their mean is the closest
+        attributes[0] = Math.max(1.0, Math.round((weight.getHp() + weight.getMaxHp()) / 2));
+        val secondaryCriticalHit = attributes[10] * attributes[11];
+        val primaryCriticalHit = attributes[2] * attributes[3];
+        attributes[1] = primaryCriticalHit > 0.0 ?
+                Math.max(1.0, Math.round((weight.getCriticalHitChance() - secondaryCriticalHit) / primaryCriticalHit)) :
+                1.0;
+        attributes[9] = Math.max(1.0, Math.round(attributes[1] * sample[9]));
+        //rounding of attack is compensated by primary critical hit chance
+        if (attributes[3] > 0.0) {
+            attributes[2] = clamp((weight.getCriticalHitChance() - secondaryCriticalHit) / (attributes[3] * attributes[1]));
+        }
+        if (attributes[12] > 0.0) {
+            attributes[4] = clamp(weight.getChanceToKnockout() / attributes[12]);
+        }
+        if (attributes[13] < 1.0) {
+            attributes[5] = clamp(1.0 - weight.getAttack() / (1.0 - attributes[13]));
+        }
+        return attributes;
+    }
+
+    private static WeightAccumulator calculate(WeightAccumulator weight, double[] attributes) {
+        return calculateMonsterWeight(weight, (int) attributes[0], (int) attributes[0],
+                (int) attributes[1], attributes[2], attributes[3], attributes[4], attributes[5],
+                attributes[10], attributes[11], attributes[12], attributes[13]);
+    }
+
+    private static double[] getIndexPoint(double chanceToKnockout, double attack) {
+        return new double[]{chanceToKnockout, attack};
+    }
+
+    private static double clamp(double value) {
+        return Math.min(1.0, Math.max(0.0, value));
+    }
+
+    private static boolean isFinite(Weight weight) {
+        for (int i = 0; i < Weight.VECTOR_SIZE; i++) {
+            if (!Double.isFinite(weight.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
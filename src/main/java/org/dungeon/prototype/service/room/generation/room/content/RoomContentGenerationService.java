@@ -2,14 +2,14 @@ package org.dungeon.prototype.service.room.generation.room.content;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.bson.types.ObjectId;
 import org.dungeon.prototype.model.effect.ExpirableAdditionEffect;
 import org.dungeon.prototype.model.inventory.Item;
 import org.dungeon.prototype.model.monster.Monster;
 import org.dungeon.prototype.model.room.RoomType;
 import org.dungeon.prototype.model.room.content.*;
 import org.dungeon.prototype.model.weight.Weight;
-import org.dungeon.prototype.repository.MonsterRepository;
-import org.dungeon.prototype.repository.converters.mapstruct.MonsterMapper;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
 import org.dungeon.prototype.service.effect.EffectFactory;
 import org.dungeon.prototype.service.item.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,8 +39,6 @@ public class RoomContentGenerationService {
     private EffectFactory effectFactory;
     @Autowired
     private AnvilFactory anvilFactory;
-    @Autowired
-    private MonsterRepository monsterRepository;
 
     /**
      * Generates random room content of expected weight
@@ -54,7 +52,7 @@ public class RoomContentGenerationService {
     public RoomContent getNextRoomContent(Weight expectedWeight, long chatId, RoomType roomType, Set<String> usedItemIds) {
         log.info("Generating next room: {}...", roomType);
 
-        if (expectedWeight.toVector().getNorm() == 0.0) {//TODO: consider configuring threshold
+        if (expectedWeight.getNorm() == 0.0) {//TODO: consider configuring threshold
             log.info("Weight is below threshold, generating normal room");
             return new NormalRoom();
         }
@@ -66,8 +64,8 @@ public class RoomContentGenerationService {
             case TREASURE -> getTreasure(chatId, expectedWeight, usedItemIds);
             case MERCHANT -> getMerchant(chatId, expectedWeight, usedItemIds);
             case ANVIL -> getAnvil(expectedWeight);
-            case HEALTH_SHRINE -> getHealthShrine(expectedWeight.toVector().getNorm());
-            case MANA_SHRINE -> getManaShrine(expectedWeight.toVector().getNorm());
+            case HEALTH_SHRINE -> getHealthShrine(expectedWeight.getNorm());
+            case MANA_SHRINE -> getManaShrine(expectedWeight.getNorm());
             default -> new NormalRoom();
         };
     }
@@ -106,8 +104,11 @@ public class RoomContentGenerationService {
         log.info("Treasure items amount: {}", itemsCount);
         Set<Item> items = itemsCount > 0 ? itemService.getExpectedWeightItems(chatId, expectedWeight, itemsCount, usedItemIds) : Collections.emptySet();
         if (!items.isEmpty()) {
-            if (expectedWeight.toVector().getNorm() > items.stream().map(Item::getWeight).reduce(Weight::add).orElse(new Weight()).toVector().getNorm()) {
-                gold = getRandomGoldAmount(expectedWeight.toVector().getNorm() - items.stream().map(Item::getWeight).reduce(Weight::add).orElse(new Weight()).toVector().getNorm());
+            val itemsWeight = new WeightAccumulator();
+            items.forEach(item -> itemsWeight.add(item.getWeight()));
+            val itemsWeightAbs = itemsWeight.getNorm();
+            if (expectedWeight.getNorm() > itemsWeightAbs) {
+                gold = getRandomGoldAmount(expectedWeight.getNorm() - itemsWeightAbs);
             } else {
                 gold = 0;
             }
@@ -118,7 +119,7 @@ public class RoomContentGenerationService {
             treasure.setItems(items);
             return treasure;
         } else {
-            gold = getRandomGoldAmount(expectedWeight.toVector().getNorm());
+            gold = getRandomGoldAmount(expectedWeight.getNorm());
             log.info("Gold: {}", gold);
             log.info("No treasures");
             val treasure = new Treasure();
@@ -144,10 +145,8 @@ public class RoomContentGenerationService {
         val monsterClass = convertToMonsterClass(roomType);
         log.info("Generating monster of type {} and weight {}", roomType, expectedWeight);
         Monster monster = monsterFactory.generateMonsterByExpectedWeight(expectedWeight, monsterClass);
+        monster.setId(new ObjectId().toHexString());
         val monsterRoom = new MonsterRoom();
-        val monsterDocument = MonsterMapper.INSTANCE.mapToDocument(monster);
-        monster = MonsterMapper.INSTANCE.mapToMonster(monsterRepository.save(monsterDocument));
-
         monsterRoom.setMonster(monster);
         return monsterRoom;
     }
@@ -0,0 +1,115 @@
+package org.dungeon.prototype.service.session;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.bson.Document;
+import org.dungeon.prototype.model.document.level.LevelDocument;
+import org.dungeon.prototype.model.document.player.PlayerDocument;
+import org.dungeon.prototype.repository.LevelChanges;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Game state of single chat kept in memory together with changes not yet written to database.
+ * Level is kept as bson document, changes replace its parts with new documents, so they never leak
+ * into values being flushed. Level mapped from bson is kept until next change of level.
+ * All access is guarded by session's monitor
+ */
+@Getter
+@Setter
+class GameSession {
+    private final Long chatId;
+    private boolean playerLoaded;
+    private PlayerDocument player;
+    private boolean playerDirty;
+    private boolean levelLoaded;
+    private Document level;
+    /**
+     * Level mapped from bson, dropped once level changes
+     */
+    private LevelDocument levelDocument;
+    /**
+     * Pending changes of level written with single update
+     */
+    private LevelChanges levelChanges = new LevelChanges();
+    /**
+     * Set whenever session has pending changes, read without holding session's monitor
+     */
+    private volatile boolean dirty;
+    /**
+     * Held while pending changes are written, so level can't be replaced
+     * in database in between of flush of its previous changes
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    GameSession(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    void markPlayerDirty() {
+        playerDirty = true;
+        dirty = true;
+    }
+
+    void setLevel(Document level) {
+        this.level = level;
+        levelDocument = null;
+    }
+
+    /**
+     * Records change of level already applied to its bson
+     *
+     * @param change records change into pending ones
+     */
+    void markLevelDirty(Consumer<LevelChanges> change) {
+        change.accept(levelChanges);
+        levelDocument = null;
+        dirty = true;
+    }
+
+    /**
+     * Resets level to one just written to database as a whole
+     */
+    void resetLevel(Document level) {
+        setLevel(level);
+        levelLoaded = true;
+        levelChanges = new LevelChanges();
+        dirty = playerDirty;
+    }
+
+    /**
+     * Takes pending changes for flush, leaving session clean
+     */
+    PendingChanges takePendingChanges() {
+        final PendingChanges changes = new PendingChanges(playerDirty ? player : null, levelChanges);
+        playerDirty = false;
+        levelChanges = new LevelChanges();
+        dirty = false;
+        return changes;
+    }
+
+    /**
+     * Returns changes which failed to be written back to pending ones,
+     * unless they were superseded by newer changes meanwhile
+     */
+    void restorePendingChanges(PlayerDocument failedPlayer, LevelChanges failedLevelChanges) {
+        if (nonNull(failedPlayer)) {
+            markPlayerDirty();
+        }
+        if (!failedLevelChanges.isEmpty()) {
+            failedLevelChanges.addAll(levelChanges);
+            levelChanges = failedLevelChanges;
+            dirty = true;
+        }
+    }
+
+    record PendingChanges(PlayerDocument player, LevelChanges levelChanges) {
+        boolean isEmpty() {
+            return isNull(player) && levelChanges.isEmpty();
+        }
+    }
+}
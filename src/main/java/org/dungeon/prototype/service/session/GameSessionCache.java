@@ -0,0 +1,591 @@
+package org.dungeon.prototype.service.session;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.bson.Document;
+import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.document.level.LevelDocument;
+import org.dungeon.prototype.model.document.monster.MonsterDocument;
+import org.dungeon.prototype.model.document.player.InventoryDocument;
+import org.dungeon.prototype.model.document.player.PlayerDocument;
+import org.dungeon.prototype.model.document.room.RoomContentDocument;
+import org.dungeon.prototype.model.document.room.RoomDocument;
+import org.dungeon.prototype.model.level.ui.GridSection;
+import org.dungeon.prototype.properties.SessionProperties;
+import org.dungeon.prototype.repository.LevelChanges;
+import org.dungeon.prototype.repository.LevelRepository;
+import org.dungeon.prototype.repository.PlayerRepository;
+import org.dungeon.prototype.repository.converters.mapstruct.PointMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.dungeon.prototype.util.LevelUtil.getIcon;
+
+/**
+ * Write-behind cache of game state of active chats.
+ * Player and level are read from database once per session, changes are applied in memory,
+ * recorded to {@link SessionJournal} and written to database in background, all pending changes
+ * of level coalesced into single update of changed paths only. Session is flushed on eviction of least recently used chat,
+ * on chat timeout and on shutdown.
+ * Levels replaced or removed as a whole, as well as newly registered players, are written through.
+ * Items are not cached: rooms are returned with items read from database, as their names are completed
+ * asynchronously
+ */
+@Slf4j
+@Service
+public class GameSessionCache {
+    private static final String PLAYERS = "players";
+    private static final String LEVELS = "levels";
+    private static final String ROOMS_MAP = "roomsMap";
+    private static final String ROOM_CONTENT = "roomContent";
+    private static final String MONSTER = "monster";
+    private static final String LEVEL_MAP = "levelMap";
+    private static final String VISITED_ROOMS = "visitedRooms";
+    private static final String GRID = "grid";
+    private static final String EMOJI = "emoji";
+    private static final String NUMBER = "number";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private PlayerRepository playerRepository;
+    @Autowired
+    private LevelRepository levelRepository;
+    @Autowired
+    private SessionProperties sessionProperties;
+
+    private final Map<Long, GameSession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Sessions evicted from cache which flush is not completed yet,
+     * they are taken back instead of reading stale state from database
+     */
+    private final Map<Long, GameSession> evictedSessions = new ConcurrentHashMap<>();
+    private ScheduledThreadPoolExecutor executor;
+    private SessionJournal journal;
+
+    @PostConstruct
+    public void init() {
+        val journalPath = sessionProperties.getJournalPath();
+        journal = new SessionJournal(StringUtils.hasText(journalPath) ? Path.of(journalPath) : null,
+                sessionProperties.isJournalSync());
+        replayJournal();
+        val threadFactory = new CustomizableThreadFactory("session-flush-");
+        threadFactory.setDaemon(true);
+        executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        val interval = sessionProperties.getFlushInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Session flush didn't complete in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+        journal.close();
+    }
+
+    /**
+     * Looks for player of given chat
+     *
+     * @param chatId current chat id
+     * @return player document, should not be modified by caller
+     */
+    public Optional<PlayerDocument> getPlayer(Long chatId) {
+        val session = getSession(chatId);
+        synchronized (session) {
+            return Optional.ofNullable(loadPlayer(session));
+        }
+    }
+
+    /**
+     * Saves player, new player is written through to obtain its id
+     *
+     * @param player player document, owned by cache afterwards
+     * @return saved player
+     */
+    public PlayerDocument savePlayer(PlayerDocument player) {
+        val session = getSession(player.getChatId());
+        synchronized (session) {
+            if (isNull(player.getId())) {
+                val savedPlayer = playerRepository.save(player);
+                session.setPlayer(savedPlayer);
+                session.setPlayerLoaded(true);
+                return savedPlayer;
+            }
+            session.setPlayer(player);
+            session.setPlayerLoaded(true);
+            session.markPlayerDirty();
+            journal.appendPlayer(player.getChatId(), toBson(player));
+            return player;
+        }
+    }
+
+    /**
+     * Replaces inventory of cached player after inventory is saved,
+     * inventory is stored by reference, so player itself remains unchanged
+     *
+     * @param chatId    current chat id
+     * @param inventory saved inventory
+     */
+    public void updateInventory(Long chatId, InventoryDocument inventory) {
+        val session = getSession(chatId);
+        synchronized (session) {
+            if (nonNull(session.getPlayer())) {
+                session.getPlayer().setInventory(inventory);
+            }
+        }
+    }
+
+    /**
+     * Looks for level of given chat
+     *
+     * @param chatId current chat id
+     * @return level with rooms without items, same instance is returned until level changes,
+     * so it should not be modified by caller
+     */
+    public Optional<LevelDocument> getLevel(Long chatId) {
+        val session = getSession(chatId);
+        synchronized (session) {
+            if (isNull(session.getLevelDocument())) {
+                Optional.ofNullable(loadLevel(session))
+                        .map(level -> mongoTemplate.getConverter().read(LevelDocument.class, level))
+                        .ifPresent(session::setLevelDocument);
+            }
+            return Optional.ofNullable(session.getLevelDocument());
+        }
+    }
+
+    /**
+     * Looks for number of level of given chat
+     *
+     * @param chatId current chat id
+     * @return level number
+     */
+    public Optional<Integer> getLevelNumber(Long chatId) {
+        return readLevel(chatId, level -> level.getInteger(NUMBER));
+    }
+
+    /**
+     * Checks if chat has level
+     *
+     * @param chatId current chat id
+     * @return true if level exists
+     */
+    public boolean hasLevel(Long chatId) {
+        return readLevel(chatId, level -> true).isPresent();
+    }
+
+    /**
+     * Looks for room of level by its id
+     *
+     * @param chatId current chat id
+     * @param roomId id of room
+     * @return room with its items
+     */
+    public Optional<RoomDocument> getRoom(Long chatId, String roomId) {
+        return readRoom(chatId, roomsMap -> roomsMap.values().stream()
+                .map(Document.class::cast)
+                .filter(room -> Objects.equals(roomId, String.valueOf(room.get("_id"))))
+                .findFirst()
+                .orElse(null));
+    }
+
+    /**
+     * Looks for room of level by its coordinates
+     *
+     * @param chatId current chat id
+     * @param point  coordinates of room
+     * @return room with its items
+     */
+    public Optional<RoomDocument> getRoom(Long chatId, Point point) {
+        return readRoom(chatId, roomsMap -> roomsMap.get(getRoomKey(point), Document.class));
+    }
+
+    /**
+     * Writes new level through, replacing previous level of chat with all its pending changes
+     *
+     * @param level level to save
+     * @return saved level
+     */
+    public LevelDocument saveLevel(LevelDocument level) {
+        return resetLevel(level.getChatId(), () -> levelRepository.save(level), this::toBson);
+    }
+
+    /**
+     * Removes level of chat with all its pending changes
+     *
+     * @param chatId current chat id
+     */
+    public void removeLevel(Long chatId) {
+        resetLevel(chatId, () -> {
+            levelRepository.removeByChatId(chatId);
+            return null;
+        }, removed -> null);
+    }
+
+    /**
+     * Saves room, replacing previous room at the same point of level
+     *
+     * @param room room to save
+     */
+    public void saveRoom(RoomDocument room) {
+        updateLevel(room.getChatId(), "room " + room.getId(), (session, level) -> {
+            val key = getRoomKey(room.getPoint());
+            setRoom(session, level, key, toBson(room));
+        });
+    }
+
+    /**
+     * Saves monster of room at given point
+     *
+     * @param chatId  current chat id
+     * @param point   coordinates of monster's room
+     * @param monster monster to save
+     */
+    public void saveMonster(Long chatId, Point point, MonsterDocument monster) {
+        updateLevel(chatId, "monster " + monster.getId(), (session, level) -> {
+            val key = getRoomKey(point);
+            val room = level.get(ROOMS_MAP, Document.class).get(key, Document.class);
+            if (isNull(room)) {
+                log.warn("Room {} of chat {} not found, monster {} isn't saved", point, chatId, monster.getId());
+                return;
+            }
+            val value = toBson(monster);
+            val content = new Document(room.get(ROOM_CONTENT, Document.class));
+            content.put(MONSTER, value);
+            putRoom(level, key, new Document(room).append(ROOM_CONTENT, content));
+            markLevelFieldDirty(session, String.join(".", ROOMS_MAP, key, ROOM_CONTENT, MONSTER), value);
+        });
+    }
+
+    /**
+     * Replaces content of room at given point, updating room's icon on level grid
+     *
+     * @param chatId  current chat id
+     * @param point   coordinates of room
+     * @param content new room content
+     */
+    public void updateRoomContent(Long chatId, Point point, RoomContentDocument content) {
+        updateLevel(chatId, "content of room " + point, (session, level) -> {
+            val key = getRoomKey(point);
+            val room = level.get(ROOMS_MAP, Document.class).get(key, Document.class);
+            if (isNull(room)) {
+                log.warn("Room {} of chat {} not found, content isn't saved", point, chatId);
+                return;
+            }
+            val value = toBson(content);
+            putRoom(level, key, new Document(room).append(ROOM_CONTENT, value));
+            markLevelFieldDirty(session, String.join(".", ROOMS_MAP, key, ROOM_CONTENT), value);
+            val icon = getIcon(Optional.of(content.getRoomType()));
+            getGridSection(level, point).put(EMOJI, icon);
+            markLevelFieldDirty(session, GRID + "." + point.getX() + "." + point.getY() + "." + EMOJI, icon);
+        });
+    }
+
+    /**
+     * Adds section to visited rooms of level map, expanding map bounds if needed
+     *
+     * @param chatId  current chat id
+     * @param section visited grid section
+     */
+    public void addVisitedRoom(Long chatId, GridSection section) {
+        val point = section.getPoint();
+        updateLevel(chatId, "visited section " + point, (session, level) -> {
+            val levelMap = level.get(LEVEL_MAP, Document.class);
+            if (isNull(levelMap)) {
+                log.warn("Map of level of chat {} not found, visited section {} isn't saved", chatId, point);
+                return;
+            }
+            val value = toBson(section);
+            final List<Document> visitedRooms = new ArrayList<>(levelMap.getList(VISITED_ROOMS, Document.class, List.of()));
+            if (!visitedRooms.contains(value)) {
+                visitedRooms.add(value);
+            }
+            val updatedMap = new Document(levelMap).append(VISITED_ROOMS, visitedRooms);
+            expandBound(updatedMap, "maxX", point.getX() + 1, Math::max);
+            expandBound(updatedMap, "minX", point.getX() - 1, Math::min);
+            expandBound(updatedMap, "maxY", point.getY() + 1, Math::max);
+            expandBound(updatedMap, "minY", point.getY() - 1, Math::min);
+            level.put(LEVEL_MAP, updatedMap);
+            session.markLevelDirty(changes -> changes.addVisitedRoom(point, value));
+            journal.appendVisitedRoom(chatId, point, value);
+        });
+    }
+
+    /**
+     * Flushes pending changes of chat and removes it from cache
+     *
+     * @param chatId current chat id
+     */
+    public void evict(Long chatId) {
+        final GameSession session;
+        synchronized (sessions) {
+            session = sessions.remove(chatId);
+        }
+        if (nonNull(session)) {
+            scheduleFlush(session);
+        }
+    }
+
+    /**
+     * Writes pending changes of all sessions to database and clears journal
+     * once nothing is left pending
+     */
+    public void flushAll() {
+        final List<GameSession> pending = new ArrayList<>(evictedSessions.values());
+        pending.addAll(getCachedSessions());
+        pending.stream().filter(GameSession::isDirty).forEach(this::flush);
+        journal.truncateIf(() -> evictedSessions.isEmpty() &&
+                getCachedSessions().stream().noneMatch(GameSession::isDirty));
+    }
+
+    /**
+     * Writes pending changes of session with single write per document
+     *
+     * @param session session to flush
+     * @return true if nothing is left pending
+     */
+    boolean flush(GameSession session) {
+        session.getFlushLock().lock();
+        try {
+            final GameSession.PendingChanges changes;
+            synchronized (session) {
+                changes = session.takePendingChanges();
+            }
+            if (changes.isEmpty()) {
+                return true;
+            }
+            PlayerDocument failedPlayer = null;
+            LevelChanges failedLevelChanges = new LevelChanges();
+            if (nonNull(changes.player())) {
+                try {
+                    playerRepository.save(changes.player());
+                } catch (DataAccessException e) {
+                    log.warn("Unable to flush player of chat {}: {}", session.getChatId(), e.getMessage());
+                    failedPlayer = changes.player();
+                }
+            }
+            if (!changes.levelChanges().isEmpty()) {
+                try {
+                    levelRepository.applyChanges(session.getChatId(), changes.levelChanges());
+                } catch (DataAccessException e) {
+                    log.warn("Unable to flush level of chat {}: {}", session.getChatId(), e.getMessage());
+                    failedLevelChanges = changes.levelChanges();
+                }
+            }
+            if (nonNull(failedPlayer) || !failedLevelChanges.isEmpty()) {
+                synchronized (session) {
+                    session.restorePendingChanges(failedPlayer, failedLevelChanges);
+                }
+                return false;
+            }
+            return true;
+        } finally {
+            session.getFlushLock().unlock();
+        }
+    }
+
+    private GameSession getSession(Long chatId) {
+        GameSession evicted = null;
+        final GameSession session;
+        synchronized (sessions) {
+            var cached = sessions.get(chatId);
+            if (isNull(cached)) {
+                cached = evictedSessions.remove(chatId);
+                if (isNull(cached)) {
+                    cached = new GameSession(chatId);
+                }
+                sessions.put(chatId, cached);
+                if (sessions.size() > sessionProperties.getMaxSessions()) {
+                    val eldest = sessions.entrySet().iterator().next();
+                    evicted = eldest.getValue();
+                    sessions.remove(eldest.getKey());
+                }
+            }
+            session = cached;
+        }
+        if (nonNull(evicted)) {
+            scheduleFlush(evicted);
+        }
+        return session;
+    }
+
+    private void scheduleFlush(GameSession session) {
+        if (!session.isDirty()) {
+            return;
+        }
+        evictedSessions.put(session.getChatId(), session);
+        try {
+            executor.execute(() -> {
+                if (flush(session)) {
+                    evictedSessions.remove(session.getChatId(), session);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Unable to schedule flush of chat {}, it's flushed on shutdown", session.getChatId());
+        }
+    }
+
+    private List<GameSession> getCachedSessions() {
+        synchronized (sessions) {
+            return new ArrayList<>(sessions.values());
+        }
+    }
+
+    private PlayerDocument loadPlayer(GameSession session) {
+        if (!session.isPlayerLoaded()) {
+            session.setPlayer(playerRepository.findByChatId(session.getChatId()).orElse(null));
+            session.setPlayerLoaded(true);
+        }
+        return session.getPlayer();
+    }
+
+    private Document loadLevel(GameSession session) {
+        if (!session.isLevelLoaded()) {
+            session.setLevel(mongoTemplate.findById(session.getChatId(), Document.class, LEVELS));
+            session.setLevelLoaded(true);
+        }
+        return session.getLevel();
+    }
+
+    private <T> Optional<T> readLevel(Long chatId, Function<Document, T> reader) {
+        val session = getSession(chatId);
+        synchronized (session) {
+            return Optional.ofNullable(loadLevel(session)).map(reader);
+        }
+    }
+
+    private Optional<RoomDocument> readRoom(Long chatId, Function<Document, Document> roomFinder) {
+        val room = readLevel(chatId, level -> {
+            val roomDocument = roomFinder.apply(level.get(ROOMS_MAP, Document.class));
+            return isNull(roomDocument) ? null : mongoTemplate.getConverter().read(RoomDocument.class, roomDocument);
+        });
+        room.ifPresent(roomDocument -> levelRepository.resolveItems(List.of(roomDocument)));
+        return room;
+    }
+
+    private <T> T resetLevel(Long chatId, Supplier<T> writer, Function<T, Document> levelMapper) {
+        val session = getSession(chatId);
+        session.getFlushLock().lock();
+        try {
+            synchronized (session) {
+                journal.appendReset(chatId);
+                val written = writer.get();
+                session.resetLevel(levelMapper.apply(written));
+                return written;
+            }
+        } finally {
+            session.getFlushLock().unlock();
+        }
+    }
+
+    private void updateLevel(Long chatId, String subject, BiConsumer<GameSession, Document> update) {
+        val session = getSession(chatId);
+        synchronized (session) {
+            val level = loadLevel(session);
+            if (isNull(level)) {
+                log.warn("Level of chat {} not found, {} isn't saved", chatId, subject);
+                return;
+            }
+            update.accept(session, level);
+        }
+    }
+
+    private void setRoom(GameSession session, Document level, String key, Document room) {
+        putRoom(level, key, room);
+        markLevelFieldDirty(session, ROOMS_MAP + "." + key, room);
+    }
+
+    private static void putRoom(Document level, String key, Document room) {
+        level.get(ROOMS_MAP, Document.class).put(key, room);
+    }
+
+    private void markLevelFieldDirty(GameSession session, String path, Object value) {
+        session.markLevelDirty(changes -> changes.set(path, value));
+        journal.appendLevel(session.getChatId(), new Document(path, value));
+    }
+
+    private static void expandBound(Document levelMap, String bound, int value, BinaryOperator<Integer> expand) {
+        val current = levelMap.getInteger(bound);
+        levelMap.put(bound, isNull(current) ? value : expand.apply(current, value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Document getGridSection(Document level, Point point) {
+        val grid = (List<List<Document>>) level.get(GRID);
+        return grid.get(point.getX()).get(point.getY());
+    }
+
+    private Document toBson(Object object) {
+        val document = new Document();
+        mongoTemplate.getConverter().write(object, document);
+        return document;
+    }
+
+    private void replayJournal() {
+        val records = journal.read();
+        if (records.isEmpty()) {
+            return;
+        }
+        final Map<Long, Document> players = new LinkedHashMap<>();
+        final Map<Long, LevelChanges> levelChanges = new LinkedHashMap<>();
+        for (Document record : records) {
+            val chatId = record.getLong(SessionJournal.CHAT_ID);
+            switch (record.getString(SessionJournal.TYPE)) {
+                case SessionJournal.PLAYER -> players.put(chatId, record.get(SessionJournal.VALUE, Document.class));
+                case SessionJournal.LEVEL -> {
+                    val changes = levelChanges.computeIfAbsent(chatId, id -> new LevelChanges());
+                    record.get(SessionJournal.VALUE, Document.class).forEach(changes::set);
+                }
+                case SessionJournal.VISITED -> levelChanges.computeIfAbsent(chatId, id -> new LevelChanges())
+                        .addVisitedRoom(SessionJournal.getPoint(record), record.get(SessionJournal.VALUE, Document.class));
+                case SessionJournal.RESET -> levelChanges.remove(chatId);
+                default -> log.warn("Unknown session journal record: {}", record);
+            }
+        }
+        try {
+            players.values().forEach(player -> mongoTemplate.save(player, PLAYERS));
+            levelChanges.forEach(levelRepository::applyChanges);
+            journal.truncateIf(() -> true);
+            log.info("Replayed {} session journal records of {} chats", records.size(),
+                    Stream.concat(players.keySet().stream(), levelChanges.keySet().stream()).distinct().count());
+        } catch (DataAccessException e) {
+            log.warn("Unable to replay session journal, it's kept until next start: {}", e.getMessage());
+        }
+    }
+
+    private static String getRoomKey(Point point) {
+        return PointMapper.INSTANCE.mapToDocument(point);
+    }
+}
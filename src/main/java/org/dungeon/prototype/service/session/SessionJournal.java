@@ -0,0 +1,219 @@
+package org.dungeon.prototype.service.session;
+
+import com.mongodb.MongoClientSettings;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.dungeon.prototype.model.Point;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Append-only log of game state changes which are kept in memory and not yet written to database.
+ * Each record is single line of extended json, records of chat are appended in the order changes are made,
+ * so replaying them after crash restores state of the last acknowledged change
+ */
+@Slf4j
+class SessionJournal implements AutoCloseable {
+    static final String CHAT_ID = "chatId";
+    static final String TYPE = "type";
+    static final String VALUE = "value";
+    static final String PLAYER = "player";
+    static final String LEVEL = "level";
+    static final String VISITED = "visited";
+    static final String POINT = "point";
+    static final String RESET = "reset";
+
+    private static final Codec<Document> CODEC = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    private final Path path;
+    private final boolean sync;
+    private FileChannel channel;
+
+    /**
+     * @param path path of journal file, journal is disabled if null
+     * @param sync forces each record to storage device
+     */
+    SessionJournal(Path path, boolean sync) {
+        this.path = path;
+        this.sync = sync;
+    }
+
+    /**
+     * Reads records left by previous run. Record torn by crash, i.e. unparsable one or one without
+     * line end, and all after it are dropped from journal, so appends continue from the last complete record
+     *
+     * @return records in order they were appended
+     */
+    synchronized List<Document> read() {
+        if (!isEnabled() || !Files.exists(path)) {
+            return List.of();
+        }
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final List<Document> records = new ArrayList<>();
+        int start = 0;
+        while (start < bytes.length) {
+            val end = indexOfLineEnd(bytes, start);
+            if (end < 0) {
+                dropTail(start, records.size(), "record without line end");
+                break;
+            }
+            val line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                try {
+                    records.add(Document.parse(line, CODEC));
+                } catch (JsonParseException e) {
+                    dropTail(start, records.size(), e.getMessage());
+                    break;
+                }
+            }
+            start = end + 1;
+        }
+        return records;
+    }
+
+    /**
+     * Reads point of visited room record
+     */
+    static Point getPoint(Document record) {
+        val point = record.get(POINT, Document.class);
+        return new Point(point.getInteger("x"), point.getInteger("y"));
+    }
+
+    /**
+     * Records full snapshot of player
+     */
+    void appendPlayer(Long chatId, Document player) {
+        append(new Document(CHAT_ID, chatId).append(TYPE, PLAYER).append(VALUE, player));
+    }
+
+    /**
+     * Records new values of level fields
+     */
+    void appendLevel(Long chatId, Document fields) {
+        append(new Document(CHAT_ID, chatId).append(TYPE, LEVEL).append(VALUE, fields));
+    }
+
+    /**
+     * Records section added to visited rooms of level map
+     */
+    void appendVisitedRoom(Long chatId, Point point, Document section) {
+        append(new Document(CHAT_ID, chatId).append(TYPE, VISITED)
+                .append(POINT, new Document("x", point.getX()).append("y", point.getY()))
+                .append(VALUE, section));
+    }
+
+    /**
+     * Records that level of chat is replaced or removed as a whole,
+     * so level changes recorded before should be discarded on replay
+     */
+    void appendReset(Long chatId) {
+        append(new Document(CHAT_ID, chatId).append(TYPE, RESET));
+    }
+
+    /**
+     * Clears journal if all recorded changes are written to database
+     *
+     * @param flushed checks that no change is pending, evaluated under journal lock
+     *                so no record can be appended meanwhile
+     */
+    synchronized void truncateIf(BooleanSupplier flushed) {
+        if (isEnabled() && flushed.getAsBoolean()) {
+            try {
+                getChannel().truncate(0);
+            } catch (IOException e) {
+                log.warn("Unable to truncate session journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (nonNull(channel)) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Unable to close session journal: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private synchronized void append(Document record) {
+        if (!isEnabled()) {
+            return;
+        }
+        val line = record.toJson(JSON_SETTINGS, CODEC) + System.lineSeparator();
+        try {
+            val buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            val fileChannel = getChannel();
+            while (buffer.hasRemaining()) {
+                fileChannel.write(buffer);
+            }
+            if (sync) {
+                fileChannel.force(false);
+            }
+        } catch (IOException e) {
+            log.error("Unable to append to session journal, change of chat {} won't survive crash: {}",
+                    record.get(CHAT_ID), e.getMessage());
+        }
+    }
+
+    private void dropTail(int start, int recordsCount, String reason) {
+        log.warn("Session journal is torn at byte {} ({}), replaying {} records before it", start, reason, recordsCount);
+        try {
+            getChannel().truncate(start);
+        } catch (IOException e) {
+            log.warn("Unable to truncate session journal: {}", e.getMessage());
+        }
+    }
+
+    private static int indexOfLineEnd(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isEnabled() {
+        return nonNull(path);
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (isNull(channel)) {
+            if (nonNull(path.getParent())) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.val;
 import org.dungeon.prototype.bot.state.ChatContext;
 import org.dungeon.prototype.bot.state.ChatState;
 import org.dungeon.prototype.exception.ChatStateUpdateException;
+import org.dungeon.prototype.service.session.GameSessionCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -27,6 +29,8 @@ import static org.dungeon.prototype.bot.state.ChatState.PRE_GAME_MENU;
 public class ChatStateService {
     private static final long TIMEOUT_DURATION = Duration.ofMinutes(30).toMillis();
     private final Map<Long, ChatContext> chatStateByIdMap = new ConcurrentHashMap<>();
+    @Autowired
+    private GameSessionCache gameSessionCache;
 
     /**
      * Initializes chat context: sets chat context state
@@ -97,7 +101,7 @@ public class ChatStateService {
 
     /**
      * Updates chat state to mark with {@link org.dungeon.prototype.bot.state.ChatState#IDLE}
-     * ones that were inactive for {@link #TIMEOUT_DURATION}
+     * ones that were inactive for {@link #TIMEOUT_DURATION}, flushing and evicting their cached game state
      */
     @Scheduled(fixedRate = 60000)
     public void checkChatTimeouts() {
@@ -106,6 +110,7 @@ public class ChatStateService {
             if (!IDLE.equals(chatContext.getChatState()) &&
                     currentTime - chatContext.getLastActiveTime() > TIMEOUT_DURATION) {
                 clearChatContext(chatId);
+                gameSessionCache.evict(chatId);
             }
         });
     }
@@ -0,0 +1,120 @@
+package org.dungeon.prototype.util;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.NotANumberException;
+import org.apache.commons.math3.exception.NotFiniteNumberException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.rng.UniformRandomProvider;
+
+import java.util.List;
+
+/**
+ * Vose's alias table of fixed candidates: built once in O(n),
+ * then each draw takes one column and one coin flip regardless of candidates count.
+ * Table is immutable and can be shared between threads
+ *
+ * @param <T> type of candidates
+ */
+public final class AliasTable<T> {
+    private final List<T> values;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    private AliasTable(List<T> values, double[] probabilities, int[] aliases) {
+        this.values = values;
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+    }
+
+    /**
+     * Compiles candidates with given weights, weights don't have to be normalized
+     *
+     * @param values  candidates
+     * @param weights weights of candidates, in same order
+     * @return alias table
+     */
+    public static <T> AliasTable<T> of(List<T> values, double... weights) {
+        if (values.size() != weights.length) {
+            throw new IllegalArgumentException("Expected " + values.size() + " weights, got " + weights.length);
+        }
+        final int n = weights.length;
+        final double sum = checkWeights(weights);
+        final double[] scaled = new double[n];
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        final double[] probabilities = new double[n];
+        final int[] aliases = new int[n];
+        while (smallCount > 0 && largeCount > 0) {
+            final int less = small[--smallCount];
+            final int more = large[--largeCount];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        //leftovers differ from 1.0 by rounding errors only
+        while (largeCount > 0) {
+            final int index = large[--largeCount];
+            probabilities[index] = 1.0;
+            aliases[index] = index;
+        }
+        while (smallCount > 0) {
+            final int index = small[--smallCount];
+            probabilities[index] = 1.0;
+            aliases[index] = index;
+        }
+        return new AliasTable<>(List.copyOf(values), probabilities, aliases);
+    }
+
+    /**
+     * Draws candidate
+     *
+     * @param rng source of randomness
+     * @return sampled candidate
+     */
+    public T sample(UniformRandomProvider rng) {
+        final int column = rng.nextInt(probabilities.length);
+        return values.get(rng.nextDouble() < probabilities[column] ? column : aliases[column]);
+    }
+
+    /**
+     * Validates weights the same way {@link org.apache.commons.math3.distribution.EnumeratedDistribution} does
+     *
+     * @param weights weights to check
+     * @return sum of weights
+     */
+    static double checkWeights(double... weights) {
+        double sum = 0.0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new NotPositiveException(weight);
+            }
+            if (Double.isInfinite(weight)) {
+                throw new NotFiniteNumberException(weight);
+            }
+            if (Double.isNaN(weight)) {
+                throw new NotANumberException();
+            }
+            sum += weight;
+        }
+        if (sum == 0.0) {
+            throw new MathArithmeticException(LocalizedFormats.ARRAY_SUMS_TO_ZERO);
+        }
+        return sum;
+    }
+}
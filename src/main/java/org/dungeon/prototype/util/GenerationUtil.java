@@ -50,7 +50,7 @@ public class GenerationUtil {
     }
 
     public static Weight getWeightLimitNormalization(Weight expectedWeight, Double limitWeightAbs, Integer currentStep, Integer totalRooms) {
-        val expectedWeightAbs = expectedWeight.toVector().getNorm();
+        val expectedWeightAbs = expectedWeight.getNorm();
         val limit = totalRooms * limitWeightAbs * (1 - sqrt(currentStep.doubleValue() / (totalRooms + 1)));
         if (expectedWeightAbs > limit) {
             return expectedWeight.multiply(limit / expectedWeightAbs);
@@ -0,0 +1,116 @@
+package org.dungeon.prototype.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Static k-d tree of points with attached values: built once in O(n log² n),
+ * then k nearest neighbours query visits O(k log n) nodes on average.
+ * Tree is immutable and can be shared between threads
+ *
+ * @param <T> type of values
+ */
+public final class KdTree<T> {
+    private final int dimensions;
+    //nodes are stored implicitly: median of range is the node, halves are subtrees
+    private final double[][] points;
+    private final List<T> values;
+
+    private KdTree(int dimensions, double[][] points, List<T> values) {
+        this.dimensions = dimensions;
+        this.points = points;
+        this.values = values;
+    }
+
+    /**
+     * Builds tree of points, all points must have same dimension
+     *
+     * @param points points
+     * @param values values of points, in same order
+     * @return k-d tree
+     */
+    public static <T> KdTree<T> of(List<double[]> points, List<T> values) {
+        if (points.size() != values.size()) {
+            throw new IllegalArgumentException("Expected " + points.size() + " values, got " + values.size());
+        }
+        if (points.isEmpty()) {
+            throw new IllegalArgumentException("Tree must have at least one point");
+        }
+        final int dimensions = points.get(0).length;
+        final Integer[] order = new Integer[points.size()];
+        Arrays.setAll(order, i -> i);
+        build(points, order, 0, order.length, 0, dimensions);
+        final double[][] sortedPoints = new double[order.length][];
+        final List<T> sortedValues = new ArrayList<>(order.length);
+        for (int i = 0; i < order.length; i++) {
+            sortedPoints[i] = points.get(order[i]).clone();
+            sortedValues.add(values.get(order[i]));
+        }
+        return new KdTree<>(dimensions, sortedPoints, sortedValues);
+    }
+
+    /**
+     * Finds nearest points by euclidean distance
+     *
+     * @param query point to search around
+     * @param k     number of neighbours
+     * @return values of up to k nearest points, nearest first
+     */
+    public List<T> nearest(double[] query, int k) {
+        //max-heap of found neighbours by distance, holds indices
+        final PriorityQueue<double[]> found = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble((double[] candidate) -> candidate[0]).reversed());
+        search(query, k, 0, points.length, 0, found);
+        final List<double[]> sorted = new ArrayList<>(found);
+        sorted.sort(Comparator.comparingDouble(candidate -> candidate[0]));
+        return sorted.stream().map(candidate -> values.get((int) candidate[1])).toList();
+    }
+
+    public int size() {
+        return points.length;
+    }
+
+    private void search(double[] query, int k, int from, int to, int axis, PriorityQueue<double[]> found) {
+        if (from >= to) {
+            return;
+        }
+        final int median = (from + to) >>> 1;
+        final double distance = squaredDistance(query, points[median]);
+        if (found.size() < k) {
+            found.add(new double[]{distance, median});
+        } else if (distance < found.peek()[0]) {
+            found.poll();
+            found.add(new double[]{distance, median});
+        }
+        final double difference = query[axis] - points[median][axis];
+        final int nextAxis = (axis + 1) % dimensions;
+        final boolean left = difference < 0;
+        search(query, k, left ? from : median + 1, left ? median : to, nextAxis, found);
+        //other half can only contain closer points if splitting plane is closer than farthest found
+        if (found.size() < k || difference * difference < found.peek()[0]) {
+            search(query, k, left ? median + 1 : from, left ? to : median, nextAxis, found);
+        }
+    }
+
+    private static void build(List<double[]> points, Integer[] order, int from, int to, int axis, int dimensions) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(order, from, to, Comparator.comparingDouble(index -> points.get(index)[axis]));
+        final int median = (from + to) >>> 1;
+        final int nextAxis = (axis + 1) % dimensions;
+        build(points, order, from, median, nextAxis, dimensions);
+        build(points, order, median + 1, to, nextAxis, dimensions);
+    }
+
+    private static double squaredDistance(double[] first, double[] second) {
+        double sum = 0.0;
+        for (int i = 0; i < first.length; i++) {
+            sum += (first[i] - second[i]) * (first[i] - second[i]);
+        }
+        return sum;
+    }
+}
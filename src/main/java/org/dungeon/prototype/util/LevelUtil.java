@@ -4,7 +4,6 @@ import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.dungeon.prototype.model.Direction;
 import org.dungeon.prototype.model.Point;
-import org.dungeon.prototype.model.level.generation.LevelGridCluster;
 import org.dungeon.prototype.model.level.ui.GridSection;
 import org.dungeon.prototype.model.level.ui.LevelMap;
 import org.dungeon.prototype.model.room.Room;
@@ -12,12 +11,8 @@ import org.dungeon.prototype.model.room.RoomType;
 import org.dungeon.prototype.properties.CallbackType;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static java.util.Objects.nonNull;
 import static org.dungeon.prototype.model.Direction.E;
@@ -143,31 +138,6 @@ public class LevelUtil {
                 point.getX() < gridSize && point.getX() > -1;
     }
 
-    public static Set<GridSection> getAdjacentSections(Point currentPoint, GridSection[][] grid) {
-        return Stream.of(new Point(currentPoint.getX() + 1, currentPoint.getY()),
-                        new Point(currentPoint.getX() - 1, currentPoint.getY()),
-                        new Point(currentPoint.getX(), currentPoint.getY() + 1),
-                        new Point(currentPoint.getX(), currentPoint.getY() - 1))
-                .unordered()
-                .filter(point -> isPointOnGrid(point, grid.length))
-                .map(point -> grid[point.getX()][point.getY()])
-                .collect(Collectors.toSet());
-    }
-
-    public static Set<GridSection> getAdjacentSectionsInCluster(Point currentPoint, GridSection[][] grid, LevelGridCluster cluster) {
-        log.info("Getting adjacent sections for {} in cluster {}", currentPoint, cluster);
-        return getAdjacentSections(currentPoint, grid).stream()
-                .filter(section -> isPointInCluster(section.getPoint(), cluster))
-                .collect(Collectors.toSet());
-    }
-
-    public static boolean isPointInCluster(Point point, LevelGridCluster cluster) {
-        return cluster.getStartConnectionPoint().getX() <= point.getX() &&
-                cluster.getStartConnectionPoint().getY() <= point.getY() &&
-                cluster.getEndConnectionPoint().getX() >= point.getX() &&
-                cluster.getEndConnectionPoint().getY() >= point.getY();
-    }
-
     public static String printMap(GridSection[][] grid, LevelMap levelMap, Point position, Direction direction) {
         StringBuilder result = new StringBuilder();
         for (int y = levelMap.getMaxY(); y >= levelMap.getMinY(); y--) {
@@ -231,89 +201,6 @@ public class LevelUtil {
         return "\uD83D\uDFEB";
     }
 
-    //FOR DEBUGGING
-
-    public static String printMapGridToLogs(GridSection[][] map) {
-        StringBuilder result = new StringBuilder();
-        for (int y = map.length - 1; y >= 0; y--) {
-            for (GridSection[] gridSections : map) {
-                if (gridSections[y].isConnectionPoint()) {
-                    result.append(getCrossroadIcon());
-                } else if (gridSections[y].isDeadEnd()) {
-                    if (gridSections[y].getStepsFromStart() > 9) {
-                        result.append("{").append(gridSections[y].getStepsFromStart()).append("}");
-                    } else {
-                        result.append("{0").append(gridSections[y].getStepsFromStart()).append("}");
-                    }
-                } else {
-                    if (gridSections[y].getStepsFromStart() < 0) {
-                        result.append("[").append(gridSections[y].getStepsFromStart()).append("]");
-                    } else {
-                        if (gridSections[y].getStepsFromStart() > 0) {
-                            if (gridSections[y].getStepsFromStart() > 9) {
-                                result.append("[").append(gridSections[y].getStepsFromStart()).append("]");
-                            } else {
-                                result.append("[0").append(gridSections[y].getStepsFromStart()).append("]");
-                            }
-                        } else {
-                            result.append("[00]");
-                        }
-                    }
-                }
-            }
-            result.append("\n");
-        }
-        return result.toString();
-    }
-
-    public static String printMapToLogs(GridSection[][] grid, Map<Point, Room> roomsMap) {
-        StringBuilder result = new StringBuilder();
-        for (int y = grid.length - 1; y >= 0; y--) {
-            for (GridSection[] gridSections : grid) {
-                if (roomsMap.containsKey(gridSections[y].getPoint())) {
-                    if (nonNull(roomsMap.get(gridSections[y].getPoint()).getRoomContent())) {
-                        result.append("[")
-                                .append(getLogsIcon(roomsMap.get(gridSections[y].getPoint()).getRoomContent().getRoomType()))
-                                .append("]");
-                    } else {
-                        result.append("[")
-                                .append("EM")
-                                .append("]");
-                    }
-                } else {
-                    if (gridSections[y].getStepsFromStart() > 0) {
-                        if (gridSections[y].getStepsFromStart() > 9) {
-                            result.append("[").append(gridSections[y].getStepsFromStart()).append("]");
-                        } else {
-                            result.append("[0").append(gridSections[y].getStepsFromStart()).append("]");
-                        }
-                    } else {
-                        result.append("[").append("XX").append("]");
-                    }
-                }
-            }
-            result.append("\n");
-        }
-        return result.toString();
-    }
-
-    private static String getLogsIcon(RoomType roomType) {
-        return switch (roomType) {
-            case NORMAL -> "NO";
-            case START -> "ST";
-            case END -> "EN";
-            case TREASURE -> "TR";
-            case TREASURE_LOOTED -> "TL";
-            case WEREWOLF, VAMPIRE, SWAMP_BEAST, DRAGON, ZOMBIE -> "MO";
-            case WEREWOLF_KILLED, VAMPIRE_KILLED, SWAMP_BEAST_KILLED, DRAGON_KILLED, ZOMBIE_KILLED -> "MK";
-            case HEALTH_SHRINE -> "HS";
-            case MANA_SHRINE -> "MS";
-            case ANVIL -> "AN";
-            case SHRINE_DRAINED -> "SD";
-            case MERCHANT -> "ME";
-        };
-    }
-
     private static String getEmptyIcon() {
         return "⬛";
     }
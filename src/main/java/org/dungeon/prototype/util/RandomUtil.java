@@ -3,19 +3,27 @@ package org.dungeon.prototype.util;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.apache.commons.math3.distribution.EnumeratedDistribution;
-import org.apache.commons.math3.distribution.NormalDistribution;
-import org.apache.commons.math3.random.RandomDataGenerator;
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.NotANumberException;
+import org.apache.commons.math3.exception.NotStrictlyPositiveException;
+import org.apache.commons.math3.exception.NumberIsTooLargeException;
+import org.apache.commons.math3.exception.util.LocalizedFormats;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 import org.apache.commons.math3.util.Pair;
+import org.apache.commons.rng.UniformRandomProvider;
+import org.apache.commons.rng.sampling.distribution.ZigguratSampler;
+import org.apache.commons.rng.simple.RandomSource;
 import org.dungeon.prototype.model.Direction;
 import org.dungeon.prototype.model.inventory.attributes.EnumAttribute;
 import org.dungeon.prototype.model.inventory.attributes.MagicType;
 import org.dungeon.prototype.model.monster.MonsterClass;
 import org.dungeon.prototype.model.room.RoomType;
+import org.dungeon.prototype.model.weight.Sign;
 import org.dungeon.prototype.model.weight.Weight;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.apache.commons.math3.util.FastMath.PI;
 import static org.apache.commons.math3.util.FastMath.cos;
@@ -26,6 +34,9 @@ import static org.apache.commons.math3.util.FastMath.sin;
 import static org.apache.commons.math3.util.FastMath.sqrt;
 import static org.dungeon.prototype.model.room.RoomType.ANVIL;
 import static org.dungeon.prototype.model.room.RoomType.DRAGON;
+import static org.dungeon.prototype.model.room.RoomType.HEALTH_SHRINE;
+import static org.dungeon.prototype.model.room.RoomType.MANA_SHRINE;
+import static org.dungeon.prototype.model.room.RoomType.MERCHANT;
 import static org.dungeon.prototype.model.room.RoomType.NORMAL;
 import static org.dungeon.prototype.model.room.RoomType.SWAMP_BEAST;
 import static org.dungeon.prototype.model.room.RoomType.TREASURE;
@@ -40,34 +51,118 @@ import static org.dungeon.prototype.util.RoomGenerationUtils.convertToMonsterCla
 @Slf4j
 @UtilityClass
 public class RandomUtil {
-    private static final RandomDataGenerator random = new RandomDataGenerator();
+    private static final RandomSource RANDOM_SOURCE = RandomSource.XO_RO_SHI_RO_128_PP;
+    private static final List<Sign> SIGNS = List.of(NEGATIVE, ZERO, POSITIVE);
+    private static final List<RoomType> POSITIVE_ROOM_TYPES = List.of(TREASURE, HEALTH_SHRINE, MANA_SHRINE, MERCHANT, ANVIL);
+    private static final List<RoomType> POSITIVE_CONNECTION_ROOM_TYPES = List.of(TREASURE, MERCHANT, ANVIL);
+    private static final List<RoomType> MONSTER_ROOM_TYPES = List.of(WEREWOLF, SWAMP_BEAST, VAMPIRE, DRAGON, ZOMBIE);
+    private static final AliasTable<RoomType> UNIFORM_MONSTER_ROOM_TYPES = AliasTable.of(MONSTER_ROOM_TYPES, 0.2, 0.2, 0.2, 0.2, 0.2);
+    //generator isn't thread-safe, each thread gets its own, replaced by seeded one within seeded scope
+    private static final ThreadLocal<UniformRandomProvider> random = ThreadLocal.withInitial(RANDOM_SOURCE::create);
+
+    /**
+     * Runs action drawing random values from generator of given seed,
+     * so that same seed always yields same results on current thread.
+     * Previous generator of thread is restored afterwards
+     *
+     * @param seed   seed of generator
+     * @param action action to run
+     * @return result of action
+     */
+    public static <T> T withSeed(long seed, Supplier<T> action) {
+        val previous = random.get();
+        random.set(RANDOM_SOURCE.create(seed));
+        try {
+            return action.get();
+        } finally {
+            random.set(previous);
+        }
+    }
+
+    public static void withSeed(long seed, Runnable action) {
+        withSeed(seed, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Creates generator for third-party algorithms (e.g. optimizers),
+     * seeded from current one, so it follows seeded scope as well
+     *
+     * @return new generator
+     */
+    public static RandomGenerator newRandomGenerator() {
+        return new Well19937c(random.get().nextLong());
+    }
+
     public static  <T extends EnumAttribute> T getRandomEnumValue(List<T> values) {
-        return new EnumeratedDistribution<>(random.getRandomGenerator(), values.stream().map(t -> new Pair<>(t, 1.0)).toList()).sample();
+        if (values.isEmpty()) {
+            throw new MathArithmeticException(LocalizedFormats.ARRAY_SUMS_TO_ZERO);
+        }
+        return values.get(random.get().nextInt(values.size()));
     }
 
     public static  <T extends EnumAttribute> T getRandomEnumValue(List<T> values, List<T> exclusions) {
-        return new EnumeratedDistribution<>(random.getRandomGenerator(), values.stream().filter(t -> !exclusions.contains(t)).map(t -> new Pair<>(t, 1.0)).toList()).sample();
+        int count = 0;
+        for (T value : values) {
+            if (!exclusions.contains(value)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new MathArithmeticException(LocalizedFormats.ARRAY_SUMS_TO_ZERO);
+        }
+        int index = random.get().nextInt(count);
+        for (T value : values) {
+            if (!exclusions.contains(value) && index-- == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Unreachable");
     }
 
     public static Direction getRandomDirection(List<Pair<Direction, Double>> pmf) {
-        return new EnumeratedDistribution<>(random.getRandomGenerator(), pmf).sample();
+        val weights = new double[pmf.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = pmf.get(i).getValue();
+        }
+        return pmf.get(sampleIndex(weights)).getKey();
     }
 
     public static Boolean flipAdjustedCoin(Double trueProbability) {
-        trueProbability = max(0.0, min(1.0, trueProbability));
-        return new EnumeratedDistribution<>(random.getRandomGenerator(), List.of(Pair.create(true, trueProbability), Pair.create(false, 1.0 - trueProbability))).sample();
+        if (trueProbability.isNaN()) {
+            throw new NotANumberException();
+        }
+        return random.get().nextDouble() < trueProbability;
     }
 
+    /**
+     * @return random integer between bounds, both inclusive
+     */
     public static Integer getRandomInt(int from, int to) {
-        return random.nextInt(from, to);
+        if (from > to) {
+            throw new NumberIsTooLargeException(LocalizedFormats.LOWER_BOUND_NOT_BELOW_UPPER_BOUND, from, to, true);
+        }
+        return (int) random.get().nextLong(from, (long) to + 1);
+    }
+
+    /**
+     * @return random double between bounds, lower inclusive, upper exclusive
+     */
+    public static double getRandomDouble(double from, double to) {
+        return from + (to - from) * random.get().nextDouble();
     }
 
     public static Double getNormalDistributionRandomDouble(double mean, double sd) {
-        return new NormalDistribution(random.getRandomGenerator(), mean, sd).sample();
+        if (sd <= 0) {
+            throw new NotStrictlyPositiveException(LocalizedFormats.STANDARD_DEVIATION, sd);
+        }
+        return mean + sd * ZigguratSampler.NormalizedGaussian.of(random.get()).sample();
     }
 
     public static MagicType getRandomMagicType() {
-        double angle = 2 * PI * random.nextUniform(0.0, 1.0);
+        double angle = 2 * PI * random.get().nextDouble();
 
         val divine = sin(angle);
         val arcane = cos(angle);
@@ -93,11 +188,9 @@ public class RandomUtil {
         Double normalRoomDistribution = (double) (currentStep / totalRooms);
         log.debug("Current normal room distribution: {}", normalRoomDistribution);
 
-        return switch (getEnumeratedDistribution(List.of(Pair.create(NEGATIVE, negativeRoomDistribution),
-                Pair.create(ZERO, normalRoomDistribution), Pair.create(POSITIVE, positiveRoomDistribution))).sample()) {
+        return switch (SIGNS.get(sampleIndex(negativeRoomDistribution, normalRoomDistribution, positiveRoomDistribution))) {
             case ZERO -> NORMAL;
             case POSITIVE -> {
-                List<Pair<RoomType, Double>> probabilities = new ArrayList<>();
                 val hpToMaxHp = expectedWeight.getMaxHp() == 0 ? expectedWeight.getHp() :
                         expectedWeight.getHp() / expectedWeight.getMaxHp();
                 val hpDeficiencyToMaxHp = expectedWeight.getMaxHp() == 0 ? expectedWeight.getHp() :
@@ -139,27 +232,19 @@ public class RandomUtil {
                 val positiveProbabilitiesNormalizingFactor =
                         1 / sumProb;
 
-                probabilities.add(Pair.create(RoomType.TREASURE, max(0.0, min(1.0, treasureProbability * positiveProbabilitiesNormalizingFactor))));
-                probabilities.add(Pair.create(RoomType.HEALTH_SHRINE, max(0.0, min(1.0, healthShrineProbability * positiveProbabilitiesNormalizingFactor))));
-                probabilities.add(Pair.create(RoomType.MANA_SHRINE, max(0.0, min(1.0, manaShrineProbability * positiveProbabilitiesNormalizingFactor))));
-                probabilities.add(Pair.create(RoomType.MERCHANT, max(0.0, min(1.0, merchantProbability * positiveProbabilitiesNormalizingFactor))));
-                probabilities.add(Pair.create(ANVIL, max(0.0, min(1.0, anvilProbability * positiveProbabilitiesNormalizingFactor))));
-
-                yield getEnumeratedDistribution(probabilities).sample();
+                yield POSITIVE_ROOM_TYPES.get(sampleIndex(
+                        max(0.0, min(1.0, treasureProbability * positiveProbabilitiesNormalizingFactor)),
+                        max(0.0, min(1.0, healthShrineProbability * positiveProbabilitiesNormalizingFactor)),
+                        max(0.0, min(1.0, manaShrineProbability * positiveProbabilitiesNormalizingFactor)),
+                        max(0.0, min(1.0, merchantProbability * positiveProbabilitiesNormalizingFactor)),
+                        max(0.0, min(1.0, anvilProbability * positiveProbabilitiesNormalizingFactor))));
             }
             case NEGATIVE -> {
-                List<Pair<RoomType, Double>> probabilities = new ArrayList<>();
-
                 val arcaneMagic = expectedWeight.getArcaneMagic();
                 val divineMagic = expectedWeight.getDivineMagic();
 
                 if (arcaneMagic == 0 && divineMagic == 0) {
-                    yield getEnumeratedDistribution(List.of(
-                            Pair.create(WEREWOLF, 0.2),
-                            Pair.create(DRAGON, 0.2),
-                            Pair.create(VAMPIRE, 0.2),
-                            Pair.create(ZOMBIE, 0.2),
-                            Pair.create(SWAMP_BEAST, 0.2))).sample();
+                    yield UNIFORM_MONSTER_ROOM_TYPES.sample(random.get());
                 }
 
                 val expectedMagicWeightVector = MagicType.of(divineMagic, arcaneMagic);
@@ -185,12 +270,7 @@ public class RandomUtil {
                         vampireRawProbability + dragonRawProbability + zombieRawProbability;
 
                 if (sumProb == 0.0) {
-                    yield getEnumeratedDistribution(List.of(
-                            Pair.create(WEREWOLF, 0.2),
-                            Pair.create(DRAGON, 0.2),
-                            Pair.create(VAMPIRE, 0.2),
-                            Pair.create(ZOMBIE, 0.2),
-                            Pair.create(SWAMP_BEAST, 0.2))).sample();
+                    yield UNIFORM_MONSTER_ROOM_TYPES.sample(random.get());
                 }
 
                 val monsterNormalizingFactor = 1 / (sumProb);
@@ -206,13 +286,12 @@ public class RandomUtil {
                 val zombieProbability =  zombieRawProbability * monsterNormalizingFactor;
                 log.debug("Zombie probability: {}", zombieProbability);
 
-                probabilities.add(Pair.create(RoomType.WEREWOLF, werewolfProbability));
-                probabilities.add(Pair.create(RoomType.SWAMP_BEAST, swampBeastProbability));
-                probabilities.add(Pair.create(RoomType.VAMPIRE, vampireProbability));
-                probabilities.add(Pair.create(RoomType.DRAGON, dragonProbability));
-                probabilities.add(Pair.create(RoomType.ZOMBIE, zombieProbability));
-
-                yield getEnumeratedDistribution(probabilities).sample();
+                yield MONSTER_ROOM_TYPES.get(sampleIndex(
+                        werewolfProbability,
+                        swampBeastProbability,
+                        vampireProbability,
+                        dragonProbability,
+                        zombieProbability));
             }
         };
     }
@@ -236,11 +315,9 @@ public class RandomUtil {
         Double normalRoomDistribution = (double) (currentStep / totalRooms);
         log.debug("Current normal room distribution: {}", normalRoomDistribution);
 
-        return switch (getEnumeratedDistribution(List.of(Pair.create(NEGATIVE, negativeRoomDistribution),
-                Pair.create(ZERO, normalRoomDistribution), Pair.create(POSITIVE, positiveRoomDistribution))).sample()) {
+        return switch (SIGNS.get(sampleIndex(negativeRoomDistribution, normalRoomDistribution, positiveRoomDistribution))) {
             case ZERO -> NORMAL;
             case POSITIVE -> {
-                List<Pair<RoomType, Double>> probabilities = new ArrayList<>();
                 val armorToMaxArmor = expectedWeight.getMaxArmor() == 0 ? expectedWeight.getArmor() :
                         expectedWeight.getArmor() / expectedWeight.getMaxArmor();
                 val goldBonus = expectedWeight.getGoldBonus();
@@ -265,25 +342,17 @@ public class RandomUtil {
                 val positiveProbabilitiesNormalizingFactor =
                         1 / sumProb;
 
-                probabilities.add(Pair.create(RoomType.TREASURE, max(0.0, min(1.0, treasureProbability * positiveProbabilitiesNormalizingFactor))));
-                probabilities.add(Pair.create(RoomType.MERCHANT, max(0.0, min(1.0, merchantProbability * positiveProbabilitiesNormalizingFactor))));
-                probabilities.add(Pair.create(ANVIL, max(0.0, min(1.0, anvilProbability * positiveProbabilitiesNormalizingFactor))));
-
-                yield getEnumeratedDistribution(probabilities).sample();
+                yield POSITIVE_CONNECTION_ROOM_TYPES.get(sampleIndex(
+                        max(0.0, min(1.0, treasureProbability * positiveProbabilitiesNormalizingFactor)),
+                        max(0.0, min(1.0, merchantProbability * positiveProbabilitiesNormalizingFactor)),
+                        max(0.0, min(1.0, anvilProbability * positiveProbabilitiesNormalizingFactor))));
             }
             case NEGATIVE -> {
-                List<Pair<RoomType, Double>> probabilities = new ArrayList<>();
-
                 val arcaneMagic = expectedWeight.getArcaneMagic();
                 val divineMagic = expectedWeight.getDivineMagic();
 
                 if (arcaneMagic == 0 && divineMagic == 0) {
-                    yield getEnumeratedDistribution(List.of(
-                            Pair.create(WEREWOLF, 0.2),
-                            Pair.create(DRAGON, 0.2),
-                            Pair.create(VAMPIRE, 0.2),
-                            Pair.create(ZOMBIE, 0.2),
-                            Pair.create(SWAMP_BEAST, 0.2))).sample();
+                    yield UNIFORM_MONSTER_ROOM_TYPES.sample(random.get());
                 }
 
                 val expectedMagicWeightVector = MagicType.of(divineMagic, arcaneMagic);
@@ -309,12 +378,7 @@ public class RandomUtil {
                         vampireRawProbability + dragonRawProbability + zombieRawProbability;
 
                 if (sumProb == 0.0) {
-                    yield getEnumeratedDistribution(List.of(
-                            Pair.create(WEREWOLF, 0.2),
-                            Pair.create(DRAGON, 0.2),
-                            Pair.create(VAMPIRE, 0.2),
-                            Pair.create(ZOMBIE, 0.2),
-                            Pair.create(SWAMP_BEAST, 0.2))).sample();
+                    yield UNIFORM_MONSTER_ROOM_TYPES.sample(random.get());
                 }
 
                 val monsterNormalizingFactor = 1 / (sumProb);
@@ -330,13 +394,12 @@ public class RandomUtil {
                 val zombieProbability =  zombieRawProbability * monsterNormalizingFactor;
                 log.debug("Zombie probability: {}", zombieProbability);
 
-                probabilities.add(Pair.create(RoomType.WEREWOLF, werewolfProbability));
-                probabilities.add(Pair.create(RoomType.SWAMP_BEAST, swampBeastProbability));
-                probabilities.add(Pair.create(RoomType.VAMPIRE, vampireProbability));
-                probabilities.add(Pair.create(RoomType.DRAGON, dragonProbability));
-                probabilities.add(Pair.create(RoomType.ZOMBIE, zombieProbability));
-
-                yield getEnumeratedDistribution(probabilities).sample();
+                yield MONSTER_ROOM_TYPES.get(sampleIndex(
+                        werewolfProbability,
+                        swampBeastProbability,
+                        vampireProbability,
+                        dragonProbability,
+                        zombieProbability));
             }
         };
     }
@@ -349,11 +412,9 @@ public class RandomUtil {
             val positiveRoomDistribution = getPeriodicBinaryDistributionStartingFromZero(currentStep - 1);
             val normalRoomDistribution = currentStep / clusterDensity;
 
-            return switch (getEnumeratedDistribution(List.of(Pair.create(NEGATIVE, negativeRoomDistribution),
-                    Pair.create(ZERO, normalRoomDistribution), Pair.create(POSITIVE, positiveRoomDistribution))).sample()) {
+            return switch (SIGNS.get(sampleIndex(negativeRoomDistribution, normalRoomDistribution, positiveRoomDistribution))) {
                 case ZERO -> NORMAL;
                 case POSITIVE -> {
-                    List<Pair<RoomType, Double>> probabilities = new ArrayList<>();
                     val hpToMaxHp =  expectedWeight.getHp() / expectedWeight.getMaxHp();
                     val hpDeficiencyToMaxHp = (expectedWeight.getMaxHp() - expectedWeight.getHp()) / expectedWeight.getMaxHp();
                     val manaToMaxMana = expectedWeight.getMana() / expectedWeight.getMaxMana();
@@ -390,27 +451,19 @@ public class RandomUtil {
                     val positiveProbabilitiesNormalizingFactor =
                             1 / sumProb;
 
-                    probabilities.add(Pair.create(RoomType.TREASURE, max(0.0, min(1.0, treasureProbability * positiveProbabilitiesNormalizingFactor))));
-                    probabilities.add(Pair.create(RoomType.HEALTH_SHRINE, max(0.0, min(1.0, healthShrineProbability * positiveProbabilitiesNormalizingFactor))));
-                    probabilities.add(Pair.create(RoomType.MANA_SHRINE, max(0.0, min(1.0, manaShrineProbability * positiveProbabilitiesNormalizingFactor))));
-                    probabilities.add(Pair.create(RoomType.MERCHANT, max(0.0, min(1.0, merchantProbability * positiveProbabilitiesNormalizingFactor))));
-                    probabilities.add(Pair.create(ANVIL, max(0.0, min(1.0, anvilProbability * positiveProbabilitiesNormalizingFactor))));
-
-                    yield getEnumeratedDistribution(probabilities).sample();
+                    yield POSITIVE_ROOM_TYPES.get(sampleIndex(
+                            max(0.0, min(1.0, treasureProbability * positiveProbabilitiesNormalizingFactor)),
+                            max(0.0, min(1.0, healthShrineProbability * positiveProbabilitiesNormalizingFactor)),
+                            max(0.0, min(1.0, manaShrineProbability * positiveProbabilitiesNormalizingFactor)),
+                            max(0.0, min(1.0, merchantProbability * positiveProbabilitiesNormalizingFactor)),
+                            max(0.0, min(1.0, anvilProbability * positiveProbabilitiesNormalizingFactor))));
                 }
                 case NEGATIVE -> {
-                    List<Pair<RoomType, Double>> probabilities = new ArrayList<>();
-
                     val arcaneMagic = expectedWeight.getArcaneMagic();
                     val divineMagic = expectedWeight.getDivineMagic();
 
                     if (arcaneMagic == 0 && divineMagic == 0) {
-                        yield getEnumeratedDistribution(List.of(
-                                Pair.create(WEREWOLF, 0.2),
-                                Pair.create(DRAGON, 0.2),
-                                Pair.create(VAMPIRE, 0.2),
-                                Pair.create(ZOMBIE, 0.2),
-                                Pair.create(SWAMP_BEAST, 0.2))).sample();
+                        yield UNIFORM_MONSTER_ROOM_TYPES.sample(random.get());
                     }
 
                     val expectedMagicWeightVector = MagicType.of(divineMagic, arcaneMagic);
@@ -436,12 +489,7 @@ public class RandomUtil {
                             vampireRawProbability + dragonRawProbability + zombieRawProbability;
 
                     if (sumProb == 0.0) {
-                        yield getEnumeratedDistribution(List.of(
-                                Pair.create(WEREWOLF, 0.2),
-                                Pair.create(DRAGON, 0.2),
-                                Pair.create(VAMPIRE, 0.2),
-                                Pair.create(ZOMBIE, 0.2),
-                                Pair.create(SWAMP_BEAST, 0.2))).sample();
+                        yield UNIFORM_MONSTER_ROOM_TYPES.sample(random.get());
                     }
 
                     val monsterNormalizingFactor = 1 / (sumProb);
@@ -457,13 +505,12 @@ public class RandomUtil {
                     val zombieProbability =  zombieRawProbability * monsterNormalizingFactor;
                     log.debug("Zombie probability: {}", zombieProbability);
 
-                    probabilities.add(Pair.create(RoomType.WEREWOLF, werewolfProbability));
-                    probabilities.add(Pair.create(RoomType.SWAMP_BEAST, swampBeastProbability));
-                    probabilities.add(Pair.create(RoomType.VAMPIRE, vampireProbability));
-                    probabilities.add(Pair.create(RoomType.DRAGON, dragonProbability));
-                    probabilities.add(Pair.create(RoomType.ZOMBIE, zombieProbability));
-
-                    yield getEnumeratedDistribution(probabilities).sample();
+                    yield MONSTER_ROOM_TYPES.get(sampleIndex(
+                            werewolfProbability,
+                            swampBeastProbability,
+                            vampireProbability,
+                            dragonProbability,
+                            zombieProbability));
                 }
             };
         }
@@ -492,7 +539,27 @@ public class RandomUtil {
         return getMagicTypeByMonsterClass(convertToMonsterClass(monsterType));
     }
 
-    private static <T>EnumeratedDistribution<T> getEnumeratedDistribution(List<Pair<T, Double>> probabilities) {
-        return new EnumeratedDistribution<>(probabilities);
+    /**
+     * Draws index of weight vector without building distribution:
+     * vectors here are short and change on every call, so linear scan beats table construction
+     *
+     * @param weights non-negative weights, don't have to be normalized
+     * @return sampled index
+     */
+    private static int sampleIndex(double... weights) {
+        val sum = AliasTable.checkWeights(weights);
+        val threshold = random.get().nextDouble() * sum;
+        double cumulative = 0.0;
+        int lastPositive = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0.0) {
+                cumulative += weights[i];
+                lastPositive = i;
+                if (threshold < cumulative) {
+                    return i;
+                }
+            }
+        }
+        return lastPositive;
     }
 }
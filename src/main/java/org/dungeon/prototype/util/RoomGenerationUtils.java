@@ -9,6 +9,7 @@ import org.dungeon.prototype.model.monster.MonsterAttack;
 import org.dungeon.prototype.model.monster.MonsterClass;
 import org.dungeon.prototype.model.room.RoomType;
 import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
 
 import java.util.List;
 
@@ -44,14 +45,33 @@ public class RoomGenerationUtils {
     public static Weight calculateMonsterWeight(
             Integer hp, Integer maxHp, MonsterAttack primaryAttack,
             MonsterAttack secondaryAttack) {
-        return Weight.builder()
-                .hp((double) hp)
-                .maxHp((double) maxHp)
-                .criticalHitChance(primaryAttack.getCriticalHitChance() * primaryAttack.getCriticalHitMultiplier() * primaryAttack.getAttack() +
-                        secondaryAttack.getCriticalHitChance() * secondaryAttack.getCriticalHitMultiplier())
-                .chanceToKnockout(primaryAttack.getChanceToKnockOut() * secondaryAttack.getChanceToKnockOut())
-                .attack((1.0 - primaryAttack.getChanceToMiss()) * (1.0 - secondaryAttack.getChanceToMiss()))
-                .build();
+        return calculateMonsterWeight(new WeightAccumulator(), hp, maxHp,
+                primaryAttack.getAttack(), primaryAttack.getCriticalHitChance(), primaryAttack.getCriticalHitMultiplier(),
+                primaryAttack.getChanceToKnockOut(), primaryAttack.getChanceToMiss(),
+                secondaryAttack.getCriticalHitChance(), secondaryAttack.getCriticalHitMultiplier(),
+                secondaryAttack.getChanceToKnockOut(), secondaryAttack.getChanceToMiss())
+                .toWeight();
+    }
+
+    /**
+     * Calculates monster weight into given accumulator, allows optimizers to evaluate
+     * candidate attributes without building monster attacks
+     *
+     * @return passed accumulator
+     */
+    public static WeightAccumulator calculateMonsterWeight(
+            WeightAccumulator weight, int hp, int maxHp,
+            int primaryAttack, double primaryCriticalHitChance, double primaryCriticalHitMultiplier,
+            double primaryChanceToKnockOut, double primaryChanceToMiss,
+            double secondaryCriticalHitChance, double secondaryCriticalHitMultiplier,
+            double secondaryChanceToKnockOut, double secondaryChanceToMiss) {
+        return weight
+                .set(Weight.HP, hp)
+                .set(Weight.MAX_HP, maxHp)
+                .set(Weight.CRITICAL_HIT_CHANCE, primaryCriticalHitChance * primaryCriticalHitMultiplier * primaryAttack +
+                        secondaryCriticalHitChance * secondaryCriticalHitMultiplier)
+                .set(Weight.CHANCE_TO_KNOCKOUT, primaryChanceToKnockOut * secondaryChanceToKnockOut)
+                .set(Weight.ATTACK, (1.0 - primaryChanceToMiss) * (1.0 - secondaryChanceToMiss));
     }
 
     public static ExpirableAdditionEffect getFireSpitEffect(Integer amount, Integer turns) {
@@ -0,0 +1,52 @@
+package org.dungeon.prototype.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seed hierarchy of generation: game seed of chat derives seeds of levels,
+ * level seed derives seeds of independent streams (e.g. concurrently populated clusters).
+ * Same parent seed always yields same child seeds, so generation can be replayed from it.
+ * Derivation is SplitMix64, the one used by {@link java.util.SplittableRandom}
+ */
+@UtilityClass
+public class SeedUtil {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * @return seed for new game
+     */
+    public static long newGameSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Derives seed of level
+     *
+     * @param gameSeed    seed of current game
+     * @param chatId      id of chat
+     * @param levelNumber number of level
+     * @return seed of level
+     */
+    public static long getLevelSeed(long gameSeed, long chatId, int levelNumber) {
+        return split(split(gameSeed, chatId), levelNumber);
+    }
+
+    /**
+     * Derives seed of independent stream from parent one
+     *
+     * @param seed  parent seed
+     * @param index index of stream
+     * @return seed of stream
+     */
+    public static long split(long seed, long index) {
+        return mix64(seed + GOLDEN_GAMMA * (index + 1));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
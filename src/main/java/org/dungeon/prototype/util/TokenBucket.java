@@ -0,0 +1,65 @@
+package org.dungeon.prototype.util;
+
+/**
+ * Token bucket refilled continuously at fixed rate up to its capacity.
+ * Time is passed in by caller as {@link System#nanoTime()} readings.
+ * Bucket isn't thread safe, callers guard it
+ */
+public final class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Creates full bucket
+     *
+     * @param ratePerSecond tokens added per second
+     * @param capacity      max tokens, i.e. allowed burst
+     * @param now           current time in nanos
+     */
+    public TokenBucket(double ratePerSecond, int capacity, long now) {
+        if (ratePerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate has to be positive and capacity at least 1, got " +
+                    ratePerSecond + " and " + capacity);
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Takes token if available
+     *
+     * @return true if token taken
+     */
+    public boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * @return nanos until token is available, 0 if it's available now
+     */
+    public long nanosUntilAvailable(long now) {
+        refill(now);
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    public boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        if (now - refilledAt > 0) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.dungeon.prototype.bot;
+
+import lombok.val;
+import org.bson.types.ObjectId;
+import org.dungeon.prototype.BaseUnitTest;
+import org.dungeon.prototype.exception.CallbackParsingException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Base64;
+
+import static org.dungeon.prototype.properties.CallbackType.INVENTORY;
+import static org.dungeon.prototype.properties.CallbackType.ITEM_INVENTORY_UN_EQUIP;
+import static org.dungeon.prototype.properties.CallbackType.MERCHANT_SELL_DISPLAY_LEFT_HAND;
+import static org.dungeon.prototype.properties.CallbackType.PLAYER_ATTRIBUTE_UPGRADE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class CallbackCodecTest extends BaseUnitTest {
+
+    @InjectMocks
+    private CallbackCodec callbackCodec;
+    @Mock
+    private CallbackRouter callbackRouter;
+
+    @Test
+    @DisplayName("Encoded callbacks decode to same type and parameter, item ids take 12 bytes")
+    void encodesAndDecodes() {
+        val itemId = new ObjectId().toHexString();
+
+        val itemCallback = callbackCodec.encode(MERCHANT_SELL_DISPLAY_LEFT_HAND, itemId);
+
+        assertTrue(itemCallback.length() < ("btn_merchant_display_secondary_weapon_" + itemId).length() / 2);
+        assertEquals(new CallbackRouter.Callback(MERCHANT_SELL_DISPLAY_LEFT_HAND, itemId), callbackCodec.decode(itemCallback));
+        assertEquals(new CallbackRouter.Callback(INVENTORY, null), callbackCodec.decode(callbackCodec.encode(INVENTORY)));
+        assertEquals(new CallbackRouter.Callback(ITEM_INVENTORY_UN_EQUIP, "350"),
+                callbackCodec.decode(callbackCodec.encode(ITEM_INVENTORY_UN_EQUIP, 350)));
+        assertEquals(new CallbackRouter.Callback(PLAYER_ATTRIBUTE_UPGRADE, "power"),
+                callbackCodec.decode(callbackCodec.encode(PLAYER_ATTRIBUTE_UPGRADE, "power")));
+    }
+
+    @Test
+    @DisplayName("Callbacks of buttons sent before encoding was introduced are resolved by router")
+    void decodesLegacyCallback() {
+        val legacy = new CallbackRouter.Callback(INVENTORY, null);
+        when(callbackRouter.route("btn_inventory")).thenReturn(legacy);
+
+        assertEquals(legacy, callbackCodec.decode("btn_inventory"));
+    }
+
+    @Test
+    @DisplayName("Payload of unknown version or truncated payload fails to parse")
+    void failsOnMalformedPayload() {
+        val callback = callbackCodec.encode(PLAYER_ATTRIBUTE_UPGRADE, "power");
+
+        assertThrows(CallbackParsingException.class, () -> callbackCodec.decode("~Ag"));
+        assertThrows(CallbackParsingException.class, () -> callbackCodec.decode(callback.substring(0, callback.length() - 2)));
+    }
+
+    @Test
+    @DisplayName("Payload claiming negative length or more bytes than it has fails to parse")
+    void failsOnMalformedLength() {
+        //version, action, text parameter kind, varint length
+        val negativeLength = new byte[]{1, 0, 3, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        val hugeLength = new byte[]{1, 0, 3, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'a'};
+
+        assertThrows(CallbackParsingException.class, () -> callbackCodec.decode(armour(negativeLength)));
+        assertThrows(CallbackParsingException.class, () -> callbackCodec.decode(armour(hugeLength)));
+    }
+
+    private static String armour(byte[] payload) {
+        return "~" + Base64.getUrlEncoder().withoutPadding().encodeToString(payload);
+    }
+}
@@ -0,0 +1,75 @@
+package org.dungeon.prototype.bot;
+
+import lombok.val;
+import org.dungeon.prototype.BaseUnitTest;
+import org.dungeon.prototype.exception.CallbackParsingException;
+import org.dungeon.prototype.properties.CallbackType;
+import org.dungeon.prototype.properties.KeyboardButtonProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+
+import static org.dungeon.prototype.properties.CallbackType.INVENTORY;
+import static org.dungeon.prototype.properties.CallbackType.ITEM_INVENTORY_BACK;
+import static org.dungeon.prototype.properties.CallbackType.MERCHANT_ITEM_SELL;
+import static org.dungeon.prototype.properties.CallbackType.MERCHANT_SELL_MENU;
+import static org.dungeon.prototype.properties.CallbackType.MERCHANT_SELL_PRICE;
+import static org.dungeon.prototype.properties.CallbackType.PLAYER_ATTRIBUTE_UPGRADE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CallbackRouterTest extends BaseUnitTest {
+
+    private CallbackRouter callbackRouter;
+
+    @BeforeEach
+    void setUp() {
+        val buttons = new LinkedHashMap<CallbackType, KeyboardButtonProperties.KeyboardButtonAttributes>();
+        buttons.put(INVENTORY, getAttributes("btn_inventory"));
+        buttons.put(ITEM_INVENTORY_BACK, getAttributes("btn_inventory"));
+        buttons.put(MERCHANT_SELL_MENU, getAttributes("btn_merchant_sell_menu"));
+        buttons.put(MERCHANT_SELL_PRICE, getAttributes("btn_merchant_sell_%s"));
+        buttons.put(MERCHANT_ITEM_SELL, getAttributes("btn_merchant_list_item_sell_%s"));
+        buttons.put(PLAYER_ATTRIBUTE_UPGRADE, getAttributes("btn_player_attribute_upgrade_%s"));
+        val properties = new KeyboardButtonProperties();
+        properties.setButtons(buttons);
+        callbackRouter = new CallbackRouter(properties);
+    }
+
+    @Test
+    @DisplayName("Static callback is resolved by exact match, first of buttons sharing callback wins")
+    void routesStaticCallback() {
+        val callback = callbackRouter.route("btn_inventory");
+
+        assertEquals(INVENTORY, callback.type());
+        assertNull(callback.parameter());
+        assertEquals(MERCHANT_SELL_MENU, callbackRouter.route("btn_merchant_sell_menu").type());
+    }
+
+    @Test
+    @DisplayName("Composite callback is resolved by its prefix with remainder as parameter")
+    void routesCompositeCallback() {
+        assertEquals(new CallbackRouter.Callback(MERCHANT_SELL_PRICE, "66f1a2b3c4d5e6f7a8b9c0d1"),
+                callbackRouter.route("btn_merchant_sell_66f1a2b3c4d5e6f7a8b9c0d1"));
+        assertEquals(new CallbackRouter.Callback(MERCHANT_ITEM_SELL, "item_id"),
+                callbackRouter.route("btn_merchant_list_item_sell_item_id"));
+        assertEquals(new CallbackRouter.Callback(PLAYER_ATTRIBUTE_UPGRADE, "power"),
+                callbackRouter.route("btn_player_attribute_upgrade_power"));
+    }
+
+    @Test
+    @DisplayName("Callback matching no button fails to parse")
+    void failsOnUnknownCallback() {
+        assertThrows(CallbackParsingException.class, () -> callbackRouter.route("btn_merchant_"));
+        assertThrows(CallbackParsingException.class, () -> callbackRouter.route("btn_unknown"));
+    }
+
+    private static KeyboardButtonProperties.KeyboardButtonAttributes getAttributes(String callback) {
+        val attributes = new KeyboardButtonProperties.KeyboardButtonAttributes();
+        attributes.setCallback(callback);
+        return attributes;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.SneakyThrows;
 import lombok.val;
 import org.dungeon.prototype.config.BotConfig;
 import org.dungeon.prototype.config.TestConfig;
+import org.dungeon.prototype.properties.OutboundProperties;
 import org.dungeon.prototype.service.PlayerService;
 import org.dungeon.prototype.service.state.ChatStateService;
 import org.junit.jupiter.api.DisplayName;
@@ -21,7 +22,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-@SpringBootTest(classes = {BotConfig.class, TestConfig.class})
+@SpringBootTest(classes = {BotConfig.class, TestConfig.class, OutboundProperties.class})
 @ActiveProfiles("test")
 class DungeonBotTest {
 
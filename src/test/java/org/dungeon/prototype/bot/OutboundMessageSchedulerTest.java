@@ -0,0 +1,242 @@
+package org.dungeon.prototype.bot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.dungeon.prototype.BaseUnitTest;
+import org.dungeon.prototype.properties.OutboundProperties;
+import org.dungeon.prototype.service.state.ChatStateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessages;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageCaption;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageMedia;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboundMessageSchedulerTest extends BaseUnitTest {
+    private static final Long CHAT_ID = 123456789L;
+
+    @InjectMocks
+    private OutboundMessageScheduler outboundMessageScheduler;
+    @Mock
+    private DungeonBot dungeonBot;
+    @Mock
+    private ChatStateService chatStateService;
+    @Spy
+    private OutboundProperties outboundProperties = new OutboundProperties();
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        outboundMessageScheduler.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboundMessageScheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Messages of chat are sent in order, replaced messages are deleted when edit in place is disabled")
+    void sendsMessagesAndDeletesReplacedOnes() throws TelegramApiException, InterruptedException {
+        outboundProperties.setEditInPlace(false);
+        val first = getSendMessage("first");
+        val second = getSendMessage("second");
+        when(dungeonBot.executeAsync(first)).thenReturn(CompletableFuture.completedFuture(getMessage(2)));
+        when(dungeonBot.executeAsync(second)).thenReturn(CompletableFuture.completedFuture(getMessage(3)));
+        when(chatStateService.updateLastMessage(CHAT_ID, 2)).thenReturn(Optional.of(1));
+        when(chatStateService.updateLastMessage(CHAT_ID, 3)).thenReturn(Optional.of(2));
+        List<Integer> deleted = new CopyOnWriteArrayList<>();
+        val allDeleted = new CountDownLatch(2);
+        when(dungeonBot.executeAsync(any(DeleteMessages.class))).thenAnswer(invocation -> {
+            DeleteMessages deleteMessages = invocation.getArgument(0);
+            deleteMessages.getMessageIds().forEach(id -> {
+                deleted.add(id);
+                allDeleted.countDown();
+            });
+            return CompletableFuture.completedFuture(true);
+        });
+
+        outboundMessageScheduler.send(CHAT_ID, first);
+        outboundMessageScheduler.send(CHAT_ID, second);
+
+        assertTrue(allDeleted.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), deleted);
+        val inOrder = inOrder(dungeonBot);
+        inOrder.verify(dungeonBot).executeAsync(first);
+        inOrder.verify(dungeonBot).executeAsync(second);
+        assertEquals(2, meterRegistry.get("dungeon.outbound.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("Message throttled by Telegram is sent again after retry_after")
+    void retriesThrottledMessage() throws TelegramApiException {
+        val message = getSendMessage("text");
+        val apiResponse = mock(ApiResponse.class);
+        when(apiResponse.getErrorCode()).thenReturn(429);
+        when(apiResponse.getErrorDescription()).thenReturn("Too Many Requests");
+        when(apiResponse.getParameters()).thenReturn(new ResponseParameters(null, 0));
+        val throttled = new TelegramApiRequestException("Error sending", apiResponse);
+        when(dungeonBot.executeAsync(message))
+                .thenReturn(CompletableFuture.failedFuture(throttled))
+                .thenReturn(CompletableFuture.completedFuture(getMessage(2)));
+        when(chatStateService.updateLastMessage(CHAT_ID, 2)).thenReturn(Optional.empty());
+
+        outboundMessageScheduler.send(CHAT_ID, message);
+
+        verify(chatStateService, timeout(5000)).updateLastMessage(CHAT_ID, 2);
+        verify(dungeonBot, times(2)).executeAsync(message);
+        assertEquals(1.0, meterRegistry.get("dungeon.outbound.throttled").counter().count());
+    }
+
+    @Test
+    @DisplayName("Photo message is edited in place sending only changed part of it")
+    void editsChangedPartOfPhotoMessage() throws TelegramApiException {
+        val keyboard = getKeyboard("btn_left");
+        when(dungeonBot.executeAsync(any(SendPhoto.class))).thenReturn(CompletableFuture.completedFuture(getMessage(2)));
+        when(chatStateService.updateLastMessage(CHAT_ID, 2)).thenReturn(Optional.empty()).thenReturn(Optional.of(2));
+        when(dungeonBot.executeAsync(any(EditMessageCaption.class))).thenReturn(CompletableFuture.completedFuture(true));
+        when(dungeonBot.executeAsync(any(EditMessageReplyMarkup.class))).thenReturn(CompletableFuture.completedFuture(true));
+        when(dungeonBot.executeAsync(any(EditMessageMedia.class))).thenReturn(CompletableFuture.completedFuture(true));
+
+        outboundMessageScheduler.send(CHAT_ID, getSendPhoto("caption", keyboard, new byte[]{1}));
+        outboundMessageScheduler.send(CHAT_ID, getSendPhoto("new caption", keyboard, new byte[]{1}));
+        outboundMessageScheduler.send(CHAT_ID, getSendPhoto("new caption", getKeyboard("btn_right"), new byte[]{1}));
+        outboundMessageScheduler.send(CHAT_ID, getSendPhoto("new caption", getKeyboard("btn_right"), new byte[]{1}));
+        outboundMessageScheduler.send(CHAT_ID, getSendPhoto("new caption", getKeyboard("btn_right"), new byte[]{2}));
+
+        ArgumentCaptor<EditMessageMedia> mediaCaptor = ArgumentCaptor.forClass(EditMessageMedia.class);
+        verify(dungeonBot, timeout(5000)).executeAsync(mediaCaptor.capture());
+        ArgumentCaptor<EditMessageCaption> captionCaptor = ArgumentCaptor.forClass(EditMessageCaption.class);
+        ArgumentCaptor<EditMessageReplyMarkup> keyboardCaptor = ArgumentCaptor.forClass(EditMessageReplyMarkup.class);
+        val inOrder = inOrder(dungeonBot);
+        inOrder.verify(dungeonBot).executeAsync(any(SendPhoto.class));
+        inOrder.verify(dungeonBot).executeAsync(captionCaptor.capture());
+        inOrder.verify(dungeonBot).executeAsync(keyboardCaptor.capture());
+        inOrder.verify(dungeonBot).executeAsync(any(EditMessageMedia.class));
+        assertEquals("new caption", captionCaptor.getValue().getCaption());
+        assertEquals(keyboard, captionCaptor.getValue().getReplyMarkup());
+        assertEquals(getKeyboard("btn_right"), keyboardCaptor.getValue().getReplyMarkup());
+        assertEquals(2, mediaCaptor.getValue().getMessageId());
+        assertEquals("new caption", mediaCaptor.getValue().getMedia().getCaption());
+        assertEquals(1.0, meterRegistry.get("dungeon.outbound.updates").tag("mode", "none").counter().count());
+        verify(dungeonBot, never()).executeAsync(any(DeleteMessages.class));
+    }
+
+    @Test
+    @DisplayName("Message that can't be edited is replaced with new one")
+    void sendsNewMessageWhenEditIsRejected() throws TelegramApiException {
+        val first = getSendMessage("first");
+        val second = getSendMessage("second");
+        val apiResponse = mock(ApiResponse.class);
+        when(apiResponse.getErrorCode()).thenReturn(400);
+        when(apiResponse.getErrorDescription()).thenReturn("Bad Request: message to edit not found");
+        val rejected = new TelegramApiRequestException("Error editing message text", apiResponse);
+        when(dungeonBot.executeAsync(first)).thenReturn(CompletableFuture.completedFuture(getMessage(2)));
+        when(dungeonBot.executeAsync(any(EditMessageText.class))).thenReturn(CompletableFuture.failedFuture(rejected));
+        when(dungeonBot.executeAsync(second)).thenReturn(CompletableFuture.completedFuture(getMessage(3)));
+        when(chatStateService.updateLastMessage(CHAT_ID, 2)).thenReturn(Optional.empty());
+        when(chatStateService.updateLastMessage(CHAT_ID, 3)).thenReturn(Optional.of(2));
+        when(dungeonBot.executeAsync(any(DeleteMessages.class))).thenReturn(CompletableFuture.completedFuture(true));
+
+        outboundMessageScheduler.send(CHAT_ID, first);
+        outboundMessageScheduler.send(CHAT_ID, second);
+
+        ArgumentCaptor<DeleteMessages> deleteCaptor = ArgumentCaptor.forClass(DeleteMessages.class);
+        verify(dungeonBot, timeout(5000)).executeAsync(deleteCaptor.capture());
+        assertEquals(List.of(2), deleteCaptor.getValue().getMessageIds());
+        val inOrder = inOrder(dungeonBot);
+        inOrder.verify(dungeonBot).executeAsync(first);
+        inOrder.verify(dungeonBot).executeAsync(any(EditMessageText.class));
+        inOrder.verify(dungeonBot).executeAsync(second);
+    }
+
+    @Test
+    @DisplayName("Message following user's one is sent anew")
+    void sendsNewMessageAfterDetach() throws TelegramApiException {
+        val first = getSendMessage("first");
+        val second = getSendMessage("second");
+        when(dungeonBot.executeAsync(first)).thenReturn(CompletableFuture.completedFuture(getMessage(2)));
+        when(dungeonBot.executeAsync(second)).thenReturn(CompletableFuture.completedFuture(getMessage(3)));
+        when(chatStateService.updateLastMessage(CHAT_ID, 2)).thenReturn(Optional.empty());
+        when(chatStateService.updateLastMessage(CHAT_ID, 3)).thenReturn(Optional.of(2));
+        when(dungeonBot.executeAsync(any(DeleteMessages.class))).thenReturn(CompletableFuture.completedFuture(true));
+
+        outboundMessageScheduler.send(CHAT_ID, first);
+        verify(chatStateService, timeout(5000)).updateLastMessage(CHAT_ID, 2);
+        outboundMessageScheduler.detachLastMessage(CHAT_ID);
+        outboundMessageScheduler.send(CHAT_ID, second);
+
+        verify(dungeonBot, timeout(5000)).executeAsync(any(DeleteMessages.class));
+        verify(dungeonBot).executeAsync(second);
+        verify(dungeonBot, never()).executeAsync(any(EditMessageText.class));
+    }
+
+    private static SendPhoto getSendPhoto(String caption, InlineKeyboardMarkup keyboard, byte[] image) {
+        return SendPhoto.builder()
+                .chatId(CHAT_ID)
+                .caption(caption)
+                .replyMarkup(keyboard)
+                .photo(new InputFile(new ByteArrayInputStream(image), "room.png"))
+                .build();
+    }
+
+    private static InlineKeyboardMarkup getKeyboard(String callbackData) {
+        return InlineKeyboardMarkup.builder()
+                .keyboardRow(List.of(InlineKeyboardButton.builder()
+                        .text(callbackData)
+                        .callbackData(callbackData)
+                        .build()))
+                .build();
+    }
+
+    private static SendMessage getSendMessage(String text) {
+        return SendMessage.builder()
+                .chatId(CHAT_ID)
+                .text(text)
+                .build();
+    }
+
+    private static Message getMessage(int messageId) {
+        val message = new Message();
+        message.setMessageId(messageId);
+        return message;
+    }
+}
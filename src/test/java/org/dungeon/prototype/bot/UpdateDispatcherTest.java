@@ -0,0 +1,148 @@
+package org.dungeon.prototype.bot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.dungeon.prototype.BaseUnitTest;
+import org.dungeon.prototype.exception.DungeonPrototypeExceptionHandler;
+import org.dungeon.prototype.exception.EntityNotFoundException;
+import org.dungeon.prototype.properties.UpdateDispatchProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class UpdateDispatcherTest extends BaseUnitTest {
+    private static final Long CHAT_ID = 123456789L;
+    private static final Long OTHER_CHAT_ID = 987654321L;
+
+    @InjectMocks
+    private UpdateDispatcher updateDispatcher;
+    @Mock
+    private DungeonBot dungeonBot;
+    @Mock
+    private OutboundMessageScheduler outboundMessageScheduler;
+    @Mock
+    private DungeonPrototypeExceptionHandler exceptionHandler;
+    @Spy
+    private UpdateDispatchProperties updateDispatchProperties = new UpdateDispatchProperties();
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        updateDispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        updateDispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Updates of one chat are handled in order while blocked chat doesn't hold others")
+    void handlesChatUpdatesInOrder() throws InterruptedException {
+        val release = new CountDownLatch(1);
+        val otherHandled = new CountDownLatch(1);
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            Update update = invocation.getArgument(0);
+            if (OTHER_CHAT_ID.equals(update.getMessage().getChatId())) {
+                otherHandled.countDown();
+            } else {
+                if (update.getUpdateId() == 1) {
+                    release.await();
+                }
+                handled.add(update.getUpdateId());
+            }
+            return null;
+        }).when(dungeonBot).onWebhookUpdateReceived(any());
+
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(updateDispatcher.dispatch(getUpdate(i, CHAT_ID)));
+        }
+        assertTrue(updateDispatcher.dispatch(getUpdate(6, OTHER_CHAT_ID)));
+
+        assertTrue(otherHandled.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        updateDispatcher.shutdown();
+        assertEquals(List.of(1, 2, 3, 4, 5), handled);
+        assertEquals(6, meterRegistry.get("dungeon.updates.queue.time").timer().count());
+    }
+
+    @Test
+    @DisplayName("Update exceeding mailbox capacity is dropped")
+    void rejectsWhenMailboxIsFull() throws InterruptedException {
+        updateDispatchProperties.setMailboxCapacity(1);
+        val release = new CountDownLatch(1);
+        val started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        }).when(dungeonBot).onWebhookUpdateReceived(any());
+
+        assertTrue(updateDispatcher.dispatch(getUpdate(1, CHAT_ID)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(updateDispatcher.dispatch(getUpdate(2, CHAT_ID)));
+        assertFalse(updateDispatcher.dispatch(getUpdate(3, CHAT_ID)));
+        release.countDown();
+
+        assertEquals(1.0, meterRegistry.get("dungeon.updates.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Player exception thrown while handling update is passed to exception handler")
+    void passesPlayerExceptionToHandler() {
+        val exception = new EntityNotFoundException(CHAT_ID, "player", null);
+        val update = getUpdate(1, CHAT_ID);
+        doThrow(exception).when(dungeonBot).onWebhookUpdateReceived(update);
+
+        updateDispatcher.dispatch(update);
+
+        verify(exceptionHandler, timeout(5000)).handleException(exception);
+    }
+
+    @Test
+    @DisplayName("User's message detaches last message of chat before update is handled")
+    void detachesLastMessageOnUserMessage() {
+        val update = getUpdate(1, CHAT_ID);
+
+        updateDispatcher.dispatch(update);
+
+        verify(dungeonBot, timeout(5000)).onWebhookUpdateReceived(update);
+        val inOrder = inOrder(outboundMessageScheduler, dungeonBot);
+        inOrder.verify(outboundMessageScheduler).detachLastMessage(CHAT_ID);
+        inOrder.verify(dungeonBot).onWebhookUpdateReceived(update);
+    }
+
+    private static Update getUpdate(int updateId, Long chatId) {
+        val message = new Message();
+        message.setChat(new Chat(chatId, "private"));
+        val update = new Update();
+        update.setUpdateId(updateId);
+        update.setMessage(message);
+        return update;
+    }
+}
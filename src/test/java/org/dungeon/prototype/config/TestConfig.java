@@ -3,6 +3,7 @@ package org.dungeon.prototype.config;
 import org.dungeon.prototype.bot.DungeonBot;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 
@@ -23,6 +24,6 @@ public class TestConfig {
 
     @Bean
     public DungeonBot dungeonBot(SetWebhook setWebhook) {
-        return new DungeonBot( "botUsername", "", "", setWebhook);
+        return new DungeonBot( "botUsername", "", "", setWebhook, new DefaultBotOptions());
     }
 }
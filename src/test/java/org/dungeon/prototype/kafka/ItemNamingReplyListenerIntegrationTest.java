@@ -0,0 +1,90 @@
+package org.dungeon.prototype.kafka;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.dungeon.prototype.service.item.generation.ItemNamingRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest(classes = {
+        KafkaAutoConfiguration.class,
+        JacksonAutoConfiguration.class,
+        ItemNamingReplyListenerIntegrationTest.MetricsConfig.class,
+        ItemNamingRegistry.class,
+        ItemNamingReplyListener.class
+}, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.group-id=item-naming-test",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "kafka-topics.item-naming-reply-topic=" + ItemNamingReplyListenerIntegrationTest.REPLY_TOPIC
+})
+@EmbeddedKafka(partitions = 1, topics = ItemNamingReplyListenerIntegrationTest.REPLY_TOPIC)
+public class ItemNamingReplyListenerIntegrationTest {
+    static final String REPLY_TOPIC = "item-naming-reply";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private ItemNamingRegistry itemNamingRegistry;
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Batch of naming requests is completed per item from reply topic, pending requests aren't sent twice")
+    void completesFromReplyTopic() {
+        final List<List<String>> requests = new CopyOnWriteArrayList<>();
+        Consumer<List<String>> request = itemIds -> {
+            requests.add(itemIds);
+            kafkaTemplate.send(REPLY_TOPIC, "{\"chatId\": 1, \"items\": [" +
+                    "{\"id\": \"first\", \"name\": \" Dawnbreaker\\n\"}, " +
+                    "{\"id\": \"second\", \"name\": null, \"error\": \"no name in model response\"}]}");
+        };
+
+        val names = itemNamingRegistry.register(List.of("first", "second"), TIMEOUT, itemId -> "Fallback " + itemId, request);
+        val pending = itemNamingRegistry.register(List.of("second"), TIMEOUT, itemId -> "Other fallback", request);
+
+        assertSame(names.get("second"), pending.get("second"));
+        assertEquals("Dawnbreaker", names.get("first").get(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+        assertEquals("Fallback second", names.get("second").get(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("first", "second")), requests);
+    }
+
+    @SneakyThrows
+    @Test
+    @DisplayName("Naming request completes with fallback name when reply doesn't arrive in time")
+    void completesWithFallback() {
+        kafkaTemplate.send(REPLY_TOPIC, "{\"chatId\": 1, \"items\": [{\"id\": \"other-item\", \"name\": \"Other\"}]}");
+
+        val names = itemNamingRegistry.register(List.of("unnamed-item"), Duration.ofMillis(200),
+                itemId -> "Fallback", itemIds -> {});
+
+        assertEquals("Fallback", names.get("unnamed-item").get(TIMEOUT.toSeconds(), TimeUnit.SECONDS));
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
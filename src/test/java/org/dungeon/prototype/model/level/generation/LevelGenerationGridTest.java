@@ -0,0 +1,87 @@
+package org.dungeon.prototype.model.level.generation;
+
+import lombok.val;
+import org.dungeon.prototype.BaseUnitTest;
+import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.room.Room;
+import org.dungeon.prototype.model.room.RoomType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NEIGHBOURS_COUNT;
+import static org.dungeon.prototype.model.level.generation.LevelGenerationGrid.NONE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelGenerationGridTest extends BaseUnitTest {
+
+    @Test
+    @DisplayName("Corner cell has only two neighbours on grid")
+    void getNeighbour_corner() {
+        val grid = new LevelGenerationGrid(5);
+        val corner = grid.getCell(0, 0);
+
+        int count = 0;
+        for (int i = 0; i < NEIGHBOURS_COUNT; i++) {
+            val neighbour = grid.getNeighbour(corner, i);
+            if (neighbour != NONE) {
+                count++;
+                assertTrue(grid.isAdjacent(corner, neighbour));
+            }
+        }
+
+        assertEquals(2, count);
+        assertTrue(grid.isAdjacent(corner, grid.getCell(1, 0)));
+        assertTrue(grid.isAdjacent(corner, grid.getCell(0, 1)));
+        assertFalse(grid.isAdjacent(corner, grid.getCell(1, 1)));
+    }
+
+    @Test
+    @DisplayName("Neighbours outside of cluster are filtered out")
+    void getNeighbourInCluster() {
+        val grid = new LevelGenerationGrid(10);
+        val cluster = new LevelGridCluster(new Point(0, 0), new Point(4, 4));
+        val cell = grid.getCell(4, 2);
+
+        assertEquals(3, grid.countNeighboursInCluster(cell, cluster));
+        assertEquals(1, grid.countNeighboursOutsideCluster(cell, cluster));
+        assertFalse(grid.isInCluster(grid.getCell(5, 2), cluster));
+    }
+
+    @Test
+    @DisplayName("Flags of cell are set independently")
+    void setFlags() {
+        val grid = new LevelGenerationGrid(3);
+        val cell = grid.getCell(1, 2);
+
+        grid.setDeadEnd(cell, true);
+        grid.setConnectionPoint(cell, true);
+        grid.setDeadEnd(cell, false);
+
+        assertFalse(grid.isDeadEnd(cell));
+        assertTrue(grid.isConnectionPoint(cell));
+    }
+
+    @Test
+    @DisplayName("Successfully converts grid to persisted model")
+    void toGridSections() {
+        val grid = new LevelGenerationGrid(4);
+        val cell = grid.getCell(2, 3);
+        grid.setStepsFromStart(cell, 7);
+        grid.setDeadEnd(cell, true);
+        grid.setRoomType(cell, RoomType.TREASURE);
+        val room = new Room();
+        room.setPoint(new Point(2, 3));
+        grid.putRoom(room);
+
+        val sections = grid.toGridSections();
+        val roomsMap = grid.getRoomsMap();
+
+        assertEquals(4, sections.length);
+        assertEquals(new Point(2, 3), sections[2][3].getPoint());
+        assertEquals(7, sections[2][3].getStepsFromStart());
+        assertTrue(sections[2][3].isDeadEnd());
+        assertFalse(sections[0][0].isDeadEnd());
+        assertEquals(1, roomsMap.size());
+        assertSame(room, roomsMap.get(new Point(2, 3)));
+    }
+}
@@ -0,0 +1,35 @@
+package org.dungeon.prototype.model.weight;
+
+import lombok.val;
+import org.dungeon.prototype.BaseUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeightTest extends BaseUnitTest {
+    private static final Weight FIRST = Weight.builder().hp(3.0).maxHp(4.0).attack(0.5).criticalHitMultiplier(2.0).build();
+    private static final Weight SECOND = Weight.builder().hp(-1.0).divineMagic(7.0).criticalHitMultiplier(1.5).build();
+
+    @Test
+    @DisplayName("Vector arithmetic matches commons-math vectors, critical hit multiplier left out")
+    void arithmetic() {
+        val result = FIRST.add(SECOND.getNegative()).multiply(2.0);
+
+        assertEquals(FIRST.toVector().add(SECOND.toVector().mapMultiply(-1.0)).mapMultiply(2.0), result.toVector());
+        assertEquals(0.0, result.getCriticalHitMultiplier());
+        assertEquals(result.toVector().getNorm(), result.getNorm());
+        assertEquals(2.0, FIRST.getCriticalHitMultiplier());
+        assertEquals(5.0, Weight.builder().hp(3.0).maxHp(4.0).criticalHitMultiplier(10.0).build().getNorm());
+    }
+
+    @Test
+    @DisplayName("Accumulator gives same results as immutable weight")
+    void accumulator() {
+        val accumulator = FIRST.toAccumulator().addScaled(SECOND, -1.0).scale(2.0);
+
+        assertEquals(FIRST.add(SECOND.getNegative()).multiply(2.0), accumulator.toWeight());
+        assertEquals(FIRST.add(accumulator.toWeight().getNegative()).getNorm(), accumulator.distanceTo(FIRST));
+        assertEquals(new Weight(), accumulator.reset().toWeight());
+    }
+}
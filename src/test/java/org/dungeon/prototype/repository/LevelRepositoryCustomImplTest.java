@@ -0,0 +1,127 @@
+package org.dungeon.prototype.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import lombok.val;
+import org.bson.Document;
+import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.document.item.ItemDocument;
+import org.dungeon.prototype.model.document.level.LevelDocument;
+import org.dungeon.prototype.model.document.monster.MonsterDocument;
+import org.dungeon.prototype.model.document.room.RoomContentDocument;
+import org.dungeon.prototype.model.document.room.RoomDocument;
+import org.dungeon.prototype.model.room.RoomType;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.dungeon.prototype.util.LevelUtil.getIcon;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class LevelRepositoryCustomImplTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private LevelRepositoryCustomImpl levelRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    @DisplayName("Items of several rooms are resolved with single query")
+    void resolveItems() {
+        val treasure = getRoom(RoomType.TREASURE, List.of("item_1", "item_2"));
+        val merchant = getRoom(RoomType.MERCHANT, List.of("item_3", "item_4", "item_5"));
+        val monsterRoom = getMonsterRoom();
+        when(mongoTemplate.find(any(Query.class), eq(ItemDocument.class)))
+                .thenReturn(List.of(getItem("item_5"), getItem("item_4"), getItem("item_3"), getItem("item_2"), getItem("item_1")));
+
+        levelRepository.resolveItems(List.of(getRoom(RoomType.NORMAL, null), monsterRoom, treasure, merchant));
+
+        assertEquals(List.of("item_1", "item_2"), getItemIds(treasure));
+        assertEquals(List.of("item_3", "item_4", "item_5"), getItemIds(merchant));
+        assertEquals(10, monsterRoom.getRoomContent().getMonster().getHp());
+        verify(mongoTemplate).find(any(Query.class), eq(ItemDocument.class));
+        verifyNoMoreInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Visiting room and replacing room content touch only corresponding fields of level, with single update")
+    void partialUpdates() {
+        val point = new Point(3, 4);
+        val icon = getIcon(Optional.of(RoomType.TREASURE_LOOTED));
+        val changes = new LevelChanges();
+        changes.addVisitedRoom(point, new Document("point", new Document("x", 3).append("y", 4)).append("emoji", icon));
+        changes.set("roomsMap.{\"x\":3,\"y\":4}.roomContent", new Document("roomType", "TREASURE_LOOTED"));
+        changes.set("grid.3.4.emoji", icon);
+        when(mongoTemplate.getCollectionName(LevelDocument.class)).thenReturn("levels");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("levels")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        levelRepository.applyChanges(CHAT_ID, changes);
+
+        ArgumentCaptor<Update> updateArgumentCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), updateArgumentCaptor.capture(), eq("levels"));
+        val update = updateArgumentCaptor.getValue().getUpdateObject();
+        assertEquals(Set.of("$set", "$addToSet", "$max", "$min"), update.keySet());
+        assertEquals(Set.of("levelMap.maxX", "levelMap.maxY"), update.get("$max", Document.class).keySet());
+        assertEquals(5, update.get("$max", Document.class).get("levelMap.maxY"));
+        val contentUpdate = update.get("$set", Document.class);
+        assertEquals(Set.of("roomsMap.{\"x\":3,\"y\":4}.roomContent", "grid.3.4.emoji"), contentUpdate.keySet());
+        assertEquals(icon, contentUpdate.get("grid.3.4.emoji"));
+    }
+
+    @Test
+    @DisplayName("Field set inside pending one is applied to pending value, pending fields inside newly set one are dropped")
+    void overlappingChanges() {
+        val changes = new LevelChanges();
+        changes.set("roomsMap.a", new Document("roomContent", new Document("roomType", "WEREWOLF")));
+        changes.set("roomsMap.a.roomContent.monster", new Document("hp", 0));
+        changes.set("roomsMap.b.roomContent", new Document("roomType", "TREASURE"));
+        changes.set("roomsMap.b", new Document("roomContent", new Document("roomType", "TREASURE_LOOTED")));
+
+        val update = changes.toUpdate().getUpdateObject().get("$set", Document.class);
+        assertEquals(Set.of("roomsMap.a", "roomsMap.b"), update.keySet());
+        assertEquals(new Document("roomContent", new Document("roomType", "WEREWOLF").append("monster", new Document("hp", 0))),
+                update.get("roomsMap.a"));
+        assertEquals(new Document("roomContent", new Document("roomType", "TREASURE_LOOTED")), update.get("roomsMap.b"));
+    }
+
+    private static RoomDocument getRoom(RoomType roomType, List<String> itemIds) {
+        val content = new RoomContentDocument();
+        content.setRoomType(roomType);
+        content.setItemIds(itemIds);
+        val room = new RoomDocument();
+        room.setRoomContent(content);
+        return room;
+    }
+
+    private static RoomDocument getMonsterRoom() {
+        val room = getRoom(RoomType.WEREWOLF, null);
+        val monster = new MonsterDocument();
+        monster.setHp(10);
+        room.getRoomContent().setMonster(monster);
+        return room;
+    }
+
+    private static ItemDocument getItem(String id) {
+        val item = new ItemDocument();
+        item.setId(id);
+        return item;
+    }
+
+    private static List<String> getItemIds(RoomDocument room) {
+        return room.getRoomContent().getItems().stream().map(ItemDocument::getId).toList();
+    }
+}
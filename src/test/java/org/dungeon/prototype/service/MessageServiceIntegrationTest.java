@@ -3,7 +3,10 @@ package org.dungeon.prototype.service;
 import lombok.SneakyThrows;
 import lombok.val;
 import org.dungeon.prototype.aspect.MessagingAspectHandler;
+import org.dungeon.prototype.bot.CallbackCodec;
+import org.dungeon.prototype.bot.CallbackRouter;
 import org.dungeon.prototype.bot.DungeonBot;
+import org.dungeon.prototype.bot.OutboundMessageScheduler;
 import org.dungeon.prototype.config.TestConfig;
 import org.dungeon.prototype.model.Direction;
 import org.dungeon.prototype.model.room.Room;
@@ -61,6 +64,8 @@ import static org.mockito.Mockito.when;
         MessageService.class,
         MessagingConstants.class,
         KeyboardService.class,
+        CallbackCodec.class,
+        CallbackRouter.class,
         MessageSender.class,
         DungeonBot.class
 })
@@ -75,6 +80,8 @@ public class MessageServiceIntegrationTest {
     private RoomRenderer roomRenderer;
     @MockBean
     private DungeonBot dungeonBot;
+    @MockBean
+    private OutboundMessageScheduler outboundMessageScheduler;
 
     @SneakyThrows
     @Test
@@ -83,12 +90,12 @@ public class MessageServiceIntegrationTest {
         val message = mock(Message.class);
         ArgumentCaptor<SendPhoto> messageCaptor = ArgumentCaptor.forClass(SendPhoto.class);
 
-        doNothing().when(dungeonBot).sendMessage(anyLong(), any(SendMessage.class));
+        doNothing().when(outboundMessageScheduler).send(anyLong(), any(SendMessage.class));
         when(message.getMessageId()).thenReturn(MESSAGE_ID);
 
         messageService.sendStartMessage(CHAT_ID, "nickname", false);
 
-        verify(dungeonBot).sendMessage(eq(CHAT_ID), messageCaptor.capture());
+        verify(outboundMessageScheduler).send(eq(CHAT_ID), messageCaptor.capture());
 
         SendPhoto sentMessage = messageCaptor.getValue();
         assertEquals(CHAT_ID.toString(), sentMessage.getChatId());
@@ -101,13 +108,13 @@ public class MessageServiceIntegrationTest {
     public void sendsRegisterMessage() {
         val message = mock(Message.class);
         ArgumentCaptor<SendMessage> messageCaptor = ArgumentCaptor.forClass(SendMessage.class);
-        doNothing().when(dungeonBot).sendMessage(anyLong(), any(SendMessage.class));
+        doNothing().when(outboundMessageScheduler).send(anyLong(), any(SendMessage.class));
         when(message.getMessageId()).thenReturn(MESSAGE_ID);
         when(message.getChatId()).thenReturn(CHAT_ID);
 
         messageService.sendRegisterMessage(CHAT_ID);
 
-        verify(dungeonBot).sendMessage(eq(CHAT_ID), messageCaptor.capture());
+        verify(outboundMessageScheduler).send(eq(CHAT_ID), messageCaptor.capture());
         SendMessage sentMessage = messageCaptor.getValue();
         assertEquals(CHAT_ID.toString(), sentMessage.getChatId());
         assertEquals("Welcome to dungeon!\nPlease, enter nickname to register", sentMessage.getText());
@@ -120,7 +127,7 @@ public class MessageServiceIntegrationTest {
         messageService.sendStartMessage(CHAT_ID, "nickname", false);
 
         ArgumentCaptor<SendPhoto> messageCaptor = ArgumentCaptor.forClass(SendPhoto.class);
-        verify(dungeonBot).sendMessage(eq(CHAT_ID), messageCaptor.capture());
+        verify(outboundMessageScheduler).send(eq(CHAT_ID), messageCaptor.capture());
 
         SendPhoto sentMessage = messageCaptor.getValue();
         assertEquals(CHAT_ID.toString(), sentMessage.getChatId());
@@ -160,7 +167,7 @@ public class MessageServiceIntegrationTest {
 
                 ArgumentCaptor<SendPhoto> messageCaptor = ArgumentCaptor.forClass(SendPhoto.class);
 
-                verify(dungeonBot).sendMessage(eq(CHAT_ID), messageCaptor.capture());
+                verify(outboundMessageScheduler).send(eq(CHAT_ID), messageCaptor.capture());
 
                 SendPhoto sentMessage = messageCaptor.getValue();
                 assertEquals(CHAT_ID.toString(), sentMessage.getChatId());
@@ -176,7 +183,7 @@ public class MessageServiceIntegrationTest {
         messageService.sendPlayerStatsMessage(CHAT_ID, player);
 
         ArgumentCaptor<SendMessage> messageCaptor = ArgumentCaptor.forClass(SendMessage.class);
-        verify(dungeonBot).sendMessage(eq(CHAT_ID), messageCaptor.capture());
+        verify(outboundMessageScheduler).send(eq(CHAT_ID), messageCaptor.capture());
 
         SendMessage sendMessage = messageCaptor.getValue();
         assertEquals(CHAT_ID.toString(), sendMessage.getChatId());
@@ -0,0 +1,56 @@
+package org.dungeon.prototype.service.effect;
+
+import lombok.val;
+import org.dungeon.prototype.model.effect.PermanentAdditionEffect;
+import org.dungeon.prototype.model.effect.PermanentMultiplicationEffect;
+import org.dungeon.prototype.model.effect.attributes.Action;
+import org.dungeon.prototype.model.inventory.attributes.MagicType;
+import org.dungeon.prototype.model.inventory.items.Wearable;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+
+import java.util.ArrayList;
+
+import static org.dungeon.prototype.model.effect.attributes.EffectAttribute.CHANCE_TO_DODGE;
+import static org.dungeon.prototype.model.effect.attributes.EffectAttribute.GOLD_BONUS;
+import static org.dungeon.prototype.model.effect.attributes.EffectAttribute.HEALTH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EffectFactoryTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private EffectFactory effectFactory;
+
+    @Test
+    @DisplayName("Generates item effect of expected weight change without changing item")
+    void generateItemEffect() {
+        val wearable = new Wearable();
+        wearable.setArmor(5);
+        wearable.setChanceToDodge(0.1);
+        wearable.setMagicType(MagicType.of(0.0, 0.0));
+        wearable.setEffects(new ArrayList<>());
+        val initialWeight = wearable.getWeight();
+
+        val multiplication = effectFactory.generateItemEffect(wearable, CHANCE_TO_DODGE, Action.MULTIPLY, 0.3);
+        val addition = effectFactory.generateItemEffect(wearable, GOLD_BONUS, Action.ADD, 7.0);
+
+        assertTrue(wearable.getEffects().isEmpty());
+        assertEquals(initialWeight, wearable.getWeight());
+        assertInstanceOf(PermanentMultiplicationEffect.class, multiplication);
+        assertEquals(0.3, multiplication.getWeight().getNorm(), 1e-6);
+        assertInstanceOf(PermanentAdditionEffect.class, addition);
+        assertEquals(7.0, addition.getWeight().getNorm());
+    }
+
+    @Test
+    @DisplayName("Finds closest regeneration effect")
+    void generateRegenerationEffect() {
+        val regeneration = effectFactory.generateRegenerationEffect(HEALTH, 7.5);
+
+        assertEquals(7.5, regeneration.getWeight().getNorm());
+        assertTrue(regeneration.getTurnsLeft() > 0);
+    }
+}
@@ -0,0 +1,81 @@
+package org.dungeon.prototype.service.effect;
+
+import lombok.val;
+import org.dungeon.prototype.model.inventory.attributes.MagicType;
+import org.dungeon.prototype.model.inventory.attributes.Quality;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableAttributes;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableType;
+import org.dungeon.prototype.model.inventory.items.Wearable;
+import org.dungeon.prototype.properties.ItemEffectsGenerationProperties;
+import org.dungeon.prototype.properties.ItemsGenerationProperties;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class ItemEffectsGeneratorTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private ItemEffectsGenerator itemEffectsGenerator;
+    @Spy
+    private EffectFactory effectFactory = new EffectFactory();
+    @Mock
+    private ItemsGenerationProperties itemsGenerationProperties;
+
+    @Test
+    @DisplayName("Copy of item gets new id and effect, initial item stays unchanged")
+    void copyItemAndAddEffect() {
+        val vanillaItem = getWearable();
+        val vanillaWeight = vanillaItem.getWeight();
+
+        val copy = itemEffectsGenerator.copyItemAndAddEffect(vanillaItem, 0.5).orElseThrow();
+
+        assertNotNull(copy.getId());
+        assertNotEquals(vanillaItem.getId(), copy.getId());
+        assertEquals(vanillaItem.getTemplateId(), copy.getTemplateId());
+        assertEquals(1, copy.getEffects().size());
+        assertTrue(vanillaItem.getEffects().isEmpty());
+        assertEquals(vanillaWeight, vanillaItem.getWeight());
+    }
+
+    @Test
+    @DisplayName("Effects are added up to minimal amount, weight of item with all of them is returned")
+    void addItemEffect() {
+        val effectsProperties = new ItemEffectsGenerationProperties();
+        effectsProperties.setMinimumAmountPerItemMap(Map.of(Quality.RARE, 2));
+        effectsProperties.setMaximumAmountPerItemMap(Map.of(Quality.RARE, 3));
+        when(itemsGenerationProperties.getEffects()).thenReturn(effectsProperties);
+        val item = getWearable();
+
+        val weight = itemEffectsGenerator.addItemEffect(item, 0.5).orElseThrow();
+
+        assertEquals(2, item.getEffects().size());
+        assertEquals(item.getWeight().getNorm(), weight);
+    }
+
+    private static Wearable getWearable() {
+        val attributes = new WearableAttributes();
+        attributes.setWearableType(WearableType.GLOVES);
+        attributes.setQuality(Quality.RARE);
+        val wearable = new Wearable();
+        wearable.setId("item_id");
+        wearable.setTemplateId("template_id");
+        wearable.setChatId(CHAT_ID);
+        wearable.setAttributes(attributes);
+        wearable.setArmor(5);
+        wearable.setChanceToDodge(0.1);
+        wearable.setMagicType(MagicType.of(0.0, 0.0));
+        wearable.setEffects(new ArrayList<>());
+        return wearable;
+    }
+}
@@ -1,11 +1,243 @@
 package org.dungeon.prototype.service.generation;
 
-import org.dungeon.prototype.config.BotConfig;
-import org.dungeon.prototype.config.TestConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.dungeon.prototype.model.Direction;
+import org.dungeon.prototype.model.effect.AdditionEffect;
+import org.dungeon.prototype.model.effect.Effect;
+import org.dungeon.prototype.model.effect.ExpirableEffect;
+import org.dungeon.prototype.model.effect.MultiplicationEffect;
+import org.dungeon.prototype.model.inventory.Item;
+import org.dungeon.prototype.model.inventory.items.Usable;
+import org.dungeon.prototype.model.level.Level;
+import org.dungeon.prototype.model.monster.MonsterAttack;
+import org.dungeon.prototype.model.player.Player;
+import org.dungeon.prototype.model.room.content.ItemsRoom;
+import org.dungeon.prototype.model.room.content.MonsterRoom;
+import org.dungeon.prototype.model.room.content.RoomContent;
+import org.dungeon.prototype.model.room.content.Shrine;
+import org.dungeon.prototype.model.room.content.Treasure;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.repository.MonsterSolutionRepository;
+import org.dungeon.prototype.service.effect.EffectFactory;
+import org.dungeon.prototype.service.item.ItemService;
+import org.dungeon.prototype.service.level.generation.LevelGenerationService;
+import org.dungeon.prototype.service.room.generation.room.content.AnvilFactory;
+import org.dungeon.prototype.service.room.generation.room.content.MonsterFactory;
+import org.dungeon.prototype.service.room.generation.room.content.MonsterSolverCache;
+import org.dungeon.prototype.service.room.generation.room.content.MonsterStatTable;
+import org.dungeon.prototype.service.room.generation.room.content.RoomContentGenerationService;
+import org.dungeon.prototype.service.weight.WeightCalculationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest(classes = {BotConfig.class, TestConfig.class})
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.isNull;
+import static org.dungeon.prototype.TestData.getPlayer;
+import static org.dungeon.prototype.util.LevelUtil.getNextPointInDirection;
+import static org.dungeon.prototype.util.LevelUtil.getOppositeDirection;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {
+        LevelGenerationServiceTest.LevelGenerationTestConfig.class,
+        GenerationProperties.class,
+        LevelGenerationService.class,
+        RoomContentGenerationService.class,
+        WeightCalculationService.class,
+        MonsterFactory.class,
+        MonsterSolverCache.class,
+        MonsterStatTable.class,
+        EffectFactory.class,
+        AnvilFactory.class
+})
 @ActiveProfiles("test")
 public class LevelGenerationServiceTest {
+    private static final Long CHAT_ID = 123456789L;
+    private static final long SEED = 0x5eed5eedL;
+    private static final int ITEMS_COUNT = 500;
+
+    @Autowired
+    private LevelGenerationService levelGenerationService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @MockBean
+    private ItemService itemService;
+
+    private final List<Item> items = new ArrayList<>();
+
+    @TestConfiguration
+    static class LevelGenerationTestConfig {
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public MonsterSolutionRepository monsterSolutionRepository() {
+            val monsterSolutionRepository = mock(MonsterSolutionRepository.class);
+            when(monsterSolutionRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+            return monsterSolutionRepository;
+        }
+    }
+
+    /**
+     * Item service picks first items of fixed catalog that aren't used yet,
+     * so concurrently populated clusters pick same items
+     */
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            val item = new Usable();
+            item.setId("item_" + i);
+            item.setAmount(i + 1);
+            item.setEffects(new ArrayList<>());
+            items.add(item);
+        }
+        when(itemService.getExpectedWeightItems(anyLong(), any(), anyInt(), any())).thenAnswer(invocation -> {
+            int maxItems = invocation.getArgument(2);
+            Set<String> usedItemIds = invocation.getArgument(3);
+            return items.stream()
+                    .filter(item -> !usedItemIds.contains(item.getId()))
+                    .limit(maxItems)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        });
+        when(itemService.getHighQualityItem(anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            Set<String> usedItemIds = invocation.getArgument(2);
+            return items.stream()
+                    .filter(item -> !usedItemIds.contains(item.getId()))
+                    .findFirst().orElseThrow();
+        });
+    }
+
+    @Test
+    @DisplayName("Level of several clusters has no item in two rooms and consistent adjacency of rooms")
+    void generateLevel_multipleClusters() {
+        val level = levelGenerationService.generateLevel(CHAT_ID, getGenerationPlayer(), 20, SEED);
+
+        Set<String> itemIds = new HashSet<>();
+        int itemsRooms = 0;
+        for (val room : level.getRoomsMap().values()) {
+            if (room.getRoomContent() instanceof ItemsRoom itemsRoom) {
+                itemsRooms++;
+                for (Item item : itemsRoom.getItems()) {
+                    assertTrue(itemIds.add(item.getId()), "Item " + item.getId() + " is in several rooms");
+                }
+            }
+            for (Direction direction : Direction.values()) {
+                if (room.getAdjacentRooms().get(direction)) {
+                    val adjacentRoom = level.getRoomsMap().get(getNextPointInDirection(room.getPoint(), direction));
+                    assertNotNull(adjacentRoom, "No room adjacent to " + room.getPoint() + " in " + direction);
+                    assertTrue(adjacentRoom.getAdjacentRooms().get(getOppositeDirection(direction)),
+                            "Room " + adjacentRoom.getPoint() + " isn't adjacent back to " + room.getPoint());
+                }
+            }
+        }
+        assertTrue(itemsRooms > 1);
+        assertNotNull(level.getRoomsMap().get(level.getEnd()));
+    }
+
+    @Test
+    @DisplayName("Same seed yields same level, including monsters solved and then taken from solver cache")
+    void generateLevel_sameSeed() {
+        val level = levelGenerationService.generateLevel(CHAT_ID, getGenerationPlayer(), 20, SEED);
+        val hits = meterRegistry.counter("dungeon.monster.solver.cache", "result", "hit").count();
+        val replayedLevel = levelGenerationService.generateLevel(CHAT_ID, getGenerationPlayer(), 20, SEED);
+
+        assertTrue(meterRegistry.counter("dungeon.monster.solver.cache", "result", "hit").count() > hits);
+        assertEquals(level.getStart(), replayedLevel.getStart());
+        assertEquals(level.getEnd(), replayedLevel.getEnd());
+        assertEquals(level.getGrid().length, replayedLevel.getGrid().length);
+        for (int x = 0; x < level.getGrid().length; x++) {
+            assertArrayEquals(level.getGrid()[x], replayedLevel.getGrid()[x]);
+        }
+        assertEquals(level.getRoomsMap().keySet(), replayedLevel.getRoomsMap().keySet());
+        level.getRoomsMap().forEach((point, room) -> {
+            val replayedRoom = replayedLevel.getRoomsMap().get(point);
+            assertEquals(room.getAdjacentRooms(), replayedRoom.getAdjacentRooms());
+            assertEquals(describe(room.getRoomContent()), describe(replayedRoom.getRoomContent()), "Room " + point);
+        });
+        assertTrue(getMonstersCount(level) > 0);
+    }
+
+    private static Player getGenerationPlayer() {
+        val player = getPlayer(CHAT_ID);
+        player.setChanceToDodge(0.0);
+        return player;
+    }
+
+    private static long getMonstersCount(Level level) {
+        return level.getRoomsMap().values().stream()
+                .filter(room -> room.getRoomContent() instanceof MonsterRoom)
+                .count();
+    }
+
+    /**
+     * Describes content skipping ids of monsters, which are generated anew
+     */
+    private static String describe(RoomContent roomContent) {
+        val description = new StringBuilder(roomContent.getRoomType().toString());
+        if (roomContent instanceof MonsterRoom monsterRoom) {
+            val monster = monsterRoom.getMonster();
+            description.append(" hp=").append(monster.getMaxHp())
+                    .append(" primary=").append(describe(monster.getPrimaryAttack()))
+                    .append(" secondary=").append(describe(monster.getSecondaryAttack()));
+        }
+        if (roomContent instanceof ItemsRoom itemsRoom) {
+            description.append(" items=").append(itemsRoom.getItems().stream().map(Item::getId).sorted().toList());
+        }
+        if (roomContent instanceof Treasure treasure) {
+            description.append(" gold=").append(treasure.getGold());
+        }
+        if (roomContent instanceof Shrine shrine) {
+            description.append(" effect=").append(describe(shrine.getEffect()));
+        }
+        return description.toString();
+    }
+
+    private static String describe(MonsterAttack attack) {
+        return attack.getAttackType() + ":" + attack.getAttack() + "," + attack.getCriticalHitChance() + "," +
+                attack.getCriticalHitMultiplier() + "," + attack.getChanceToKnockOut() + "," + attack.getChanceToMiss() + "," +
+                attack.getCausingEffectProbability() + "," + describe(attack.getEffect());
+    }
+
+    private static String describe(Effect effect) {
+        if (isNull(effect)) {
+            return "none";
+        }
+        val description = new StringBuilder(effect.getAttribute() + " " + effect.getAction());
+        if (effect instanceof AdditionEffect additionEffect) {
+            description.append(" ").append(additionEffect.getAmount());
+        }
+        if (effect instanceof MultiplicationEffect multiplicationEffect) {
+            description.append(" ").append(multiplicationEffect.getMultiplier());
+        }
+        if (effect instanceof ExpirableEffect expirableEffect) {
+            description.append(" for ").append(expirableEffect.getTurnsLeft());
+        }
+        return description.toString();
+    }
 }
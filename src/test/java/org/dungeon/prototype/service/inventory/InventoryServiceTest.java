@@ -28,6 +28,7 @@ import org.dungeon.prototype.service.effect.EffectService;
 import org.dungeon.prototype.service.item.ItemService;
 import org.dungeon.prototype.service.message.MessageService;
 import org.dungeon.prototype.service.room.RoomService;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.dungeon.prototype.util.GenerationUtil;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -73,6 +74,8 @@ class InventoryServiceTest extends BaseServiceUnitTest {
     private MessageService messageService;
     @Mock
     private InventoryRepository inventoryRepository;
+    @Mock
+    private GameSessionCache gameSessionCache;
 
     @Test
     @DisplayName("Sets default inventory with items from repository and returns it")
@@ -127,7 +130,7 @@ class InventoryServiceTest extends BaseServiceUnitTest {
     }
 
     @Test
-    @DisplayName("Successfully saves inventory to repository and returns saved value")
+    @DisplayName("Successfully saves inventory to repository and cached player, returns saved value")
     void saveOrUpdateInventory() {
         val expectedInventory = new Inventory();
         expectedInventory.setItems(new ArrayList<>());
@@ -137,9 +140,10 @@ class InventoryServiceTest extends BaseServiceUnitTest {
 
         when(inventoryRepository.save(any(InventoryDocument.class))).thenReturn(inventoryDocument);
 
-        val actualInventory = inventoryService.saveOrUpdateInventory(expectedInventory);
+        val actualInventory = inventoryService.saveOrUpdateInventory(CHAT_ID, expectedInventory);
 
         assertEquals(expectedInventory, actualInventory);
+        verify(gameSessionCache).updateInventory(CHAT_ID, inventoryDocument);
     }
 
     @Test
@@ -0,0 +1,73 @@
+package org.dungeon.prototype.service.item;
+
+import lombok.val;
+import org.dungeon.prototype.BaseUnitTest;
+import org.dungeon.prototype.model.document.item.ItemAttributes;
+import org.dungeon.prototype.model.document.item.ItemType;
+import org.dungeon.prototype.model.inventory.attributes.Quality;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttributes;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableAttributes;
+import org.dungeon.prototype.repository.projections.ItemCatalogProjection;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemCatalogTest extends BaseUnitTest {
+    private static final ItemCatalog CATALOG = ItemCatalog.of(List.of(
+            weapon("sword", 7.0, Quality.MYTHIC),
+            wearable("vest", 2.0, Quality.COMMON),
+            weapon("dagger", 3.0, Quality.RARE),
+            wearable("helmet", 5.0, Quality.LEGENDARY),
+            wearable("boots", 5.0, Quality.COMMON)));
+
+    @Test
+    @DisplayName("Closest lesser items are taken heaviest first, skipping used ones")
+    void findClosestLesser() {
+        val available = CATALOG.getAvailable(Set.of("helmet", "unknown"));
+
+        assertEquals(List.of("boots", "dagger"), CATALOG.findClosestLesser(available, 7.0, 2));
+        assertEquals(List.of("sword", "boots", "dagger", "vest"), CATALOG.findClosestLesser(available, 10.0, 10));
+        assertEquals(Collections.emptyList(), CATALOG.findClosestLesser(available, 2.0, 3));
+    }
+
+    @Test
+    @DisplayName("Quality and item type filters keep weight order")
+    void filter() {
+        val available = CATALOG.getAvailable(Collections.emptySet());
+        val highQuality = CATALOG.filterByQuality(available, Set.of(Quality.LEGENDARY, Quality.MYTHIC));
+        val weapons = CATALOG.filterByItemType(available, ItemType.WEAPON);
+
+        assertEquals("helmet", CATALOG.getId(CATALOG.findLightest(highQuality)));
+        assertEquals("sword", CATALOG.getId(CATALOG.findHeaviest(highQuality)));
+        assertEquals("helmet", CATALOG.getId(CATALOG.findClosestLesser(highQuality, 6.0)));
+        assertEquals("dagger", CATALOG.getId(CATALOG.findLightest(weapons)));
+        assertEquals(-1, CATALOG.findHeaviest(CATALOG.filterByItemType(available, ItemType.USABLE)));
+    }
+
+    private static ItemCatalogProjection weapon(String id, double weightAbs, Quality quality) {
+        val attributes = new WeaponAttributes();
+        attributes.setQuality(quality);
+        return projection(id, weightAbs, ItemType.WEAPON, attributes);
+    }
+
+    private static ItemCatalogProjection wearable(String id, double weightAbs, Quality quality) {
+        val attributes = new WearableAttributes();
+        attributes.setQuality(quality);
+        return projection(id, weightAbs, ItemType.WEARABLE, attributes);
+    }
+
+    private static ItemCatalogProjection projection(String id, double weightAbs, ItemType itemType,
+                                                    ItemAttributes attributes) {
+        val projection = new ItemCatalogProjection();
+        projection.setId(id);
+        projection.setWeightAbs(weightAbs);
+        projection.setItemType(itemType);
+        projection.setAttributes(attributes);
+        return projection;
+    }
+}
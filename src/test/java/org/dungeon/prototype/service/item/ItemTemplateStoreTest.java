@@ -0,0 +1,123 @@
+package org.dungeon.prototype.service.item;
+
+import lombok.val;
+import org.dungeon.prototype.model.document.item.ItemDocument;
+import org.dungeon.prototype.model.document.item.ItemType;
+import org.dungeon.prototype.model.inventory.attributes.MagicType;
+import org.dungeon.prototype.model.inventory.attributes.Quality;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableAttributes;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableType;
+import org.dungeon.prototype.model.inventory.items.Wearable;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.properties.ItemsGenerationProperties;
+import org.dungeon.prototype.properties.WeaponGenerationProperties;
+import org.dungeon.prototype.properties.WearableGenerationProperties;
+import org.dungeon.prototype.repository.ItemTemplateRepository;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.dungeon.prototype.util.RandomUtil.getRandomInt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemTemplateStoreTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private ItemTemplateStore itemTemplateStore;
+    @Mock
+    private GenerationProperties generationProperties;
+    @Mock
+    private ItemTemplateRepository itemTemplateRepository;
+
+    @BeforeEach
+    void setUp() {
+        val itemsProperties = new ItemsGenerationProperties();
+        itemsProperties.setWeapon(new WeaponGenerationProperties());
+        itemsProperties.setWearables(new WearableGenerationProperties());
+        when(generationProperties.getItems()).thenReturn(itemsProperties);
+        when(itemTemplateRepository.findAll()).thenReturn(Collections.emptyList());
+        itemTemplateStore.init();
+    }
+
+    @Test
+    @DisplayName("Template of attributes combination is created once and reused afterwards")
+    void createsTemplatesOnce() {
+        val created = new AtomicInteger();
+        val attributes = List.of(getAttributes(WearableType.HELMET), getAttributes(WearableType.BOOTS));
+
+        val templates = itemTemplateStore.getTemplates(attributes, itemAttributes -> {
+            created.incrementAndGet();
+            return getVanillaWearable(itemAttributes);
+        });
+        val reused = itemTemplateStore.getTemplates(List.of(getAttributes(WearableType.BOOTS)), itemAttributes -> {
+            created.incrementAndGet();
+            return getVanillaWearable(itemAttributes);
+        });
+
+        assertEquals(2, created.get());
+        assertSame(templates.get(1), reused.getFirst());
+        assertEquals(ItemType.WEARABLE, templates.getFirst().getItemType());
+        verify(itemTemplateRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Chat item is stored with reference to template only and is restored from it on read")
+    void detachesAndAttachesTemplate() {
+        val template = itemTemplateStore.getTemplates(List.of(getAttributes(WearableType.VEST)), this::getVanillaWearable).getFirst();
+        val document = itemTemplateStore.newItemDocument(template, CHAT_ID);
+        document.setId("item_id");
+        document.setName("Vest of the test");
+
+        val detached = itemTemplateStore.detach(document);
+        assertNull(detached.getAttributes());
+        assertNull(detached.getArmor());
+        assertNull(detached.getMagicType());
+        assertEquals(template.getId(), detached.getTemplateId());
+        assertEquals(template.getWeightAbs(), detached.getWeightAbs());
+
+        val restored = itemTemplateStore.onAfterConvert(detached, null, "items");
+        assertEquals(document, restored);
+    }
+
+    @Test
+    @DisplayName("Items without template are stored and read as they are")
+    void keepsItemsWithoutTemplate() {
+        val document = new ItemDocument();
+        document.setArmor(5);
+
+        assertSame(document, itemTemplateStore.detach(document));
+        assertSame(document, itemTemplateStore.attach(document));
+    }
+
+    private Wearable getVanillaWearable(WearableAttributes attributes) {
+        val wearable = new Wearable();
+        wearable.setAttributes(attributes);
+        wearable.setEffects(new ArrayList<>());
+        wearable.setArmor(getRandomInt(1, 100));
+        wearable.setChanceToDodge(0.1);
+        wearable.setMagicType(MagicType.of(0.0, 0.0));
+        return wearable;
+    }
+
+    private static WearableAttributes getAttributes(WearableType wearableType) {
+        val attributes = new WearableAttributes();
+        attributes.setWearableType(wearableType);
+        attributes.setWearableMaterial(WearableMaterial.STEEL);
+        attributes.setQuality(Quality.RARE);
+        return attributes;
+    }
+}
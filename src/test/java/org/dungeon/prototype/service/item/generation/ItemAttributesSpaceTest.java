@@ -0,0 +1,123 @@
+package org.dungeon.prototype.service.item.generation;
+
+import lombok.val;
+import org.dungeon.prototype.model.inventory.attributes.Quality;
+import org.dungeon.prototype.model.inventory.attributes.weapon.Handling;
+import org.dungeon.prototype.model.inventory.attributes.weapon.Size;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponAttackType;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponHandlerMaterial;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponMaterial;
+import org.dungeon.prototype.model.inventory.attributes.weapon.WeaponType;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableMaterial;
+import org.dungeon.prototype.model.inventory.attributes.wearable.WearableType;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.properties.ItemsGenerationProperties;
+import org.dungeon.prototype.properties.WeaponGenerationProperties;
+import org.dungeon.prototype.properties.WearableGenerationProperties;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.dungeon.prototype.util.RandomUtil.withSeed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class ItemAttributesSpaceTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private ItemAttributesSpace itemAttributesSpace;
+    @Mock
+    private GenerationProperties generationProperties;
+
+    private final WeaponGenerationProperties weaponProperties = new WeaponGenerationProperties();
+    private final WearableGenerationProperties wearableProperties = new WearableGenerationProperties();
+
+    @BeforeEach
+    void setUp() {
+        weaponProperties.setDefaultAttributes(allOf(WeaponType.values(), new WeaponGenerationProperties.WeaponDefaultAttributes()));
+        weaponProperties.setHandlingAdjustmentAttributes(allOf(Handling.values(), new WeaponGenerationProperties.AdjustmentAttributes()));
+        weaponProperties.setWeaponMaterialAdjustmentAttributes(allOf(WeaponMaterial.values(), new WeaponGenerationProperties.AdjustmentAttributes()));
+        weaponProperties.setWeaponHandlerMaterialAdjustmentAttributes(allOf(WeaponHandlerMaterial.values(), new WeaponGenerationProperties.AdjustmentAttributes()));
+        weaponProperties.setCompleteMaterialAdjustmentAttributes(Map.of());
+        weaponProperties.setSizeAdjustmentAttributes(allOf(Size.values(), new WeaponGenerationProperties.AdjustmentAttributes()));
+        weaponProperties.setAttackTypeAdjustmentAttributes(allOf(WeaponAttackType.values(), new WeaponGenerationProperties.AdjustmentAttributes()));
+        weaponProperties.setQualityAdjustmentRatio(allOf(Quality.values(), 1.0));
+        wearableProperties.setArmorBonus(allOf(WearableMaterial.values(), 1));
+        wearableProperties.setChanceToDodgeRatio(allOf(WearableMaterial.values(), 0.1));
+        wearableProperties.setQualityAdjustmentRatio(allOf(Quality.values(), 1.0));
+        val itemsProperties = new ItemsGenerationProperties();
+        itemsProperties.setWeapon(weaponProperties);
+        itemsProperties.setWearables(wearableProperties);
+        when(generationProperties.getItems()).thenReturn(itemsProperties);
+    }
+
+    @Test
+    @DisplayName("Enumerated combinations are distinct and follow generation constraints")
+    void enumeratesValidCombinations() {
+        itemAttributesSpace.init();
+
+        val weapons = ItemAttributesSpace.enumerateWeaponAttributes(weaponProperties);
+        assertEquals(weapons.size(), new HashSet<>(weapons).size());
+        assertEquals(weapons.size(), itemAttributesSpace.getWeaponAttributesCount());
+        assertTrue(weapons.stream().filter(attributes -> Handling.TWO_HANDED.equals(attributes.getHandling()))
+                .allMatch(attributes -> Size.LARGE.equals(attributes.getSize())));
+        assertTrue(weapons.stream().filter(attributes -> WeaponType.DAGGER.equals(attributes.getWeaponType()))
+                .allMatch(attributes -> Handling.SINGLE_HANDED.equals(attributes.getHandling()) &&
+                        WeaponAttackType.STAB.equals(attributes.getWeaponAttackType()) &&
+                        !Size.LARGE.equals(attributes.getSize())));
+        assertTrue(weapons.stream().filter(attributes -> WeaponMaterial.DRAGON_BONE.equals(attributes.getWeaponMaterial()) &&
+                        WeaponHandlerMaterial.DRAGON_BONE.equals(attributes.getWeaponHandlerMaterial()))
+                .allMatch(attributes -> Quality.MYTHIC.equals(attributes.getQuality())));
+
+        val wearables = ItemAttributesSpace.enumerateWearableAttributes(wearableProperties);
+        assertEquals(wearables.size(), new HashSet<>(wearables).size());
+        assertFalse(wearables.stream().anyMatch(attributes -> WearableType.BOOTS.equals(attributes.getWearableType()) &&
+                WearableMaterial.WOOL.equals(attributes.getWearableMaterial())));
+        assertTrue(wearables.stream().filter(attributes -> WearableType.HELMET.equals(attributes.getWearableType()))
+                .allMatch(attributes -> Stream.of(WearableMaterial.IRON, WearableMaterial.STEEL, WearableMaterial.MITHRIL)
+                        .anyMatch(attributes.getWearableMaterial()::equals)));
+    }
+
+    @Test
+    @DisplayName("Combinations which parameters aren't configured are excluded")
+    void excludesUnconfiguredCombinations() {
+        weaponProperties.getDefaultAttributes().remove(WeaponType.SPEAR);
+        weaponProperties.getQualityAdjustmentRatio().remove(Quality.MYTHIC);
+
+        itemAttributesSpace.init();
+
+        val weapons = ItemAttributesSpace.enumerateWeaponAttributes(weaponProperties);
+        assertEquals(weapons.size(), itemAttributesSpace.getWeaponAttributesCount());
+        assertTrue(weapons.stream().noneMatch(attributes -> WeaponType.SPEAR.equals(attributes.getWeaponType()) ||
+                Quality.MYTHIC.equals(attributes.getQuality())));
+    }
+
+    @Test
+    @DisplayName("Sampling draws distinct combinations, is reproducible by seed and is capped by size of space")
+    void samplesWithoutReplacement() {
+        itemAttributesSpace.init();
+
+        val sampled = withSeed(42L, () -> itemAttributesSpace.sampleWeaponAttributes(100));
+        assertEquals(100, new HashSet<>(sampled).size());
+        assertEquals(sampled, withSeed(42L, () -> itemAttributesSpace.sampleWeaponAttributes(100)));
+
+        val all = itemAttributesSpace.sampleWearableAttributes(Integer.MAX_VALUE);
+        assertEquals(itemAttributesSpace.getWearableAttributesCount(), new HashSet<>(all).size());
+    }
+
+    private static <K extends Enum<K>, V> Map<K, V> allOf(K[] keys, V value) {
+        return Stream.of(keys).collect(Collectors.toMap(Function.identity(), key -> value,
+                (first, second) -> first, () -> new EnumMap<>(keys[0].getDeclaringClass())));
+    }
+}
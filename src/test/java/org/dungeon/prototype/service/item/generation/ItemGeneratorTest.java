@@ -0,0 +1,123 @@
+package org.dungeon.prototype.service.item.generation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.dungeon.prototype.service.effect.ItemEffectsGenerator;
+import org.dungeon.prototype.service.item.ItemService;
+import org.dungeon.prototype.service.item.ItemTemplateStore;
+import org.dungeon.prototype.service.message.MessageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemGeneratorTest extends BaseServiceUnitTest {
+    private static final Long OTHER_CHAT_ID = 987654321L;
+
+    @InjectMocks
+    private ItemGenerator itemGenerator;
+    @Mock
+    private ItemService itemService;
+    @Mock
+    private MessageService messageService;
+    @Mock
+    private ItemEffectsGenerator itemEffectsGenerator;
+    @Mock
+    private ItemAttributesSpace itemAttributesSpace;
+    @Mock
+    private ItemTemplateStore itemTemplateStore;
+    @Mock
+    private ItemNamingService itemNamingService;
+    @Mock
+    private GenerationProperties generationProperties;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GenerationProperties.ItemGenerationExecutorAttributes executorProperties = new GenerationProperties.ItemGenerationExecutorAttributes();
+    private final CountDownLatch weaponsStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseWeapons = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(itemGenerator, "weaponAttributesPoolSize", 10);
+        ReflectionTestUtils.setField(itemGenerator, "weaponPerGame", 0);
+        ReflectionTestUtils.setField(itemGenerator, "wearableAttributesPoolSize", 10);
+        ReflectionTestUtils.setField(itemGenerator, "wearablesPerGame", 0);
+        executorProperties.setPoolSize(1);
+        when(generationProperties.getItemExecutor()).thenReturn(executorProperties);
+        //first weapons phase holds the only worker until released
+        when(itemAttributesSpace.sampleWeaponAttributes(anyInt()))
+                .thenAnswer(invocation -> {
+                    weaponsStarted.countDown();
+                    releaseWeapons.await();
+                    return Collections.emptyList();
+                })
+                .thenReturn(Collections.emptyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWeapons.countDown();
+        itemGenerator.shutdown();
+    }
+
+    @Test
+    @DisplayName("Starting generation for chat cancels one in progress, its pending phases are skipped")
+    void generateItems_cancelsPreviousGeneration() throws Exception {
+        executorProperties.setQueueCapacity(10);
+        itemGenerator.init();
+
+        val first = itemGenerator.generateItems(CHAT_ID, 1L);
+        assertTrue(weaponsStarted.await(5, TimeUnit.SECONDS));
+        val second = itemGenerator.generateItems(CHAT_ID, 2L);
+        releaseWeapons.countDown();
+        second.get(5, TimeUnit.SECONDS);
+
+        assertTrue(first.isCancelled());
+        verify(itemAttributesSpace).sampleWearableAttributes(anyInt());
+        verify(itemService).loadCatalog(CHAT_ID);
+        assertEquals(0.0, meterRegistry.get("dungeon.item.generation.in-flight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Phase exceeding queue capacity fails its generation at once, phases fitting the queue wait for worker")
+    void generateItems_rejectsWhenQueueIsFull() throws Exception {
+        executorProperties.setQueueCapacity(2);
+        itemGenerator.init();
+
+        val first = itemGenerator.generateItems(CHAT_ID, 1L);
+        assertTrue(weaponsStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("dungeon.item.generation.queue").gauge().value());
+        val rejected = itemGenerator.generateItems(OTHER_CHAT_ID, 2L);
+
+        val exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        assertEquals(2.0, meterRegistry.get("dungeon.item.generation.queue").gauge().value());
+        assertFalse(first.isDone());
+        releaseWeapons.countDown();
+        verify(itemAttributesSpace, timeout(5000)).sampleWearableAttributes(anyInt());
+    }
+}
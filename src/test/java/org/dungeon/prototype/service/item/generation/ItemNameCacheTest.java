@@ -0,0 +1,84 @@
+package org.dungeon.prototype.service.item.generation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.dungeon.prototype.model.document.item.ItemNameDocument;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.repository.ItemNameRepository;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemNameCacheTest extends BaseServiceUnitTest {
+    private static final String SIGNATURE = "Rare Small sized Single handed Dagger made of Iron";
+
+    @InjectMocks
+    private ItemNameCache itemNameCache;
+    @Mock
+    private GenerationProperties generationProperties;
+    @Mock
+    private ItemNameRepository itemNameRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GenerationProperties.ItemNameCacheAttributes cacheProperties = new GenerationProperties.ItemNameCacheAttributes();
+    private final List<ItemNameDocument> documents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cacheProperties.setEnabled(true);
+        cacheProperties.setMinVariants(2);
+        cacheProperties.setMaxVariants(2);
+        when(generationProperties.getItemNameCache()).thenReturn(cacheProperties);
+        itemNameCache.init();
+    }
+
+    @Test
+    @DisplayName("Names are reused once pool of signature has enough variants, oldest variants are dropped")
+    void reusesNames() {
+        when(itemNameRepository.findById(anyString())).thenAnswer(invocation -> documents.stream()
+                .filter(document -> document.getId().equals(invocation.getArgument(0))).findFirst());
+        when(itemNameRepository.save(any(ItemNameDocument.class))).thenAnswer(invocation -> {
+            documents.removeIf(document -> document.getId().equals(invocation.<ItemNameDocument>getArgument(0).getId()));
+            documents.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(itemNameRepository.findAllById(anyList())).thenAnswer(invocation -> List.copyOf(documents));
+        final Map<String, String> signatures = new LinkedHashMap<>();
+        signatures.put("item", SIGNATURE);
+
+        itemNameCache.addName(SIGNATURE, "Fang");
+        assertTrue(itemNameCache.findNames(signatures).isEmpty());
+
+        itemNameCache.addName(SIGNATURE, "Fang");
+        itemNameCache.addName(SIGNATURE, "Whisper");
+        itemNameCache.addName(SIGNATURE, "Needle");
+        val names = itemNameCache.findNames(signatures);
+
+        assertEquals(List.of("Whisper", "Needle"), documents.getFirst().getNames());
+        assertTrue(List.of("Whisper", "Needle").contains(names.get("item")));
+        assertEquals(names, itemNameCache.findNames(signatures));
+        assertEquals(2.0, meterRegistry.counter("dungeon.item.naming.cache", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("dungeon.item.naming.cache", "result", "miss").count());
+        verify(itemNameRepository, times(3)).save(any(ItemNameDocument.class));
+    }
+}
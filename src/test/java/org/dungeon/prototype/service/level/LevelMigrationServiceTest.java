@@ -0,0 +1,57 @@
+package org.dungeon.prototype.service.level;
+
+import com.mongodb.DBRef;
+import lombok.val;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class LevelMigrationServiceTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private LevelMigrationService levelMigrationService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    @DisplayName("Referenced rooms, contents and monsters are embedded into level, items are replaced with ids")
+    void embedRooms() {
+        val roomId = new ObjectId();
+        val contentId = new ObjectId();
+        val monsterId = new ObjectId();
+        val itemId = new ObjectId();
+        val level = new Document("_id", CHAT_ID)
+                .append("roomsMap", new Document("{\"x\":0,\"y\":0}", new DBRef("rooms", roomId)));
+        val room = new Document("_id", roomId).append("roomContent", new DBRef("roomContent", contentId));
+        val content = new Document("_id", contentId)
+                .append("roomType", "VAMPIRE")
+                .append("monster", new DBRef("monsters", monsterId))
+                .append("items", List.of(new DBRef("items", itemId)));
+        val monster = new Document("_id", monsterId).append("hp", 10);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("rooms"))).thenReturn(List.of(room));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("roomContent"))).thenReturn(List.of(content));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("monsters"))).thenReturn(List.of(monster));
+
+        levelMigrationService.embedRooms(level);
+
+        val embeddedRoom = level.get("roomsMap", Document.class).get("{\"x\":0,\"y\":0}", Document.class);
+        val embeddedContent = embeddedRoom.get("roomContent", Document.class);
+        assertEquals(roomId, embeddedRoom.get("_id"));
+        assertEquals(10, embeddedContent.get("monster", Document.class).getInteger("hp"));
+        assertEquals(List.of(itemId.toHexString()), embeddedContent.getList("itemIds", String.class));
+        assertFalse(embeddedContent.containsKey("items"));
+    }
+}
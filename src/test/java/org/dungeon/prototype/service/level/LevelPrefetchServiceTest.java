@@ -0,0 +1,155 @@
+package org.dungeon.prototype.service.level;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.dungeon.prototype.TestData;
+import org.dungeon.prototype.model.player.Player;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.dungeon.prototype.service.PlayerService;
+import org.dungeon.prototype.service.level.generation.LevelGenerationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.dungeon.prototype.TestData.getPlayer;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LevelPrefetchServiceTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private LevelPrefetchService levelPrefetchService;
+    @Mock
+    private LevelGenerationService levelGenerationService;
+    @Mock
+    private PlayerService playerService;
+    @Mock
+    private GenerationProperties generationProperties;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GenerationProperties.LevelPrefetchAttributes prefetchProperties = new GenerationProperties.LevelPrefetchAttributes();
+
+    @BeforeEach
+    void setUp() {
+        prefetchProperties.setEnabled(true);
+        prefetchProperties.setPoolSize(1);
+        prefetchProperties.setQueueCapacity(2);
+        prefetchProperties.setWeightDriftThreshold(0.15);
+        when(generationProperties.getPrefetch()).thenReturn(prefetchProperties);
+        levelPrefetchService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        levelPrefetchService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Takes prefetched level generated for same player's weight")
+    void takeStagedLevel_hit() {
+        val player = getPreparedPlayer(50);
+        val level = TestData.getLevel(2);
+        when(playerService.getPlayer(CHAT_ID)).thenReturn(player);
+        when(levelGenerationService.generateLevel(CHAT_ID, player, 2)).thenReturn(level);
+
+        levelPrefetchService.prefetch(CHAT_ID, 2);
+        val actualResult = levelPrefetchService.takeStagedLevel(CHAT_ID, getPreparedPlayer(50), 2);
+
+        assertTrue(actualResult.isPresent());
+        assertSame(level, actualResult.get());
+        assertEquals(1.0, meterRegistry.counter("dungeon.level.prefetch", "result", "hit").count());
+    }
+
+    @Test
+    @DisplayName("Drops prefetched level when player's weight changed materially")
+    void takeStagedLevel_stale() {
+        val player = getPreparedPlayer(50);
+        when(playerService.getPlayer(CHAT_ID)).thenReturn(player);
+        when(levelGenerationService.generateLevel(CHAT_ID, player, 2)).thenReturn(TestData.getLevel(2));
+
+        levelPrefetchService.prefetch(CHAT_ID, 2);
+        val actualResult = levelPrefetchService.takeStagedLevel(CHAT_ID, getPreparedPlayer(100), 2);
+
+        assertTrue(actualResult.isEmpty());
+        assertEquals(1.0, meterRegistry.counter("dungeon.level.prefetch", "result", "stale").count());
+    }
+
+    @Test
+    @DisplayName("Misses when no level is staged for requested number")
+    void takeStagedLevel_miss() {
+        val actualResult = levelPrefetchService.takeStagedLevel(CHAT_ID, getPreparedPlayer(50), 2);
+
+        assertTrue(actualResult.isEmpty());
+        assertEquals(1.0, meterRegistry.counter("dungeon.level.prefetch", "result", "miss").count());
+    }
+
+    @Test
+    @DisplayName("Doesn't generate anything when prefetch is disabled")
+    void prefetch_disabled() {
+        prefetchProperties.setEnabled(false);
+
+        levelPrefetchService.prefetch(CHAT_ID, 2);
+
+        verify(levelGenerationService, never()).generateLevel(anyLong(), any(), anyInt());
+        assertTrue(levelPrefetchService.takeStagedLevel(CHAT_ID, getPreparedPlayer(50), 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Discarded prefetch is interrupted and frees its pool slot for next one")
+    void discard_interruptsRunningGeneration() throws InterruptedException {
+        val player = getPreparedPlayer(50);
+        val level = TestData.getLevel(3);
+        val started = new CountDownLatch(1);
+        val interrupted = new CountDownLatch(1);
+        when(playerService.getPlayer(CHAT_ID)).thenReturn(player);
+        when(levelGenerationService.generateLevel(CHAT_ID, player, 2)).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new CancellationException("Level generation is cancelled");
+            }
+            return TestData.getLevel(2);
+        });
+        when(levelGenerationService.generateLevel(CHAT_ID, player, 3)).thenReturn(level);
+
+        levelPrefetchService.prefetch(CHAT_ID, 2);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        levelPrefetchService.discard(CHAT_ID);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        levelPrefetchService.prefetch(CHAT_ID, 3);
+
+        val actualResult = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> levelPrefetchService.takeStagedLevel(CHAT_ID, getPreparedPlayer(50), 3));
+        assertTrue(actualResult.isPresent());
+        assertSame(level, actualResult.get());
+    }
+
+    private static Player getPreparedPlayer(int maxHp) {
+        val player = getPlayer(CHAT_ID, CURRENT_ROOM_ID, maxHp, maxHp);
+        player.setChanceToDodge(0.1);
+        player.setGoldBonus(1.0);
+        player.setXpBonus(1.0);
+        return player;
+    }
+}
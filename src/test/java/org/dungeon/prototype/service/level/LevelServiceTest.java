@@ -6,14 +6,11 @@ import org.dungeon.prototype.exception.EntityNotFoundException;
 import org.dungeon.prototype.model.level.Level;
 import org.dungeon.prototype.model.Point;
 import org.dungeon.prototype.model.document.level.LevelDocument;
-import org.dungeon.prototype.model.document.monster.MonsterDocument;
 import org.dungeon.prototype.model.document.room.RoomContentDocument;
 import org.dungeon.prototype.model.document.room.RoomDocument;
 import org.dungeon.prototype.model.effect.attributes.EffectAttribute;
 import org.dungeon.prototype.model.effect.ExpirableAdditionEffect;
 import org.dungeon.prototype.model.monster.Monster;
-import org.dungeon.prototype.model.monster.MonsterAttack;
-import org.dungeon.prototype.model.monster.MonsterAttackType;
 import org.dungeon.prototype.model.monster.MonsterClass;
 import org.dungeon.prototype.model.player.Player;
 import org.dungeon.prototype.model.room.Room;
@@ -21,14 +18,12 @@ import org.dungeon.prototype.model.room.RoomType;
 import org.dungeon.prototype.model.room.content.*;
 import org.dungeon.prototype.model.level.ui.GridSection;
 import org.dungeon.prototype.model.level.ui.LevelMap;
-import org.dungeon.prototype.repository.LevelRepository;
-import org.dungeon.prototype.repository.projections.LevelNumberProjection;
 import org.dungeon.prototype.service.BaseServiceUnitTest;
 import org.dungeon.prototype.service.PlayerService;
 import org.dungeon.prototype.service.effect.EffectService;
 import org.dungeon.prototype.service.level.generation.LevelGenerationService;
 import org.dungeon.prototype.service.message.MessageService;
-import org.dungeon.prototype.service.room.RoomService;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.dungeon.prototype.util.LevelUtil;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -43,24 +38,24 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 
-import static java.util.Collections.emptyList;
 import static org.dungeon.prototype.TestData.getPlayer;
 import static org.dungeon.prototype.model.Direction.E;
 import static org.dungeon.prototype.model.Direction.N;
 import static org.dungeon.prototype.model.Direction.S;
 import static org.dungeon.prototype.model.Direction.W;
-import static org.dungeon.prototype.model.room.RoomType.SHRINE_DRAINED;
 import static org.dungeon.prototype.model.room.RoomType.START;
 import static org.dungeon.prototype.model.room.RoomType.TREASURE_LOOTED;
-import static org.dungeon.prototype.util.LevelUtil.generateEmptyMapGrid;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -71,13 +66,13 @@ class LevelServiceTest extends BaseServiceUnitTest {
     @Mock
     private LevelGenerationService levelGenerationService;
     @Mock
-    private RoomService roomService;
+    private LevelPrefetchService levelPrefetchService;
     @Mock
     private PlayerService playerService;
     @Mock
     private EffectService effectService;
     @Mock
-    private LevelRepository levelRepository;
+    private GameSessionCache gameSessionCache;
     @Mock
     private MessageService messageService;
 
@@ -102,8 +97,7 @@ class LevelServiceTest extends BaseServiceUnitTest {
 
         document.setRoomsMap(Map.of("{\"x\":0, \"y\":0}", start));
 
-        when(levelRepository.existsByChatId(CHAT_ID)).thenReturn(false);
-        when(levelRepository.save(any(LevelDocument.class))).thenReturn(document);
+        when(gameSessionCache.saveLevel(any(LevelDocument.class))).thenReturn(document);
         doNothing().when(messageService).sendLevelGeneratingInfoMessage(CHAT_ID, 1);
 
         levelService.startNewGame(CHAT_ID, player);
@@ -117,9 +111,7 @@ class LevelServiceTest extends BaseServiceUnitTest {
     void nextLevel() {
         val player = getPlayer(CHAT_ID);
         val level = TestData.getLevel(2);
-        val levelNumber = new LevelNumberProjection();
-        levelNumber.setNumber(1);
-        when(levelRepository.findNumberByChatId(CHAT_ID)).thenReturn(Optional.of(levelNumber));
+        when(gameSessionCache.getLevelNumber(CHAT_ID)).thenReturn(Optional.of(1));
         when(levelGenerationService.generateLevel(CHAT_ID, player, 2)).thenReturn(level);
 
         val document = new LevelDocument();
@@ -143,7 +135,7 @@ class LevelServiceTest extends BaseServiceUnitTest {
         document.setEnd(end.getPoint());
         document.setRoomsMap(Map.of("{\"x\":0, \"y\":0}", start,
                 "{\"x\":5, \"y\":5}", end));
-        when(levelRepository.save(any(LevelDocument.class))).thenReturn(document);
+        when(gameSessionCache.saveLevel(any(LevelDocument.class))).thenReturn(document);
         when(effectService.updateArmorEffect(player)).thenReturn(player);
         doNothing().when(messageService).sendLevelGeneratingInfoMessage(CHAT_ID, 2);
 
@@ -152,15 +144,42 @@ class LevelServiceTest extends BaseServiceUnitTest {
         verify(messageService).sendLevelGeneratingInfoMessage(CHAT_ID, 2);
     }
 
+    @Test
+    @DisplayName("Proceeds to prefetched next level without generating it")
+    void nextLevel_prefetched() {
+        val player = getPlayer(CHAT_ID);
+        val level = TestData.getLevel(2);
+        when(gameSessionCache.getLevelNumber(CHAT_ID)).thenReturn(Optional.of(1));
+        when(levelPrefetchService.takeStagedLevel(CHAT_ID, player, 2)).thenReturn(Optional.of(level));
+
+        val document = new LevelDocument();
+        val start = new RoomDocument();
+        start.setId(CURRENT_ROOM_ID);
+        start.setPoint(new Point(0, 0));
+        start.setAdjacentRooms(new EnumMap<>(Map.of(
+                N, true,
+                E, false,
+                S, false,
+                W, false)));
+        document.setStart(start.getPoint());
+        document.setRoomsMap(Map.of("{\"x\":0, \"y\":0}", start));
+        when(gameSessionCache.saveLevel(any(LevelDocument.class))).thenReturn(document);
+        when(effectService.updateArmorEffect(player)).thenReturn(player);
+
+        levelService.nextLevel(CHAT_ID, player);
+
+        verify(levelGenerationService, never()).generateLevel(anyLong(), any(), anyInt());
+        verify(messageService, never()).sendLevelGeneratingInfoMessage(anyLong(), anyInt());
+        verify(levelPrefetchService).prefetch(CHAT_ID, 3);
+    }
+
     @Test
     @DisplayName("Successfully continues game")
     void continueGame() {
         val player = getPlayer(CHAT_ID, CURRENT_ROOM_ID);
         val currentRoom = mock(Room.class);
 
-        val levelNumber = new LevelNumberProjection();
-        levelNumber.setNumber(1);
-        when(levelRepository.findNumberByChatId(CHAT_ID)).thenReturn(Optional.of(levelNumber));
+        when(gameSessionCache.getLevelNumber(CHAT_ID)).thenReturn(Optional.of(1));
         doNothing().when(messageService).sendRoomMessage(CHAT_ID, player, currentRoom);
 
         levelService.continueGame(CHAT_ID, player, currentRoom);
@@ -180,7 +199,6 @@ class LevelServiceTest extends BaseServiceUnitTest {
         nextRoom.setPoint(newPoint);
         val levelMap = mock(LevelMap.class);
         when(levelMap.isContainsRoom(5, 6)).thenReturn(false);
-        when(levelMap.addRoom(levelGrid[5][6])).thenReturn(true);
         val document = new LevelDocument();
         val start = new RoomDocument();
         start.setId("startId");
@@ -206,9 +224,7 @@ class LevelServiceTest extends BaseServiceUnitTest {
         document.setChatId(CHAT_ID);
         document.setGrid(levelGrid);
 
-        when(levelRepository.findByChatId(CHAT_ID)).thenReturn(Optional.of(document));
-
-        when(levelRepository.save(any(LevelDocument.class))).thenReturn(document);
+        when(gameSessionCache.getLevel(CHAT_ID)).thenReturn(Optional.of(document));
         when(playerService.updatePlayer(player)).thenReturn(player);
 
         ArgumentCaptor<Room> roomArgumentCaptor = ArgumentCaptor.forClass(Room.class);
@@ -222,14 +238,14 @@ class LevelServiceTest extends BaseServiceUnitTest {
 
         assertEquals(newRoom.getChatId(), actualRoomValue.getChatId());
         assertEquals(newRoom.getPoint(), actualRoomValue.getPoint());
+        verify(gameSessionCache).addVisitedRoom(CHAT_ID, levelGrid[5][6]);
+        verify(levelMap, never()).addRoom(any());
+        verify(gameSessionCache, never()).saveLevel(any(LevelDocument.class));
     }
 
     @Test
     @DisplayName("Successfully performs updates required after monster kill")
     void updateAfterMonsterKill() {
-        GridSection[][] levelGrid = new GridSection[7][7];
-        levelGrid[5][5] = new GridSection(5, 5);
-
         val room = new Room();
         room.setChatId(CHAT_ID);
         room.setPoint(new Point(5, 5));
@@ -242,64 +258,13 @@ class LevelServiceTest extends BaseServiceUnitTest {
         roomContent.setMonster(monster);
         room.setRoomContent(roomContent);
 
-        LevelDocument document = new LevelDocument();
-        RoomDocument roomDocument = new RoomDocument();
-        RoomContentDocument roomContentDocument = new RoomContentDocument();
-        roomContentDocument.setRoomType(RoomType.VAMPIRE);
-        val monsterDocument = new MonsterDocument();
-        monsterDocument.setMonsterClass(MonsterClass.VAMPIRE);
-        monsterDocument.setEffects(emptyList());
-        monsterDocument.setHp(0);
-        monsterDocument.setMaxHp(15);
-        monsterDocument.setPrimaryAttack(MonsterAttack.builder()
-                .attackType(MonsterAttackType.BITE)
-                .attack(2)
-                .criticalHitChance(0.0)
-                .criticalHitMultiplier(1.0)
-                .chanceToMiss(0.0)
-                .chanceToKnockOut(0.0)
-                .causingEffectProbability(0.0)
-                .build());
-        monsterDocument.setSecondaryAttack(MonsterAttack.builder()
-                .attackType(MonsterAttackType.BITE)
-                .attack(2)
-                .criticalHitChance(0.0)
-                .criticalHitMultiplier(1.0)
-                .chanceToMiss(0.0)
-                .chanceToKnockOut(0.0)
-                .causingEffectProbability(0.0)
-                .build());
-        roomContentDocument.setMonster(monsterDocument);
-        roomDocument.setRoomContent(roomContentDocument);
-        val roomsMap = Map.of("{\"x\":5,\"y\":5}", roomDocument);
-        document.setChatId(CHAT_ID);
-        document.setGrid(levelGrid);
-        document.setRoomsMap(roomsMap);
-
-        val updatedLevel = new LevelDocument();
-        val updatedRoomDocument = new RoomDocument();
-        val updatedRoomContentDoc = new RoomContentDocument();
-        updatedRoomContentDoc.setRoomType(RoomType.VAMPIRE_KILLED);
-        updatedRoomDocument.setRoomContent(updatedRoomContentDoc);
-        val updatedRoomsMap = Map.of("{\"x\":5,\"y\":5}", updatedRoomDocument);
-        updatedLevel.setRoomsMap(updatedRoomsMap);
-
-        val updatedRoom = new Room();
-        updatedRoom.setId(CURRENT_ROOM_ID);
-        val updatedRoomContent = new EmptyRoom(RoomType.VAMPIRE_KILLED);
-        updatedRoom.setRoomContent(updatedRoomContent);
-
-        when(roomService.saveOrUpdateRoomContent(any(RoomContent.class))).thenReturn(updatedRoomContent);
-        when(roomService.saveOrUpdateRoom(any(Room.class))).thenReturn(updatedRoom);
-        when(levelRepository.findByChatId(CHAT_ID)).thenReturn(Optional.of(document));
-        when(levelRepository.save(any())).thenReturn(updatedLevel);
-
         levelService.updateAfterMonsterKill(room);
 
-        ArgumentCaptor<RoomContent> updatedRoomContentCaptor = ArgumentCaptor.forClass(RoomContent.class);
-        verify(roomService).saveOrUpdateRoomContent(updatedRoomContentCaptor.capture());
-        val actualValue = updatedRoomContentCaptor.getValue();
-        assertEquals(RoomType.VAMPIRE_KILLED, actualValue.getRoomType());
+        ArgumentCaptor<RoomContentDocument> roomContentCaptor = ArgumentCaptor.forClass(RoomContentDocument.class);
+        verify(gameSessionCache).updateRoomContent(eq(CHAT_ID), eq(room.getPoint()), roomContentCaptor.capture());
+        assertEquals(RoomType.VAMPIRE_KILLED, roomContentCaptor.getValue().getRoomType());
+        assertEquals(RoomType.VAMPIRE_KILLED, room.getRoomContent().getRoomType());
+        verify(gameSessionCache, never()).saveLevel(any(LevelDocument.class));
     }
 
     @Test
@@ -314,47 +279,19 @@ class LevelServiceTest extends BaseServiceUnitTest {
         roomContent.setItems(new HashSet<>());
         room.setRoomContent(roomContent);
 
-        val level = new LevelDocument();
-        GridSection[][] grid = new GridSection[6][6];
-        grid[5][5] = new GridSection(5, 5);
-        level.setGrid(grid);
-        level.setChatId(CHAT_ID);
-        val roomDocument = new RoomDocument();
-        roomDocument.setId(CURRENT_ROOM_ID);
-        val roomsMap = Map.of("{\"x\":5,\"y\":5}", roomDocument);
-        level.setRoomsMap(roomsMap);
-
-        when(roomService.saveOrUpdateRoomContent(any())).thenReturn(new EmptyRoom(TREASURE_LOOTED));
-        when(roomService.saveOrUpdateRoom(any(Room.class))).thenReturn(room);
-        when(levelRepository.findByChatId(CHAT_ID)).thenReturn(Optional.of(level));
-
         levelService.updateAfterTreasureLooted(room);
 
-        ArgumentCaptor<Room> roomArgumentCaptor = ArgumentCaptor.forClass(Room.class);
-        verify(roomService).saveOrUpdateRoom(roomArgumentCaptor.capture());
-        val updatedRoom = roomArgumentCaptor.getValue();
-        assertEquals(room.getId(), updatedRoom.getId());
-        assertEquals(room.getChatId(), updatedRoom.getChatId());
-        assertEquals(room.getPoint(), updatedRoom.getPoint());
-        assertEquals(TREASURE_LOOTED, updatedRoom.getRoomContent().getRoomType());
-
-        ArgumentCaptor<LevelDocument> levelDocumentArgumentCaptor = ArgumentCaptor.forClass(LevelDocument.class);
-        verify(levelRepository).save(levelDocumentArgumentCaptor.capture());
-        val updatedLevel = levelDocumentArgumentCaptor.getValue();
-        assertEquals(level.getChatId(), updatedLevel.getChatId());
+        ArgumentCaptor<RoomContentDocument> roomContentCaptor = ArgumentCaptor.forClass(RoomContentDocument.class);
+        verify(gameSessionCache).updateRoomContent(eq(CHAT_ID), eq(room.getPoint()), roomContentCaptor.capture());
+        assertEquals(TREASURE_LOOTED, roomContentCaptor.getValue().getRoomType());
+        assertEquals(TREASURE_LOOTED, room.getRoomContent().getRoomType());
+        verify(gameSessionCache, never()).saveLevel(any(LevelDocument.class));
     }
 
     @Test
     @DisplayName("Successfully performs shrine usage")
     void shrineRefill() {
         val player = getPlayer(CHAT_ID, CURRENT_ROOM_ID, 5, 20);
-        var level = new Level();
-        level.setStart(new Point(0, 0));
-        level.setEnd(new Point(5, 5));
-        level.setChatId(CHAT_ID);
-        GridSection[][] grid = generateEmptyMapGrid(6);
-        grid[4][5] = new GridSection(4, 5);
-        level.setGrid(grid);
         val room = new Room();
         val roomContent = new HealthShrine();
         ExpirableAdditionEffect effect = ExpirableAdditionEffect.builder()
@@ -368,15 +305,15 @@ class LevelServiceTest extends BaseServiceUnitTest {
         room.setRoomContent(roomContent);
         room.setId(CURRENT_ROOM_ID);
         room.setPoint(new Point(4, 5));
-        level.setRoomsMap(Map.of(new Point(4, 5), room));
-
-        when(roomService.saveOrUpdateRoom(room)).thenReturn(room);
-        when(roomService.saveOrUpdateRoomContent(any(RoomContent.class))).thenReturn(new EmptyRoom(SHRINE_DRAINED));
+        room.setChatId(CHAT_ID);
 
-        levelService.shrineUsage(CHAT_ID, player, room, level);
+        levelService.shrineUsage(CHAT_ID, player, room);
 
         verify(messageService).sendRoomMessage(CHAT_ID, player, room);
         assertTrue(player.getEffects().contains(effect));
+        ArgumentCaptor<RoomContentDocument> roomContentCaptor = ArgumentCaptor.forClass(RoomContentDocument.class);
+        verify(gameSessionCache).updateRoomContent(eq(CHAT_ID), eq(room.getPoint()), roomContentCaptor.capture());
+        assertEquals(RoomType.SHRINE_DRAINED, roomContentCaptor.getValue().getRoomType());
     }
 
     @Test
@@ -385,7 +322,7 @@ class LevelServiceTest extends BaseServiceUnitTest {
         val level = mock(Level.class);
         levelService.saveOrUpdateLevel(level);
 
-        verify(levelRepository).save(any(LevelDocument.class));
+        verify(gameSessionCache).saveLevel(any(LevelDocument.class));
     }
 
     @Test
@@ -403,7 +340,7 @@ class LevelServiceTest extends BaseServiceUnitTest {
 
         try (MockedStatic<LevelUtil> levelUtilMockedStatic = mockStatic(LevelUtil.class)) {
             levelUtilMockedStatic.when(() -> LevelUtil.printMap(grid, levelMap, position, N)).thenReturn("mapString");
-            when(levelRepository.findByChatId(CHAT_ID)).thenReturn(Optional.of(level));
+            when(gameSessionCache.getLevel(CHAT_ID)).thenReturn(Optional.of(level));
             levelService.sendMapMessage(CHAT_ID, player);
 
             verify(messageService).sendMapMenuMessage(CHAT_ID, "mapString");
@@ -413,21 +350,21 @@ class LevelServiceTest extends BaseServiceUnitTest {
     @Test
     @DisplayName("Successfully loads level from repository")
     void getLevel() {
-        when(levelRepository.findByChatId(CHAT_ID)).thenReturn(Optional.of(new LevelDocument()));
+        when(gameSessionCache.getLevel(CHAT_ID)).thenReturn(Optional.of(new LevelDocument()));
 
         levelService.getLevel(CHAT_ID);
 
-        verify(levelRepository).findByChatId(CHAT_ID);
+        verify(gameSessionCache).getLevel(CHAT_ID);
     }
 
     @Test
     @DisplayName("Fails to load nonexistent level from repository")
     void getLevel_Failed() {
-        when(levelRepository.findByChatId(CHAT_ID)).thenReturn(Optional.empty());
+        when(gameSessionCache.getLevel(CHAT_ID)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> levelService.getLevel(CHAT_ID));
 
-        verify(levelRepository).findByChatId(CHAT_ID);
+        verify(gameSessionCache).getLevel(CHAT_ID);
     }
 
     @Test
@@ -435,16 +372,16 @@ class LevelServiceTest extends BaseServiceUnitTest {
     void remove() {
         levelService.remove(CHAT_ID);
 
-        verify(levelRepository).removeByChatId(CHAT_ID);
+        verify(gameSessionCache).removeLevel(CHAT_ID);
     }
 
     @Test
     @DisplayName("Successfully checks if level present in repository")
     void hasLevel() {
-        when(levelRepository.existsByChatId(CHAT_ID)).thenReturn(true);
+        when(gameSessionCache.hasLevel(CHAT_ID)).thenReturn(true);
 
         val actualResult = levelService.hasLevel(CHAT_ID);
 
         assertTrue(actualResult);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package org.dungeon.prototype.service.room;
 
 import lombok.val;
+import org.dungeon.prototype.model.Point;
 import org.dungeon.prototype.model.document.item.ItemDocument;
 import org.dungeon.prototype.model.document.room.RoomContentDocument;
 import org.dungeon.prototype.model.document.room.RoomDocument;
@@ -10,12 +11,11 @@ import org.dungeon.prototype.model.player.PlayerAttribute;
 import org.dungeon.prototype.model.room.Room;
 import org.dungeon.prototype.model.room.RoomType;
 import org.dungeon.prototype.model.room.content.EmptyRoom;
-import org.dungeon.prototype.repository.RoomContentRepository;
-import org.dungeon.prototype.repository.RoomRepository;
 import org.dungeon.prototype.service.BaseServiceUnitTest;
 import org.dungeon.prototype.service.PlayerService;
 import org.dungeon.prototype.service.effect.EffectService;
 import org.dungeon.prototype.service.message.MessageService;
+import org.dungeon.prototype.service.session.GameSessionCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -29,7 +29,7 @@ import java.util.stream.Collectors;
 import static org.dungeon.prototype.TestData.getMerchant;
 import static org.dungeon.prototype.TestData.getPlayer;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
@@ -41,9 +41,7 @@ class RoomServiceTest extends BaseServiceUnitTest {
     @Mock
     PlayerService playerService;
     @Mock
-    RoomRepository roomRepository;
-    @Mock
-    RoomContentRepository roomContentRepository;
+    GameSessionCache gameSessionCache;
     @Mock
     EffectService effectService;
     @Mock
@@ -57,7 +55,7 @@ class RoomServiceTest extends BaseServiceUnitTest {
         roomDocument.setChatId(CHAT_ID);
         roomDocument.setId(CURRENT_ROOM_ID);
 
-        when(roomRepository.findByChatIdAndId(CHAT_ID, player.getCurrentRoomId())).thenReturn(Optional.of(roomDocument));
+        when(gameSessionCache.getRoom(CHAT_ID, player.getCurrentRoomId())).thenReturn(Optional.of(roomDocument));
         ArgumentCaptor<Room> roomArgumentCaptor = ArgumentCaptor.forClass(Room.class);
         doNothing().when(messageService).sendRoomMessage(eq(CHAT_ID), eq(player), roomArgumentCaptor.capture());
 
@@ -74,7 +72,7 @@ class RoomServiceTest extends BaseServiceUnitTest {
         val roomDocument = new RoomDocument();
         roomDocument.setId(CURRENT_ROOM_ID);
         roomDocument.setChatId(CHAT_ID);
-        when(roomRepository.findByChatIdAndId(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(roomDocument));
+        when(gameSessionCache.getRoom(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(roomDocument));
 
         val actualRoom = roomService.getRoomByIdAndChatId(CHAT_ID, CURRENT_ROOM_ID);
 
@@ -84,65 +82,42 @@ class RoomServiceTest extends BaseServiceUnitTest {
     }
 
     @Test
-    @DisplayName("Successfully updates room with not persisted content")
-    void saveOrUpdateRoomWithNewRoomContent() {
+    @DisplayName("Successfully saves room with its content to level")
+    void saveOrUpdateRoom() {
         val room = new Room();
         room.setId(CURRENT_ROOM_ID);
         room.setChatId(CHAT_ID);
+        room.setPoint(new Point(1, 2));
         val roomContent = new EmptyRoom(RoomType.NORMAL);
         room.setRoomContent(roomContent);
 
         roomService.saveOrUpdateRoom(room);
 
-        ArgumentCaptor<RoomContentDocument> roomContentDocumentArgumentCaptor =
-                ArgumentCaptor.forClass(RoomContentDocument.class);
-        verify(roomContentRepository).save(roomContentDocumentArgumentCaptor.capture());
-
-        val actualRoomContent = roomContentDocumentArgumentCaptor.getValue();
-        assertEquals(RoomType.NORMAL, actualRoomContent.getRoomType());
-
         ArgumentCaptor<RoomDocument> roomDocumentArgumentCaptor =
                 ArgumentCaptor.forClass(RoomDocument.class);
-        verify(roomRepository).save(roomDocumentArgumentCaptor.capture());
+        verify(gameSessionCache).saveRoom(roomDocumentArgumentCaptor.capture());
         val actualRoom = roomDocumentArgumentCaptor.getValue();
         assertEquals(CURRENT_ROOM_ID, actualRoom.getId());
         assertEquals(CHAT_ID, actualRoom.getChatId());
+        assertEquals(room.getPoint(), actualRoom.getPoint());
+        assertEquals(RoomType.NORMAL, actualRoom.getRoomContent().getRoomType());
     }
 
     @Test
-    @DisplayName("Successfully updates room with already persisted content")
-    void saveOrUpdateRoomWithPersistedRoomContent() {
+    @DisplayName("Successfully assigns id to new room while saving it")
+    void saveOrUpdateNewRoom() {
         val room = new Room();
-        room.setId(CURRENT_ROOM_ID);
         room.setChatId(CHAT_ID);
-        val roomContent = new EmptyRoom(RoomType.NORMAL);
-        roomContent.setId("roomContentId");
-        room.setRoomContent(roomContent);
+        room.setPoint(new Point(1, 2));
+        room.setRoomContent(new EmptyRoom(RoomType.NORMAL));
 
-        roomService.saveOrUpdateRoom(room);
+        val savedRoom = roomService.saveOrUpdateRoom(room);
 
         ArgumentCaptor<RoomDocument> roomDocumentArgumentCaptor =
                 ArgumentCaptor.forClass(RoomDocument.class);
-        verify(roomRepository).save(roomDocumentArgumentCaptor.capture());
-        val actualRoom = roomDocumentArgumentCaptor.getValue();
-        assertEquals(CURRENT_ROOM_ID, actualRoom.getId());
-        assertEquals(CHAT_ID, actualRoom.getChatId());
-        assertEquals("roomContentId", actualRoom.getRoomContent().getId());
-    }
-
-    @Test
-    @DisplayName("Successfully saves or updates room room content")
-    void saveOrUpdateRoomContent() {
-        val roomContent = new EmptyRoom(RoomType.NORMAL);
-
-        roomService.saveOrUpdateRoomContent(roomContent);
-
-        ArgumentCaptor<RoomContentDocument> roomContentDocumentArgumentCaptor =
-                ArgumentCaptor.forClass(RoomContentDocument.class);
-        verify(roomContentRepository).save(roomContentDocumentArgumentCaptor.capture());
-        val actualRoomContentDocument = roomContentDocumentArgumentCaptor.getValue();
-
-        assertEquals(RoomType.NORMAL, actualRoomContentDocument.getRoomType());
+        verify(gameSessionCache).saveRoom(roomDocumentArgumentCaptor.capture());
+        assertNotNull(savedRoom.getId());
+        assertEquals(savedRoom.getId(), roomDocumentArgumentCaptor.getValue().getId());
     }
 
     @Test
@@ -194,7 +169,7 @@ class RoomServiceTest extends BaseServiceUnitTest {
         room.setRoomContent(roomContent);
 
         when(playerService.getPlayer(CHAT_ID)).thenReturn(player);
-        when(roomRepository.findByChatIdAndId(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(room));
+        when(gameSessionCache.getRoom(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(room));
 
         roomService.openMerchantBuyItem(CHAT_ID, itemId);
 
@@ -219,8 +194,7 @@ class RoomServiceTest extends BaseServiceUnitTest {
         when(playerService.getPlayer(CHAT_ID)).thenReturn(player);
         when(effectService.updateArmorEffect(player)).thenReturn(player);
         when(playerService.updatePlayer(player)).thenReturn(player);
-        when(roomRepository.findByChatIdAndId(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(room));
-        when(roomRepository.save(any(RoomDocument.class))).thenReturn(room);
+        when(gameSessionCache.getRoom(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(room));
 
         ArgumentCaptor<Player> playerArgumentCaptor = ArgumentCaptor.forClass(Player.class);
         ArgumentCaptor<Room> roomArgumentCaptor = ArgumentCaptor.forClass(Room.class);
@@ -244,7 +218,7 @@ class RoomServiceTest extends BaseServiceUnitTest {
         room.setId(CURRENT_ROOM_ID);
         when(playerService.getPlayer(CHAT_ID)).thenReturn(player);
         when(playerService.updatePlayer(player)).thenReturn(player);
-        when(roomRepository.findByChatIdAndId(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(room));
+        when(gameSessionCache.getRoom(CHAT_ID, CURRENT_ROOM_ID)).thenReturn(Optional.of(room));
 
         ArgumentCaptor<Player> playerArgumentCaptor = ArgumentCaptor.forClass(Player.class);
         ArgumentCaptor<Room> roomArgumentCaptor = ArgumentCaptor.forClass(Room.class);
@@ -144,7 +144,7 @@ class TreasureServiceTest extends BaseServiceUnitTest {
         ArgumentCaptor<Inventory> inventoryArgumentCaptor = ArgumentCaptor.forClass(Inventory.class);
         doNothing().when(messageService).sendRoomMessage(eq(CHAT_ID), any(Player.class), any(Room.class));
 
-        when(inventoryService.saveOrUpdateInventory(inventoryArgumentCaptor.capture())).thenReturn(player.getInventory());
+        when(inventoryService.saveOrUpdateInventory(eq(CHAT_ID), inventoryArgumentCaptor.capture())).thenReturn(player.getInventory());
 
         treasureService.collectAllTreasure(CHAT_ID, player, currentRoom);
 
@@ -180,7 +180,7 @@ class TreasureServiceTest extends BaseServiceUnitTest {
         ArgumentCaptor<Player> playerArgumentCaptor = ArgumentCaptor.forClass(Player.class);
         when(playerService.updatePlayer(playerArgumentCaptor.capture())).thenReturn(player);
         ArgumentCaptor<Inventory> inventoryArgumentCaptor = ArgumentCaptor.forClass(Inventory.class);
-        when(inventoryService.saveOrUpdateInventory(inventoryArgumentCaptor.capture())).thenReturn(player.getInventory());
+        when(inventoryService.saveOrUpdateInventory(eq(CHAT_ID), inventoryArgumentCaptor.capture())).thenReturn(player.getInventory());
 
         val actualResult = treasureService.collectTreasureItem(CHAT_ID, "itemId");
 
@@ -218,7 +218,7 @@ class TreasureServiceTest extends BaseServiceUnitTest {
         ArgumentCaptor<Player> playerArgumentCaptor = ArgumentCaptor.forClass(Player.class);
         when(playerService.updatePlayer(playerArgumentCaptor.capture())).thenReturn(player);
         ArgumentCaptor<Inventory> inventoryArgumentCaptor = ArgumentCaptor.forClass(Inventory.class);
-        when(inventoryService.saveOrUpdateInventory(inventoryArgumentCaptor.capture())).thenReturn(player.getInventory());
+        when(inventoryService.saveOrUpdateInventory(eq(CHAT_ID), inventoryArgumentCaptor.capture())).thenReturn(player.getInventory());
 
         val actualResult = treasureService.collectTreasureItem(CHAT_ID, "itemId");
 
@@ -0,0 +1,108 @@
+package org.dungeon.prototype.service.room.generation.room.content;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.dungeon.prototype.model.document.monster.MonsterSolutionDocument;
+import org.dungeon.prototype.model.monster.MonsterClass;
+import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.repository.MonsterSolutionRepository;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MonsterSolverCacheTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private MonsterSolverCache monsterSolverCache;
+    @Mock
+    private GenerationProperties generationProperties;
+    @Mock
+    private MonsterSolutionRepository monsterSolutionRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GenerationProperties.MonsterSolverCacheAttributes cacheProperties = new GenerationProperties.MonsterSolverCacheAttributes();
+    private final List<Weight> solvedWeights = new ArrayList<>();
+    private final BiFunction<Weight, RandomGenerator, double[]> solver = (weight, random) -> {
+        solvedWeights.add(weight);
+        return new double[]{weight.getHp(), random.nextDouble()};
+    };
+
+    @BeforeEach
+    void setUp() {
+        cacheProperties.setEnabled(true);
+        cacheProperties.setCapacity(1);
+        cacheProperties.setQuantizationStep(0.02);
+        when(generationProperties.getMonsterSolverCache()).thenReturn(cacheProperties);
+        when(monsterSolutionRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        monsterSolverCache.init();
+    }
+
+    @Test
+    @DisplayName("Reuses solution of close expected weight and persists solved one")
+    void getSolution_hit() {
+        val solution = monsterSolverCache.getSolution(MonsterClass.ZOMBIE, getWeight(100.0), solver);
+        val cachedSolution = monsterSolverCache.getSolution(MonsterClass.ZOMBIE, getWeight(100.3), solver);
+
+        assertArrayEquals(solution, cachedSolution);
+        assertEquals(1, solvedWeights.size());
+        assertEquals(100.0, solvedWeights.get(0).getHp(), 0.02 * getWeight(100.0).getNorm());
+        assertEquals(1.0, meterRegistry.counter("dungeon.monster.solver.cache", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("dungeon.monster.solver.cache", "result", "miss").count());
+        verify(monsterSolutionRepository).save(any(MonsterSolutionDocument.class));
+    }
+
+    @Test
+    @DisplayName("Evicts least recently used solution and solves it again with same result")
+    void getSolution_evicted() {
+        val solution = monsterSolverCache.getSolution(MonsterClass.ZOMBIE, getWeight(100.0), solver);
+        monsterSolverCache.getSolution(MonsterClass.ZOMBIE, getWeight(200.0), solver);
+        val resolvedSolution = monsterSolverCache.getSolution(MonsterClass.ZOMBIE, getWeight(100.0), solver);
+
+        assertArrayEquals(solution, resolvedSolution);
+        assertEquals(3, solvedWeights.size());
+        verify(monsterSolutionRepository, times(2)).deleteAllById(anyList());
+    }
+
+    @Test
+    @DisplayName("Loads persisted solutions on startup")
+    void init_loadsPersisted() {
+        monsterSolverCache.getSolution(MonsterClass.DRAGON, getWeight(50.0), solver);
+        val captor = ArgumentCaptor.forClass(MonsterSolutionDocument.class);
+        verify(monsterSolutionRepository).save(captor.capture());
+        val persisted = captor.getValue();
+        persisted.setAttributes(new double[]{1.0, 2.0});
+        when(monsterSolutionRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(persisted)));
+
+        monsterSolverCache.init();
+
+        assertArrayEquals(new double[]{1.0, 2.0}, monsterSolverCache.getSolution(MonsterClass.DRAGON, getWeight(50.0), solver));
+        assertEquals(1, solvedWeights.size());
+    }
+
+    private static Weight getWeight(double hp) {
+        return Weight.builder().hp(hp).maxHp(hp).attack(0.5).criticalHitChance(10.0).armor(7.0).build();
+    }
+}
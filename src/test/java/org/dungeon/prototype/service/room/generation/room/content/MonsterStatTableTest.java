@@ -0,0 +1,62 @@
+package org.dungeon.prototype.service.room.generation.room.content;
+
+import lombok.val;
+import org.dungeon.prototype.model.monster.MonsterClass;
+import org.dungeon.prototype.model.weight.Weight;
+import org.dungeon.prototype.model.weight.WeightAccumulator;
+import org.dungeon.prototype.properties.GenerationProperties;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Map;
+
+import static org.dungeon.prototype.util.RoomGenerationUtils.calculateMonsterWeight;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class MonsterStatTableTest extends BaseServiceUnitTest {
+    @InjectMocks
+    private MonsterStatTable monsterStatTable;
+    @Mock
+    private GenerationProperties generationProperties;
+
+    private final GenerationProperties.MonsterTableAttributes tableProperties = new GenerationProperties.MonsterTableAttributes();
+
+    @BeforeEach
+    void setUp() {
+        tableProperties.setEnabled(true);
+        tableProperties.setSamples(1024);
+        tableProperties.setNeighbours(8);
+        when(generationProperties.getMonsterTable()).thenReturn(tableProperties);
+        when(generationProperties.getMonsters()).thenReturn(Map.of(MonsterClass.ZOMBIE, new GenerationProperties.MonsterClassGenerationAttributes()));
+        monsterStatTable.init();
+    }
+
+    @Test
+    @DisplayName("Looks up attributes matching expected monster weight")
+    void getAttributes() {
+        val weight = Weight.builder().hp(120.0).maxHp(120.0).attack(0.6).criticalHitChance(14.0).chanceToKnockout(0.1).build();
+
+        val attributes = monsterStatTable.getAttributes(MonsterClass.ZOMBIE, weight);
+
+        assertTrue(attributes.isPresent());
+        val actualWeight = calculateMonsterWeight(new WeightAccumulator(), (int) attributes.get()[0], (int) attributes.get()[0],
+                (int) attributes.get()[1], attributes.get()[2], attributes.get()[3], attributes.get()[4], attributes.get()[5],
+                attributes.get()[10], attributes.get()[11], attributes.get()[12], attributes.get()[13]);
+        assertEquals(0.0, actualWeight.distanceTo(weight), 1e-6);
+        assertArrayEquals(attributes.get(), monsterStatTable.getAttributes(MonsterClass.ZOMBIE, weight).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Leaves classes without table and non-finite weights to optimizer")
+    void getAttributes_notFound() {
+        assertTrue(monsterStatTable.getAttributes(MonsterClass.DRAGON, new Weight()).isEmpty());
+        assertTrue(monsterStatTable.getAttributes(MonsterClass.ZOMBIE, Weight.builder().hp(Double.NaN).build()).isEmpty());
+    }
+}
@@ -0,0 +1,219 @@
+package org.dungeon.prototype.service.session;
+
+import lombok.val;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.dungeon.prototype.config.MongoConfig;
+import org.dungeon.prototype.model.Point;
+import org.dungeon.prototype.model.document.level.LevelDocument;
+import org.dungeon.prototype.model.document.monster.MonsterDocument;
+import org.dungeon.prototype.model.document.player.PlayerDocument;
+import org.dungeon.prototype.model.document.room.RoomContentDocument;
+import org.dungeon.prototype.model.document.room.RoomDocument;
+import org.dungeon.prototype.model.level.ui.GridSection;
+import org.dungeon.prototype.model.level.ui.LevelMap;
+import org.dungeon.prototype.model.room.RoomType;
+import org.dungeon.prototype.properties.SessionProperties;
+import org.dungeon.prototype.repository.LevelChanges;
+import org.dungeon.prototype.repository.LevelRepository;
+import org.dungeon.prototype.repository.PlayerRepository;
+import org.dungeon.prototype.service.BaseServiceUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.dungeon.prototype.util.LevelUtil.getIcon;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameSessionCacheTest extends BaseServiceUnitTest {
+    private static final Point MONSTER_POINT = new Point(0, 1);
+    private static final Point TREASURE_POINT = new Point(1, 1);
+    private static final String MONSTER_ROOM_KEY = "roomsMap.{\"x\":0,\"y\":1}";
+    private static final String TREASURE_ROOM_KEY = "roomsMap.{\"x\":1,\"y\":1}";
+
+    @InjectMocks
+    private GameSessionCache gameSessionCache;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private PlayerRepository playerRepository;
+    @Mock
+    private LevelRepository levelRepository;
+    @Spy
+    private SessionProperties sessionProperties = new SessionProperties();
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        val conversions = new MongoConfig(null, null, null, null).customConversions();
+        val mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        sessionProperties.setFlushInterval(Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Level is read once, its changes are applied in memory and flushed with single coalesced update")
+    void coalescesLevelChanges() {
+        gameSessionCache.init();
+        when(mongoTemplate.findById(CHAT_ID, Document.class, "levels")).thenReturn(toBson(getLevel()));
+        val visitedSection = new GridSection(TREASURE_POINT.getX(), TREASURE_POINT.getY());
+
+        gameSessionCache.saveMonster(CHAT_ID, MONSTER_POINT, getMonster(5));
+        gameSessionCache.updateRoomContent(CHAT_ID, TREASURE_POINT, getContent(RoomType.TREASURE_LOOTED));
+        gameSessionCache.addVisitedRoom(CHAT_ID, visitedSection);
+
+        val level = gameSessionCache.getLevel(CHAT_ID).orElseThrow();
+        assertEquals(getIcon(Optional.of(RoomType.TREASURE_LOOTED)), level.getGrid()[1][1].getEmoji());
+        assertEquals(Set.of(new GridSection(MONSTER_POINT.getX(), MONSTER_POINT.getY()), visitedSection),
+                level.getLevelMap().getVisitedRooms());
+        assertEquals(2, level.getLevelMap().getMaxX());
+        assertSame(level, gameSessionCache.getLevel(CHAT_ID).orElseThrow());
+
+        gameSessionCache.saveMonster(CHAT_ID, MONSTER_POINT, getMonster(0));
+
+        val monsterRoom = gameSessionCache.getRoom(CHAT_ID, MONSTER_POINT).orElseThrow();
+        assertEquals(0, monsterRoom.getRoomContent().getMonster().getHp());
+        assertEquals(0, gameSessionCache.getLevel(CHAT_ID).orElseThrow()
+                .getRoomsMap().get(MONSTER_ROOM_KEY.substring("roomsMap.".length())).getRoomContent().getMonster().getHp());
+
+        gameSessionCache.flushAll();
+        gameSessionCache.flushAll();
+
+        ArgumentCaptor<LevelChanges> changesCaptor = ArgumentCaptor.forClass(LevelChanges.class);
+        verify(levelRepository, times(1)).applyChanges(eq(CHAT_ID), changesCaptor.capture());
+        val update = changesCaptor.getValue().toUpdate().getUpdateObject();
+        assertEquals(Set.of("$set", "$addToSet", "$max", "$min"), update.keySet());
+        assertEquals(Set.of(MONSTER_ROOM_KEY + ".roomContent.monster", TREASURE_ROOM_KEY + ".roomContent", "grid.1.1.emoji"),
+                update.get("$set", Document.class).keySet());
+        verify(mongoTemplate, times(1)).findById(CHAT_ID, Document.class, "levels");
+    }
+
+    @Test
+    @DisplayName("Changes not flushed before crash are replayed from journal on start, except ones of replaced level")
+    void replaysJournal(@TempDir Path directory) throws Exception {
+        val journalPath = directory.resolve("session.journal");
+        sessionProperties.setJournalPath(journalPath.toString());
+        gameSessionCache.init();
+        when(mongoTemplate.findById(CHAT_ID, Document.class, "levels")).thenReturn(toBson(getLevel()));
+        val player = new PlayerDocument();
+        player.setId("player_id");
+        player.setChatId(CHAT_ID);
+        player.setNickname("nickname");
+        player.setGold(100);
+        val newLevel = getLevel();
+        when(levelRepository.save(newLevel)).thenReturn(newLevel);
+
+        gameSessionCache.savePlayer(player);
+        gameSessionCache.updateRoomContent(CHAT_ID, TREASURE_POINT, getContent(RoomType.TREASURE_LOOTED));
+        gameSessionCache.saveLevel(newLevel);
+        gameSessionCache.saveMonster(CHAT_ID, MONSTER_POINT, getMonster(0));
+        gameSessionCache.addVisitedRoom(CHAT_ID, new GridSection(TREASURE_POINT.getX(), TREASURE_POINT.getY()));
+        // restart without flush, as if process crashed
+        gameSessionCache.init();
+
+        ArgumentCaptor<Document> playerCaptor = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).save(playerCaptor.capture(), eq("players"));
+        assertEquals("nickname", playerCaptor.getValue().getString("nickname"));
+        assertEquals(100, playerCaptor.getValue().getInteger("gold"));
+        ArgumentCaptor<LevelChanges> changesCaptor = ArgumentCaptor.forClass(LevelChanges.class);
+        verify(levelRepository, times(1)).applyChanges(eq(CHAT_ID), changesCaptor.capture());
+        val update = changesCaptor.getValue().toUpdate().getUpdateObject();
+        assertEquals(Set.of(MONSTER_ROOM_KEY + ".roomContent.monster"), update.get("$set", Document.class).keySet());
+        assertEquals(Set.of("levelMap.maxX", "levelMap.maxY"), update.get("$max", Document.class).keySet());
+        assertEquals(0, Files.size(journalPath));
+    }
+
+    @Test
+    @DisplayName("Record torn by crash at the end of journal is dropped, records before it are replayed")
+    void replaysJournalWithTornRecord(@TempDir Path directory) throws Exception {
+        val journalPath = directory.resolve("session.journal");
+        sessionProperties.setJournalPath(journalPath.toString());
+        gameSessionCache.init();
+        when(mongoTemplate.findById(CHAT_ID, Document.class, "levels")).thenReturn(toBson(getLevel()));
+
+        gameSessionCache.saveMonster(CHAT_ID, MONSTER_POINT, getMonster(0));
+        Files.writeString(journalPath, "{\"chatId\": {\"$numberLong\": \"" + CHAT_ID + "\"}, \"type\": \"lev",
+                StandardOpenOption.APPEND);
+        // restart without flush, as if process crashed while appending
+        gameSessionCache.init();
+
+        ArgumentCaptor<LevelChanges> changesCaptor = ArgumentCaptor.forClass(LevelChanges.class);
+        verify(levelRepository).applyChanges(eq(CHAT_ID), changesCaptor.capture());
+        assertEquals(Set.of(MONSTER_ROOM_KEY + ".roomContent.monster"),
+                changesCaptor.getValue().toUpdate().getUpdateObject().get("$set", Document.class).keySet());
+        assertEquals(0, Files.size(journalPath));
+    }
+
+    private Document toBson(Object object) {
+        val document = new Document();
+        converter.write(object, document);
+        return document;
+    }
+
+    private static LevelDocument getLevel() {
+        val level = new LevelDocument();
+        level.setChatId(CHAT_ID);
+        level.setNumber(1);
+        level.setGrid(new GridSection[][]{
+                {new GridSection(0, 0), new GridSection(0, 1)},
+                {new GridSection(1, 0), new GridSection(1, 1)}});
+        level.setLevelMap(new LevelMap(new GridSection(MONSTER_POINT.getX(), MONSTER_POINT.getY())));
+        val monsterContent = getContent(RoomType.WEREWOLF);
+        monsterContent.setMonster(getMonster(10));
+        val treasureContent = getContent(RoomType.TREASURE);
+        treasureContent.setGold(50);
+        val roomsMap = new HashMap<String, RoomDocument>();
+        roomsMap.put("{\"x\":0,\"y\":1}", getRoom(MONSTER_POINT, monsterContent));
+        roomsMap.put("{\"x\":1,\"y\":1}", getRoom(TREASURE_POINT, treasureContent));
+        level.setRoomsMap(roomsMap);
+        return level;
+    }
+
+    private static RoomDocument getRoom(Point point, RoomContentDocument content) {
+        val room = new RoomDocument();
+        room.setId(new ObjectId().toHexString());
+        room.setChatId(CHAT_ID);
+        room.setPoint(point);
+        room.setRoomContent(content);
+        return room;
+    }
+
+    private static RoomContentDocument getContent(RoomType roomType) {
+        val content = new RoomContentDocument();
+        content.setRoomType(roomType);
+        return content;
+    }
+
+    private static MonsterDocument getMonster(int hp) {
+        val monster = new MonsterDocument();
+        monster.setHp(hp);
+        return monster;
+    }
+}
@@ -0,0 +1,42 @@
+package org.dungeon.prototype.util;
+
+import lombok.val;
+import org.apache.commons.math3.exception.NotANumberException;
+import org.apache.commons.math3.exception.NotPositiveException;
+import org.apache.commons.rng.simple.RandomSource;
+import org.dungeon.prototype.BaseUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AliasTableTest extends BaseUnitTest {
+
+    @Test
+    @DisplayName("Samples candidates according to their weights")
+    void sample() {
+        val table = AliasTable.of(List.of("a", "b", "c", "d"), 1.0, 2.0, 0.0, 5.0);
+        val rng = RandomSource.XO_RO_SHI_RO_128_PP.create(42L);
+        val counts = new int[4];
+        val draws = 80_000;
+
+        for (int i = 0; i < draws; i++) {
+            counts["abcd".indexOf(table.sample(rng))]++;
+        }
+
+        assertEquals(0.125, counts[0] / (double) draws, 0.01);
+        assertEquals(0.25, counts[1] / (double) draws, 0.01);
+        assertEquals(0, counts[2]);
+        assertEquals(0.625, counts[3] / (double) draws, 0.01);
+    }
+
+    @Test
+    @DisplayName("Rejects invalid weights")
+    void of_invalidWeights() {
+        assertThrows(NotPositiveException.class, () -> AliasTable.of(List.of("a", "b"), 1.0, -1.0));
+        assertThrows(NotANumberException.class, () -> AliasTable.of(List.of("a", "b"), 1.0, Double.NaN));
+    }
+}
@@ -0,0 +1,46 @@
+package org.dungeon.prototype.util;
+
+import lombok.val;
+import org.apache.commons.rng.simple.RandomSource;
+import org.dungeon.prototype.BaseUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KdTreeTest extends BaseUnitTest {
+
+    @Test
+    @DisplayName("Finds same nearest neighbours as exhaustive search")
+    void nearest() {
+        val rng = RandomSource.XO_RO_SHI_RO_128_PP.create(42L);
+        final List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            points.add(new double[]{rng.nextDouble(), rng.nextDouble(), rng.nextDouble()});
+        }
+        val tree = KdTree.of(points, IntStream.range(0, points.size()).boxed().toList());
+
+        for (int i = 0; i < 50; i++) {
+            val query = new double[]{rng.nextDouble(), rng.nextDouble(), rng.nextDouble()};
+            val expected = IntStream.range(0, points.size()).boxed()
+                    .sorted(Comparator.comparingDouble(index -> distance(points.get(index), query)))
+                    .limit(5)
+                    .toList();
+
+            assertEquals(expected, tree.nearest(query, 5));
+        }
+    }
+
+    private static double distance(double[] first, double[] second) {
+        double sum = 0.0;
+        for (int i = 0; i < first.length; i++) {
+            sum += (first[i] - second[i]) * (first[i] - second[i]);
+        }
+        return sum;
+    }
+}
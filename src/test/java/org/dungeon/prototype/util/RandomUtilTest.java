@@ -0,0 +1,44 @@
+package org.dungeon.prototype.util;
+
+import lombok.val;
+import org.dungeon.prototype.BaseUnitTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.dungeon.prototype.util.RandomUtil.getRandomInt;
+import static org.dungeon.prototype.util.RandomUtil.withSeed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RandomUtilTest extends BaseUnitTest {
+
+    @Test
+    @DisplayName("Same seed yields same values on any thread")
+    void withSeed_sameSeed() throws InterruptedException {
+        val seed = SeedUtil.getLevelSeed(42L, 151557417L, 3);
+        val expected = withSeed(seed, RandomUtilTest::drawValues);
+        AtomicReference<List<Integer>> actual = new AtomicReference<>();
+        val thread = Thread.ofVirtual().start(() -> actual.set(withSeed(seed, RandomUtilTest::drawValues)));
+        thread.join();
+
+        assertEquals(expected, actual.get());
+    }
+
+    @Test
+    @DisplayName("Split streams of same seed differ")
+    void split_differentStreams() {
+        val seed = SeedUtil.getLevelSeed(42L, 151557417L, 3);
+
+        assertNotEquals(withSeed(SeedUtil.split(seed, 0), RandomUtilTest::drawValues),
+                withSeed(SeedUtil.split(seed, 1), RandomUtilTest::drawValues));
+        assertNotEquals(seed, SeedUtil.getLevelSeed(42L, 151557417L, 4));
+    }
+
+    private static List<Integer> drawValues() {
+        return IntStream.range(0, 20).mapToObj(i -> getRandomInt(0, 1000)).toList();
+    }
+}